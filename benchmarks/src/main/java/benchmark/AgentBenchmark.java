@@ -0,0 +1,77 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tic_tac_toe.Agent;
+import tic_tac_toe.Board;
+import tic_tac_toe.GameMaster;
+import util.Evaluation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class implementing the <b>benchmarks of the decision-making of the agents</b>, measuring a single
+ * call to <code>evalBestMove</code> for every level of intelligence on every position of the corpus
+ *
+ * <p>The agents restore the board to its original state after searching, so the same board is
+ * reused across invocations. </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentBenchmark {
+    /**
+     * Level of intelligence of the agent
+     */
+    @Param({"0", "1", "2", "3", "4", "5"})
+    public int level;
+
+    /**
+     * Name of the position in the corpus on which the agent decides its move
+     */
+    @Param({"EMPTY", "ONE_MOVE", "MIDGAME", "NEAR_TERMINAL"})
+    public String position;
+
+    /* Tic-tac-toe-playing agent */
+    private Agent a;
+    /* Board of the position */
+    private Board b;
+
+    /**
+     * Empty constructor
+     */
+    public AgentBenchmark() {
+
+    }
+
+    /**
+     * Creates the agent and the board of the position before the benchmarks are run
+     */
+    @Setup
+    public void setUp() {
+        a = GameMaster.createAgent(level);
+        b = Positions.get(position);
+    }
+
+    /**
+     * Measures the decision of the best move by the agent
+     *
+     * @return best move, alongside the agent's numerical evaluation of this move
+     */
+    @Benchmark
+    public Evaluation evalBestMove() {
+        return a.evalBestMove(b);
+    }
+}
@@ -0,0 +1,127 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * Class implementing the <b>allocation budget check</b>, which runs <code>AgentBenchmark</code> under
+ * the JMH GC profiler and fails if a call to <code>evalBestMove</code> allocates more bytes than the
+ * budget configured for its agent level and position
+ *
+ * <p>The budgets are read from <code>allocation-budgets.properties</code> on the classpath (or from
+ * the file given as the first command-line argument), with one key of the form
+ * <code>level.POSITION</code> per benchmark. A benchmark without a budget is reported but never fails
+ * the check. </p>
+ */
+public class AllocationBudgetCheck {
+    /**
+     * Name of the secondary result holding the number of bytes allocated per operation
+     */
+    public static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    /**
+     * Empty constructor
+     */
+    public AllocationBudgetCheck() {
+
+    }
+
+    /**
+     * Runs the agent benchmarks with the GC profiler and compares the bytes allocated per operation
+     * against the budgets, exiting with status 1 if any budget is exceeded
+     *
+     * @param args array of command-line arguments (optionally, the path to the budget file)
+     * @throws IOException if the budget file cannot be read
+     * @throws RunnerException if the benchmarks cannot be run
+     */
+    public static void main(String[] args) throws IOException, RunnerException {
+        Properties budgets;
+        budgets = loadBudgets(args.length > 0 ? args[0] : null);
+
+        Options opt;
+        opt = new OptionsBuilder()
+                .include(AgentBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.milliseconds(500))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.milliseconds(500))
+                .forks(1)
+                .build();
+
+        Collection<RunResult> results;
+        results = new Runner(opt).run();
+
+        int numExceeded;        // number of benchmarks exceeding their budget
+        numExceeded = 0;
+
+        System.out.println();
+        System.out.printf("%-20s %16s %16s%n", "Benchmark", "Allocated (B/op)", "Budget (B/op)");
+
+        for (RunResult r : results) {
+            String key;             // budget key of the benchmark
+            Result alloc;           // bytes allocated per operation
+            String budget;          // budget of the benchmark (null if not configured)
+
+            key = r.getParams().getParam("level") + "." + r.getParams().getParam("position");
+            alloc = r.getSecondaryResults().get(ALLOC_RATE_NORM);
+            budget = budgets.getProperty(key);
+
+            if (alloc == null) {
+                System.out.printf("%-20s %16s %16s%n", key, "N/A", budget == null ? "-" : budget);
+                continue;
+            }
+
+            boolean isExceeded;
+            isExceeded = budget != null && alloc.getScore() > Double.parseDouble(budget);
+
+            if (isExceeded) {
+                numExceeded++;
+            }
+
+            System.out.printf("%-20s %16.0f %16s%s%n", key, alloc.getScore(), budget == null ? "-" : budget,
+                    isExceeded ? "  EXCEEDED" : "");
+        }
+
+        if (numExceeded > 0) {
+            System.out.println(numExceeded + " allocation budget(s) exceeded");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Loads the allocation budgets from the given file or, if no file is given, from
+     * <code>allocation-budgets.properties</code> on the classpath
+     *
+     * @param path path to the budget file (<code>null</code> to use the classpath resource)
+     * @return allocation budgets keyed by <code>level.POSITION</code>
+     * @throws IOException if the budget file cannot be read
+     */
+    public static Properties loadBudgets(String path) throws IOException {
+        Properties budgets;
+        budgets = new Properties();
+
+        try (InputStream in = path != null ? new FileInputStream(path)
+                : AllocationBudgetCheck.class.getResourceAsStream("/allocation-budgets.properties")) {
+            if (in == null) {
+                throw new IOException("allocation-budgets.properties not found on the classpath");
+            }
+
+            budgets.load(in);
+        }
+
+        return budgets;
+    }
+}
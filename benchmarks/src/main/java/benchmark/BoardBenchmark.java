@@ -0,0 +1,84 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tic_tac_toe.Board;
+import util.Coordinates;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class implementing the <b>benchmarks of the board operations</b> performed at every node of the
+ * game tree searched by the agents
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    /**
+     * Name of the position in the corpus on which the operations are performed
+     */
+    @Param({"EMPTY", "ONE_MOVE", "MIDGAME", "NEAR_TERMINAL"})
+    public String position;
+
+    /* Board of the position */
+    private Board b;
+
+    /**
+     * Empty constructor
+     */
+    public BoardBenchmark() {
+
+    }
+
+    /**
+     * Creates the board of the position before the benchmarks are run
+     */
+    @Setup
+    public void setUp() {
+        b = Positions.get(position);
+    }
+
+    /**
+     * Measures the detection of a winning configuration by the agent
+     *
+     * @return <code>true</code> if the agent has a winning configuration; <code>false</code>, otherwise
+     */
+    @Benchmark
+    public boolean isWin() {
+        return b.isWin(Board.COMPUTER_TOKEN);
+    }
+
+    /**
+     * Measures the generation of the list of possible moves
+     *
+     * @return list of possible moves
+     */
+    @Benchmark
+    public ArrayList<Coordinates> getPossibleMoves() {
+        return b.getPossibleMoves();
+    }
+
+    /**
+     * Measures the detection of a terminal state
+     *
+     * @return <code>true</code> if the game is over; <code>false</code>, otherwise
+     */
+    @Benchmark
+    public boolean isGameOver() {
+        return b.isGameOver();
+    }
+}
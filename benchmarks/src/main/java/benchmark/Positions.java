@@ -0,0 +1,58 @@
+package benchmark;
+
+import tic_tac_toe.Board;
+
+/**
+ * Class holding the <b>fixed corpus of positions</b> on which the benchmarks are run
+ *
+ * <p>Every position is given in the <code>%%%|%%%|%%%</code> format accepted by <code>Board</code>
+ * and is a legal, non-terminal position in which it is the turn of the tic-tac-toe-playing agent
+ * (computer), so that every agent can be asked for its best move. </p>
+ */
+public class Positions {
+    /**
+     * Initial state (the agent moves first)
+     */
+    public static final String EMPTY = "***|***|***";
+    /**
+     * Position after the human player's first move on the center tile
+     */
+    public static final String ONE_MOVE = "***|*H*|***";
+    /**
+     * Position in the middle of the game (two human tokens and one agent token)
+     */
+    public static final String MIDGAME = "H*C|*H*|***";
+    /**
+     * Position two moves away from the end of the game, in which the agent can win immediately
+     */
+    public static final String NEAR_TERMINAL = "HCH|HC*|C*H";
+
+    /**
+     * Empty constructor
+     */
+    public Positions() {
+
+    }
+
+    /**
+     * Returns the board of the position with the given name (one of <code>EMPTY</code>,
+     * <code>ONE_MOVE</code>, <code>MIDGAME</code>, and <code>NEAR_TERMINAL</code>)
+     *
+     * @param name name of the position
+     * @return board of the position with the given name
+     */
+    public static Board get(String name) {
+        switch (name) {
+            case "EMPTY":
+                return new Board(EMPTY);
+            case "ONE_MOVE":
+                return new Board(ONE_MOVE);
+            case "MIDGAME":
+                return new Board(MIDGAME);
+            case "NEAR_TERMINAL":
+                return new Board(NEAR_TERMINAL);
+            default:
+                throw new IllegalArgumentException("Unknown position: " + name);
+        }
+    }
+}
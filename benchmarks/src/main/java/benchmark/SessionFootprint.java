@@ -0,0 +1,39 @@
+package benchmark;
+
+import server.SessionManager;
+
+/**
+ * Class implementing the <b>session footprint estimate</b>, which measures the memory footprint of a
+ * game session offline, in a process of its own, so that no serving manager pays for the measurement
+ *
+ * <p>It is run from the benchmarks jar:
+ * <code>java -cp benchmarks/target/benchmarks.jar benchmark.SessionFootprint [numSamples]</code>.</p>
+ */
+public class SessionFootprint {
+    /**
+     * Default number of sessions created for the measurement
+     */
+    public static final int DEFAULT_NUM_SAMPLES = 10000;
+
+    /**
+     * Empty constructor
+     */
+    public SessionFootprint() {
+
+    }
+
+    /**
+     * Estimates the memory footprint of a session (see <code>SessionManager.estimateSessionFootprint</code>)
+     * and prints it in bytes
+     *
+     * @param args array of command-line arguments (optionally, the number of sessions created for the
+     *             measurement)
+     */
+    public static void main(String[] args) {
+        int numSamples;             // number of sessions created for the measurement
+        numSamples = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_SAMPLES;
+
+        System.out.println("Estimated footprint of a session: "
+                + SessionManager.estimateSessionFootprint(numSamples) + " bytes");
+    }
+}
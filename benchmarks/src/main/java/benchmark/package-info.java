@@ -0,0 +1,6 @@
+/**
+ * Provides the <b>JMH benchmarks</b> of the board operations and the decision-making of the agents,
+ * used to catch performance regressions and to compare agents against each other
+ */
+
+package benchmark;
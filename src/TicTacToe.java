@@ -1,7 +1,10 @@
 import controller.ChooseLevelController;
 import gui.ChooseLevel;
+import metrics.MetricsEndpoint;
 import tic_tac_toe.GameMaster;
 
+import java.io.IOException;
+
 /**
  * Class for activating the <b>tic-tac-toe</b> game, which features six levels
  * of gameplay against an intelligent system
@@ -17,6 +20,9 @@ public class TicTacToe {
     /**
      * Activates the tic-tac-toe game
      *
+     * <p>If the <code>tictactoe.metricsPort</code> system property is set, the metrics of the game are
+     * also served on that local port under <code>/metrics</code>. </p>
+     *
      * @param args array of command-line arguments
      */
     public static void main(String[] args) {
@@ -24,6 +30,12 @@ public class TicTacToe {
         ChooseLevel scr;
         ChooseLevelController ctrl;
 
+        try {
+            MetricsEndpoint.startDefault();
+        } catch (IOException e) {
+            System.err.println("Metrics not served: " + e.getMessage());
+        }
+
         g = new GameMaster();
         scr = new ChooseLevel();
         ctrl = new ChooseLevelController(scr, g);
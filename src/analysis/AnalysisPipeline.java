@@ -0,0 +1,535 @@
+package analysis;
+
+import tic_tac_toe.Agent;
+import tic_tac_toe.Board;
+import tic_tac_toe.GameMaster;
+import tic_tac_toe.Symmetry;
+import util.Coordinates;
+import util.Evaluation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class implementing the <b>streaming analysis pipeline</b>, which evaluates a file of positions of
+ * arbitrary size and writes the move evaluations to another file, using a constant amount of memory
+ *
+ * <p>The input file lists one position per line in the <code>%%%|%%%|%%%</code> format accepted by
+ * <code>Board(String)</code>; blank lines are skipped. Every output line consists of the position,
+ * the chosen move, its numerical evaluation, the expected outcome (see
+ * <code>Evaluation.getOutcomeName</code>), and the number of moves to reach it (-1 if not known), in
+ * the same order as the input (for example, <code>HCH|HC*|C*H 2 1 100 win 1</code>). </p>
+ *
+ * <p>The pipeline consists of three stages: </p>
+ * <ul>
+ *     <li>A reader, which reads the input through a <code>FileChannel</code> into a reusable buffer
+ *     and cuts it into batches of raw positions (no <code>String</code> is created per line)</li>
+ *     <li>A fixed pool of workers, which parse the positions of a batch into boards, evaluate them
+ *     with their own agents, and encode the results as bytes</li>
+ *     <li>A writer, which collects the batches in their original order and writes them through a
+ *     <code>FileChannel</code></li>
+ * </ul>
+ *
+ * <p>The batches in flight are held in a bounded queue, in the order in which they were read. Once
+ * the queue is full, the reader blocks until the writer catches up, so the memory used is bounded by
+ * the capacity of the queue regardless of the size of the input. Every worker also remembers its
+ * evaluations by position key (canonical key for levels 2 and 3; see <code>BatchEvaluator</code>),
+ * which holds at most 3<sup>9</sup> entries. </p>
+ */
+public class AnalysisPipeline {
+    /* Number of bytes of a position in the input format */
+    private static final int POSITION_LENGTH = Board.DIMENSION * (Board.DIMENSION + 1) - 1;
+    /* Maximum number of bytes of an output line: position, move, score, outcome, distance, separators,
+    and newline
+     */
+    private static final int MAX_OUTPUT_LENGTH = POSITION_LENGTH + 48;
+    /* Size of the buffers through which the files are read and written (in bytes) */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /* Level of intelligence of the agent evaluating the positions */
+    private int level;
+    /* Number of worker threads */
+    private int numThreads;
+    /* Number of positions per batch */
+    private int batchSize;
+    /* Maximum number of batches in flight */
+    private int queueCapacity;
+    /* true if positions are deduplicated up to symmetry; false if only identical ones are */
+    private boolean isSymmetric;
+
+    /* Number of positions read by the most recent run */
+    private long numPositions;
+    /* Number of positions actually searched by the workers during the most recent run */
+    private final LongAdder numSearched;
+
+    /* Agent of each worker thread */
+    private final ThreadLocal<Agent> agents;
+    /* Evaluations remembered by each worker thread, keyed by position key */
+    private final ThreadLocal<HashMap<Integer, Evaluation>> memos;
+
+    /**
+     * Creates an analysis pipeline
+     *
+     * @param level level of intelligence of the agent evaluating the positions
+     * @param numThreads number of worker threads
+     * @param batchSize number of positions per batch
+     * @param queueCapacity maximum number of batches in flight
+     */
+    public AnalysisPipeline(int level, int numThreads, int batchSize, int queueCapacity) {
+        this.level = level;
+        this.numThreads = numThreads;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.isSymmetric = Symmetry.isInvariant(level);
+
+        this.numSearched = new LongAdder();
+        this.agents = ThreadLocal.withInitial(() -> GameMaster.createAgent(level));
+        this.memos = ThreadLocal.withInitial(HashMap::new);
+    }
+
+    /**
+     * Evaluates all the positions in the input file and writes the move evaluations to the output
+     * file (which is created or truncated)
+     *
+     * @param input path to the file of positions
+     * @param output path to the file of move evaluations
+     * @return number of positions evaluated
+     * @throws IOException if either file cannot be read or written
+     * @throws IllegalArgumentException if a line of the input does not represent a board
+     * @throws InterruptedException if the calling thread is interrupted while the pipeline runs
+     */
+    public long run(Path input, Path output) throws IOException, InterruptedException {
+        ExecutorService workers;                        // pool of worker threads
+        ExecutorService reader;                         // thread reading the input
+        ArrayBlockingQueue<Future<Batch>> inFlight;     // batches in flight, in their input order
+        Future<?> reading;                              // completion of the reader
+
+        workers = Executors.newFixedThreadPool(numThreads);
+        reader = Executors.newSingleThreadExecutor();
+        inFlight = new ArrayBlockingQueue<Future<Batch>>(queueCapacity);
+
+        numPositions = 0;
+        numSearched.reset();
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            reading = reader.submit(() -> {
+                read(in, workers, inFlight);
+                return null;
+            });
+
+            try {
+                write(out, inFlight);
+                reading.get();
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } finally {
+                reading.cancel(true);
+            }
+        } finally {
+            reader.shutdownNow();
+            workers.shutdownNow();
+        }
+
+        return numPositions;
+    }
+
+    /**
+     * Reads the input, submits its positions to the workers in batches, and queues the pending
+     * batches in their input order, ending with an empty batch
+     *
+     * @param in channel from which the input is read
+     * @param workers pool of worker threads
+     * @param inFlight queue of the batches in flight
+     * @throws IOException if the input cannot be read
+     * @throws InterruptedException if the reader is interrupted while the queue is full
+     */
+    private void read(FileChannel in, ExecutorService workers, ArrayBlockingQueue<Future<Batch>> inFlight)
+            throws IOException, InterruptedException {
+        ByteBuffer buffer;          // buffer into which the input is read
+        byte[] line;                // bytes of the current line (up to its first MAX_OUTPUT_LENGTH)
+        int lineLength;             // number of bytes of the current line
+        long lineNumber;            // number of the current line (starting from 1)
+        Batch batch;                // batch being filled
+
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        line = new byte[MAX_OUTPUT_LENGTH];
+        lineLength = 0;
+        lineNumber = 1;
+        batch = new Batch(batchSize);
+
+        try {
+            while (in.read(buffer) != -1 || lineLength > 0) {
+                buffer.flip();
+
+                /* A missing newline at the end of the input still ends the last line. */
+                boolean isEnd;
+                isEnd = !buffer.hasRemaining();
+
+                while (buffer.hasRemaining() || isEnd) {
+                    byte c;
+                    c = isEnd ? (byte) '\n' : buffer.get();
+                    isEnd = false;
+
+                    if (c != '\n') {
+                        if (lineLength < line.length) {
+                            line[lineLength] = c;
+                        }
+
+                        lineLength++;
+                        continue;
+                    }
+
+                    if (addPosition(batch, line, lineLength, lineNumber) && batch.size == batchSize) {
+                        submit(batch, workers, inFlight);
+                        batch = new Batch(batchSize);
+                    }
+
+                    lineLength = 0;
+                    lineNumber++;
+                }
+
+                buffer.clear();
+            }
+
+            if (batch.size > 0) {
+                submit(batch, workers, inFlight);
+            }
+        } catch (IllegalArgumentException e) {
+            inFlight.put(CompletableFuture.failedFuture(e));
+            return;
+        }
+
+        /* An empty batch marks the end of the input. */
+        inFlight.put(CompletableFuture.completedFuture(new Batch(0)));
+    }
+
+    /**
+     * Appends the position on the given line to the batch, unless the line is blank
+     *
+     * @param batch batch being filled
+     * @param line bytes of the line
+     * @param length number of bytes of the line
+     * @param lineNumber number of the line (for error messages)
+     * @return <code>true</code> if a position was appended; <code>false</code> if the line is blank
+     * @throws IllegalArgumentException if the line does not represent a board
+     */
+    private boolean addPosition(Batch batch, byte[] line, int length, long lineNumber) {
+        int start;
+        int end;
+
+        /* Trim leading and trailing whitespace (including the '\r' of a CRLF line ending). */
+        start = 0;
+        end = Math.min(length, line.length);
+
+        while (start < end && line[start] <= ' ') {
+            start++;
+        }
+
+        while (end > start && line[end - 1] <= ' ') {
+            end--;
+        }
+
+        if (start == end) {
+            return false;
+        }
+
+        if (end - start != POSITION_LENGTH || length > line.length) {
+            throw new IllegalArgumentException("Invalid board configuration on line " + lineNumber);
+        }
+
+        for (int k = 0; k < POSITION_LENGTH; k++) {
+            byte c;
+            boolean isValid;
+
+            c = line[start + k];
+
+            if ((k + 1) % (Board.DIMENSION + 1) == 0) {
+                isValid = c == '|';
+            } else {
+                isValid = c == Board.EMPTY_TOKEN || c == Board.HUMAN_TOKEN || c == Board.COMPUTER_TOKEN;
+            }
+
+            if (!isValid) {
+                throw new IllegalArgumentException("Invalid board configuration on line " + lineNumber);
+            }
+        }
+
+        System.arraycopy(line, start, batch.positions, batch.size * POSITION_LENGTH, POSITION_LENGTH);
+        batch.size++;
+        numPositions++;
+        return true;
+    }
+
+    /**
+     * Submits a full batch to the workers and queues its pending result, blocking while the queue
+     * is full
+     *
+     * @param batch batch of positions
+     * @param workers pool of worker threads
+     * @param inFlight queue of the batches in flight
+     * @throws InterruptedException if the reader is interrupted while the queue is full
+     */
+    private void submit(Batch batch, ExecutorService workers, ArrayBlockingQueue<Future<Batch>> inFlight)
+            throws InterruptedException {
+        inFlight.put(workers.submit(() -> evaluate(batch)));
+    }
+
+    /**
+     * Evaluates the positions of a batch on the calling worker thread and encodes the results into
+     * the output bytes of the batch
+     *
+     * @param batch batch of positions
+     * @return the same batch, with its output bytes filled in
+     */
+    private Batch evaluate(Batch batch) {
+        Agent agent;                                // agent of this worker
+        HashMap<Integer, Evaluation> memo;          // evaluations remembered by this worker
+        Board b;                                    // board being evaluated (reused)
+
+        agent = agents.get();
+        memo = memos.get();
+        b = new Board();
+        batch.output = ByteBuffer.allocate(batch.size * MAX_OUTPUT_LENGTH);
+
+        for (int i = 0; i < batch.size; i++) {
+            int offset;
+            offset = i * POSITION_LENGTH;
+
+            /* Parse the position tile-by-tile, skipping the '|' delimiters. */
+            for (int k = 0; k < Board.DIMENSION * Board.DIMENSION; k++) {
+                b.makeMove(k / Board.DIMENSION, k % Board.DIMENSION,
+                        (char) batch.positions[offset + k + k / Board.DIMENSION]);
+            }
+
+            int t;
+            int key;
+            Evaluation canonical;
+
+            t = isSymmetric ? Symmetry.getCanonicalSymmetry(b) : 0;
+            key = Symmetry.getKey(b, t);
+            canonical = memo.get(key);
+
+            if (canonical == null) {
+                canonical = agent.evalBestMove(t == 0 ? b : Symmetry.transform(b, t));
+                memo.put(key, canonical);
+                numSearched.increment();
+            }
+
+            Coordinates move;
+            move = Symmetry.untransform(canonical.getCoor(), t);
+
+            batch.output.put(batch.positions, offset, POSITION_LENGTH);
+            batch.output.put((byte) ' ');
+            putInt(batch.output, move.getRow());
+            batch.output.put((byte) ' ');
+            putInt(batch.output, move.getCol());
+            batch.output.put((byte) ' ');
+            putInt(batch.output, canonical.getEvalScore());
+            batch.output.put((byte) ' ');
+            putString(batch.output, canonical.getOutcomeName());
+            batch.output.put((byte) ' ');
+            putInt(batch.output, canonical.getDistance());
+            batch.output.put((byte) '\n');
+        }
+
+        batch.output.flip();
+        return batch;
+    }
+
+    /**
+     * Writes the batches in their input order as they are completed, until the empty batch marking
+     * the end of the input
+     *
+     * @param out channel to which the output is written
+     * @param inFlight queue of the batches in flight
+     * @throws IOException if the output cannot be written
+     * @throws ExecutionException if the reader or a worker failed
+     * @throws InterruptedException if the writer is interrupted while waiting for a batch
+     */
+    private void write(FileChannel out, ArrayBlockingQueue<Future<Batch>> inFlight)
+            throws IOException, ExecutionException, InterruptedException {
+        ByteBuffer buffer;          // buffer through which the output is written
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        while (true) {
+            Batch batch;
+            batch = inFlight.take().get();
+
+            if (batch.size == 0) {
+                break;
+            }
+
+            while (batch.output.hasRemaining()) {
+                int length;
+                length = Math.min(buffer.remaining(), batch.output.remaining());
+
+                buffer.put(batch.output.slice().limit(length));
+                batch.output.position(batch.output.position() + length);
+
+                if (!buffer.hasRemaining()) {
+                    flush(out, buffer);
+                }
+            }
+        }
+
+        flush(out, buffer);
+    }
+
+    /**
+     * Writes the contents of the buffer to the channel and clears the buffer
+     *
+     * @param out channel to which the output is written
+     * @param buffer buffer to be written
+     * @throws IOException if the output cannot be written
+     */
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Appends an ASCII string to the buffer
+     *
+     * @param buffer buffer to which the characters are appended
+     * @param s ASCII string to be appended
+     */
+    private static void putString(ByteBuffer buffer, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            buffer.put((byte) s.charAt(i));
+        }
+    }
+
+    /**
+     * Appends the decimal representation of an integer to the buffer
+     *
+     * @param buffer buffer to which the digits are appended
+     * @param value integer to be appended
+     */
+    private static void putInt(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+
+        int start;
+        long v;
+
+        start = buffer.position();
+        v = Math.abs((long) value);
+
+        /* Append the digits from least to most significant, then reverse them in place. */
+        do {
+            buffer.put((byte) ('0' + v % 10));
+            v /= 10;
+        } while (v > 0);
+
+        for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+            byte temp;
+            temp = buffer.get(i);
+            buffer.put(i, buffer.get(j));
+            buffer.put(j, temp);
+        }
+    }
+
+    /**
+     * Returns the cause of a failed stage as an exception that can be thrown by <code>run</code>
+     *
+     * @param e failure of a stage
+     * @return cause of the failure
+     */
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+
+        return new IllegalStateException("An analysis stage failed", e.getCause());
+    }
+
+    /**
+     * Returns the number of positions read by the most recent run
+     *
+     * @return number of positions read by the most recent run
+     */
+    public long getNumPositions() {
+        return numPositions;
+    }
+
+    /**
+     * Returns the number of positions actually searched during the most recent run, the others
+     * having been answered from the workers' remembered evaluations
+     *
+     * @return number of positions actually searched during the most recent run
+     */
+    public long getNumSearched() {
+        return numSearched.sum();
+    }
+
+    /**
+     * Class implementing a <b>batch of positions</b> passed from the reader to the writer through a
+     * worker
+     */
+    private static class Batch {
+        /* Raw positions of this batch, each of POSITION_LENGTH bytes */
+        private final byte[] positions;
+        /* Number of positions in this batch */
+        private int size;
+        /* Encoded output lines of this batch (null until evaluated) */
+        private ByteBuffer output;
+
+        private Batch(int capacity) {
+            this.positions = new byte[capacity * POSITION_LENGTH];
+        }
+    }
+
+    /**
+     * Evaluates a file of positions and writes the move evaluations to another file
+     *
+     * <p>The arguments are, in order: the file of positions, the file of move evaluations, the level
+     * of intelligence of the agent (5 by default), the number of worker threads (by default, the
+     * number of available processors), the number of positions per batch (4096 by default), and the
+     * maximum number of batches in flight (by default, four per worker thread).</p>
+     *
+     * @param args array of command-line arguments
+     * @throws IOException if either file cannot be read or written
+     * @throws InterruptedException if the main thread is interrupted while the pipeline runs
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int level;
+        int numThreads;
+        int batchSize;
+        int queueCapacity;
+
+        level = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        numThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        batchSize = args.length > 4 ? Integer.parseInt(args[4]) : 4096;
+        queueCapacity = args.length > 5 ? Integer.parseInt(args[5]) : 4 * numThreads;
+
+        AnalysisPipeline pipeline;
+        long startTime;
+
+        pipeline = new AnalysisPipeline(level, numThreads, batchSize, queueCapacity);
+        startTime = System.nanoTime();
+        pipeline.run(Paths.get(args[0]), Paths.get(args[1]));
+
+        System.err.printf("Evaluated %d positions (%d searched) in %.1f ms%n", pipeline.getNumPositions(),
+                pipeline.getNumSearched(), (System.nanoTime() - startTime) / 1e6);
+    }
+}
@@ -0,0 +1,337 @@
+package analysis;
+
+import tic_tac_toe.Agent;
+import tic_tac_toe.Board;
+import tic_tac_toe.GameMaster;
+import tic_tac_toe.Symmetry;
+import util.Evaluation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class implementing the <b>batch evaluator</b>, which evaluates many positions with an agent of a
+ * given level of intelligence and returns the move evaluations in the order of the positions
+ *
+ * <p>The positions are first deduplicated. For levels 2 and 3, whose numerical evaluation is the exact
+ * minimax value, positions are deduplicated by their canonical key (see <code>Symmetry</code>): each
+ * distinct position, up to rotation and reflection, is searched only once, on its canonical image, and
+ * the chosen move is mapped back onto every position sharing that canonical key. Since the minimax
+ * value is invariant under symmetry, the numerical evaluation is exactly that of a direct search; the
+ * move is the symmetric image of the canonical choice, which, among equally good moves, may differ from
+ * the one a direct search would break ties towards. For the other levels, whose decisions depend on the
+ * order in which moves are considered (or are random), only identical positions are deduplicated. </p>
+ *
+ * <p>The distinct positions are then distributed across a fixed pool of worker threads. Every worker
+ * has its own agent, so no search state is shared. As everywhere else, the agent plays as
+ * <code>Board.COMPUTER_TOKEN</code> and is assumed to be the player to move. </p>
+ */
+public class BatchEvaluator {
+    /* Level of intelligence of the agent evaluating the positions */
+    private int level;
+    /* Number of worker threads */
+    private int numThreads;
+    /* true if positions are deduplicated up to symmetry; false if only identical ones are */
+    private boolean isSymmetric;
+
+    /**
+     * Creates a batch evaluator
+     *
+     * @param level level of intelligence of the agent evaluating the positions
+     * @param numThreads number of worker threads
+     */
+    public BatchEvaluator(int level, int numThreads) {
+        this.level = level;
+        this.numThreads = numThreads;
+        this.isSymmetric = Symmetry.isInvariant(level);
+    }
+
+    /**
+     * Evaluates the given positions, given in the <code>%%%|%%%|%%%</code> format accepted by
+     * <code>Board(String)</code>, and returns the move evaluations in the same order
+     *
+     * @param configs string representations of the positions
+     * @return move evaluations of the positions, in the same order
+     * @throws IllegalArgumentException if a string does not represent a board
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public ArrayList<Evaluation> evaluate(List<String> configs) throws InterruptedException {
+        ArrayList<Board> boards;
+        boards = new ArrayList<Board>(configs.size());
+
+        for (String config : configs) {
+            boards.add(parseBoard(config));
+        }
+
+        return evaluateBoards(boards);
+    }
+
+    /**
+     * Ranks the given number of best moves of the given positions, given in the <code>%%%|%%%|%%%</code>
+     * format accepted by <code>Board(String)</code>, and returns them in the order of the positions
+     * (see <code>Agent.evalBestMoves</code>)
+     *
+     * @param configs string representations of the positions
+     * @param numMoves maximum number of moves to be ranked per position
+     * @return best moves of each position, ranked from best to worst, in the order of the positions
+     * @throws IllegalArgumentException if a string does not represent a board, or if the number of
+     *                                  moves is less than 1
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public ArrayList<ArrayList<Evaluation>> rank(List<String> configs, int numMoves) throws InterruptedException {
+        ArrayList<Board> boards;
+        boards = new ArrayList<Board>(configs.size());
+
+        for (String config : configs) {
+            boards.add(parseBoard(config));
+        }
+
+        return rankBoards(boards, numMoves);
+    }
+
+    /**
+     * Evaluates the given boards and returns the move evaluations in the same order
+     *
+     * @param boards boards to be evaluated (left unchanged)
+     * @return move evaluations of the boards, in the same order
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public ArrayList<Evaluation> evaluateBoards(List<Board> boards) throws InterruptedException {
+        ArrayList<ArrayList<Evaluation>> ranked;
+        ranked = rankBoards(boards, 1);
+
+        ArrayList<Evaluation> evals;
+        evals = new ArrayList<Evaluation>(boards.size());
+
+        for (ArrayList<Evaluation> bestMoves : ranked) {
+            evals.add(bestMoves.get(0));
+        }
+
+        return evals;
+    }
+
+    /**
+     * Ranks the given number of best moves of the given boards and returns them in the order of the
+     * boards (see <code>Agent.evalBestMoves</code>)
+     *
+     * <p>For a single move, the move evaluations are those of <code>evaluateBoards</code>. </p>
+     *
+     * @param boards boards to be evaluated (left unchanged)
+     * @param numMoves maximum number of moves to be ranked per board
+     * @return best moves of each board, ranked from best to worst, in the order of the boards
+     * @throws IllegalArgumentException if the number of moves is less than 1
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public ArrayList<ArrayList<Evaluation>> rankBoards(List<Board> boards, int numMoves)
+            throws InterruptedException {
+        if (numMoves < 1) {
+            throw new IllegalArgumentException("Invalid number of moves: " + numMoves);
+        }
+
+        HashMap<Integer, Integer> uniqueIndices;    // index of each canonical key among the distinct positions
+        ArrayList<Board> uniqueBoards;              // canonical image of each distinct position
+        int[] inputIndices;                         // index of each input among the distinct positions
+        int[] inputSymmetries;                      // symmetry mapping each input to its canonical image
+
+        uniqueIndices = new HashMap<Integer, Integer>();
+        uniqueBoards = new ArrayList<Board>();
+        inputIndices = new int[boards.size()];
+        inputSymmetries = new int[boards.size()];
+
+        /* Deduplicate the inputs by canonical key (or by key, for which symmetry 0 is the identity). */
+        for (int i = 0; i < boards.size(); i++) {
+            Board b;
+            int t;
+            int key;
+            Integer index;
+
+            b = boards.get(i);
+            t = isSymmetric ? Symmetry.getCanonicalSymmetry(b) : 0;
+            key = Symmetry.getKey(b, t);
+            index = uniqueIndices.get(key);
+
+            if (index == null) {
+                index = uniqueBoards.size();
+                uniqueIndices.put(key, index);
+                uniqueBoards.add(Symmetry.transform(b, t));
+            }
+
+            inputIndices[i] = index;
+            inputSymmetries[i] = t;
+        }
+
+        Evaluation[][] uniqueEvals;
+        uniqueEvals = evaluateInParallel(uniqueBoards, numMoves);
+
+        /* Map the canonical moves back onto the inputs. */
+        ArrayList<ArrayList<Evaluation>> ranked;
+        ranked = new ArrayList<ArrayList<Evaluation>>(boards.size());
+
+        for (int i = 0; i < boards.size(); i++) {
+            Evaluation[] canonical;
+            canonical = uniqueEvals[inputIndices[i]];
+
+            ArrayList<Evaluation> bestMoves;
+            bestMoves = new ArrayList<Evaluation>(canonical.length);
+
+            for (Evaluation eval : canonical) {
+                bestMoves.add(Symmetry.untransform(eval, inputSymmetries[i]));
+            }
+
+            ranked.add(bestMoves);
+        }
+
+        return ranked;
+    }
+
+    /**
+     * Ranks the best moves of the given boards on the worker threads, each of which claims the next
+     * unevaluated board until all of them have been evaluated
+     *
+     * @param boards boards to be evaluated
+     * @param numMoves maximum number of moves to be ranked per board
+     * @return best moves of each board, ranked from best to worst, in the order of the boards
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    private Evaluation[][] evaluateInParallel(ArrayList<Board> boards, int numMoves) throws InterruptedException {
+        Evaluation[][] evals;               // best moves of the boards
+        AtomicInteger next;                 // index of the next board to be claimed by a worker
+        ExecutorService workers;            // pool of worker threads
+        ArrayList<Future<?>> done;          // completion of the individual workers
+
+        evals = new Evaluation[boards.size()][];
+        next = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(numThreads);
+        done = new ArrayList<Future<?>>(numThreads);
+
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                done.add(workers.submit(() -> {
+                    Agent agent;            // agent owned by this worker
+                    agent = GameMaster.createAgent(level);
+
+                    int index;
+                    while ((index = next.getAndIncrement()) < evals.length) {
+                        evals[index] = agent.evalBestMoves(boards.get(index), numMoves).toArray(new Evaluation[0]);
+                    }
+                }));
+            }
+
+            /* Waiting for the workers also publishes their writes to the array. */
+            for (Future<?> worker : done) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A batch worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        return evals;
+    }
+
+    /**
+     * Returns the board represented by the given string, after checking that the string is in the
+     * <code>%%%|%%%|%%%</code> format accepted by <code>Board(String)</code>
+     *
+     * @param config string representation of the board
+     * @return board represented by the given string
+     * @throws IllegalArgumentException if the string does not represent a board
+     */
+    public static Board parseBoard(String config) {
+        boolean isValid;
+        isValid = config.length() == Board.DIMENSION * (Board.DIMENSION + 1) - 1;
+
+        for (int k = 0; isValid && k < config.length(); k++) {
+            char c;
+            c = config.charAt(k);
+
+            if ((k + 1) % (Board.DIMENSION + 1) == 0) {
+                isValid = c == '|';
+            } else {
+                isValid = c == Board.EMPTY_TOKEN || c == Board.HUMAN_TOKEN || c == Board.COMPUTER_TOKEN;
+            }
+        }
+
+        if (!isValid) {
+            throw new IllegalArgumentException("Invalid board configuration: " + config);
+        }
+
+        return new Board(config);
+    }
+
+    /**
+     * Evaluates the positions listed in a file (or on the standard input), one per line, and prints
+     * each position followed by the chosen move, its numerical evaluation, the expected outcome, and the
+     * number of moves to reach it (-1 if not known)
+     *
+     * <p>The arguments are, in order: the level of intelligence of the agent, the file of positions
+     * (<code>-</code> for the standard input), the number of worker threads (by default, the number of
+     * available processors), and the number of best moves to be ranked per position (by default, 1).
+     * If more than one move is ranked, every ranked move of a position is printed on its own line, from
+     * best to worst. Blank lines are skipped.</p>
+     *
+     * @param args array of command-line arguments
+     * @throws IOException if the positions cannot be read
+     * @throws InterruptedException if the main thread is interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int level;
+        String source;
+        int numThreads;
+        int numMoves;
+
+        level = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        source = args.length > 1 ? args[1] : "-";
+        numThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        numMoves = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        ArrayList<String> configs;
+        configs = new ArrayList<String>();
+
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    configs.add(line.trim());
+                }
+            }
+        }
+
+        long startTime;
+        startTime = System.nanoTime();
+
+        ArrayList<ArrayList<Evaluation>> ranked;
+        ranked = new BatchEvaluator(level, numThreads).rank(configs, numMoves);
+
+        StringBuilder out;
+        out = new StringBuilder();
+
+        for (int i = 0; i < configs.size(); i++) {
+            for (Evaluation eval : ranked.get(i)) {
+                out.append(configs.get(i)).append(' ').append(eval.getCoor())
+                        .append(' ').append(eval.getEvalScore())
+                        .append(' ').append(eval.getOutcomeName())
+                        .append(' ').append(eval.getDistance()).append('\n');
+            }
+        }
+
+        System.out.print(out);
+        System.err.printf("Evaluated %d positions in %.1f ms%n", configs.size(),
+                (System.nanoTime() - startTime) / 1e6);
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Provides classes for the <b>bulk analysis</b> of tic-tac-toe positions, such as the evaluation of
+ * large lists of positions outside of a game
+ */
+
+package analysis;
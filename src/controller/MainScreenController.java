@@ -2,9 +2,12 @@ package controller;
 
 import gui.ChooseLevel;
 import gui.MainScreen;
+import journal.GameJournal;
+import metrics.LatencyRecorder;
 import tic_tac_toe.Agent;
 import tic_tac_toe.Board;
 import tic_tac_toe.GameMaster;
+import util.Coordinates;
 import util.Evaluation;
 
 import javax.swing.*;
@@ -34,6 +37,9 @@ public class MainScreenController implements ActionListener, WindowListener {
     /* End time of the human player's decision-making */
     private long humanEndTime;
 
+    /* true if the search statistics are appended to the agent's evaluation; false, otherwise */
+    private boolean isShowingStats;
+
     /**
      * Creates a controller object with the GUI for the main screen and the game master
      * as parameters
@@ -45,10 +51,19 @@ public class MainScreenController implements ActionListener, WindowListener {
         this.scr = scr;
         this.game = game;
 
+        /* The search statistics are shown only if requested via the "tictactoe.showStats" property. */
+        isShowingStats = Boolean.getBoolean("tictactoe.showStats");
+
         scr.setVisible(true);
         scr.setActionListener(this);
         scr.setWindowListener(this);
 
+        /* Let the agent search its answers while the human player is deciding. */
+        game.setIsPondering(true);
+
+        /* The moves are journaled only if a journal directory is given via the "tictactoe.journal" property. */
+        game.setJournal(GameJournal.getDefault());
+
         /* Per the machine project specifications, the first player to move always uses the
         token 'X' and the other player always uses the token 'O'.
          */
@@ -61,6 +76,9 @@ public class MainScreenController implements ActionListener, WindowListener {
         } else {
             computerGUIToken = 'O';
             humanGUIToken = 'X';
+
+            /* The human player makes the first move, so the agent ponders its answers. */
+            game.ponder();
         }
 
         /* Set the agent description and the headers for the move evaluation on the GUI. */
@@ -185,7 +203,11 @@ public class MainScreenController implements ActionListener, WindowListener {
         String actionCommand;       // command associated with the button pressed
         actionCommand = e.getActionCommand();
 
-        if (actionCommand.equals("Play Again")) {
+        if (actionCommand.equals("Take Back")) {
+            /* Take back the human player's most recent move, together with the agent's answer. */
+            takeBack();
+
+        } else if (actionCommand.equals("Play Again")) {
             /* Play a new game, reverting the board and evaluation back to their initial
             states but retaining the match statistics.
              */
@@ -259,7 +281,7 @@ public class MainScreenController implements ActionListener, WindowListener {
         evalTime = (humanEndTime - humanStartTime) / 1e6;
 
         /* Handle the back-end processes. */
-        game.makeMove(row, col, Board.HUMAN_TOKEN);
+        game.makeMove(row, col, Board.HUMAN_TOKEN, humanEndTime - humanStartTime);
 
         /* Handle the front-end updates. */
         scr.makeMove(row, col, humanGUIToken);
@@ -285,7 +307,8 @@ public class MainScreenController implements ActionListener, WindowListener {
         evalTime = (stopTime - startTime) / 1e6;
 
         /* Handle the back-end processes. */
-        game.makeMove(bestMove.getCoor().getRow(), bestMove.getCoor().getCol(), Board.COMPUTER_TOKEN);
+        game.makeMove(bestMove.getCoor().getRow(), bestMove.getCoor().getCol(), Board.COMPUTER_TOKEN,
+                stopTime - startTime);
 
         /* Handle the front-end updates. */
         scr.makeMove(bestMove.getCoor().getRow(), bestMove.getCoor().getCol(), computerGUIToken);
@@ -313,11 +336,56 @@ public class MainScreenController implements ActionListener, WindowListener {
             /* Update the match statistics. */
             updateMatchStats();
         } else {
+            /* Search the agent's answers to the human player's possible replies in the background. */
+            game.ponder();
+
             /* Start the timer recording the decision time of the human player. */
             humanStartTime = System.nanoTime();
         }
     }
 
+    /**
+     * Takes back the moves made since the human player's most recent move (including it), so that it
+     * is again the human player's turn in the same position as before that move
+     *
+     * <p>Nothing is taken back once the game has reached its terminal state, or if the human player
+     * has not yet moved. The tokens of an initial configuration are not moves, so they are never taken
+     * back; if the history runs out before a move of the human player, the moves taken back so far
+     * stay taken back. </p>
+     */
+    public void takeBack() {
+        /* The human player has moved only if there are more tokens than the agent's first move. */
+        if (game.isGameOver() || game.getSnapshot().getNumTokens() < (game.getIsAgentFirst() ? 2 : 1)) {
+            return;
+        }
+
+        char token;         // token of the player whose move was taken back
+        token = Board.EMPTY_TOKEN;
+
+        /* Take back the agent's answer (if any) and then the human player's move. */
+        do {
+            Coordinates move;       // move taken back
+            move = game.getLastMove();
+
+            /* The history holds no more moves (the remaining tokens are those of the initial configuration). */
+            if (move == null) {
+                break;
+            }
+
+            token = game.getSnapshot().getToken(move.getRow(), move.getCol());
+
+            /* Handle the back- and front-end updates. */
+            game.undo();
+            scr.takeBackMove(move.getRow(), move.getCol());
+        } while (token != Board.HUMAN_TOKEN);
+
+        /* Search the agent's answers to the human player's possible replies in the background. */
+        game.ponder();
+
+        /* Restart the timer recording the decision time of the human player. */
+        humanStartTime = System.nanoTime();
+    }
+
     /**
      * Displays the agent's numerical evaluation of the move it selected as its next move
      * (for levels 2 to 3)
@@ -335,7 +403,7 @@ public class MainScreenController implements ActionListener, WindowListener {
         human = "Human: " + (-bestMove.getEvalScore()) + "\n";
 
         /* Update the GUI display. */
-        scr.updateAgentEvaluation(ai + human);
+        scr.updateAgentEvaluation(ai + human + getStatsDisplay());
     }
 
     /**
@@ -343,6 +411,13 @@ public class MainScreenController implements ActionListener, WindowListener {
      * alongside the number of moves towards the terminal state, assuming perfect play
      * (for levels 4 to 5)
      *
+     * <p>The terminal state and the number of moves to reach it are those that the agent expects
+     * (see <code>Evaluation.getOutcome</code> and <code>Evaluation.getDistance</code>). Since levels
+     * 4 to 5 use a depth-sensitive minimax algorithm, the numerical evaluation displayed is that of
+     * the terminal state, that is, the conventional 100 (in favor of the agent), -100 (in favor of
+     * the human player), and 0 (draw). If the terminal state is not known, the numerical evaluation
+     * is displayed as is. </p>
+     *
      * @param bestMove move that the agent selected as its next move
      */
     public void displayNumEvalWithMoves(Evaluation bestMove) {
@@ -350,59 +425,36 @@ public class MainScreenController implements ActionListener, WindowListener {
         String human;       // evaluation for the human player
         String moves;       // terminal state and the number of moves to reach it (assuming perfect play)
 
-        int aiEval;         // normalized numerical evaluation of the agent
-        int numMoves;       // number of moves to reach the terminal state (assuming perfect play)
+        int aiEval;         // numerical evaluation of the terminal state for the agent
+        String outcome;     // terminal state (from the point of view of the agent)
 
-        aiEval = bestMove.getEvalScore();
-
-        /* Since levels 4 to 5 use a depth-sensitive minimax algorithm, the numerical evaluation
-        displayed has to be adjusted to conform to the conventional 100 (in favor of the agent),
-        -100 (in favor of the human player), and 0 (draw).
-
-        The scheme used in the adjustment is a consequence of the depth-sensitive strategy
-        explained in the documentation of AgentLevel4 and AgentLevel5. Technical details
-        are supplied in the problem formulation report accompanying this source code.
-         */
-        if (aiEval <= Agent.LOSS_UTIL) {
-            /* Theoretically, the agent is incapable of losing since the implementation of the
-            minimax algorithm in this system avoids the horizon effect by not enforcing
-            any depth cutoff.
-             */
-            numMoves = Math.abs(Agent.LOSS_UTIL - aiEval);
-            aiEval = Agent.LOSS_UTIL;
-
-            /* For a grammatically correct GUI display */
-            if (numMoves == 1) {
-                moves = "(Loss in \u2264" + numMoves + " move)";
-            } else {
-                moves = "(Loss in \u2264" + numMoves + " moves)";
-            }
-
-        } else if (Agent.WIN_UTIL - Board.DIMENSION * Board.DIMENSION <= aiEval
-                && aiEval <= Agent.WIN_UTIL) {
-            /* The condition above takes advantage of the fact a terminal state can be reached
-            in at most 4 moves. In the interest of a more robust implementation, the margin
-            in this condition is widened to 9 (the maximum depth of the game tree).
-             */
-            numMoves = Math.abs(Agent.WIN_UTIL - aiEval);
-            aiEval = Agent.WIN_UTIL;
+        switch (bestMove.getOutcome()) {
+            case Evaluation.WIN:
+                aiEval = Agent.WIN_UTIL;
+                outcome = "Win";
+                break;
+            case Evaluation.LOSS:
+                /* Theoretically, the agent is incapable of losing since the implementation of the
+                minimax algorithm in this system avoids the horizon effect by not enforcing
+                any depth cutoff.
+                 */
+                aiEval = Agent.LOSS_UTIL;
+                outcome = "Loss";
+                break;
+            case Evaluation.DRAW:
+                aiEval = Agent.DRAW_UTIL;
+                outcome = "Draw";
+                break;
+            default:
+                displayNumEval(bestMove);
+                return;
+        }
 
-            /* For a grammatically correct GUI display */
-            if (numMoves == 1) {
-                moves = "(Win in \u2264" + numMoves + " move)";
-            } else {
-                moves = "(Win in \u2264" + numMoves + " moves)";
-            }
+        /* For a grammatically correct GUI display */
+        if (bestMove.getDistance() == 1) {
+            moves = "(" + outcome + " in " + bestMove.getDistance() + " move)";
         } else {
-            numMoves = Math.abs(Agent.DRAW_UTIL - aiEval);
-            aiEval = Agent.DRAW_UTIL;
-
-            /* For a grammatically correct GUI display */
-            if (numMoves == 1) {
-                moves = "(Draw in \u2264" + numMoves + " move)";
-            } else {
-                moves = "(Draw in \u2264" + numMoves + " moves)";
-            }
+            moves = "(" + outcome + " in " + bestMove.getDistance() + " moves)";
         }
 
         /* The sum of the numerical evaluations for both players should always be equal to 0
@@ -412,7 +464,23 @@ public class MainScreenController implements ActionListener, WindowListener {
         human = "Human: " + (-aiEval) + "\n";
 
         /* Update the GUI display. */
-        scr.updateAgentEvaluation(ai + human);
+        scr.updateAgentEvaluation(ai + human + getStatsDisplay());
+    }
+
+    /**
+     * Returns the search statistics of the agent's most recent decision (together with the metrics of
+     * the evaluation cache, if any, and the percentiles of the agent's decision times at its level) for
+     * display below its evaluation, or an empty string if the statistics are not shown
+     *
+     * @return search statistics of the agent's most recent decision, or an empty string
+     */
+    public String getStatsDisplay() {
+        if (!isShowingStats) {
+            return "";
+        }
+
+        return "\n" + game.getLatestStats() + (game.getCache() == null ? "" : "\n" + game.getCache())
+                + "\nDecision times: " + LatencyRecorder.getDefault().getHistogram(game.getIntelligence());
     }
 
     /**
@@ -452,6 +520,9 @@ public class MainScreenController implements ActionListener, WindowListener {
 
             computerGUIToken = 'O';
             humanGUIToken = 'X';
+
+            /* The agent ponders its answers to the human player's first move. */
+            game.ponder();
         } else {
             /* The tic-tac-toe-playing agent receives the first-move advantage in this new game. */
             game.setIsAgentFirst(true);
@@ -1,5 +1,7 @@
 package gui;
 
+import metrics.GuiMoveEvent;
+
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
@@ -39,6 +41,9 @@ public class MainScreen extends JFrame {
     /* Button for changing the agent's intelligence level */
     private JButton btnNextLevel;
 
+    /* Button for taking back the player's most recent move */
+    private JButton btnTakeBack;
+
     /* Lists of labels holding the board icons */
     private ArrayList<JLabel> ex;
     private ArrayList<JLabel> oh;
@@ -72,7 +77,7 @@ public class MainScreen extends JFrame {
      */
     private void init () {
         JPanel pCenter;         // panel holding the board
-        JPanel pRight;          // panel holding the game details and the PLAY AGAIN and NEW LEVEL buttons
+        JPanel pRight;          // panel holding the game details and the TAKE BACK, PLAY AGAIN, and NEW LEVEL buttons
         JPanel pTextAreas;      // panel holding the text fields for the game details
         JPanel pInfoLbl;        // panel holding the label for the agent information
         JPanel pEvaluationLbl;  // panel holding the label for the agent evaluation
@@ -193,9 +198,13 @@ public class MainScreen extends JFrame {
 
         /* The pButtons panel is instantiated and added to the right panel */
         pButtons = new JPanel();
-        pButtons.setLayout(new GridLayout(1, 2));
+        pButtons.setLayout(new GridLayout(1, 3));
         pRight.add(pButtons, BorderLayout.SOUTH);
 
+        /* The TAKE BACK button is added to pButtons */
+        btnTakeBack = new JButton("Take Back");
+        pButtons.add(btnTakeBack);
+
         /* The PLAY AGAIN button is added to pButtons */
         btnNextGame = new JButton("Play Again");
         pButtons.add(btnNextGame);
@@ -396,11 +405,18 @@ public class MainScreen extends JFrame {
     /**
      * Updates the display to reflect a move by either the player or the agent
      *
+     * <p>If the <code>tictactoe.GuiMove</code> flight-recorder event is enabled, the update is recorded
+     * as such an event. </p>
+     *
      * @param row row index of the chosen move
      * @param col column index of the chosen move
      * @param guiToken token representing the player or agent (either X or O)
      */
     public void makeMove(int row, int col, char guiToken) {
+        GuiMoveEvent event;         // flight-recorder event of the move
+        event = new GuiMoveEvent();
+        event.begin();
+
         /* The blank image at the specified position is removed, the board is
         revalidated, and either an X or O image is added to the position depending
         on the passed guiToken
@@ -420,6 +436,38 @@ public class MainScreen extends JFrame {
         */
         pBoard.repaint();
         setBtnEnabled(row, col, false);
+
+        if (event.shouldCommit()) {
+            event.row = row;
+            event.col = col;
+            event.token = guiToken;
+            event.commit();
+        }
+    }
+
+    /**
+     * Updates the display to reflect a move that has been taken back, by either the player or the
+     * agent, and logs it in the move log and decision time text box
+     *
+     * @param row row index of the move taken back
+     * @param col column index of the move taken back
+     */
+    public void takeBackMove(int row, int col) {
+        /* The X or O image at the specified position is removed, the board is revalidated,
+        and the blank image is added back to the position
+        */
+        pSquares[row][col].remove(ex.get(getIndex(row, col)));
+        pSquares[row][col].remove(oh.get(getIndex(row, col)));
+        pBoard.revalidate();
+        pSquares[row][col].add(blank.get(getIndex(row, col)));
+
+        /* Once the blank image is added, the board is repainted and the button
+        corresponding to the specified position is enabled
+        */
+        pBoard.repaint();
+        setBtnEnabled(row, col, true);
+
+        taTime.append("Take Back: " + row + " " + col + "\n\n");
     }
 
     /**
@@ -531,9 +579,10 @@ public class MainScreen extends JFrame {
             }
         }
 
-        /* Action listeners are added for the PLAY AGAIN and NEW LEVEL buttons
+        /* Action listeners are added for the TAKE BACK, PLAY AGAIN, and NEW LEVEL buttons
         on the side panel
         */
+        btnTakeBack.addActionListener(listener);
         btnNextGame.addActionListener(listener);
         btnNextLevel.addActionListener(listener);
     }
@@ -0,0 +1,320 @@
+package headless;
+
+import journal.GameJournal;
+import journal.JournalRecord;
+import metrics.AgentDecisionEvent;
+import metrics.LatencyRecorder;
+import tic_tac_toe.Agent;
+import tic_tac_toe.Board;
+import tic_tac_toe.GameMaster;
+import util.Evaluation;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class implementing a <b>headless self-play tournament</b> between two tic-tac-toe-playing agents,
+ * which plays a given number of games without a graphical user interface and aggregates the wins,
+ * losses, draws, and decision times
+ *
+ * <p>The agents alternate the first-move advantage from one game to the next, as in
+ * <code>MainScreenController.newGame</code>: agent A moves first in the even-numbered games and agent
+ * B in the odd-numbered ones. The games are distributed across a fixed pool of worker threads, which
+ * claim them in chunks. Every worker has its own agents and boards, and accumulates its own result,
+ * so no state is shared while the games are played. </p>
+ *
+ * <p>Since the agents always play as <code>Board.COMPUTER_TOKEN</code>, each worker keeps two boards:
+ * one from the point of view of agent A, on which agent B's tokens are human tokens, and a mirrored one
+ * from the point of view of agent B. Every move is applied to both boards.</p>
+ */
+public class Tournament {
+    /* Number of games claimed by a worker at a time */
+    private static final int CHUNK_SIZE = 256;
+
+    /* Level of intelligence of agent A */
+    private int levelA;
+    /* Level of intelligence of agent B */
+    private int levelB;
+    /* Number of games to be played */
+    private long numGames;
+    /* Number of worker threads */
+    private int numThreads;
+
+    /* Index of the next game to be claimed by a worker */
+    private AtomicLong nextGame;
+
+    /* Journal into which the games are recorded (null if journaling is disabled) */
+    private GameJournal journal;
+    /* Recorder of the agents' decision times (null if recording is disabled) */
+    private LatencyRecorder latencies;
+
+    /**
+     * Creates a tournament between two agents
+     *
+     * @param levelA level of intelligence of agent A
+     * @param levelB level of intelligence of agent B
+     * @param numGames number of games to be played
+     * @param numThreads number of worker threads
+     */
+    public Tournament(int levelA, int levelB, long numGames, int numThreads) {
+        this.levelA = levelA;
+        this.levelB = levelB;
+        this.numGames = numGames;
+        this.numThreads = numThreads;
+        this.nextGame = new AtomicLong();
+    }
+
+    /**
+     * Sets the journal into which the games are recorded, from the point of view of agent A (whose
+     * tokens are recorded as computer tokens, and agent B's as human tokens)
+     *
+     * @param journal journal into which the games are recorded (<code>null</code> to disable
+     *                journaling)
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the recorder of the agents' decision times, which are recorded under the level of
+     * intelligence of the deciding agent and the number of the move within its game
+     *
+     * @param latencies recorder of the agents' decision times (<code>null</code> to disable
+     *                  recording)
+     */
+    public void setLatencyRecorder(LatencyRecorder latencies) {
+        this.latencies = latencies;
+    }
+
+    /**
+     * Plays all the games of this tournament and returns the aggregated result
+     *
+     * @return aggregated result of the tournament
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public TournamentResult run() throws InterruptedException {
+        ExecutorService workers;                        // pool of worker threads
+        ArrayList<Future<TournamentResult>> partials;   // results of the individual workers
+        TournamentResult result;                        // aggregated result
+        long startTime;                                 // start time of the tournament
+
+        workers = Executors.newFixedThreadPool(numThreads);
+        partials = new ArrayList<Future<TournamentResult>>(numThreads);
+        result = new TournamentResult();
+
+        nextGame.set(0);
+        startTime = System.nanoTime();
+
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                partials.add(workers.submit(this::playGames));
+            }
+
+            for (Future<TournamentResult> partial : partials) {
+                result.merge(partial.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tournament worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        result.setWallTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    /**
+     * Plays chunks of games on the calling worker thread until all the games have been claimed
+     *
+     * @return result of the games played by the calling worker thread
+     */
+    private TournamentResult playGames() {
+        Agent a;                    // agent A (owned by this worker)
+        Agent b;                    // agent B (owned by this worker)
+        Board boardA;               // board from the point of view of agent A
+        Board boardB;               // board from the point of view of agent B
+        TournamentResult result;    // result of the games played by this worker
+        long session;               // session ID of this worker in the journal
+
+        a = GameMaster.createAgent(levelA);
+        b = GameMaster.createAgent(levelB);
+        boardA = new Board();
+        boardB = new Board();
+        result = new TournamentResult();
+        session = journal == null ? -1 : journal.newSession();
+
+        while (true) {
+            long first;             // index of the first game of the claimed chunk
+            first = nextGame.getAndAdd(CHUNK_SIZE);
+
+            if (first >= numGames) {
+                return result;
+            }
+
+            long last;              // index of the last game (exclusive) of the claimed chunk
+            last = Math.min(numGames, first + CHUNK_SIZE);
+
+            for (long game = first; game < last; game++) {
+                /* Alternate which agent receives the first-move advantage. */
+                playGame(a, b, boardA, boardB, game % 2 == 0, result, journal, session, latencies, levelA,
+                        levelB);
+            }
+        }
+    }
+
+    /**
+     * Plays a single game between agents A and B, recording its moves and outcome into the given result
+     *
+     * @param a agent A
+     * @param b agent B
+     * @param boardA board from the point of view of agent A (cleared before the game)
+     * @param boardB board from the point of view of agent B (cleared before the game)
+     * @param isAFirst <code>true</code> if agent A moves first; <code>false</code>, otherwise
+     * @param result result into which the moves and the outcome are recorded
+     */
+    public static void playGame(Agent a, Agent b, Board boardA, Board boardB, boolean isAFirst,
+                                TournamentResult result) {
+        playGame(a, b, boardA, boardB, isAFirst, result, null, -1, null, -1, -1);
+    }
+
+    /**
+     * Plays a single game between agents A and B, recording its moves and outcome into the given result
+     * and, from the point of view of agent A, into the given journal, and recording the decision times
+     * into the given latency recorder
+     *
+     * @param a agent A
+     * @param b agent B
+     * @param boardA board from the point of view of agent A (cleared before the game)
+     * @param boardB board from the point of view of agent B (cleared before the game)
+     * @param isAFirst <code>true</code> if agent A moves first; <code>false</code>, otherwise
+     * @param result result into which the moves and the outcome are recorded
+     * @param journal journal into which the game is recorded (<code>null</code> if journaling is
+     *                disabled)
+     * @param session session ID under which the game is recorded
+     * @param latencies recorder of the decision times (<code>null</code> if recording is disabled)
+     * @param levelA level of intelligence of agent A (as recorded into the journal, the latency
+     *               recorder, and the flight recorder)
+     * @param levelB level of intelligence of agent B (as recorded into the journal, the latency
+     *               recorder, and the flight recorder)
+     */
+    private static void playGame(Agent a, Agent b, Board boardA, Board boardB, boolean isAFirst,
+                                 TournamentResult result, GameJournal journal, long session,
+                                 LatencyRecorder latencies, int levelA, int levelB) {
+        boolean isATurn;            // true if it is the turn of agent A; false, otherwise
+        long game;                  // game ID in the journal (-1 if journaling is disabled)
+        int moveNumber;             // number of the current move within the game
+
+        isATurn = isAFirst;
+        moveNumber = 1;
+        game = journal == null ? -1 : journal.startGame(session,
+                isAFirst ? Board.COMPUTER_TOKEN : Board.HUMAN_TOKEN, levelB, levelA);
+
+        boardA.initBoard();
+        boardB.initBoard();
+
+        while (!boardA.isGameOver()) {
+            Evaluation move;        // move of the agent whose turn it is
+            long startTime;         // start time of the agent's decision-making
+            AgentDecisionEvent event;   // flight-recorder event of the decision
+
+            long decisionTime;      // decision time of the agent whose turn it is
+
+            event = new AgentDecisionEvent();
+            event.begin();
+
+            startTime = System.nanoTime();
+            move = isATurn ? a.evalBestMove(boardA) : b.evalBestMove(boardB);
+            decisionTime = System.nanoTime() - startTime;
+            result.recordMove(isATurn, decisionTime);
+
+            if (event.shouldCommit()) {
+                event.level = isATurn ? levelA : levelB;
+                event.boardKey = isATurn ? boardA.getKey() : boardB.getKey();
+                event.nodes = (isATurn ? a : b).getStats().getNumNodes();
+                event.cacheHits = (isATurn ? a : b).getStats().getNumCacheHits();
+                event.score = move.getEvalScore();
+                event.row = move.getCoor().getRow();
+                event.col = move.getCoor().getCol();
+                event.commit();
+            }
+
+            if (latencies != null) {
+                latencies.record(isATurn ? levelA : levelB, moveNumber, decisionTime);
+            }
+
+            int row;
+            int col;
+
+            row = move.getCoor().getRow();
+            col = move.getCoor().getCol();
+
+            if (journal != null) {
+                journal.recordMove(game, session, isATurn ? Board.COMPUTER_TOKEN : Board.HUMAN_TOKEN, row, col,
+                        isATurn ? levelA : levelB, decisionTime);
+            }
+
+            /* Each agent sees its own tokens as computer tokens and the opponent's as human tokens. */
+            boardA.makeMove(row, col, isATurn ? Board.COMPUTER_TOKEN : Board.HUMAN_TOKEN);
+            boardB.makeMove(row, col, isATurn ? Board.HUMAN_TOKEN : Board.COMPUTER_TOKEN);
+
+            isATurn = !isATurn;
+            moveNumber++;
+        }
+
+        char outcome;               // outcome of the game from the point of view of agent A
+
+        if (boardA.isWin(Board.COMPUTER_TOKEN)) {
+            result.recordWin(true);
+            outcome = Board.COMPUTER_TOKEN;
+        } else if (boardA.isWin(Board.HUMAN_TOKEN)) {
+            result.recordWin(false);
+            outcome = Board.HUMAN_TOKEN;
+        } else {
+            result.recordDraw();
+            outcome = JournalRecord.OUTCOME_DRAW;
+        }
+
+        if (journal != null) {
+            journal.endGame(game, session, outcome);
+        }
+    }
+
+    /**
+     * Runs a tournament given on the command line and prints its aggregated result
+     *
+     * <p>The arguments are, in order: the level of intelligence of agent A, that of agent B, the
+     * number of games, and the number of worker threads (by default, the number of available
+     * processors). The games are journaled if the <code>tictactoe.journal</code> system property
+     * names a journal directory. The aggregated result is followed by the percentiles of the agents'
+     * decision times, which are also exported on exit if the <code>tictactoe.latencyReport</code> system
+     * property names a file.</p>
+     *
+     * @param args array of command-line arguments
+     * @throws InterruptedException if the main thread is interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int levelA;
+        int levelB;
+        long numGames;
+        int numThreads;
+
+        levelA = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        levelB = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        numGames = args.length > 2 ? Long.parseLong(args[2]) : 100000;
+        numThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        Tournament tournament;
+        tournament = new Tournament(levelA, levelB, numGames, numThreads);
+
+        /* The games are journaled only if a journal directory is given via the "tictactoe.journal" property. */
+        tournament.setJournal(GameJournal.getDefault());
+        tournament.setLatencyRecorder(LatencyRecorder.getDefault());
+
+        System.out.print(tournament.run());
+        System.out.print(LatencyRecorder.getDefault().getReport());
+    }
+}
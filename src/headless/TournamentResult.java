@@ -0,0 +1,185 @@
+package headless;
+
+/**
+ * Class implementing the <b>aggregated result of a tournament</b> between two tic-tac-toe-playing
+ * agents, consisting of the number of wins of each agent, the number of draws, and the time spent
+ * by each agent in deciding its moves
+ *
+ * <p>Each worker thread of a tournament accumulates its games into its own result, and the results
+ * are merged once all the games have been played; hence, a result is never shared between threads
+ * while it is being updated. </p>
+ */
+public class TournamentResult {
+    /* Number of games won by the first agent (agent A) */
+    private long numWinsA;
+    /* Number of games won by the second agent (agent B) */
+    private long numWinsB;
+    /* Number of games that ended in a draw */
+    private long numDraws;
+
+    /* Number of moves made by agent A */
+    private long numMovesA;
+    /* Number of moves made by agent B */
+    private long numMovesB;
+    /* Total decision time of agent A (in nanoseconds) */
+    private long decisionTimeA;
+    /* Total decision time of agent B (in nanoseconds) */
+    private long decisionTimeB;
+
+    /* Wall-clock duration of the tournament (in nanoseconds) */
+    private long wallTime;
+
+    /**
+     * Creates an empty tournament result
+     */
+    public TournamentResult() {
+
+    }
+
+    /**
+     * Records a win by either agent
+     *
+     * @param isAgentA <code>true</code> if agent A won; <code>false</code> if agent B won
+     */
+    public void recordWin(boolean isAgentA) {
+        if (isAgentA) {
+            numWinsA++;
+        } else {
+            numWinsB++;
+        }
+    }
+
+    /**
+     * Records a draw
+     */
+    public void recordDraw() {
+        numDraws++;
+    }
+
+    /**
+     * Records a move by either agent, alongside the time it took to decide the move
+     *
+     * @param isAgentA <code>true</code> if agent A moved; <code>false</code> if agent B moved
+     * @param decisionTime decision time of the move (in nanoseconds)
+     */
+    public void recordMove(boolean isAgentA, long decisionTime) {
+        if (isAgentA) {
+            numMovesA++;
+            decisionTimeA += decisionTime;
+        } else {
+            numMovesB++;
+            decisionTimeB += decisionTime;
+        }
+    }
+
+    /**
+     * Adds the games and moves recorded in the given result to this result
+     *
+     * @param other result to be merged into this result
+     */
+    public void merge(TournamentResult other) {
+        numWinsA += other.numWinsA;
+        numWinsB += other.numWinsB;
+        numDraws += other.numDraws;
+        numMovesA += other.numMovesA;
+        numMovesB += other.numMovesB;
+        decisionTimeA += other.decisionTimeA;
+        decisionTimeB += other.decisionTimeB;
+    }
+
+    /**
+     * Updates the wall-clock duration of the tournament
+     *
+     * @param wallTime wall-clock duration of the tournament (in nanoseconds)
+     */
+    public void setWallTime(long wallTime) {
+        this.wallTime = wallTime;
+    }
+
+    /**
+     * Returns the number of games won by agent A
+     *
+     * @return number of games won by agent A
+     */
+    public long getNumWinsA() {
+        return numWinsA;
+    }
+
+    /**
+     * Returns the number of games won by agent B
+     *
+     * @return number of games won by agent B
+     */
+    public long getNumWinsB() {
+        return numWinsB;
+    }
+
+    /**
+     * Returns the number of games that ended in a draw
+     *
+     * @return number of games that ended in a draw
+     */
+    public long getNumDraws() {
+        return numDraws;
+    }
+
+    /**
+     * Returns the total number of games played
+     *
+     * @return total number of games played
+     */
+    public long getNumGames() {
+        return numWinsA + numWinsB + numDraws;
+    }
+
+    /**
+     * Returns the mean decision time of agent A (in milliseconds)
+     *
+     * @return mean decision time of agent A (in milliseconds)
+     */
+    public double getMeanDecisionTimeA() {
+        return numMovesA == 0 ? 0 : decisionTimeA / 1e6 / numMovesA;
+    }
+
+    /**
+     * Returns the mean decision time of agent B (in milliseconds)
+     *
+     * @return mean decision time of agent B (in milliseconds)
+     */
+    public double getMeanDecisionTimeB() {
+        return numMovesB == 0 ? 0 : decisionTimeB / 1e6 / numMovesB;
+    }
+
+    /**
+     * Returns the wall-clock duration of the tournament (in milliseconds)
+     *
+     * @return wall-clock duration of the tournament (in milliseconds)
+     */
+    public double getWallTime() {
+        return wallTime / 1e6;
+    }
+
+    /**
+     * Returns a string representation of this result
+     *
+     * <p>The string representation contains the number of games, the wins of agents A and B, the
+     * draws, the mean decision time of each agent, the wall-clock duration, and the throughput
+     * (games per second). </p>
+     *
+     * @return string representation of this result
+     */
+    @Override
+    public String toString() {
+        double gamesPerSecond;      // throughput of the tournament
+        gamesPerSecond = wallTime == 0 ? 0 : getNumGames() / (wallTime / 1e9);
+
+        return "Games: " + getNumGames() + "\n"
+                + "A Wins: " + numWinsA + "\n"
+                + "B Wins: " + numWinsB + "\n"
+                + "Draws: " + numDraws + "\n"
+                + "A Decision Time (ms/move): " + getMeanDecisionTimeA() + "\n"
+                + "B Decision Time (ms/move): " + getMeanDecisionTimeB() + "\n"
+                + "Wall Time (ms): " + getWallTime() + "\n"
+                + "Games/s: " + String.format("%.1f", gamesPerSecond) + "\n";
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Provides classes for running the tic-tac-toe game <b>without a graphical user interface</b>,
+ * such as agent-versus-agent tournaments
+ */
+
+package headless;
\ No newline at end of file
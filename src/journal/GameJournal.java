@@ -0,0 +1,382 @@
+package journal;
+
+import tic_tac_toe.Board;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class implementing the <b>game journal</b>, an append-only binary record of the games played, in
+ * which every move is recorded alongside its session, player, tile, level of intelligence, and
+ * decision time
+ *
+ * <p>The journal is a directory of <b>segments</b>, named <code>journal-NNNNNN.ttj</code> in the order
+ * in which they were written. Every segment starts with <code>MAGIC</code>, followed by
+ * length-prefixed records (see <code>JournalRecord</code>). A new segment is started whenever the
+ * journal is opened and whenever the current segment exceeds the maximum segment size, so existing
+ * segments are never modified. </p>
+ *
+ * <p>Records are encoded into an in-memory buffer and written to the current segment through a
+ * <code>FileChannel</code> only when the buffer is full, when <code>flush</code> is called, or when
+ * the journal is closed; thus, the cost of recording a move is usually that of a few buffer writes.
+ * A journal may be shared by many threads: the game and session IDs are unique within the directory,
+ * and the records of concurrent games are interleaved. Since the records of a game may be buffered,
+ * a game is durable only once the journal has been flushed. A directory must not be written by more
+ * than one journal at a time. </p>
+ */
+public class GameJournal implements Closeable {
+    /**
+     * Magic number at the start of every segment
+     */
+    public static final int MAGIC = 0x54544A31;
+    /**
+     * Default maximum size of a segment (in bytes)
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    /* Name of the system property holding the directory of the default journal */
+    private static final String JOURNAL_PROPERTY = "tictactoe.journal";
+    /* Size of the buffer into which the records are encoded (in bytes) */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /* Default journal of this process (null if not yet opened or disabled) */
+    private static GameJournal defaultJournal;
+
+    /* Directory of the segments */
+    private final Path dir;
+    /* Maximum size of a segment (in bytes) */
+    private final long segmentSize;
+
+    /* Buffer into which the records are encoded */
+    private final ByteBuffer buffer;
+    /* Current segment */
+    private FileChannel segment;
+    /* Index of the current segment */
+    private int segmentIndex;
+
+    /* Next game ID */
+    private long nextGame;
+    /* Next session ID */
+    private long nextSession;
+
+    /* Lock guarding the buffer, the current segment, and the IDs */
+    private final ReentrantLock lock;
+
+    /**
+     * Opens the journal in the given directory (creating it if necessary) with the default maximum
+     * segment size
+     *
+     * @param dir directory of the segments
+     * @throws IOException if the directory or the first segment cannot be created
+     */
+    public GameJournal(Path dir) throws IOException {
+        this(dir, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the journal in the given directory (creating it if necessary)
+     *
+     * <p>The game and session IDs resume after the greatest ones found in the existing segments. </p>
+     *
+     * @param dir directory of the segments
+     * @param segmentSize maximum size of a segment (in bytes)
+     * @throws IOException if the directory or the first segment cannot be created
+     */
+    public GameJournal(Path dir, long segmentSize) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.lock = new ReentrantLock();
+
+        Files.createDirectories(dir);
+
+        ArrayList<Path> segments;
+        segments = listSegments(dir);
+
+        /* Resume the IDs after those found in the latest segment that started a game. */
+        for (int i = segments.size() - 1; i >= 0 && nextGame == 0; i--) {
+            try (JournalReader reader = new JournalReader(Collections.singletonList(segments.get(i)))) {
+                JournalRecord record;
+
+                while ((record = reader.next()) != null) {
+                    nextGame = Math.max(nextGame, record.getGame() + 1);
+                    nextSession = Math.max(nextSession, record.getSession() + 1);
+                }
+            }
+        }
+
+        segmentIndex = segments.isEmpty() ? 0 : getSegmentIndex(segments.get(segments.size() - 1)) + 1;
+        openSegment();
+    }
+
+    /**
+     * Returns the journal of this process, opened in the directory given by the
+     * <code>tictactoe.journal</code> system property and closed on exit, or <code>null</code> if the
+     * property is not set
+     *
+     * @return journal of this process, or <code>null</code> if journaling is disabled
+     * @throws UncheckedIOException if the journal cannot be opened
+     */
+    public static synchronized GameJournal getDefault() {
+        String dir;
+        dir = System.getProperty(JOURNAL_PROPERTY);
+
+        if (defaultJournal == null && dir != null) {
+            try {
+                defaultJournal = new GameJournal(Paths.get(dir));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            GameJournal journal;
+            journal = defaultJournal;
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "journal-close"));
+        }
+
+        return defaultJournal;
+    }
+
+    /**
+     * Returns a new session ID
+     *
+     * @return new session ID
+     */
+    public long newSession() {
+        lock.lock();
+
+        try {
+            return nextSession++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the start of a game and returns its game ID
+     *
+     * @param session ID of the session in which the game is played
+     * @param first token of the first player to move
+     * @param levelH level of intelligence of the human player (<code>JournalRecord.HUMAN_LEVEL</code>
+     *               for a human)
+     * @param levelC level of intelligence of the computer player
+     * @return ID of the game
+     * @throws UncheckedIOException if the buffer cannot be written to the current segment
+     */
+    public long startGame(long session, char first, int levelH, int levelC) {
+        lock.lock();
+
+        try {
+            long game;
+            game = nextGame++;
+
+            reserve();
+            JournalRecord.putGameStart(buffer, game, session, System.currentTimeMillis(), first, levelH, levelC);
+            return game;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a move
+     *
+     * @param game ID of the game
+     * @param session ID of the session in which the game is played
+     * @param player token of the player making the move
+     * @param row row-coordinate of the move
+     * @param col column-coordinate of the move
+     * @param level level of intelligence of the player (<code>JournalRecord.HUMAN_LEVEL</code> for a
+     *              human)
+     * @param decisionTime decision time of the move (in nanoseconds)
+     * @throws UncheckedIOException if the buffer cannot be written to the current segment
+     */
+    public void recordMove(long game, long session, char player, int row, int col, int level, long decisionTime) {
+        lock.lock();
+
+        try {
+            reserve();
+            JournalRecord.putMove(buffer, game, session, player, row * Board.DIMENSION + col, level, decisionTime);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the take-back of the most recent move of a game, which readers of the journal apply by
+     * taking the move back rather than by rewriting the game
+     *
+     * @param game ID of the game
+     * @param session ID of the session in which the game is played
+     * @throws UncheckedIOException if the buffer cannot be written to the current segment
+     */
+    public void recordUndo(long game, long session) {
+        lock.lock();
+
+        try {
+            reserve();
+            JournalRecord.putUndo(buffer, game, session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the end of a game
+     *
+     * @param game ID of the game
+     * @param session ID of the session in which the game is played
+     * @param outcome token of the winner, <code>JournalRecord.OUTCOME_DRAW</code>, or
+     *                <code>JournalRecord.OUTCOME_ABANDONED</code>
+     * @throws UncheckedIOException if the buffer cannot be written to the current segment
+     */
+    public void endGame(long game, long session, char outcome) {
+        lock.lock();
+
+        try {
+            reserve();
+            JournalRecord.putGameEnd(buffer, game, session, outcome);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the current segment
+     *
+     * @throws UncheckedIOException if the buffer cannot be written to the current segment
+     */
+    public void flush() {
+        lock.lock();
+
+        try {
+            writeBuffer();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered records and closes the current segment; further records are not allowed
+     */
+    @Override
+    public void close() {
+        lock.lock();
+
+        try {
+            if (segment != null) {
+                writeBuffer();
+                segment.close();
+                segment = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ensures that the buffer has room for one more record, writing it to the current segment if
+     * necessary (the caller holds the lock)
+     */
+    private void reserve() {
+        if (buffer.remaining() < JournalRecord.MAX_LENGTH) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the current segment, starting a new segment afterwards if the
+     * current one has exceeded the maximum segment size (the caller holds the lock)
+     *
+     * <p>Since the buffer only ever holds whole records, a record never spans two segments. </p>
+     */
+    private void writeBuffer() {
+        try {
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+
+            buffer.clear();
+
+            if (segment.size() >= segmentSize) {
+                segment.close();
+                segmentIndex++;
+                openSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates the segment with the current index and writes its magic number
+     *
+     * @throws IOException if the segment cannot be created
+     */
+    private void openSegment() throws IOException {
+        segment = FileChannel.open(dir.resolve(String.format("journal-%06d.ttj", segmentIndex)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        ByteBuffer header;
+        header = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC);
+        header.flip();
+
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+    }
+
+    /**
+     * Returns the segments of the journal in the given directory, in the order in which they were
+     * written
+     *
+     * @param dir directory of the segments
+     * @return segments of the journal, in the order in which they were written
+     * @throws IOException if the directory cannot be listed
+     */
+    public static ArrayList<Path> listSegments(Path dir) throws IOException {
+        ArrayList<Path> segments;
+        segments = new ArrayList<Path>();
+
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "journal-*.ttj")) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+
+        /* The zero-padded indices make the lexicographic order the order of writing. */
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Returns the index of the given segment, as encoded in its name
+     *
+     * @param segment path to the segment
+     * @return index of the segment
+     */
+    private static int getSegmentIndex(Path segment) {
+        String name;
+        name = segment.getFileName().toString();
+
+        return Integer.parseInt(name.substring("journal-".length(), name.length() - ".ttj".length()));
+    }
+}
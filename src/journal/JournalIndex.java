@@ -0,0 +1,718 @@
+package journal;
+
+import tic_tac_toe.Board;
+import tic_tac_toe.Symmetry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Class implementing the <b>index of the game journal</b>, which memory-maps the segments of a journal
+ * and answers queries on its games (by level of intelligence, outcome, first move, and canonical
+ * opening) without scanning the journal
+ *
+ * <p>Every game is given an ordinal, in the order in which the games started. For every attribute
+ * value (a <b>key</b>, such as "the computer player is level 3"), the index holds the sorted ordinals
+ * of the games having that value (a <b>posting list</b>). A query intersects the posting lists of its
+ * keys, starting from the shortest one, so its cost is proportional to the length of the shortest list
+ * rather than to the number of games. Alongside the posting lists, the index holds the ID and the
+ * position (segment and offset) of the start of every game, so that the records of a matching game
+ * are read directly from the mapped segments. </p>
+ *
+ * <p>The index is saved next to the segments as <code>journal.idx</code>, together with the sizes
+ * of the segments it covers; it is rebuilt whenever the segments have changed since. </p>
+ *
+ * <p>The <b>opening</b> of a game is the position after its first two moves (or fewer, if the game is
+ * shorter), not counting the moves taken back (see <code>JournalRecord.UNDO</code>), identified by its canonical key (see <code>Symmetry</code>), so that symmetric openings
+ * share a key. </p>
+ */
+public class JournalIndex {
+    /**
+     * Outcome indexed for a game whose end is not recorded in the journal
+     */
+    public static final char OUTCOME_INCOMPLETE = '?';
+
+    /* Magic number at the start of the index file */
+    private static final int MAGIC = 0x54544931;
+    /* Name of the index file */
+    private static final String INDEX_NAME = "journal.idx";
+    /* Number of moves that make up the opening of a game */
+    private static final int OPENING_LENGTH = 2;
+
+    /* Attributes of the keys, stored in the upper byte of a key */
+    private static final int LEVEL_H = 1;
+    private static final int LEVEL_C = 2;
+    private static final int OUTCOME = 3;
+    private static final int FIRST_PLAYER = 4;
+    private static final int FIRST_MOVE = 5;
+    private static final int OPENING = 6;
+
+    /* Mapped segments of the journal */
+    private final MappedByteBuffer[] segments;
+    /* Size of each segment covered by this index (in bytes) */
+    private final long[] segmentSizes;
+
+    /* Game ID of each game, by ordinal */
+    private long[] gameIds;
+    /* Position of the start of each game (segment index in the upper 32 bits, offset in the lower) */
+    private long[] gameStarts;
+    /* Number of games */
+    private int numGames;
+
+    /* Posting list of each key */
+    private final HashMap<Integer, int[]> postings;
+
+    /**
+     * Opens the index of the journal in the given directory, loading it from its index file if that
+     * covers the current segments, or building (and saving) it otherwise
+     *
+     * @param dir directory of the journal
+     * @throws IOException if the segments cannot be mapped or the index file cannot be written
+     */
+    public JournalIndex(Path dir) throws IOException {
+        ArrayList<Path> paths;
+        paths = GameJournal.listSegments(dir);
+
+        segments = new MappedByteBuffer[paths.size()];
+        segmentSizes = new long[paths.size()];
+        postings = new HashMap<Integer, int[]>();
+
+        for (int i = 0; i < paths.size(); i++) {
+            try (FileChannel channel = FileChannel.open(paths.get(i), StandardOpenOption.READ)) {
+                segmentSizes[i] = channel.size();
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        Path indexFile;
+        indexFile = dir.resolve(INDEX_NAME);
+
+        if (!Files.exists(indexFile) || !load(indexFile)) {
+            build();
+            save(indexFile);
+        }
+    }
+
+    /**
+     * Returns the key of the games whose human player has the given level of intelligence
+     * (<code>JournalRecord.HUMAN_LEVEL</code> for a human)
+     *
+     * @param level level of intelligence
+     * @return key of the matching games
+     */
+    public static int levelH(int level) {
+        return key(LEVEL_H, level);
+    }
+
+    /**
+     * Returns the key of the games whose computer player has the given level of intelligence
+     *
+     * @param level level of intelligence
+     * @return key of the matching games
+     */
+    public static int levelC(int level) {
+        return key(LEVEL_C, level);
+    }
+
+    /**
+     * Returns the key of the games with the given outcome (the token of the winner,
+     * <code>JournalRecord.OUTCOME_DRAW</code>, <code>JournalRecord.OUTCOME_ABANDONED</code>, or
+     * <code>OUTCOME_INCOMPLETE</code>)
+     *
+     * @param outcome outcome of the game
+     * @return key of the matching games
+     */
+    public static int outcome(char outcome) {
+        return key(OUTCOME, outcome);
+    }
+
+    /**
+     * Returns the key of the games in which the player with the given token moved first
+     *
+     * @param token token of the first player to move
+     * @return key of the matching games
+     */
+    public static int firstPlayer(char token) {
+        return key(FIRST_PLAYER, token);
+    }
+
+    /**
+     * Returns the key of the games whose first move is on the given tile
+     *
+     * @param row row-coordinate of the first move
+     * @param col column-coordinate of the first move
+     * @return key of the matching games
+     */
+    public static int firstMove(int row, int col) {
+        return key(FIRST_MOVE, row * Board.DIMENSION + col);
+    }
+
+    /**
+     * Returns the key of the games whose opening is symmetric to the given position
+     *
+     * @param opening position after the first two moves of a game
+     * @return key of the matching games
+     */
+    public static int opening(Board opening) {
+        return key(OPENING, Symmetry.getCanonicalKey(opening));
+    }
+
+    /**
+     * Returns the key of the given attribute and value
+     *
+     * @param attribute attribute of the key
+     * @param value value of the attribute (less than 2<sup>24</sup>)
+     * @return key of the given attribute and value
+     */
+    private static int key(int attribute, int value) {
+        return attribute << 24 | value & 0xFFFFFF;
+    }
+
+    /**
+     * Returns the ordinals (in increasing order) of the games matching all the given keys
+     *
+     * @param keys keys that the games must match
+     * @return ordinals of the matching games, in increasing order
+     */
+    public int[] find(int... keys) {
+        if (keys.length == 0) {
+            int[] all;
+            all = new int[numGames];
+
+            for (int i = 0; i < numGames; i++) {
+                all[i] = i;
+            }
+
+            return all;
+        }
+
+        int[][] lists;
+        lists = new int[keys.length][];
+
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.getOrDefault(keys[i], new int[0]);
+        }
+
+        /* Intersect from the shortest list, so the cost is bounded by its length. */
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result;
+        result = lists[0];
+
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the ordinals (in increasing order) of the games matching either of the given results
+     *
+     * @param a ordinals of some games, in increasing order
+     * @param b ordinals of other games, in increasing order
+     * @return ordinals of the games in either result, in increasing order
+     */
+    public static int[] union(int[] a, int[] b) {
+        int[] result;
+        int i;
+        int j;
+        int n;
+
+        result = new int[a.length + b.length];
+        i = 0;
+        j = 0;
+        n = 0;
+
+        while (i < a.length || j < b.length) {
+            if (j == b.length || i < a.length && a[i] < b[j]) {
+                result[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i++];
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Returns the ordinals of the shorter list that also appear in the longer one, looking each of
+     * them up by binary search from the previous match
+     *
+     * @param shorter ordinals of some games, in increasing order
+     * @param longer ordinals of other games, in increasing order
+     * @return ordinals in both lists, in increasing order
+     */
+    private static int[] intersect(int[] shorter, int[] longer) {
+        int[] result;
+        int n;
+        int from;
+
+        result = new int[shorter.length];
+        n = 0;
+        from = 0;
+
+        for (int ordinal : shorter) {
+            int found;
+            found = Arrays.binarySearch(longer, from, longer.length, ordinal);
+
+            if (found >= 0) {
+                result[n++] = ordinal;
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+
+            if (from == longer.length) {
+                break;
+            }
+        }
+
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Returns the number of games in the journal
+     *
+     * @return number of games in the journal
+     */
+    public int getNumGames() {
+        return numGames;
+    }
+
+    /**
+     * Returns the game ID of the game with the given ordinal
+     *
+     * @param ordinal ordinal of the game
+     * @return game ID of the game
+     */
+    public long getGameId(int ordinal) {
+        return gameIds[ordinal];
+    }
+
+    /**
+     * Returns the records of the game with the given ordinal, read from the mapped segments starting
+     * at the position of its start
+     *
+     * <p>Records of other games interleaved with those of this game (by concurrent sessions) are
+     * skipped, so the number of records touched is that of the game, plus those of the games that
+     * were played at the same time. </p>
+     *
+     * @param ordinal ordinal of the game
+     * @return records of the game, in the order in which they were written
+     */
+    public ArrayList<JournalRecord> readGame(int ordinal) {
+        ArrayList<JournalRecord> records;
+        long game;
+        int segment;
+        int offset;
+
+        records = new ArrayList<JournalRecord>();
+        game = gameIds[ordinal];
+        segment = (int) (gameStarts[ordinal] >>> 32);
+        offset = (int) gameStarts[ordinal];
+
+        for (; segment < segments.length; segment++, offset = Integer.BYTES) {
+            ByteBuffer buffer;
+            buffer = segments[segment].duplicate();
+            buffer.position(offset);
+
+            while (hasRecord(buffer)) {
+                JournalRecord record;
+                record = JournalRecord.get(buffer);
+
+                if (record.getGame() == game) {
+                    records.add(record);
+
+                    if (record.getType() == JournalRecord.GAME_END) {
+                        return records;
+                    }
+                }
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Returns <code>true</code> if the buffer holds a whole record at its position; <code>false</code>,
+     * otherwise (at the end of the segment, or at a torn or corrupted record)
+     *
+     * @param buffer mapped segment
+     * @return <code>true</code> if the buffer holds a whole record at its position; <code>false</code>,
+     * otherwise
+     */
+    private static boolean hasRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < JournalRecord.PREFIX_LENGTH) {
+            return false;
+        }
+
+        int length;
+        length = buffer.getInt(buffer.position());
+
+        return length > 0 && buffer.remaining() - JournalRecord.PREFIX_LENGTH >= length;
+    }
+
+    /**
+     * Builds this index by scanning every mapped segment once
+     */
+    private void build() {
+        HashMap<Long, OpenGame> open;           // games that have started but not yet ended
+        ArrayList<int[]> attributes;            // keys of every game, by ordinal
+        HashMap<Integer, Integer> counts;       // number of games matching each key
+
+        open = new HashMap<Long, OpenGame>();
+        attributes = new ArrayList<int[]>();
+        counts = new HashMap<Integer, Integer>();
+        gameIds = new long[1024];
+        gameStarts = new long[1024];
+        numGames = 0;
+
+        for (int segment = 0; segment < segments.length; segment++) {
+            ByteBuffer buffer;
+            buffer = segments[segment].duplicate();
+
+            if (buffer.remaining() < Integer.BYTES || buffer.getInt() != GameJournal.MAGIC) {
+                continue;
+            }
+
+            while (hasRecord(buffer)) {
+                int offset;
+                JournalRecord record;
+                OpenGame g;
+
+                offset = buffer.position();
+                record = JournalRecord.get(buffer);
+
+                switch (record.getType()) {
+                    case JournalRecord.GAME_START:
+                        if (numGames == gameIds.length) {
+                            gameIds = Arrays.copyOf(gameIds, 2 * numGames);
+                            gameStarts = Arrays.copyOf(gameStarts, 2 * numGames);
+                        }
+
+                        gameIds[numGames] = record.getGame();
+                        gameStarts[numGames] = (long) segment << 32 | offset;
+                        open.put(record.getGame(), new OpenGame(numGames, record));
+                        attributes.add(null);
+                        numGames++;
+                        break;
+                    case JournalRecord.MOVE:
+                        g = open.get(record.getGame());
+
+                        if (g != null) {
+                            g.addMove(record);
+                        }
+                        break;
+                    case JournalRecord.UNDO:
+                        g = open.get(record.getGame());
+
+                        if (g != null) {
+                            g.undoMove();
+                        }
+                        break;
+                    case JournalRecord.GAME_END:
+                        g = open.remove(record.getGame());
+
+                        if (g != null) {
+                            attributes.set(g.ordinal, g.getKeys(record.getOutcome()));
+                        }
+                        break;
+                }
+            }
+        }
+
+        for (OpenGame g : open.values()) {
+            attributes.set(g.ordinal, g.getKeys(OUTCOME_INCOMPLETE));
+        }
+
+        /* Size the posting lists exactly, then fill them in increasing order of ordinal. */
+        for (int[] keys : attributes) {
+            for (int key : keys) {
+                counts.merge(key, 1, Integer::sum);
+            }
+        }
+
+        HashMap<Integer, Integer> fill;
+        fill = new HashMap<Integer, Integer>();
+
+        for (HashMap.Entry<Integer, Integer> e : counts.entrySet()) {
+            postings.put(e.getKey(), new int[e.getValue()]);
+            fill.put(e.getKey(), 0);
+        }
+
+        for (int ordinal = 0; ordinal < numGames; ordinal++) {
+            for (int key : attributes.get(ordinal)) {
+                int n;
+                n = fill.get(key);
+
+                postings.get(key)[n] = ordinal;
+                fill.put(key, n + 1);
+            }
+        }
+
+        gameIds = Arrays.copyOf(gameIds, numGames);
+        gameStarts = Arrays.copyOf(gameStarts, numGames);
+    }
+
+    /**
+     * Saves this index to the given file, together with the sizes of the segments it covers
+     *
+     * @param file index file
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    private void save(Path file) throws IOException {
+        /* Write to a temporary file first so that a crash never leaves a truncated index. */
+        Path tmp;
+        tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(segmentSizes.length);
+
+            for (long size : segmentSizes) {
+                out.writeLong(size);
+            }
+
+            out.writeInt(numGames);
+
+            for (int i = 0; i < numGames; i++) {
+                out.writeLong(gameIds[i]);
+                out.writeLong(gameStarts[i]);
+            }
+
+            out.writeInt(postings.size());
+
+            for (HashMap.Entry<Integer, int[]> e : postings.entrySet()) {
+                out.writeInt(e.getKey());
+                out.writeInt(e.getValue().length);
+
+                for (int ordinal : e.getValue()) {
+                    out.writeInt(ordinal);
+                }
+            }
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads this index from the given file, provided that it covers the current segments
+     *
+     * @param file index file
+     * @return <code>true</code> if the index was loaded; <code>false</code> if it is out of date
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    private boolean load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != segmentSizes.length) {
+                return false;
+            }
+
+            for (long size : segmentSizes) {
+                if (in.readLong() != size) {
+                    return false;
+                }
+            }
+
+            numGames = in.readInt();
+            gameIds = new long[numGames];
+            gameStarts = new long[numGames];
+
+            for (int i = 0; i < numGames; i++) {
+                gameIds[i] = in.readLong();
+                gameStarts[i] = in.readLong();
+            }
+
+            int numKeys;
+            numKeys = in.readInt();
+
+            for (int k = 0; k < numKeys; k++) {
+                int key;
+                int[] list;
+
+                key = in.readInt();
+                list = new int[in.readInt()];
+
+                for (int i = 0; i < list.length; i++) {
+                    list[i] = in.readInt();
+                }
+
+                postings.put(key, list);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Class implementing a <b>game being indexed</b> whose end has not yet been reached in the scan
+     */
+    private static class OpenGame {
+        /* Ordinal of the game */
+        private final int ordinal;
+        /* Start of the game */
+        private final JournalRecord start;
+        /* Position after the opening moves seen so far */
+        private final Board opening;
+        /* Tile of the first move (-1 if none) */
+        private int firstMove;
+        /* Number of moves seen so far */
+        private int numMoves;
+
+        private OpenGame(int ordinal, JournalRecord start) {
+            this.ordinal = ordinal;
+            this.start = start;
+            this.opening = new Board();
+            this.firstMove = -1;
+        }
+
+        /**
+         * Applies a move of the game to the opening, if the opening is not yet complete
+         *
+         * @param move record of the move
+         */
+        private void addMove(JournalRecord move) {
+            if (numMoves == 0) {
+                firstMove = move.getRow() * Board.DIMENSION + move.getCol();
+            }
+
+            if (numMoves < OPENING_LENGTH) {
+                opening.makeMove(move.getRow(), move.getCol(), move.getPlayer());
+            }
+
+            numMoves++;
+        }
+
+        /**
+         * Takes back the most recent move of the game, from the opening if it is part of it
+         */
+        private void undoMove() {
+            if (numMoves == 0) {
+                return;
+            }
+
+            numMoves--;
+
+            if (numMoves < OPENING_LENGTH) {
+                opening.pop();
+            }
+
+            if (numMoves == 0) {
+                firstMove = -1;
+            }
+        }
+
+        /**
+         * Returns the keys of the game, given its outcome
+         *
+         * @param outcome outcome of the game
+         * @return keys of the game
+         */
+        private int[] getKeys(char outcome) {
+            int[] keys;
+            keys = new int[] {levelH(start.getLevelH()), levelC(start.getLevelC()), outcome(outcome),
+                    firstPlayer(start.getFirst()), key(OPENING, Symmetry.getCanonicalKey(opening))};
+
+            if (firstMove == -1) {
+                return keys;
+            }
+
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            keys[keys.length - 1] = key(FIRST_MOVE, firstMove);
+            return keys;
+        }
+    }
+
+    /**
+     * Counts (and optionally lists) the games of a journal matching the given conditions
+     *
+     * <p>The first argument is the directory of the journal; every further argument is a condition of
+     * the form <code>levelH=L</code>, <code>levelC=L</code>, <code>outcome=O</code>,
+     * <code>first=T</code>, <code>firstMove=R,C</code>, or <code>opening=%%%|%%%|%%%</code>. A final
+     * <code>-list</code> argument prints the ID of every matching game. </p>
+     *
+     * @param args array of command-line arguments
+     * @throws IOException if the journal cannot be read or the index cannot be saved
+     */
+    public static void main(String[] args) throws IOException {
+        long startTime;
+        JournalIndex index;
+
+        startTime = System.nanoTime();
+        index = new JournalIndex(Paths.get(args[0]));
+        System.err.printf("Opened index of %d games in %.1f ms%n", index.getNumGames(),
+                (System.nanoTime() - startTime) / 1e6);
+
+        ArrayList<Integer> keys;
+        boolean isListing;
+
+        keys = new ArrayList<Integer>();
+        isListing = false;
+
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-list")) {
+                isListing = true;
+                continue;
+            }
+
+            String name;
+            String value;
+
+            name = args[i].substring(0, args[i].indexOf('='));
+            value = args[i].substring(args[i].indexOf('=') + 1);
+
+            switch (name) {
+                case "levelH":
+                    keys.add(levelH(Integer.parseInt(value)));
+                    break;
+                case "levelC":
+                    keys.add(levelC(Integer.parseInt(value)));
+                    break;
+                case "outcome":
+                    keys.add(outcome(value.charAt(0)));
+                    break;
+                case "first":
+                    keys.add(firstPlayer(value.charAt(0)));
+                    break;
+                case "firstMove":
+                    keys.add(firstMove(Integer.parseInt(value.split(",")[0]), Integer.parseInt(value.split(",")[1])));
+                    break;
+                case "opening":
+                    keys.add(opening(new Board(value)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown condition: " + args[i]);
+            }
+        }
+
+        int[] matches;
+        startTime = System.nanoTime();
+        matches = index.find(keys.stream().mapToInt(Integer::intValue).toArray());
+
+        System.out.printf("%d matching games (%.3f ms)%n", matches.length, (System.nanoTime() - startTime) / 1e6);
+
+        if (isListing) {
+            for (int ordinal : matches) {
+                System.out.println(index.getGameId(ordinal));
+            }
+        }
+    }
+}
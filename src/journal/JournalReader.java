@@ -0,0 +1,131 @@
+package journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Class implementing a <b>sequential reader of the game journal</b>, which returns the records of the
+ * given segments one at a time, in the order in which they were written
+ *
+ * <p>A segment whose magic number does not match is skipped. An incomplete record at the end of a
+ * segment (left by a process that stopped while the journal was being written) ends the segment, as
+ * does a corrupted length prefix. </p>
+ */
+public class JournalReader implements Closeable {
+    /* Size of the buffer through which the segments are read (in bytes) */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /* Segments to be read */
+    private final List<Path> segments;
+    /* Index of the next segment to be opened */
+    private int nextSegment;
+    /* Segment being read (null if none) */
+    private FileChannel segment;
+    /* Buffer through which the current segment is read */
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a reader of all the segments of the journal in the given directory
+     *
+     * @param dir directory of the segments
+     * @throws IOException if the directory cannot be listed
+     */
+    public JournalReader(Path dir) throws IOException {
+        this(GameJournal.listSegments(dir));
+    }
+
+    /**
+     * Creates a reader of the given segments
+     *
+     * @param segments segments to be read, in order
+     */
+    public JournalReader(List<Path> segments) {
+        this.segments = segments;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Returns the next record, or <code>null</code> if all the segments have been read
+     *
+     * @return next record, or <code>null</code> if all the segments have been read
+     * @throws IOException if a segment cannot be read
+     */
+    public JournalRecord next() throws IOException {
+        while (true) {
+            if (segment == null && !openNextSegment()) {
+                return null;
+            }
+
+            if (buffer.remaining() >= JournalRecord.PREFIX_LENGTH) {
+                int length;
+                length = buffer.getInt(buffer.position());
+
+                /* A length that cannot fit into the buffer can only come from a corrupted segment. */
+                if (length < 0 || length > buffer.capacity() - JournalRecord.PREFIX_LENGTH) {
+                    segment.close();
+                    segment = null;
+                    continue;
+                }
+
+                /* Return the next record if the buffer holds all of its bytes. */
+                if (buffer.remaining() >= JournalRecord.PREFIX_LENGTH + length) {
+                    return JournalRecord.get(buffer);
+                }
+            }
+
+            /* Otherwise, read more of the segment, or move on to the next one at its end. */
+            buffer.compact();
+            int numRead;
+            numRead = segment.read(buffer);
+            buffer.flip();
+
+            if (numRead == -1) {
+                segment.close();
+                segment = null;
+            }
+        }
+    }
+
+    /**
+     * Opens the next segment whose magic number matches
+     *
+     * @return <code>true</code> if a segment was opened; <code>false</code> if none is left
+     * @throws IOException if a segment cannot be read
+     */
+    private boolean openNextSegment() throws IOException {
+        while (nextSegment < segments.size()) {
+            segment = FileChannel.open(segments.get(nextSegment++), StandardOpenOption.READ);
+
+            buffer.clear();
+            segment.read(buffer);
+            buffer.flip();
+
+            if (buffer.remaining() >= Integer.BYTES && buffer.getInt() == GameJournal.MAGIC) {
+                return true;
+            }
+
+            segment.close();
+            segment = null;
+        }
+
+        return false;
+    }
+
+    /**
+     * Closes the segment being read
+     *
+     * @throws IOException if the segment cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package journal;
+
+import tic_tac_toe.Board;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class implementing a <b>record of the game journal</b>, which marks the start of a game, a move,
+ * the take-back of a move, or the end of a game
+ *
+ * <p>On disk, every record is prefixed by its length in bytes (excluding the prefix itself), followed
+ * by its type and its fields, all in big-endian order: </p>
+ * <ul>
+ *     <li><code>GAME_START</code>: game ID, session ID, wall-clock time (in milliseconds since the
+ *     epoch), token of the first player to move, and levels of intelligence of the human and computer
+ *     players</li>
+ *     <li><code>MOVE</code>: game ID, session ID, token of the player, tile (0 to 8, in row-major
+ *     order), level of intelligence of the player, and decision time (in nanoseconds)</li>
+ *     <li><code>UNDO</code>: game ID and session ID (the most recent move of the game that has not
+ *     been taken back is taken back)</li>
+ *     <li><code>GAME_END</code>: game ID, session ID, and outcome (the token of the winner,
+ *     <code>OUTCOME_DRAW</code>, or <code>OUTCOME_ABANDONED</code>)</li>
+ * </ul>
+ *
+ * <p>The level of intelligence of a human player is <code>HUMAN_LEVEL</code>. </p>
+ */
+public class JournalRecord {
+    /**
+     * Type of the record marking the start of a game
+     */
+    public static final byte GAME_START = 1;
+    /**
+     * Type of the record of a move
+     */
+    public static final byte MOVE = 2;
+    /**
+     * Type of the record marking the end of a game
+     */
+    public static final byte GAME_END = 3;
+    /**
+     * Type of the record of the take-back of the most recent move
+     */
+    public static final byte UNDO = 4;
+
+    /**
+     * Level of intelligence recorded for a human player
+     */
+    public static final int HUMAN_LEVEL = -1;
+    /**
+     * Outcome of a drawn game
+     */
+    public static final char OUTCOME_DRAW = 'D';
+    /**
+     * Outcome of a game abandoned before reaching its terminal state
+     */
+    public static final char OUTCOME_ABANDONED = 'A';
+
+    /**
+     * Length of the prefix holding the length of a record (in bytes)
+     */
+    public static final int PREFIX_LENGTH = Integer.BYTES;
+    /**
+     * Maximum length of a record, including its prefix (in bytes)
+     */
+    public static final int MAX_LENGTH = PREFIX_LENGTH + 1 + 3 * Long.BYTES + 3;
+
+    /* Type of this record */
+    private byte type;
+    /* ID of the game */
+    private long game;
+    /* ID of the session in which the game is played */
+    private long session;
+
+    /* Wall-clock time of the start of the game (in milliseconds since the epoch) */
+    private long timestamp;
+    /* Token of the first player to move */
+    private char first;
+    /* Level of intelligence of the human player */
+    private int levelH;
+    /* Level of intelligence of the computer player */
+    private int levelC;
+
+    /* Token of the player making the move */
+    private char player;
+    /* Tile of the move (0 to 8, in row-major order) */
+    private int tile;
+    /* Level of intelligence of the player making the move */
+    private int level;
+    /* Decision time of the move (in nanoseconds) */
+    private long decisionTime;
+
+    /* Outcome of the game */
+    private char outcome;
+
+    /**
+     * Creates a record of the given type, game, and session (the other fields are set by the reader)
+     *
+     * @param type type of the record
+     * @param game ID of the game
+     * @param session ID of the session
+     */
+    private JournalRecord(byte type, long game, long session) {
+        this.type = type;
+        this.game = game;
+        this.session = session;
+    }
+
+    /**
+     * Appends a <code>GAME_START</code> record to the buffer
+     *
+     * @param buffer buffer with at least <code>MAX_LENGTH</code> bytes remaining
+     * @param game ID of the game
+     * @param session ID of the session
+     * @param timestamp wall-clock time of the start of the game (in milliseconds since the epoch)
+     * @param first token of the first player to move
+     * @param levelH level of intelligence of the human player
+     * @param levelC level of intelligence of the computer player
+     */
+    static void putGameStart(ByteBuffer buffer, long game, long session, long timestamp, char first,
+                             int levelH, int levelC) {
+        buffer.putInt(1 + 3 * Long.BYTES + 3);
+        buffer.put(GAME_START);
+        buffer.putLong(game);
+        buffer.putLong(session);
+        buffer.putLong(timestamp);
+        buffer.put((byte) first);
+        buffer.put((byte) levelH);
+        buffer.put((byte) levelC);
+    }
+
+    /**
+     * Appends a <code>MOVE</code> record to the buffer
+     *
+     * @param buffer buffer with at least <code>MAX_LENGTH</code> bytes remaining
+     * @param game ID of the game
+     * @param session ID of the session
+     * @param player token of the player making the move
+     * @param tile tile of the move (0 to 8, in row-major order)
+     * @param level level of intelligence of the player making the move
+     * @param decisionTime decision time of the move (in nanoseconds)
+     */
+    static void putMove(ByteBuffer buffer, long game, long session, char player, int tile, int level,
+                        long decisionTime) {
+        buffer.putInt(1 + 3 * Long.BYTES + 3);
+        buffer.put(MOVE);
+        buffer.putLong(game);
+        buffer.putLong(session);
+        buffer.put((byte) player);
+        buffer.put((byte) tile);
+        buffer.put((byte) level);
+        buffer.putLong(decisionTime);
+    }
+
+    /**
+     * Appends an <code>UNDO</code> record to the buffer
+     *
+     * @param buffer buffer with at least <code>MAX_LENGTH</code> bytes remaining
+     * @param game ID of the game
+     * @param session ID of the session
+     */
+    static void putUndo(ByteBuffer buffer, long game, long session) {
+        buffer.putInt(1 + 2 * Long.BYTES);
+        buffer.put(UNDO);
+        buffer.putLong(game);
+        buffer.putLong(session);
+    }
+
+    /**
+     * Appends a <code>GAME_END</code> record to the buffer
+     *
+     * @param buffer buffer with at least <code>MAX_LENGTH</code> bytes remaining
+     * @param game ID of the game
+     * @param session ID of the session
+     * @param outcome outcome of the game
+     */
+    static void putGameEnd(ByteBuffer buffer, long game, long session, char outcome) {
+        buffer.putInt(1 + 2 * Long.BYTES + 1);
+        buffer.put(GAME_END);
+        buffer.putLong(game);
+        buffer.putLong(session);
+        buffer.put((byte) outcome);
+    }
+
+    /**
+     * Reads the record starting at the current position of the buffer (which must hold all of its
+     * bytes), advancing the position past it
+     *
+     * <p>Records of an unknown type are skipped and returned with only their type, game, and session
+     * set, so that later versions of the journal can add record types. </p>
+     *
+     * @param buffer buffer holding the record
+     * @return record read from the buffer
+     */
+    static JournalRecord get(ByteBuffer buffer) {
+        int length;
+        int end;
+        JournalRecord record;
+
+        length = buffer.getInt();
+        end = buffer.position() + length;
+        record = new JournalRecord(buffer.get(), buffer.getLong(), buffer.getLong());
+
+        switch (record.type) {
+            case GAME_START:
+                record.timestamp = buffer.getLong();
+                record.first = (char) buffer.get();
+                record.levelH = buffer.get();
+                record.levelC = buffer.get();
+                break;
+            case MOVE:
+                record.player = (char) buffer.get();
+                record.tile = buffer.get();
+                record.level = buffer.get();
+                record.decisionTime = buffer.getLong();
+                break;
+            case GAME_END:
+                record.outcome = (char) buffer.get();
+                break;
+        }
+
+        buffer.position(end);
+        return record;
+    }
+
+    /**
+     * Returns the type of this record
+     *
+     * @return type of this record
+     */
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Returns the ID of the game
+     *
+     * @return ID of the game
+     */
+    public long getGame() {
+        return game;
+    }
+
+    /**
+     * Returns the ID of the session in which the game is played
+     *
+     * @return ID of the session
+     */
+    public long getSession() {
+        return session;
+    }
+
+    /**
+     * Returns the wall-clock time of the start of the game (only for <code>GAME_START</code>)
+     *
+     * @return wall-clock time of the start of the game (in milliseconds since the epoch)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the token of the first player to move (only for <code>GAME_START</code>)
+     *
+     * @return token of the first player to move
+     */
+    public char getFirst() {
+        return first;
+    }
+
+    /**
+     * Returns the level of intelligence of the human player (only for <code>GAME_START</code>)
+     *
+     * @return level of intelligence of the human player
+     */
+    public int getLevelH() {
+        return levelH;
+    }
+
+    /**
+     * Returns the level of intelligence of the computer player (only for <code>GAME_START</code>)
+     *
+     * @return level of intelligence of the computer player
+     */
+    public int getLevelC() {
+        return levelC;
+    }
+
+    /**
+     * Returns the token of the player making the move (only for <code>MOVE</code>)
+     *
+     * @return token of the player making the move
+     */
+    public char getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns the row-coordinate of the move (only for <code>MOVE</code>)
+     *
+     * @return row-coordinate of the move
+     */
+    public int getRow() {
+        return tile / Board.DIMENSION;
+    }
+
+    /**
+     * Returns the column-coordinate of the move (only for <code>MOVE</code>)
+     *
+     * @return column-coordinate of the move
+     */
+    public int getCol() {
+        return tile % Board.DIMENSION;
+    }
+
+    /**
+     * Returns the level of intelligence of the player making the move (only for <code>MOVE</code>)
+     *
+     * @return level of intelligence of the player making the move
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the decision time of the move (only for <code>MOVE</code>)
+     *
+     * @return decision time of the move (in nanoseconds)
+     */
+    public long getDecisionTime() {
+        return decisionTime;
+    }
+
+    /**
+     * Returns the outcome of the game (only for <code>GAME_END</code>)
+     *
+     * @return outcome of the game
+     */
+    public char getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,199 @@
+package journal;
+
+import tic_tac_toe.Board;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Class implementing the <b>replay tool</b> of the game journal, which lists the games recorded in a
+ * journal and reconstructs any of them move by move
+ */
+public class JournalReplay {
+    /**
+     * Empty constructor
+     */
+    public JournalReplay() {
+
+    }
+
+    /**
+     * Returns the records of the given game, in the order in which they were written
+     *
+     * @param dir directory of the journal
+     * @param game ID of the game
+     * @return records of the given game (empty if there is no such game)
+     * @throws IOException if the journal cannot be read
+     */
+    public static ArrayList<JournalRecord> readGame(Path dir, long game) throws IOException {
+        ArrayList<JournalRecord> records;
+        records = new ArrayList<JournalRecord>();
+
+        try (JournalReader reader = new JournalReader(dir)) {
+            JournalRecord record;
+
+            while ((record = reader.next()) != null) {
+                if (record.getGame() == game) {
+                    records.add(record);
+
+                    if (record.getType() == JournalRecord.GAME_END) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Reconstructs the final board of a game by applying its recorded moves (and take-backs) to an
+     * empty board
+     *
+     * @param records records of the game
+     * @return final board of the game
+     */
+    public static Board replay(ArrayList<JournalRecord> records) {
+        Board b;
+        b = new Board();
+
+        for (JournalRecord record : records) {
+            if (record.getType() == JournalRecord.MOVE) {
+                b.makeMove(record.getRow(), record.getCol(), record.getPlayer());
+            } else if (record.getType() == JournalRecord.UNDO) {
+                b.pop();
+            }
+        }
+
+        return b;
+    }
+
+    /**
+     * Prints a game move by move, showing the board after every move
+     *
+     * @param records records of the game
+     */
+    private static void printGame(ArrayList<JournalRecord> records) {
+        Board b;
+        int ply;
+
+        b = new Board();
+        ply = 0;
+
+        for (JournalRecord record : records) {
+            switch (record.getType()) {
+                case JournalRecord.GAME_START:
+                    System.out.printf("Game %d (session %d): %s first, human level %d, computer level %d%n",
+                            record.getGame(), record.getSession(), record.getFirst(), record.getLevelH(),
+                            record.getLevelC());
+                    break;
+                case JournalRecord.MOVE:
+                    b.makeMove(record.getRow(), record.getCol(), record.getPlayer());
+                    ply++;
+
+                    System.out.printf("%2d. %s %d %d  %s  (level %d, %.3f ms)%n", ply, record.getPlayer(),
+                            record.getRow(), record.getCol(), b.getConfig(), record.getLevel(),
+                            record.getDecisionTime() / 1e6);
+                    break;
+                case JournalRecord.UNDO:
+                    b.pop();
+                    ply--;
+
+                    System.out.printf("    undo     %s%n", b.getConfig());
+                    break;
+                case JournalRecord.GAME_END:
+                    System.out.println("Outcome: " + record.getOutcome());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Prints a one-line summary of every game in the journal, as each game ends (games that never
+     * ended are listed last as incomplete)
+     *
+     * @param dir directory of the journal
+     * @throws IOException if the journal cannot be read
+     */
+    private static void listGames(Path dir) throws IOException {
+        HashMap<Long, JournalRecord> starts;    // start of each game that has not yet ended
+        HashMap<Long, Integer> numMoves;        // number of moves of each game that has not yet ended
+
+        starts = new HashMap<Long, JournalRecord>();
+        numMoves = new HashMap<Long, Integer>();
+
+        try (JournalReader reader = new JournalReader(dir)) {
+            JournalRecord record;
+
+            while ((record = reader.next()) != null) {
+                switch (record.getType()) {
+                    case JournalRecord.GAME_START:
+                        starts.put(record.getGame(), record);
+                        numMoves.put(record.getGame(), 0);
+                        break;
+                    case JournalRecord.MOVE:
+                        numMoves.merge(record.getGame(), 1, Integer::sum);
+                        break;
+                    case JournalRecord.UNDO:
+                        numMoves.merge(record.getGame(), -1, Integer::sum);
+                        break;
+                    case JournalRecord.GAME_END:
+                        printSummary(starts.remove(record.getGame()), numMoves.remove(record.getGame()),
+                                String.valueOf(record.getOutcome()));
+                        break;
+                }
+            }
+        }
+
+        for (JournalRecord start : starts.values()) {
+            printSummary(start, numMoves.get(start.getGame()), "incomplete");
+        }
+    }
+
+    /**
+     * Prints the one-line summary of a game
+     *
+     * @param start start of the game (null if not found in the journal)
+     * @param numMoves number of moves of the game
+     * @param outcome outcome of the game
+     */
+    private static void printSummary(JournalRecord start, Integer numMoves, String outcome) {
+        if (start == null) {
+            return;
+        }
+
+        System.out.printf("game %d session %d first %s levels H=%d C=%d moves %d outcome %s%n", start.getGame(),
+                start.getSession(), start.getFirst(), start.getLevelH(), start.getLevelC(),
+                numMoves == null ? 0 : numMoves, outcome);
+    }
+
+    /**
+     * Lists the games of a journal, or replays one of them
+     *
+     * <p>The arguments are, in order: the directory of the journal and, optionally, the ID of the game
+     * to be replayed. Without a game ID, every game is summarized on one line. </p>
+     *
+     * @param args array of command-line arguments
+     * @throws IOException if the journal cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir;
+        dir = Paths.get(args[0]);
+
+        if (args.length > 1) {
+            ArrayList<JournalRecord> records;
+            records = readGame(dir, Long.parseLong(args[1]));
+
+            if (records.isEmpty()) {
+                System.out.println("No such game: " + args[1]);
+            } else {
+                printGame(records);
+            }
+        } else {
+            listGames(dir);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Provides classes for the <b>game journal</b>, an append-only binary record of every move played,
+ * and for replaying the games recorded in it
+ */
+
+package journal;
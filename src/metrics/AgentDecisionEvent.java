@@ -0,0 +1,68 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Class implementing the <b>flight-recorder event of a decision</b> of a tic-tac-toe-playing agent,
+ * spanning the call to <code>evalBestMove</code>
+ *
+ * <p>The event is disabled by default, in which case it costs next to nothing: its construction is
+ * optimized away and <code>shouldCommit</code> returns <code>false</code> without reading the clock.
+ * It is enabled by the settings file <code>tictactoe.jfc</code> (see <code>package-info</code>) or
+ * by any other settings enabling <code>tictactoe.AgentDecision</code>. </p>
+ */
+@Name("tictactoe.AgentDecision")
+@Label("Agent Decision")
+@Description("Decision of a tic-tac-toe-playing agent")
+@Category({"Tic-Tac-Toe", "Agent"})
+@Enabled(false)
+@StackTrace(false)
+public class AgentDecisionEvent extends Event {
+    /**
+     * Level of intelligence of the agent
+     */
+    @Label("Level")
+    public int level;
+
+    /**
+     * Key of the board state on which the agent decided (see <code>Board.getKey</code>)
+     */
+    @Label("Board Key")
+    public int boardKey;
+
+    /**
+     * Number of nodes visited by the search (0 if the decision was not searched)
+     */
+    @Label("Nodes")
+    public long nodes;
+
+    /**
+     * Number of decisions answered from a cache instead of being searched
+     */
+    @Label("Cache Hits")
+    public long cacheHits;
+
+    /**
+     * Numerical evaluation of the selected move
+     */
+    @Label("Score")
+    public int score;
+
+    /**
+     * Row-coordinate of the selected move
+     */
+    @Label("Row")
+    public int row;
+
+    /**
+     * Column-coordinate of the selected move
+     */
+    @Label("Column")
+    public int col;
+}
@@ -0,0 +1,47 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class implementing a <b>counter</b> of a metrics registry, that is, a monotonically increasing count
+ * (such as the number of games played)
+ *
+ * <p>The count is striped across cells (see <code>LongAdder</code>), so that threads incrementing it
+ * concurrently do not contend on a single memory location. </p>
+ */
+public class Counter {
+    /* Count of this counter */
+    private final LongAdder count;
+
+    /**
+     * Creates a counter with a count of 0
+     */
+    public Counter() {
+        count = new LongAdder();
+    }
+
+    /**
+     * Increments the count of this counter by 1
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Increments the count of this counter by the given amount
+     *
+     * @param amount non-negative amount by which the count is incremented
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Returns the count of this counter
+     *
+     * @return count of this counter
+     */
+    public long get() {
+        return count.sum();
+    }
+}
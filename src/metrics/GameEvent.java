@@ -0,0 +1,49 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Class implementing the <b>flight-recorder event of a game</b> managed by a game master, spanning
+ * the game from its first move to its end
+ *
+ * <p>The event is disabled by default, in which case it costs next to nothing. If it is enabled in
+ * the middle of a game, it is first emitted for the next game. </p>
+ */
+@Name("tictactoe.Game")
+@Label("Game")
+@Description("Tic-tac-toe game from its first move to its end")
+@Category({"Tic-Tac-Toe", "Game"})
+@Enabled(false)
+@StackTrace(false)
+public class GameEvent extends Event {
+    /**
+     * Level of intelligence of the agent
+     */
+    @Label("Level")
+    public int level;
+
+    /**
+     * Token of the player who made the first move of the game
+     */
+    @Label("First Player")
+    public char firstPlayer;
+
+    /**
+     * Outcome of the game: the token of the winner, <code>JournalRecord.OUTCOME_DRAW</code> for a
+     * draw, or <code>JournalRecord.OUTCOME_ABANDONED</code> for a game cleared before its end
+     */
+    @Label("Outcome")
+    public char outcome;
+
+    /**
+     * Number of moves of the game
+     */
+    @Label("Moves")
+    public int numMoves;
+}
@@ -0,0 +1,201 @@
+package metrics;
+
+import journal.JournalRecord;
+import tic_tac_toe.Board;
+
+/**
+ * Class implementing the <b>game metrics</b> of the tic-tac-toe program, that is, the counters and
+ * histograms of the games and the agents' decisions, registered into a metrics registry
+ *
+ * <p>The metrics are as follows (every metric except the moves is labeled with the level of
+ * intelligence of the agent): </p>
+ * <ul>
+ *     <li><code>tictactoe_games_started_total</code> &mdash; games started</li>
+ *     <li><code>tictactoe_games_finished_total</code> &mdash; games finished, labeled with their outcome
+ *     (<code>agent</code>, <code>human</code>, <code>draw</code>, or <code>abandoned</code>)</li>
+ *     <li><code>tictactoe_moves_total</code> &mdash; moves made, whose rate is the number of moves per
+ *     second</li>
+ *     <li><code>tictactoe_decisions_total</code> &mdash; decisions of the agents, labeled with whether
+ *     they were searched (<code>search</code>) or answered from the ponder cache, the opening book, or
+ *     the evaluation cache (<code>cache</code>)</li>
+ *     <li><code>tictactoe_decision_cache_hit_ratio</code> &mdash; fraction of the decisions (of all the
+ *     levels) answered without searching</li>
+ *     <li><code>tictactoe_decision_latency_seconds</code> &mdash; latency of the decisions</li>
+ * </ul>
+ *
+ * <p>All the metrics are registered once, on construction, and kept in arrays indexed by level, so
+ * recording a move or a decision costs a few uncontended increments and no lookup. </p>
+ */
+public class GameMetrics {
+    /**
+     * Number of levels of intelligence of the agent
+     */
+    public static final int NUM_LEVELS = 6;
+
+    /* Game metrics of this process, registered into the default registry (created on first use) */
+    private static GameMetrics defaultMetrics;
+
+    /* Games started, per level */
+    private final Counter[] gamesStarted;
+    /* Games won by the agent, per level */
+    private final Counter[] agentWins;
+    /* Games won by the human player, per level */
+    private final Counter[] humanWins;
+    /* Drawn games, per level */
+    private final Counter[] draws;
+    /* Games abandoned before their end, per level */
+    private final Counter[] abandoned;
+    /* Moves made */
+    private final Counter moves;
+    /* Searched decisions, per level */
+    private final Counter[] searched;
+    /* Decisions answered without searching, per level */
+    private final Counter[] cached;
+    /* Latency of the decisions, per level */
+    private final LatencyHistogram[] decisionLatencies;
+
+    /**
+     * Creates the game metrics, registering them into the given registry
+     *
+     * @param registry metrics registry into which the metrics are registered
+     */
+    public GameMetrics(MetricsRegistry registry) {
+        gamesStarted = new Counter[NUM_LEVELS];
+        agentWins = new Counter[NUM_LEVELS];
+        humanWins = new Counter[NUM_LEVELS];
+        draws = new Counter[NUM_LEVELS];
+        abandoned = new Counter[NUM_LEVELS];
+        searched = new Counter[NUM_LEVELS];
+        cached = new Counter[NUM_LEVELS];
+        decisionLatencies = new LatencyHistogram[NUM_LEVELS];
+
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            String l;
+            l = Integer.toString(level);
+
+            gamesStarted[level] = registry.counter("tictactoe_games_started_total", "Games started", "level", l);
+        }
+
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            String l;
+            String help;
+
+            l = Integer.toString(level);
+            help = "Games finished, by outcome";
+
+            agentWins[level] = registry.counter("tictactoe_games_finished_total", help, "level", l, "outcome", "agent");
+            humanWins[level] = registry.counter("tictactoe_games_finished_total", help, "level", l, "outcome", "human");
+            draws[level] = registry.counter("tictactoe_games_finished_total", help, "level", l, "outcome", "draw");
+            abandoned[level] = registry.counter("tictactoe_games_finished_total", help, "level", l, "outcome",
+                    "abandoned");
+        }
+
+        moves = registry.counter("tictactoe_moves_total", "Moves made");
+
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            String l;
+            String help;
+
+            l = Integer.toString(level);
+            help = "Decisions of the agent, by whether they were searched or answered from a cache";
+
+            searched[level] = registry.counter("tictactoe_decisions_total", help, "level", l, "source", "search");
+            cached[level] = registry.counter("tictactoe_decisions_total", help, "level", l, "source", "cache");
+        }
+
+        registry.gauge("tictactoe_decision_cache_hit_ratio", "Fraction of the decisions answered from a cache",
+                this::getCacheHitRatio);
+
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            decisionLatencies[level] = registry.histogram("tictactoe_decision_latency_seconds",
+                    "Latency of the decisions of the agent", "level", Integer.toString(level));
+        }
+    }
+
+    /**
+     * Returns the game metrics of this process, registered into the default metrics registry
+     *
+     * @return game metrics of this process
+     */
+    public static synchronized GameMetrics getDefault() {
+        if (defaultMetrics == null) {
+            defaultMetrics = new GameMetrics(MetricsRegistry.getDefault());
+        }
+
+        return defaultMetrics;
+    }
+
+    /**
+     * Records the start of a game
+     *
+     * @param level level of intelligence of the agent
+     */
+    public void recordGameStart(int level) {
+        gamesStarted[level].increment();
+    }
+
+    /**
+     * Records the end of a game
+     *
+     * @param level level of intelligence of the agent
+     * @param outcome outcome of the game: the token of the winner, <code>JournalRecord.OUTCOME_DRAW</code>
+     *                for a draw, or <code>JournalRecord.OUTCOME_ABANDONED</code> for a game cleared before
+     *                its end
+     */
+    public void recordGameEnd(int level, char outcome) {
+        switch (outcome) {
+            case Board.COMPUTER_TOKEN:
+                agentWins[level].increment();
+                break;
+            case Board.HUMAN_TOKEN:
+                humanWins[level].increment();
+                break;
+            case JournalRecord.OUTCOME_DRAW:
+                draws[level].increment();
+                break;
+            case JournalRecord.OUTCOME_ABANDONED:
+                abandoned[level].increment();
+                break;
+        }
+    }
+
+    /**
+     * Records a move
+     */
+    public void recordMove() {
+        moves.increment();
+    }
+
+    /**
+     * Records a decision of the agent
+     *
+     * @param level level of intelligence of the agent
+     * @param isSearched <code>true</code> if the decision was searched; <code>false</code>, if it was
+     *                   answered from a cache
+     * @param latency latency of the decision (in nanoseconds)
+     */
+    public void recordDecision(int level, boolean isSearched, long latency) {
+        (isSearched ? searched : cached)[level].increment();
+        decisionLatencies[level].record(latency);
+    }
+
+    /**
+     * Returns the fraction of the decisions (of all the levels) answered from a cache
+     *
+     * @return fraction of the decisions answered from a cache (0 if no decision has been recorded)
+     */
+    public double getCacheHitRatio() {
+        long numSearched;
+        long numCached;
+
+        numSearched = 0;
+        numCached = 0;
+
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            numSearched += searched[level].get();
+            numCached += cached[level].get();
+        }
+
+        return numSearched + numCached == 0 ? 0 : (double) numCached / (numSearched + numCached);
+    }
+}
@@ -0,0 +1,41 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Class implementing the <b>flight-recorder event of a move applied to the graphical user
+ * interface</b>, spanning the update of the board on the screen
+ *
+ * <p>The event is disabled by default, in which case it costs next to nothing. </p>
+ */
+@Name("tictactoe.GuiMove")
+@Label("GUI Move")
+@Description("Application of a move to the board on the screen")
+@Category({"Tic-Tac-Toe", "GUI"})
+@Enabled(false)
+@StackTrace(false)
+public class GuiMoveEvent extends Event {
+    /**
+     * Row-coordinate of the move
+     */
+    @Label("Row")
+    public int row;
+
+    /**
+     * Column-coordinate of the move
+     */
+    @Label("Column")
+    public int col;
+
+    /**
+     * Front-end token of the player making the move
+     */
+    @Label("Token")
+    public char token;
+}
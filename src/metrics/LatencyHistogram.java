@@ -0,0 +1,235 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class implementing a <b>latency histogram</b> with logarithmic buckets, in the manner of an HDR
+ * histogram, which records latencies (in nanoseconds) in constant memory and reports their percentiles
+ * with a bounded relative error
+ *
+ * <p>Latencies below 128 ns have a bucket of their own. Above, every power-of-two range is divided
+ * into 64 equal buckets, so a latency is reported with a relative error of at most 1/64 (about 1.6%)
+ * over the full range of <code>long</code>, using fewer than 4,000 buckets. A percentile is reported
+ * as the highest latency of its bucket (but no more than the maximum recorded latency). </p>
+ *
+ * <p>Recording is lock-free and safe from any number of threads. </p>
+ */
+public class LatencyHistogram {
+    /* Number of bits of a bucket index within its power-of-two range (plus one) */
+    private static final int SUB_BUCKET_BITS = 7;
+    /* Number of buckets of the latencies below 2^SUB_BUCKET_BITS */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /* Number of buckets of every power-of-two range above */
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    /* Total number of buckets */
+    private static final int NUM_BUCKETS = getIndex(Long.MAX_VALUE) + 1;
+
+    /* Number of latencies recorded into each bucket */
+    private final AtomicLongArray counts;
+    /* Number of latencies recorded */
+    private final AtomicLong totalCount;
+    /* Sum of the latencies recorded (in nanoseconds) */
+    private final AtomicLong totalLatency;
+    /* Maximum latency recorded (in nanoseconds) */
+    private final AtomicLong maxLatency;
+
+    /**
+     * Creates an empty latency histogram
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(NUM_BUCKETS);
+        totalCount = new AtomicLong();
+        totalLatency = new AtomicLong();
+        maxLatency = new AtomicLong();
+    }
+
+    /**
+     * Records a latency (negative latencies are recorded as 0)
+     *
+     * @param latency latency (in nanoseconds)
+     */
+    public void record(long latency) {
+        latency = Math.max(0, latency);
+
+        counts.incrementAndGet(getIndex(latency));
+        totalCount.incrementAndGet();
+        totalLatency.addAndGet(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Adds all the latencies recorded into the given histogram to this one
+     *
+     * @param other histogram whose latencies are added
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            long count;
+            count = other.counts.get(i);
+
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+
+        totalCount.addAndGet(other.totalCount.get());
+        totalLatency.addAndGet(other.totalLatency.get());
+        maxLatency.accumulateAndGet(other.maxLatency.get(), Math::max);
+    }
+
+    /**
+     * Returns the index of the bucket of the given latency
+     *
+     * @param latency non-negative latency (in nanoseconds)
+     * @return index of the bucket of the latency
+     */
+    private static int getIndex(long latency) {
+        if (latency < SUB_BUCKET_COUNT) {
+            return (int) latency;
+        }
+
+        /* Shift the latency into [SUB_BUCKET_HALF, SUB_BUCKET_COUNT) to find its bucket within its range. */
+        int shift;
+        shift = 63 - Long.numberOfLeadingZeros(latency) - (SUB_BUCKET_BITS - 1);
+
+        return (shift + 1) * SUB_BUCKET_HALF + (int) (latency >>> shift) - SUB_BUCKET_HALF;
+    }
+
+    /**
+     * Returns the highest latency of the given bucket
+     *
+     * @param index index of the bucket
+     * @return highest latency of the bucket (in nanoseconds)
+     */
+    private static long getHighestLatency(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift;
+        long subBucket;
+
+        shift = index / SUB_BUCKET_HALF - 1;
+        subBucket = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+
+        /* For the last bucket, the shift wraps around to Long.MIN_VALUE, so that it ends at Long.MAX_VALUE. */
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Returns the latency at the given percentile, that is, the least latency at or below which the
+     * given percentage of the recorded latencies lie (0 if no latency has been recorded)
+     *
+     * @param percentile percentile (from 0 to 100)
+     * @return latency at the given percentile (in nanoseconds)
+     */
+    public long getPercentile(double percentile) {
+        long count;
+        long target;
+        long cumulative;
+
+        count = totalCount.get();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        cumulative = 0;
+
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            cumulative += counts.get(i);
+
+            if (cumulative >= target) {
+                return Math.min(getHighestLatency(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Returns the number of latencies recorded
+     *
+     * @return number of latencies recorded
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the maximum latency recorded (0 if no latency has been recorded)
+     *
+     * @return maximum latency recorded (in nanoseconds)
+     */
+    public long getMax() {
+        return maxLatency.get();
+    }
+
+    /**
+     * Returns the sum of the latencies recorded
+     *
+     * @return sum of the latencies recorded (in nanoseconds)
+     */
+    public long getSum() {
+        return totalLatency.get();
+    }
+
+    /**
+     * Returns the mean of the latencies recorded (0 if no latency has been recorded)
+     *
+     * @return mean of the latencies recorded (in nanoseconds)
+     */
+    public double getMean() {
+        long count;
+        count = totalCount.get();
+
+        return count == 0 ? 0 : (double) totalLatency.get() / count;
+    }
+
+    /**
+     * Returns the number of latencies recorded into each non-empty bucket, as pairs of the highest
+     * latency of the bucket (in nanoseconds) and the count, in increasing order of latency
+     *
+     * @return pairs of the highest latency and the count of each non-empty bucket
+     */
+    public long[][] getDistribution() {
+        int numNonEmpty;
+        numNonEmpty = 0;
+
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            if (counts.get(i) > 0) {
+                numNonEmpty++;
+            }
+        }
+
+        long[][] distribution;
+        distribution = new long[numNonEmpty][];
+
+        for (int i = 0, k = 0; i < NUM_BUCKETS && k < numNonEmpty; i++) {
+            long count;
+            count = counts.get(i);
+
+            if (count > 0) {
+                distribution[k++] = new long[] {getHighestLatency(i), count};
+            }
+        }
+
+        return distribution;
+    }
+
+    /**
+     * Returns a string representation of this histogram
+     *
+     * <p>The string representation contains the number of latencies recorded, and the 50th, 99th,
+     * and 99.9th percentiles and the maximum of the latencies (in milliseconds). </p>
+     *
+     * @return string representation of this histogram
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.3f p99=%.3f p999=%.3f max=%.3f ms", getCount(), getPercentile(50) / 1e6,
+                getPercentile(99) / 1e6, getPercentile(99.9) / 1e6, getMax() / 1e6);
+    }
+}
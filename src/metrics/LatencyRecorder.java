@@ -0,0 +1,216 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class implementing a <b>latency recorder</b>, which records the decision times of the
+ * tic-tac-toe-playing agents into latency histograms, per level of intelligence and per move number
+ *
+ * <p>The move number is the number of the move within its game, from 1 (the first move of the game)
+ * to <code>Board.DIMENSION * Board.DIMENSION</code>. Since the searches of the agents explore fewer
+ * positions as the game proceeds, their decision times depend heavily on the move number, so that
+ * the tail latencies of a level are best read per move number. </p>
+ *
+ * <p>Recording is lock-free and safe from any number of threads, so a recorder can be shared by the
+ * graphical user interface, the headless runners, and the game-session server. </p>
+ */
+public class LatencyRecorder {
+    /* System property naming the file into which the latencies of this process are exported on exit */
+    private static final String REPORT_PROPERTY = "tictactoe.latencyReport";
+    /* Move number under which the latencies of all the moves of a level are aggregated */
+    private static final int ALL_MOVES = 0;
+    /* Latency recorder of this process (created on first use) */
+    private static LatencyRecorder defaultRecorder;
+
+    /* Latency histograms, keyed by level of intelligence and move number (see getKey) */
+    private final ConcurrentHashMap<Integer, LatencyHistogram> histograms;
+
+    /**
+     * Creates an empty latency recorder
+     */
+    public LatencyRecorder() {
+        histograms = new ConcurrentHashMap<Integer, LatencyHistogram>();
+    }
+
+    /**
+     * Returns the latency recorder of this process
+     *
+     * <p>If the <code>tictactoe.latencyReport</code> system property names a file, the latencies
+     * recorded into this recorder are exported into it on exit.</p>
+     *
+     * @return latency recorder of this process
+     */
+    public static synchronized LatencyRecorder getDefault() {
+        if (defaultRecorder == null) {
+            defaultRecorder = new LatencyRecorder();
+
+            String file;
+            file = System.getProperty(REPORT_PROPERTY);
+
+            if (file != null) {
+                LatencyRecorder recorder;
+                recorder = defaultRecorder;
+
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        recorder.export(Paths.get(file));
+                    } catch (IOException e) {
+                        System.err.println("Latencies not exported: " + e.getMessage());
+                    }
+                }, "latency-export"));
+            }
+        }
+
+        return defaultRecorder;
+    }
+
+    /**
+     * Returns the key of the histogram of the given level of intelligence and move number
+     *
+     * @param level level of intelligence of the agent
+     * @param moveNumber move number (<code>ALL_MOVES</code> for all the moves of the level)
+     * @return key of the histogram
+     */
+    private static int getKey(int level, int moveNumber) {
+        return (level << 8) | moveNumber;
+    }
+
+    /**
+     * Returns the histogram of the given level of intelligence and move number, creating it if
+     * necessary
+     *
+     * @param level level of intelligence of the agent
+     * @param moveNumber move number (<code>ALL_MOVES</code> for all the moves of the level)
+     * @return histogram of the level and move number
+     */
+    private LatencyHistogram getOrCreate(int level, int moveNumber) {
+        return histograms.computeIfAbsent(getKey(level, moveNumber), key -> new LatencyHistogram());
+    }
+
+    /**
+     * Records the decision time of an agent
+     *
+     * @param level level of intelligence of the agent
+     * @param moveNumber number of the move within its game (from 1)
+     * @param latency decision time of the agent (in nanoseconds)
+     */
+    public void record(int level, int moveNumber, long latency) {
+        getOrCreate(level, ALL_MOVES).record(latency);
+        getOrCreate(level, moveNumber).record(latency);
+    }
+
+    /**
+     * Returns the histogram of the decision times of all the moves of the given level of intelligence
+     * (empty if none has been recorded)
+     *
+     * @param level level of intelligence of the agent
+     * @return histogram of the decision times of the level
+     */
+    public LatencyHistogram getHistogram(int level) {
+        return getHistogram(level, ALL_MOVES);
+    }
+
+    /**
+     * Returns the histogram of the decision times of the given level of intelligence and move number
+     * (empty if none has been recorded)
+     *
+     * @param level level of intelligence of the agent
+     * @param moveNumber number of the move within its game (from 1)
+     * @return histogram of the decision times of the level and move number
+     */
+    public LatencyHistogram getHistogram(int level, int moveNumber) {
+        LatencyHistogram histogram;
+        histogram = histograms.get(getKey(level, moveNumber));
+
+        return histogram == null ? new LatencyHistogram() : histogram;
+    }
+
+    /**
+     * Returns the histograms recorded so far, sorted by level of intelligence and then by move number
+     * (with the histogram of all the moves of a level first)
+     *
+     * @return histograms recorded so far, keyed by level of intelligence and move number
+     */
+    private TreeMap<Integer, LatencyHistogram> getSortedHistograms() {
+        return new TreeMap<Integer, LatencyHistogram>(histograms);
+    }
+
+    /**
+     * Returns the label of the histogram with the given key
+     *
+     * @param key key of the histogram
+     * @return label of the histogram
+     */
+    private static String getLabel(int key) {
+        int level;
+        int moveNumber;
+
+        level = key >> 8;
+        moveNumber = key & 0xFF;
+
+        return "level " + level + (moveNumber == ALL_MOVES ? ", all moves" : ", move " + moveNumber);
+    }
+
+    /**
+     * Returns a report of the decision times recorded so far
+     *
+     * <p>The report has one line per level of intelligence and one per move number of each level,
+     * containing the number of decisions, and the 50th, 99th, and 99.9th percentiles and the maximum
+     * of their decision times (in milliseconds). </p>
+     *
+     * @return report of the decision times recorded so far
+     */
+    public String getReport() {
+        StringBuilder report;
+        report = new StringBuilder();
+
+        report.append(String.format("%-22s %10s %10s %10s %10s %10s%n", "(ms)", "n", "p50", "p99", "p999", "max"));
+
+        for (Map.Entry<Integer, LatencyHistogram> entry : getSortedHistograms().entrySet()) {
+            LatencyHistogram histogram;
+            histogram = entry.getValue();
+
+            report.append(String.format("%-22s %10d %10.3f %10.3f %10.3f %10.3f%n", getLabel(entry.getKey()),
+                    histogram.getCount(), histogram.getPercentile(50) / 1e6, histogram.getPercentile(99) / 1e6,
+                    histogram.getPercentile(99.9) / 1e6, histogram.getMax() / 1e6));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Exports the decision times recorded so far into the given file, overwriting it
+     *
+     * <p>The file contains the report of the decision times (see <code>getReport</code>), followed by
+     * the full distribution of every histogram, one bucket per line, as comma-separated values: the
+     * level of intelligence, the move number (0 for all the moves), the highest decision time of the
+     * bucket (in nanoseconds), and the number of decisions in the bucket. </p>
+     *
+     * @param file file into which the decision times are exported
+     * @throws IOException if the file cannot be written
+     */
+    public void export(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(getReport());
+            out.write(System.lineSeparator());
+            out.write("level,move,latencyNs,count");
+            out.write(System.lineSeparator());
+
+            for (Map.Entry<Integer, LatencyHistogram> entry : getSortedHistograms().entrySet()) {
+                for (long[] bucket : entry.getValue().getDistribution()) {
+                    out.write((entry.getKey() >> 8) + "," + (entry.getKey() & 0xFF) + "," + bucket[0] + ","
+                            + bucket[1]);
+                    out.write(System.lineSeparator());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class implementing the <b>metrics endpoint</b>, an HTTP handler that answers every request with the
+ * metrics of a registry in the Prometheus text exposition format
+ *
+ * <p>The handler can be mounted on an existing HTTP server (as the game-session server does under
+ * <code>/metrics</code>), or served on its own local port by <code>start</code>. </p>
+ */
+public class MetricsEndpoint implements HttpHandler {
+    /* System property giving the local port on which the metrics of this process are served */
+    private static final String PORT_PROPERTY = "tictactoe.metricsPort";
+    /* Content type of the Prometheus text exposition format */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /* Metrics registry served by this endpoint */
+    private final MetricsRegistry registry;
+
+    /**
+     * Creates a metrics endpoint serving the given registry
+     *
+     * @param registry metrics registry served by this endpoint
+     */
+    public MetricsEndpoint(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Answers a request with the metrics of the registry
+     *
+     * @param exchange HTTP request and response
+     * @throws IOException if the response cannot be written
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        byte[] body;
+        body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Serves the given registry under <code>/metrics</code> on the given local port (the requests are
+     * answered on the dispatcher thread of the server)
+     *
+     * @param port port on which the metrics are served (0 to pick a free port)
+     * @param registry metrics registry served
+     * @return HTTP server serving the metrics
+     * @throws IOException if the server cannot be bound to the port
+     */
+    public static HttpServer start(int port, MetricsRegistry registry) throws IOException {
+        HttpServer http;
+        http = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+
+        http.createContext("/metrics", new MetricsEndpoint(registry));
+        http.start();
+
+        return http;
+    }
+
+    /**
+     * Serves the default registry on the port given by the <code>tictactoe.metricsPort</code> system
+     * property, if it is set
+     *
+     * @return HTTP server serving the metrics, or <code>null</code> if the property is not set
+     * @throws IOException if the server cannot be bound to the port
+     */
+    public static HttpServer startDefault() throws IOException {
+        String port;
+        port = System.getProperty(PORT_PROPERTY);
+
+        return port == null ? null : start(Integer.parseInt(port), MetricsRegistry.getDefault());
+    }
+}
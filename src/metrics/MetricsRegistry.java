@@ -0,0 +1,301 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Class implementing a <b>metrics registry</b>, which holds named counters, gauges, and latency
+ * histograms, and renders them in the Prometheus text exposition format
+ *
+ * <p>A metric is identified by its name and its labels, given as alternating label names and values
+ * (for example, <code>counter("tictactoe_games_started_total", help, "level", "5")</code>). Registering
+ * a metric that is already registered returns the existing one, so the registration is idempotent.
+ * Registration and rendering hold the lock of the registry, but updating a metric does not: the
+ * callers are expected to register their metrics once and keep the returned objects, so that the hot
+ * paths only increment striped counters and record into lock-free histograms. </p>
+ *
+ * <p>Gauges are sampled when the registry is rendered. Latency histograms are recorded in nanoseconds
+ * and rendered as summaries in seconds, with the 50th, 90th, 99th, and 99.9th percentiles as
+ * quantiles. </p>
+ */
+public class MetricsRegistry {
+    /* Type of a counter in the exposition format */
+    private static final String COUNTER = "counter";
+    /* Type of a gauge in the exposition format */
+    private static final String GAUGE = "gauge";
+    /* Type of a latency histogram in the exposition format */
+    private static final String SUMMARY = "summary";
+    /* Quantiles rendered for every latency histogram */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /* Metrics registry of this process (created on first use) */
+    private static MetricsRegistry defaultRegistry;
+
+    /* Metric families in their order of registration, keyed by name */
+    private final LinkedHashMap<String, Family> families;
+    /* Lock guarding the registration and the rendering of the metrics */
+    private final ReentrantLock lock;
+
+    /**
+     * Class representing a <b>metric family</b>, that is, the metrics sharing a name (and differing
+     * only in their labels)
+     */
+    private static class Family {
+        /* Type of the metrics in the exposition format */
+        private final String type;
+        /* Description of the metrics */
+        private final String help;
+        /* Metrics of this family (Counter, DoubleSupplier, or LatencyHistogram), keyed by their labels */
+        private final LinkedHashMap<String, Object> series;
+
+        /**
+         * Creates an empty metric family
+         *
+         * @param type type of the metrics in the exposition format
+         * @param help description of the metrics
+         */
+        private Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+            this.series = new LinkedHashMap<String, Object>();
+        }
+    }
+
+    /**
+     * Creates an empty metrics registry
+     */
+    public MetricsRegistry() {
+        families = new LinkedHashMap<String, Family>();
+        lock = new ReentrantLock();
+    }
+
+    /**
+     * Returns the metrics registry of this process
+     *
+     * @return metrics registry of this process
+     */
+    public static synchronized MetricsRegistry getDefault() {
+        if (defaultRegistry == null) {
+            defaultRegistry = new MetricsRegistry();
+        }
+
+        return defaultRegistry;
+    }
+
+    /**
+     * Returns the counter with the given name and labels, registering it if necessary
+     *
+     * @param name name of the counter (by convention, ending in <code>_total</code>)
+     * @param help description of the counter
+     * @param labels alternating label names and values
+     * @return counter with the given name and labels
+     * @throws IllegalArgumentException if a metric of another type is registered under the name, or the
+     * labels are not given in pairs
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) register(name, COUNTER, help, labels, new Counter());
+    }
+
+    /**
+     * Registers a gauge with the given name and labels, whose value is sampled from the given
+     * supplier whenever the registry is rendered (replacing the supplier of the gauge if it is already
+     * registered)
+     *
+     * @param name name of the gauge
+     * @param help description of the gauge
+     * @param value supplier of the value of the gauge
+     * @param labels alternating label names and values
+     * @throws IllegalArgumentException if a metric of another type is registered under the name, or the
+     * labels are not given in pairs
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        lock.lock();
+
+        try {
+            getFamily(name, GAUGE, help).series.put(formatLabels(labels), value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the latency histogram with the given name and labels, registering it if necessary
+     *
+     * @param name name of the histogram (by convention, ending in <code>_seconds</code>)
+     * @param help description of the histogram
+     * @param labels alternating label names and values
+     * @return latency histogram with the given name and labels
+     * @throws IllegalArgumentException if a metric of another type is registered under the name, or the
+     * labels are not given in pairs
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) register(name, SUMMARY, help, labels, new LatencyHistogram());
+    }
+
+    /**
+     * Returns the metric with the given name and labels, registering the given metric if there is none
+     *
+     * @param name name of the metric
+     * @param type type of the metric in the exposition format
+     * @param help description of the metric
+     * @param labels alternating label names and values
+     * @param metric metric registered if there is none with the given name and labels
+     * @return metric with the given name and labels
+     */
+    private Object register(String name, String type, String help, String[] labels, Object metric) {
+        lock.lock();
+
+        try {
+            return getFamily(name, type, help).series.computeIfAbsent(formatLabels(labels), key -> metric);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the metric family with the given name, creating it if necessary (the calling thread must
+     * hold the lock)
+     *
+     * @param name name of the metric family
+     * @param type type of the metrics in the exposition format
+     * @param help description of the metrics
+     * @return metric family with the given name
+     * @throws IllegalArgumentException if a metric of another type is registered under the name
+     */
+    private Family getFamily(String name, String type, String help) {
+        Family family;
+        family = families.computeIfAbsent(name, key -> new Family(type, help));
+
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+
+        return family;
+    }
+
+    /**
+     * Formats the given labels as in the exposition format, without the enclosing braces
+     *
+     * @param labels alternating label names and values
+     * @return formatted labels (empty if there are none)
+     * @throws IllegalArgumentException if the labels are not given in pairs
+     */
+    private static String formatLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name-value pairs");
+        }
+
+        StringBuilder formatted;
+        formatted = new StringBuilder();
+
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                formatted.append(',');
+            }
+
+            /* Backslashes, double quotes, and line feeds in label values must be escaped. */
+            formatted.append(labels[i]).append("=\"").append(labels[i + 1].replace("\\", "\\\\")
+                    .replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+
+        return formatted.toString();
+    }
+
+    /**
+     * Appends a sample in the exposition format
+     *
+     * @param out buffer to which the sample is appended
+     * @param name name of the sample
+     * @param labels formatted labels of the sample (empty if there are none)
+     * @param value value of the sample
+     */
+    private static void appendSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+
+        out.append(' ');
+
+        /* Integral values are rendered without a fractional part. */
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+
+        out.append('\n');
+    }
+
+    /**
+     * Returns the metrics of this registry in the Prometheus text exposition format (version 0.0.4)
+     *
+     * @return metrics of this registry in the Prometheus text exposition format
+     */
+    public String scrape() {
+        ArrayList<Map.Entry<String, Family>> snapshot;
+
+        lock.lock();
+
+        try {
+            snapshot = new ArrayList<Map.Entry<String, Family>>(families.size());
+
+            for (Map.Entry<String, Family> entry : families.entrySet()) {
+                Family copy;
+                copy = new Family(entry.getValue().type, entry.getValue().help);
+                copy.series.putAll(entry.getValue().series);
+
+                snapshot.add(Map.entry(entry.getKey(), copy));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        /* The metrics are read outside the lock, since the gauges may take arbitrary locks. */
+        StringBuilder out;
+        out = new StringBuilder();
+
+        for (Map.Entry<String, Family> entry : snapshot) {
+            String name;
+            Family family;
+
+            name = entry.getKey();
+            family = entry.getValue();
+
+            out.append("# HELP ").append(name).append(' ')
+                    .append(family.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                String labels;
+                Object metric;
+
+                labels = series.getKey();
+                metric = series.getValue();
+
+                if (metric instanceof Counter) {
+                    appendSample(out, name, labels, ((Counter) metric).get());
+                } else if (metric instanceof DoubleSupplier) {
+                    appendSample(out, name, labels, ((DoubleSupplier) metric).getAsDouble());
+                } else {
+                    LatencyHistogram histogram;
+                    histogram = (LatencyHistogram) metric;
+
+                    for (double quantile : QUANTILES) {
+                        appendSample(out, name, (labels.isEmpty() ? "" : labels + ",") + "quantile=\"" + quantile + "\"",
+                                histogram.getPercentile(quantile * 100) / 1e9);
+                    }
+
+                    appendSample(out, name + "_sum", labels, histogram.getSum() / 1e9);
+                    appendSample(out, name + "_count", labels, histogram.getCount());
+                }
+            }
+        }
+
+        return out.toString();
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Provides classes for <b>recording and reporting metrics</b> of the tic-tac-toe program, such as the
+ * latency of the agents' decisions
+ *
+ * <p>The package also defines the events emitted to Java Flight Recorder, namely the agents' decisions,
+ * the games, and the moves applied to the graphical user interface. The events are disabled by default;
+ * the settings file <code>tictactoe.jfc</code> in this package enables them. </p>
+ */
+
+package metrics;
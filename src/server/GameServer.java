@@ -0,0 +1,328 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.MetricsEndpoint;
+import metrics.MetricsRegistry;
+import tic_tac_toe.EvaluationCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Class implementing the <b>game-session server</b>, which hosts many concurrent tic-tac-toe games
+ * from a single process and exposes them over a simple local HTTP API
+ *
+ * <p>Every endpoint answers with a JSON object. The endpoints are as follows: </p>
+ * <ul>
+ *     <li><code>/new?level=L&amp;agentFirst=true|false</code> &mdash; creates a session</li>
+ *     <li><code>/move?session=ID&amp;row=R&amp;col=C</code> &mdash; applies the human player's move
+ *     and returns the session after the agent's answer</li>
+ *     <li><code>/eval?session=ID</code> &mdash; returns the session, including the agent's most
+ *     recent evaluation</li>
+ *     <li><code>/newgame?session=ID</code> &mdash; starts a new game in the session, alternating the
+ *     first player to move</li>
+ *     <li><code>/stats</code> &mdash; returns the execution model of the requests, the number of
+ *     sessions, the per-move latency, the metrics of the shared evaluation cache, and the match
+ *     statistics of the process</li>
+ *     <li><code>/metrics</code> &mdash; returns the metrics of the process (see
+ *     <code>GameMetrics</code>) in the Prometheus text exposition format, instead of JSON</li>
+ * </ul>
+ */
+public class GameServer {
+    /* Underlying HTTP server */
+    private final HttpServer http;
+    /* Manager of the game sessions */
+    private final SessionManager sessions;
+
+    /**
+     * Creates a game-session server listening on the given local port
+     *
+     * <p>The requests are handled on virtual threads if the JVM provides them; otherwise, on the given
+     * number of platform threads (see <code>ThreadModel</code>).</p>
+     *
+     * @param port port on which the server listens (0 to pick a free port)
+     * @param sessions manager of the game sessions
+     * @param numRequestThreads number of platform threads handling the HTTP requests if virtual
+     *                          threads are unavailable
+     * @throws IOException if the server cannot be bound to the port
+     */
+    public GameServer(int port, SessionManager sessions, int numRequestThreads) throws IOException {
+        this.sessions = sessions;
+        this.http = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+
+        http.setExecutor(ThreadModel.newRequestExecutor(numRequestThreads));
+        http.createContext("/new", this::handleNew);
+        http.createContext("/move", this::handleMove);
+        http.createContext("/eval", this::handleEval);
+        http.createContext("/newgame", this::handleNewGame);
+        http.createContext("/stats", exchange -> respond(exchange, 200, sessions.getStatsJson()));
+        http.createContext("/metrics", new MetricsEndpoint(MetricsRegistry.getDefault()));
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        http.start();
+    }
+
+    /**
+     * Stops accepting requests and shuts the session manager down
+     */
+    public void stop() {
+        http.stop(0);
+        sessions.shutdown();
+    }
+
+    /**
+     * Returns the port on which this server listens
+     *
+     * @return port on which this server listens
+     */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Handles the creation of a session
+     *
+     * @param exchange HTTP request and response
+     * @throws IOException if the response cannot be written
+     */
+    private void handleNew(HttpExchange exchange) throws IOException {
+        HashMap<String, String> params;
+        params = parseQuery(exchange);
+
+        int level;
+        boolean isAgentFirst;
+
+        try {
+            level = Integer.parseInt(params.getOrDefault("level", "5"));
+        } catch (NumberFormatException e) {
+            respondError(exchange, 400, "Invalid level");
+            return;
+        }
+
+        if (level < 0 || level > 5) {
+            respondError(exchange, 400, "Invalid level");
+            return;
+        }
+
+        isAgentFirst = Boolean.parseBoolean(params.getOrDefault("agentFirst", "false"));
+
+        try {
+            respond(exchange, 200, sessions.create(level, isAgentFirst).toJson());
+        } catch (InterruptedException | ExecutionException | RejectedExecutionException e) {
+            respondFailure(exchange, e);
+        }
+    }
+
+    /**
+     * Handles a move by the human player
+     *
+     * @param exchange HTTP request and response
+     * @throws IOException if the response cannot be written
+     */
+    private void handleMove(HttpExchange exchange) throws IOException {
+        HashMap<String, String> params;
+        GameSession session;
+
+        params = parseQuery(exchange);
+        session = lookup(exchange, params);
+
+        if (session == null) {
+            return;
+        }
+
+        try {
+            sessions.playHumanMove(session, Integer.parseInt(params.get("row")), Integer.parseInt(params.get("col")));
+            respond(exchange, 200, session.toJson());
+        } catch (NumberFormatException e) {
+            respondError(exchange, 400, "Invalid row or column");
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            respondError(exchange, 409, e.getMessage());
+        } catch (InterruptedException | ExecutionException | RejectedExecutionException e) {
+            respondFailure(exchange, e);
+        }
+    }
+
+    /**
+     * Handles a request for the agent's most recent evaluation
+     *
+     * @param exchange HTTP request and response
+     * @throws IOException if the response cannot be written
+     */
+    private void handleEval(HttpExchange exchange) throws IOException {
+        GameSession session;
+        session = lookup(exchange, parseQuery(exchange));
+
+        if (session != null) {
+            respond(exchange, 200, session.toJson());
+        }
+    }
+
+    /**
+     * Handles the start of a new game in a session
+     *
+     * @param exchange HTTP request and response
+     * @throws IOException if the response cannot be written
+     */
+    private void handleNewGame(HttpExchange exchange) throws IOException {
+        GameSession session;
+        session = lookup(exchange, parseQuery(exchange));
+
+        if (session == null) {
+            return;
+        }
+
+        try {
+            sessions.newGame(session);
+            respond(exchange, 200, session.toJson());
+        } catch (InterruptedException | ExecutionException | RejectedExecutionException e) {
+            respondFailure(exchange, e);
+        }
+    }
+
+    /**
+     * Returns the session named by the <code>session</code> parameter, responding with an error
+     * (and returning <code>null</code>) if there is no such session
+     *
+     * @param exchange HTTP request and response
+     * @param params query parameters of the request
+     * @return session named by the request, or <code>null</code> if there is no such session
+     * @throws IOException if the error response cannot be written
+     */
+    private GameSession lookup(HttpExchange exchange, HashMap<String, String> params) throws IOException {
+        GameSession session;
+        session = params.containsKey("session") ? sessions.get(params.get("session")) : null;
+
+        if (session == null) {
+            respondError(exchange, 404, "Unknown session");
+        }
+
+        return session;
+    }
+
+    /**
+     * Parses the query parameters of a request
+     *
+     * @param exchange HTTP request and response
+     * @return query parameters of the request
+     */
+    private static HashMap<String, String> parseQuery(HttpExchange exchange) {
+        HashMap<String, String> params;
+        String query;
+
+        params = new HashMap<String, String>();
+        query = exchange.getRequestURI().getRawQuery();
+
+        if (query == null) {
+            return params;
+        }
+
+        for (String pair : query.split("&")) {
+            int eq;
+            eq = pair.indexOf('=');
+
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+
+        return params;
+    }
+
+    /**
+     * Responds to a request whose processing failed because the agent's search could not be run
+     *
+     * @param exchange HTTP request and response
+     * @param e cause of the failure
+     * @throws IOException if the response cannot be written
+     */
+    private static void respondFailure(HttpExchange exchange, Exception e) throws IOException {
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (e instanceof RejectedExecutionException) {
+            /* All the search threads are busy and their queue is full. */
+            respondError(exchange, 503, "Server busy");
+        } else {
+            respondError(exchange, 500, "Search failed");
+        }
+    }
+
+    /**
+     * Responds to a request with an error message
+     *
+     * @param exchange HTTP request and response
+     * @param status HTTP status code
+     * @param message error message
+     * @throws IOException if the response cannot be written
+     */
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, "{\"error\":\"" + message.replace("\"", "'") + "\"}");
+    }
+
+    /**
+     * Responds to a request with the given JSON body
+     *
+     * @param exchange HTTP request and response
+     * @param status HTTP status code
+     * @param json JSON body of the response
+     * @throws IOException if the response cannot be written
+     */
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body;
+        body = json.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Starts a game-session server on the port given on the command line (8080 by default)
+     *
+     * <p>The optional arguments are, in order: the port, the number of search threads (by default,
+     * the number of available processors), the capacity of the search queue (1024 by default), the
+     * time-to-live of an idle session in seconds (1800 by default), and the eviction policy of the
+     * shared evaluation cache (<code>lru</code> by default, or <code>lfu</code>).</p>
+     *
+     * @param args array of command-line arguments
+     * @throws IOException if the server cannot be bound to the port
+     */
+    public static void main(String[] args) throws IOException {
+        int port;
+        int numSearchThreads;
+        int searchQueueCapacity;
+        long ttlSeconds;
+        int cachePolicy;
+
+        port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        numSearchThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        searchQueueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        ttlSeconds = args.length > 3 ? Long.parseLong(args[3]) : 1800;
+        cachePolicy = args.length > 4 && args[4].equalsIgnoreCase("lfu") ? EvaluationCache.LFU : EvaluationCache.LRU;
+
+        GameServer server;
+        server = new GameServer(port, new SessionManager(numSearchThreads, searchQueueCapacity, ttlSeconds,
+                new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, cachePolicy)),
+                4 * Runtime.getRuntime().availableProcessors());
+        server.start();
+
+        System.out.println("Listening on port " + server.getPort() + " (" + ThreadModel.getName()
+                + " request threads)");
+    }
+}
@@ -0,0 +1,400 @@
+package server;
+
+import journal.GameJournal;
+import tic_tac_toe.Board;
+import tic_tac_toe.EvaluationCache;
+import tic_tac_toe.GameMaster;
+import util.Coordinates;
+import util.Evaluation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class implementing a <b>game session</b> hosted by the game-session server, that is, a single
+ * <code>GameMaster</code> (with its match statistics) identified by a session ID
+ *
+ * <p>A session mirrors the flow of <code>MainScreenController</code> without a graphical user
+ * interface: the human player's move is applied, the agent answers unless the game is over, and the
+ * match statistics are updated once the game is concluded. The agent's search is run on the executor
+ * given by the session manager, so that the number of concurrent searches stays bounded. </p>
+ *
+ * <p>All the operations on a session hold the lock of the session, which guarantees that the moves of a
+ * session are applied one at a time and in the order in which they arrived (the lock is fair). A
+ * <code>ReentrantLock</code> is used instead of <code>synchronized</code> because the lock is held while
+ * waiting for the agent's search, and a virtual thread blocking inside a monitor would pin its carrier
+ * thread.</p>
+ */
+public class GameSession {
+    /**
+     * Status of a game that has not yet reached its terminal state
+     */
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    /**
+     * Status of a game won by the tic-tac-toe-playing agent
+     */
+    public static final String AGENT_WIN = "AGENT_WIN";
+    /**
+     * Status of a game won by the human player
+     */
+    public static final String HUMAN_WIN = "HUMAN_WIN";
+    /**
+     * Status of a drawn game
+     */
+    public static final String DRAW = "DRAW";
+
+    /* Identifier of this session */
+    private final String id;
+    /* Central class providing access to all the methods necessary to run the game */
+    private final GameMaster game;
+
+    /* Most recent move evaluation of the agent (null if the agent has not yet moved) */
+    private Evaluation latestEval;
+    /* Time of the most recent access to this session (as given by System.nanoTime) */
+    private volatile long lastAccessTime;
+    /* Lock serializing the operations on this session in their order of arrival */
+    private final ReentrantLock lock;
+
+    /**
+     * Creates a game session with the given identifier, level of intelligence of the agent, and
+     * first player to move
+     *
+     * <p>If the agent is the first to move, its first move is made by <code>start</code>, not by this
+     * constructor.</p>
+     *
+     * @param id identifier of this session
+     * @param intelligence level of intelligence of the tic-tac-toe-playing agent
+     * @param isAgentFirst <code>true</code> if the agent is the first to move; <code>false</code>,
+     *                     otherwise
+     */
+    public GameSession(String id, int intelligence, boolean isAgentFirst) {
+        this.id = id;
+        this.game = new GameMaster();
+        this.lock = new ReentrantLock(true);
+
+        /* The agent searches the board of this session, so an abandoned search must stop (see moveAgent). */
+        game.setInterruptible(true);
+        game.setAgent(intelligence);
+        game.setIsAgentFirst(isAgentFirst);
+        game.setJournal(GameJournal.getDefault());
+
+        touch();
+    }
+
+    /**
+     * Returns the identifier of this session
+     *
+     * @return identifier of this session
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the time of the most recent access to this session (as given by <code>System.nanoTime</code>)
+     *
+     * @return time of the most recent access to this session
+     */
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /**
+     * Records an access to this session, postponing its expiration
+     */
+    public void touch() {
+        lastAccessTime = System.nanoTime();
+    }
+
+    /**
+     * Sets the cache of the agent's decisions, which is typically shared by all the sessions
+     *
+     * @param cache cache of the agent's decisions
+     */
+    public void setCache(EvaluationCache cache) {
+        lock.lock();
+
+        try {
+            game.setCache(cache);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the first game of this session, letting the agent move if it is the first to move
+     *
+     * @param searchPool executor on which the agent's search is run
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the search
+     * @throws ExecutionException if the agent's search fails
+     */
+    public void start(ExecutorService searchPool) throws InterruptedException, ExecutionException {
+        lock.lock();
+
+        try {
+            if (game.getIsAgentFirst()) {
+                moveAgent(searchPool);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new game in this session, retaining the match statistics and alternating which player
+     * receives the first-move advantage (as in <code>MainScreenController.newGame</code>)
+     *
+     * @param searchPool executor on which the agent's search is run
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the search
+     * @throws ExecutionException if the agent's search fails
+     */
+    public void newGame(ExecutorService searchPool) throws InterruptedException, ExecutionException {
+        lock.lock();
+
+        try {
+            game.clearBoard();
+            latestEval = null;
+
+            game.setIsAgentFirst(!game.getIsAgentFirst());
+            start(searchPool);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the human player's move and, unless the game is over, lets the agent answer
+     *
+     * <p>If the agent cannot answer (for instance, if its search is rejected by a full search queue),
+     * the human player's move is taken back before the exception is thrown, so that a failed request
+     * leaves this session unchanged and the move can be sent again. </p>
+     *
+     * @param row row-coordinate of the human player's move
+     * @param col column-coordinate of the human player's move
+     * @param searchPool executor on which the agent's search is run
+     * @throws IllegalArgumentException if the coordinates are out of range or the tile is occupied
+     * @throws IllegalStateException if the game is already over
+     * @throws RejectedExecutionException if the search pool rejects the agent's search
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the search
+     * @throws ExecutionException if the agent's search fails
+     */
+    public void playHumanMove(int row, int col, ExecutorService searchPool)
+            throws InterruptedException, ExecutionException {
+        lock.lock();
+
+        try {
+            if (game.isGameOver()) {
+                throw new IllegalStateException("The game is already over");
+            }
+
+            if (row < 0 || row >= Board.DIMENSION || col < 0 || col >= Board.DIMENSION
+                    || game.isOccupied(row, col)) {
+                throw new IllegalArgumentException("Invalid move: " + row + " " + col);
+            }
+
+            game.makeMove(row, col, Board.HUMAN_TOKEN);
+
+            if (game.isGameOver()) {
+                updateMatchStats();
+                return;
+            }
+
+            boolean isAnswered;         // true if the agent has answered the human player's move
+            isAnswered = false;
+
+            try {
+                moveAgent(searchPool);
+                isAnswered = true;
+            } finally {
+                if (!isAnswered) {
+                    game.undo();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lets the agent decide and make its move, searching on the given executor
+     *
+     * <p>The calling thread holds the lock of this session while waiting for the search, so the board
+     * cannot be modified by another request in the meantime. The search runs on the board of this
+     * session, so if the calling thread is interrupted while waiting, the search is cancelled (the agent
+     * being interruptible) and awaited before the lock is released: a search that has not started is
+     * never run, and a running one stops at its next node after restoring the board. </p>
+     *
+     * @param searchPool executor on which the agent's search is run
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the search
+     * @throws ExecutionException if the agent's search fails
+     */
+    private void moveAgent(ExecutorService searchPool) throws InterruptedException, ExecutionException {
+        Evaluation bestMove;        // move evaluation by the tic-tac-toe-playing agent
+        long startTime;             // start time of the agent's decision-making (including queueing)
+
+        Future<Evaluation> search;          // agent's search on the search pool
+        AtomicBoolean isClaimed;            // true once the search has either started or been abandoned
+        CountDownLatch isDone;              // released once a started search has completed
+
+        isClaimed = new AtomicBoolean();
+        isDone = new CountDownLatch(1);
+
+        startTime = System.nanoTime();
+        search = searchPool.submit(() -> {
+            /* The search was abandoned before it started. */
+            if (!isClaimed.compareAndSet(false, true)) {
+                return null;
+            }
+
+            try {
+                return game.evalBestMove();
+            } finally {
+                isDone.countDown();
+            }
+        });
+
+        try {
+            bestMove = search.get();
+        } catch (InterruptedException e) {
+            search.cancel(true);
+
+            /* Wait for a started search to stop, since it is still using the board of this session. */
+            if (!isClaimed.compareAndSet(false, true)) {
+                awaitUninterruptibly(isDone);
+            }
+
+            throw e;
+        }
+
+        game.makeMove(bestMove.getCoor().getRow(), bestMove.getCoor().getCol(), Board.COMPUTER_TOKEN,
+                System.nanoTime() - startTime);
+        latestEval = bestMove;
+
+        if (game.isGameOver()) {
+            updateMatchStats();
+        }
+    }
+
+    /**
+     * Waits for the given latch to be released, even if the calling thread is interrupted (whose
+     * interrupt status is then restored)
+     *
+     * @param latch latch to be released
+     */
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean isInterrupted;      // true if the calling thread was interrupted while waiting
+        isInterrupted = false;
+
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Updates the match statistics at the conclusion of a game
+     */
+    private void updateMatchStats() {
+        if (game.isAgentWin()) {
+            game.recordWin(Board.COMPUTER_TOKEN);
+        } else if (game.isHumanWin()) {
+            game.recordWin(Board.HUMAN_TOKEN);
+        } else {
+            game.recordDraw();
+        }
+    }
+
+    /**
+     * Returns the status of the current game (one of <code>IN_PROGRESS</code>, <code>AGENT_WIN</code>,
+     * <code>HUMAN_WIN</code>, and <code>DRAW</code>)
+     *
+     * @return status of the current game
+     */
+    public String getStatus() {
+        lock.lock();
+
+        try {
+            if (game.isAgentWin()) {
+                return AGENT_WIN;
+            } else if (game.isHumanWin()) {
+                return HUMAN_WIN;
+            } else if (game.isGameDraw()) {
+                return DRAW;
+            }
+
+            return IN_PROGRESS;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a JSON representation of this session
+     *
+     * <p>The representation contains the session ID, the level of intelligence of the agent, the board
+     * state (in the <code>%%%|%%%|%%%</code> format), the status of the current game, the agent's most
+     * recent move, evaluation, expected outcome (with the number of moves to reach it and the principal
+     * variation, as a list of <code>[row,col]</code> moves), and number of nodes searched, and the match
+     * statistics. </p>
+     *
+     * @return JSON representation of this session
+     */
+    public String toJson() {
+        lock.lock();
+
+        try {
+            String move;            // agent's most recent move (null if the agent has not yet moved)
+            String score;           // agent's most recent evaluation (null if the agent has not yet moved)
+
+            move = latestEval == null ? "null"
+                    : "[" + latestEval.getCoor().getRow() + "," + latestEval.getCoor().getCol() + "]";
+            score = latestEval == null ? "null" : String.valueOf(latestEval.getEvalScore());
+
+            StringBuilder pv;       // agent's principal variation (null if the agent has not yet moved)
+            pv = new StringBuilder();
+
+            if (latestEval == null) {
+                pv.append("null");
+            } else {
+                pv.append('[');
+
+                for (Coordinates coor : latestEval.getPrincipalVariation()) {
+                    pv.append(pv.length() > 1 ? "," : "").append('[').append(coor.getRow()).append(',')
+                            .append(coor.getCol()).append(']');
+                }
+
+                pv.append(']');
+            }
+
+            return "{\"session\":\"" + id + "\""
+                    + ",\"level\":" + game.getIntelligence()
+                    + ",\"board\":\"" + game.getBoardConfig() + "\""
+                    + ",\"status\":\"" + getStatus() + "\""
+                    + ",\"agentMove\":" + move
+                    + ",\"agentScore\":" + score
+                    + ",\"agentOutcome\":" + (latestEval == null ? "null" : "\"" + latestEval.getOutcomeName() + "\"")
+                    + ",\"agentDistance\":" + (latestEval == null ? "null" : latestEval.getDistance())
+                    + ",\"agentPv\":" + pv
+                    + ",\"agentNodes\":" + (latestEval == null ? 0 : game.getLatestStats().getNumNodes())
+                    + ",\"agentWins\":" + game.getNumAgentWins()
+                    + ",\"humanWins\":" + game.getNumHumanWins()
+                    + ",\"draws\":" + game.getNumDraws()
+                    + "}";
+        } finally {
+            lock.unlock();
+        }
+    }
+}
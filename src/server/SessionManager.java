@@ -0,0 +1,318 @@
+package server;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import tic_tac_toe.EvaluationCache;
+import tic_tac_toe.MatchSnapshot;
+import tic_tac_toe.MatchStatistics;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class implementing the <b>session manager</b> of the game-session server, which creates, looks up,
+ * and expires game sessions by ID, and runs the agents' searches on a bounded executor
+ *
+ * <p>The searches of all the sessions share a fixed number of platform threads with a bounded queue;
+ * once the queue is full, further searches are rejected instead of piling up. Since the searches are
+ * CPU-bound, the number of threads should match the number of processors, independently of how many
+ * (virtual) threads handle the requests. Sessions that have not been accessed for longer than the
+ * time-to-live are expired periodically. All the sessions share one cache of the agents' decisions, so
+ * that a popular position is searched once per process. The manager also measures the per-move latency
+ * of the agents. </p>
+ *
+ * <p>The number of live sessions is exposed as the <code>tictactoe_server_sessions</code> gauge of the
+ * metrics registry of this process, summed over all the managers that have not been shut down. </p>
+ */
+public class SessionManager {
+    /* Managers of this process that have not been shut down */
+    private static final Set<SessionManager> LIVE_MANAGERS = ConcurrentHashMap.newKeySet();
+
+    /* Live sessions, keyed by session ID */
+    private final ConcurrentHashMap<String, GameSession> sessions;
+    /* Executor on which the agents' searches are run */
+    private final ExecutorService searchPool;
+    /* Cache of the agents' decisions, shared by all the sessions */
+    private final EvaluationCache cache;
+    /* Executor that periodically expires idle sessions */
+    private final ScheduledExecutorService reaper;
+    /* Time-to-live of an idle session (in nanoseconds) */
+    private final long ttl;
+
+    /* Counter from which the session IDs are derived */
+    private final AtomicLong nextId;
+    /* Number of sessions expired so far */
+    private final LongAdder numExpired;
+
+    /* Latencies of the moves (in nanoseconds), also exposed as a metric */
+    private final LatencyHistogram moveLatencies;
+
+    /**
+     * Creates a session manager
+     *
+     * @param numSearchThreads number of threads on which the agents' searches are run
+     * @param searchQueueCapacity maximum number of searches waiting for a thread
+     * @param ttlSeconds time-to-live of an idle session (in seconds)
+     */
+    public SessionManager(int numSearchThreads, int searchQueueCapacity, long ttlSeconds) {
+        this(numSearchThreads, searchQueueCapacity, ttlSeconds,
+                new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, EvaluationCache.LRU));
+    }
+
+    /**
+     * Creates a session manager whose sessions share the given cache of the agents' decisions
+     *
+     * @param numSearchThreads number of threads on which the agents' searches are run
+     * @param searchQueueCapacity maximum number of searches waiting for a thread
+     * @param ttlSeconds time-to-live of an idle session (in seconds)
+     * @param cache cache of the agents' decisions, shared by all the sessions
+     */
+    public SessionManager(int numSearchThreads, int searchQueueCapacity, long ttlSeconds, EvaluationCache cache) {
+        this.cache = cache;
+        sessions = new ConcurrentHashMap<String, GameSession>();
+        searchPool = new ThreadPoolExecutor(numSearchThreads, numSearchThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(searchQueueCapacity));
+        reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t;
+            t = new Thread(r, "session-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        ttl = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        nextId = new AtomicLong();
+        numExpired = new LongAdder();
+        moveLatencies = MetricsRegistry.getDefault().histogram("tictactoe_server_move_latency_seconds",
+                "Latency of a move request, including the agent's answer");
+
+        /* The gauge sums the sessions of all the live managers, so registering it again is harmless. */
+        LIVE_MANAGERS.add(this);
+        MetricsRegistry.getDefault().gauge("tictactoe_server_sessions", "Live game sessions",
+                SessionManager::getNumLiveSessions);
+
+        /* Check for idle sessions ten times per time-to-live (but at least once per second). */
+        long period;
+        period = Math.max(1, ttlSeconds / 10);
+        reaper.scheduleAtFixedRate(this::expireIdleSessions, period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a session, starts its first game, and registers it under a new session ID
+     *
+     * @param intelligence level of intelligence of the tic-tac-toe-playing agent
+     * @param isAgentFirst <code>true</code> if the agent is the first to move; <code>false</code>,
+     *                     otherwise
+     * @return newly created session
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the search
+     * @throws ExecutionException if the agent's first search fails
+     */
+    public GameSession create(int intelligence, boolean isAgentFirst) throws InterruptedException, ExecutionException {
+        GameSession session;
+        session = new GameSession(Long.toString(nextId.incrementAndGet(), 36), intelligence, isAgentFirst);
+        session.setCache(cache);
+
+        long startTime;
+        startTime = System.nanoTime();
+        session.start(searchPool);
+
+        if (isAgentFirst) {
+            recordMoveLatency(System.nanoTime() - startTime);
+        }
+
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Returns the session with the given ID, postponing its expiration, or <code>null</code> if there
+     * is no such session (or it has expired)
+     *
+     * @param id session ID
+     * @return session with the given ID, or <code>null</code> if there is no such session
+     */
+    public GameSession get(String id) {
+        GameSession session;
+        session = sessions.get(id);
+
+        if (session != null) {
+            session.touch();
+        }
+
+        return session;
+    }
+
+    /**
+     * Applies the human player's move to the given session and lets the agent answer, measuring the
+     * latency of the whole move
+     *
+     * @param session game session
+     * @param row row-coordinate of the human player's move
+     * @param col column-coordinate of the human player's move
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the search
+     * @throws ExecutionException if the agent's search fails
+     */
+    public void playHumanMove(GameSession session, int row, int col) throws InterruptedException, ExecutionException {
+        long startTime;
+        startTime = System.nanoTime();
+
+        session.playHumanMove(row, col, searchPool);
+        recordMoveLatency(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Starts a new game in the given session, alternating the first player to move
+     *
+     * @param session game session
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the search
+     * @throws ExecutionException if the agent's search fails
+     */
+    public void newGame(GameSession session) throws InterruptedException, ExecutionException {
+        long startTime;
+        startTime = System.nanoTime();
+
+        session.newGame(searchPool);
+        recordMoveLatency(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Removes the sessions that have not been accessed for longer than the time-to-live
+     */
+    public void expireIdleSessions() {
+        long now;
+        now = System.nanoTime();
+
+        Iterator<GameSession> it;
+        it = sessions.values().iterator();
+
+        while (it.hasNext()) {
+            if (now - it.next().getLastAccessTime() > ttl) {
+                it.remove();
+                numExpired.increment();
+            }
+        }
+    }
+
+    /**
+     * Records the latency of a move
+     *
+     * @param latency latency of the move (in nanoseconds)
+     */
+    private void recordMoveLatency(long latency) {
+        moveLatencies.record(latency);
+    }
+
+    /**
+     * Returns the number of live sessions
+     *
+     * @return number of live sessions
+     */
+    public int getNumSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the number of live sessions of all the managers of this process that have not been shut
+     * down
+     *
+     * @return number of live sessions of this process
+     */
+    private static int getNumLiveSessions() {
+        int numSessions;
+        numSessions = 0;
+
+        for (SessionManager manager : LIVE_MANAGERS) {
+            numSessions += manager.getNumSessions();
+        }
+
+        return numSessions;
+    }
+
+    /**
+     * Estimates the memory footprint of a session by measuring the growth of the used heap while
+     * the given number of sessions (not registered with any manager) is held in memory
+     *
+     * <p>The measurement collects the garbage twice and counts whatever the other threads allocate in
+     * the meantime, so it is meant to be run offline, in an otherwise idle process (see
+     * <code>benchmark.SessionFootprint</code>), and never by a serving manager. Since it depends on the
+     * garbage collector, the estimate is only indicative. </p>
+     *
+     * @param numSamples number of sessions created for the measurement
+     * @return estimated memory footprint of a session in bytes
+     */
+    public static long estimateSessionFootprint(int numSamples) {
+        Runtime rt;
+        GameSession[] samples;
+        long before;
+        long after;
+
+        rt = Runtime.getRuntime();
+        samples = new GameSession[numSamples];
+
+        System.gc();
+        before = rt.totalMemory() - rt.freeMemory();
+
+        for (int i = 0; i < numSamples; i++) {
+            samples[i] = new GameSession(Integer.toString(i, 36), 5, false);
+        }
+
+        System.gc();
+        after = rt.totalMemory() - rt.freeMemory();
+
+        /* Keep the samples reachable until the measurement is complete. */
+        return Math.max(0, after - before) / samples.length;
+    }
+
+    /**
+     * Returns a JSON representation of the statistics of this manager
+     *
+     * <p>The representation contains the execution model of the requests, the number of live and
+     * expired sessions, the number of agent moves, their mean latency, the 50th, 99th, and 99.9th
+     * percentiles and the maximum of their latency (in milliseconds), the metrics of the shared evaluation
+     * cache, and the match statistics of the process (aggregated over all the sessions, including the
+     * expired ones). </p>
+     *
+     * @return JSON representation of the statistics of this manager
+     */
+    public String getStatsJson() {
+        MatchSnapshot matches;
+        matches = MatchStatistics.getDefault().snapshot();
+
+        return "{\"threadModel\":\"" + ThreadModel.getName() + "\""
+                + ",\"sessions\":" + getNumSessions()
+                + ",\"expired\":" + numExpired.sum()
+                + ",\"moves\":" + moveLatencies.getCount()
+                + ",\"meanMoveLatencyMs\":" + moveLatencies.getMean() / 1e6
+                + ",\"p50MoveLatencyMs\":" + moveLatencies.getPercentile(50) / 1e6
+                + ",\"p99MoveLatencyMs\":" + moveLatencies.getPercentile(99) / 1e6
+                + ",\"p999MoveLatencyMs\":" + moveLatencies.getPercentile(99.9) / 1e6
+                + ",\"maxMoveLatencyMs\":" + moveLatencies.getMax() / 1e6
+                + ",\"cachePolicy\":\"" + cache.getPolicyName() + "\""
+                + ",\"cacheEntries\":" + cache.size()
+                + ",\"cacheHits\":" + cache.getNumHits()
+                + ",\"cacheMisses\":" + cache.getNumMisses()
+                + ",\"cacheEvictions\":" + cache.getNumEvictions()
+                + ",\"agentWins\":" + matches.getNumAgentWins()
+                + ",\"humanWins\":" + matches.getNumHumanWins()
+                + ",\"draws\":" + matches.getNumDraws()
+                + "}";
+    }
+
+    /**
+     * Stops the executors of this manager, discarding the pending searches
+     */
+    public void shutdown() {
+        LIVE_MANAGERS.remove(this);
+        reaper.shutdownNow();
+        searchPool.shutdownNow();
+    }
+}
@@ -0,0 +1,82 @@
+package server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Class selecting the <b>execution model</b> of the game-session server
+ *
+ * <p>Requests are handled on <b>virtual threads</b> (one per request) whenever the running JVM
+ * provides them (Java 21 or later). A request spends most of its life blocked, either on I/O or while
+ * waiting for the agent's search, and a blocked virtual thread costs only a small heap object, so any
+ * number of concurrent requests can be admitted. On older JVMs, the requests fall back to a fixed
+ * pool of platform threads. </p>
+ *
+ * <p>The agents' searches, which are CPU-bound, never run on these threads: they are always offloaded
+ * to the bounded search pool of the <code>SessionManager</code>, whose size matches the number of
+ * processors, so that searches cannot starve the threads handling I/O.</p>
+ */
+public class ThreadModel {
+    /* Factory of virtual-thread-per-task executors (null if virtual threads are unavailable) */
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    /**
+     * Empty constructor
+     */
+    public ThreadModel() {
+
+    }
+
+    /**
+     * Returns <code>true</code> if the running JVM provides virtual threads; <code>false</code>, otherwise
+     *
+     * @return <code>true</code> if the running JVM provides virtual threads; <code>false</code>, otherwise
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Returns a new executor for handling requests: one virtual thread per task if available, or a
+     * fixed pool with the given number of platform threads otherwise
+     *
+     * @param numFallbackThreads number of platform threads if virtual threads are unavailable
+     * @return new executor for handling requests
+     */
+    public static ExecutorService newRequestExecutor(int numFallbackThreads) {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                /* Fall through to the platform threads. */
+            }
+        }
+
+        return Executors.newFixedThreadPool(numFallbackThreads);
+    }
+
+    /**
+     * Returns the name of the execution model used for handling requests (either "virtual" or
+     * "platform")
+     *
+     * @return name of the execution model used for handling requests
+     */
+    public static String getName() {
+        return isVirtualThreadsAvailable() ? "virtual" : "platform";
+    }
+
+    /**
+     * Looks up <code>Executors.newVirtualThreadPerTaskExecutor</code>, which only exists on Java 21
+     * or later
+     *
+     * @return factory method of virtual-thread-per-task executors, or <code>null</code> if unavailable
+     */
+    private static Method findVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Provides classes for hosting many concurrent tic-tac-toe games from a single process
+ * through a <b>headless game-session server</b>
+ */
+
+package server;
\ No newline at end of file
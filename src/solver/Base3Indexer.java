@@ -0,0 +1,168 @@
+package solver;
+
+/**
+ * Class implementing a <b>base-3 position indexer</b>, whose index is the base-3 key of the position
+ * (with the first tile being the most significant digit), as in <code>Board.getKey</code>
+ *
+ * <p>Every assignment of tokens to the tiles has a slot, so most slots belong to positions that cannot
+ * occur in a game, and the slots of all the layers are spread over the whole range of indices. In
+ * exchange, the index of a position is computed without any table. </p>
+ */
+public class Base3Indexer extends PositionIndexer {
+    /**
+     * Maximum number of tiles of a board whose slots can be indexed
+     */
+    public static final int MAX_TILES = 19;
+
+    /* Number of tiles whose tokens are counted at once by getLayer */
+    private static final int CHUNK_TILES = 8;
+    /* Number of keys of a chunk of tiles (3 to CHUNK_TILES) */
+    private static final int CHUNK_SIZE = 6561;
+    /* Numbers of tokens of the first player (high byte) and of the second player (low byte) of every
+    chunk of tiles, indexed by the base-3 key of the chunk
+     */
+    private static final short[] CHUNK_COUNTS = new short[CHUNK_SIZE];
+
+    static {
+        for (int key = 1; key < CHUNK_SIZE; key++) {
+            /* The key has the same tokens as a third of it, and one more on its least significant tile. */
+            CHUNK_COUNTS[key] = (short) (CHUNK_COUNTS[key / 3] + (key % 3 == 1 ? 1 << 8 : key % 3 == 2 ? 1 : 0));
+        }
+    }
+
+    /* Place value of each tile (in row-major order) */
+    private final int[] placeValues;
+    /* Number of slots (3 to the number of tiles) */
+    private final int size;
+
+    /**
+     * Creates a base-3 indexer of the positions of a board with the given dimensions
+     *
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @throws IllegalArgumentException if the board has more than <code>MAX_TILES</code> tiles
+     */
+    public Base3Indexer(int rows, int cols) {
+        super(rows, cols);
+
+        if (rows < 1 || cols < 1 || rows * cols > MAX_TILES) {
+            throw new IllegalArgumentException("Unsupported board: " + rows + "x" + cols);
+        }
+
+        placeValues = new int[rows * cols];
+        int placeValue;         // place value of the current tile
+        placeValue = 1;
+
+        /* The last tile is the least significant digit. */
+        for (int tile = placeValues.length - 1; tile >= 0; tile--) {
+            placeValues[tile] = placeValue;
+            placeValue *= 3;
+        }
+
+        size = placeValue;
+    }
+
+    /**
+     * Returns <code>BASE3</code>, the scheme of this indexer
+     *
+     * @return <code>BASE3</code>
+     */
+    @Override
+    public int getScheme() {
+        return BASE3;
+    }
+
+    /**
+     * Returns the number of slots, that is, 3 to the number of tiles
+     *
+     * @return number of slots
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns 0, since the slots of every layer are spread over the whole range of indices
+     *
+     * @param layer number of tokens
+     * @return 0
+     */
+    @Override
+    public int getLayerStart(int layer) {
+        return 0;
+    }
+
+    /**
+     * Returns the number of slots, since the slots of every layer are spread over the whole range of
+     * indices
+     *
+     * @param layer number of tokens
+     * @return number of slots
+     */
+    @Override
+    public int getLayerEnd(int layer) {
+        return size;
+    }
+
+    /**
+     * Returns the number of tokens of the position with the given base-3 key, or -1 if the numbers of
+     * tokens of the players cannot occur in a game
+     *
+     * <p>The tokens are counted by looking the chunks of <code>CHUNK_TILES</code> tiles up, instead of
+     * decoding every tile. </p>
+     *
+     * @param index base-3 key of the position
+     * @return number of tokens of the position, or -1 if they cannot occur in a game
+     */
+    @Override
+    public int getLayer(int index) {
+        int counts;             // numbers of tokens of the first player (high byte) and of the second player (low byte)
+        counts = 0;
+
+        while (index > 0) {
+            counts += CHUNK_COUNTS[index % CHUNK_SIZE];
+            index /= CHUNK_SIZE;
+        }
+
+        int numFirst;
+        int numSecond;
+
+        numFirst = counts >> 8;
+        numSecond = counts & 0xFF;
+
+        return numFirst == numSecond || numFirst == numSecond + 1 ? numFirst + numSecond : -1;
+    }
+
+    /**
+     * Returns the base-3 key of the given position
+     *
+     * @param digits token on every tile of the position (0, 1, or 2), left unchanged
+     * @return base-3 key of the position
+     */
+    @Override
+    public int getIndex(int[] digits) {
+        int index;
+        index = 0;
+
+        for (int tile = 0; tile < placeValues.length; tile++) {
+            index += digits[tile] * placeValues[tile];
+        }
+
+        return index;
+    }
+
+    /**
+     * Stores the position with the given base-3 key into the given array
+     *
+     * @param index base-3 key of the position
+     * @param digits array receiving the token on every tile of the position (0, 1, or 2)
+     */
+    @Override
+    public void getPosition(int index, int[] digits) {
+        for (int tile = placeValues.length - 1; tile >= 0; tile--) {
+            digits[tile] = index % 3;
+            index /= 3;
+        }
+    }
+}
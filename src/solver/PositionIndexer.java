@@ -0,0 +1,220 @@
+package solver;
+
+import tic_tac_toe.Board;
+
+/**
+ * Abstract class providing the blueprint for a <b>position indexer</b>, which maps the positions of an
+ * <i>m</i>&times;<i>n</i> board to the slots of a table (such as that of <code>RetrogradeSolver</code>)
+ * and back
+ *
+ * <p>A position is given by the token on every tile, following row-major order: 0 for an unoccupied
+ * tile, 1 for a token of the first player, and 2 for a token of the second player. Several positions
+ * may share a slot (for instance, if they are symmetric to one another), in which case the position of
+ * a slot is a representative of all of them. </p>
+ *
+ * <p>The slots of the positions with the same number of tokens (a <i>layer</i>) are within a range of
+ * indices. The ranges of the layers may overlap, in which case the slots of a range have to be checked
+ * for their layer (see <code>getLayer</code>). </p>
+ */
+public abstract class PositionIndexer {
+    /**
+     * Scheme of an indexer whose index is the base-3 key of the position (see <code>Base3Indexer</code>)
+     */
+    public static final int BASE3 = 0;
+    /**
+     * Scheme of an indexer whose index is the rank of the canonical position within its layer (see
+     * <code>RankedIndexer</code>)
+     */
+    public static final int RANKED = 1;
+
+    /* Number of rows of the board */
+    private final int rows;
+    /* Number of columns of the board */
+    private final int cols;
+
+    /**
+     * Creates an indexer of the positions of a board with the given dimensions
+     *
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     */
+    protected PositionIndexer(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Creates an indexer of the given scheme for a board with the given dimensions
+     *
+     * @param scheme scheme of the indexer (<code>BASE3</code> or <code>RANKED</code>)
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @return indexer of the given scheme
+     * @throws IllegalArgumentException if the scheme is unknown, or if the board is too large for it
+     */
+    public static PositionIndexer create(int scheme, int rows, int cols) {
+        switch (scheme) {
+            case BASE3:
+                return new Base3Indexer(rows, cols);
+            case RANKED:
+                return new RankedIndexer(rows, cols);
+            default:
+                throw new IllegalArgumentException("Unknown indexing scheme: " + scheme);
+        }
+    }
+
+    /**
+     * Returns the number of rows of the board
+     *
+     * @return number of rows of the board
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns of the board
+     *
+     * @return number of columns of the board
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of tiles of the board
+     *
+     * @return number of tiles of the board
+     */
+    public int getNumTiles() {
+        return rows * cols;
+    }
+
+    /**
+     * Returns the scheme of this indexer (<code>BASE3</code> or <code>RANKED</code>)
+     *
+     * @return scheme of this indexer
+     */
+    public abstract int getScheme();
+
+    /**
+     * Returns the number of slots
+     *
+     * @return number of slots
+     */
+    public abstract int size();
+
+    /**
+     * Returns the lowest index of the range holding the slots of the positions with the given number
+     * of tokens
+     *
+     * @param layer number of tokens
+     * @return lowest index of the range of the layer (inclusive)
+     */
+    public abstract int getLayerStart(int layer);
+
+    /**
+     * Returns the highest index of the range holding the slots of the positions with the given number
+     * of tokens
+     *
+     * @param layer number of tokens
+     * @return highest index of the range of the layer (exclusive)
+     */
+    public abstract int getLayerEnd(int layer);
+
+    /**
+     * Returns the number of tokens of the position of the slot with the given index, or -1 if the
+     * numbers of tokens of the players cannot occur in a game (the first player having either as many
+     * tokens as the second player or one more)
+     *
+     * @param index index of the slot
+     * @return number of tokens of the position of the slot, or -1 if they cannot occur in a game
+     */
+    public abstract int getLayer(int index);
+
+    /**
+     * Returns the index of the slot of the given position
+     *
+     * @param digits token on every tile of the position (0, 1, or 2), left unchanged
+     * @return index of the slot of the position, or -1 if the position has no slot
+     */
+    public abstract int getIndex(int[] digits);
+
+    /**
+     * Stores the position of the slot with the given index into the given array
+     *
+     * @param index index of the slot
+     * @param digits array receiving the token on every tile of the position (0, 1, or 2)
+     */
+    public abstract void getPosition(int index, int[] digits);
+
+    /**
+     * Returns the index of the slot of the given 3&times;3 board, given the token of the first player
+     *
+     * @param b board (left unchanged)
+     * @param first token of the first player
+     * @return index of the slot of the position, or -1 if the position has no slot
+     * @throws IllegalStateException if this indexer is not that of a 3&times;3 board
+     */
+    public int getIndex(Board b, char first) {
+        checkBoard();
+
+        int[] digits;
+        digits = new int[getNumTiles()];
+
+        for (int tile = 0; tile < digits.length; tile++) {
+            char token;
+            token = b.getToken(tile / cols, tile % cols);
+
+            if (token != Board.EMPTY_TOKEN) {
+                digits[tile] = token == first ? 1 : 2;
+            }
+        }
+
+        return getIndex(digits);
+    }
+
+    /**
+     * Returns the 3&times;3 board holding the position of the slot with the given index, given the
+     * token of the first player
+     *
+     * @param index index of the slot
+     * @param first token of the first player
+     * @return board holding the position of the slot
+     * @throws IllegalStateException if this indexer is not that of a 3&times;3 board
+     */
+    public Board getBoard(int index, char first) {
+        checkBoard();
+
+        int[] digits;
+        char second;            // token of the second player
+        StringBuilder config;   // string representation of the board (in the %%%|%%%|%%% format)
+
+        digits = new int[getNumTiles()];
+        second = first == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN : Board.COMPUTER_TOKEN;
+        config = new StringBuilder();
+
+        getPosition(index, digits);
+
+        for (int tile = 0; tile < digits.length; tile++) {
+            if (tile > 0 && tile % cols == 0) {
+                config.append('|');
+            }
+
+            config.append(digits[tile] == 0 ? Board.EMPTY_TOKEN : digits[tile] == 1 ? first : second);
+        }
+
+        return new Board(config.toString());
+    }
+
+    /**
+     * Checks that this indexer is that of a 3&times;3 board
+     *
+     * @throws IllegalStateException if this indexer is not that of a 3&times;3 board
+     */
+    private void checkBoard() {
+        if (rows != Board.DIMENSION || cols != Board.DIMENSION) {
+            throw new IllegalStateException("Not an indexer of a 3x3 board");
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package solver;
+
+import tic_tac_toe.Agent;
+import tic_tac_toe.Board;
+import util.Coordinates;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+
+/**
+ * Class implementing a <b>depth-first proof-number (df-pn) search</b> solver, which proves
+ * whether a given position is won, lost, or drawn under perfect play
+ *
+ * <p>Proof-number search answers a binary question &mdash; whether a designated player (the
+ * <i>attacker</i>) can force a win. Hence, a position is solved in at most two searches: the first
+ * establishes whether the player to move can force a win and, if not, the second establishes whether
+ * the opponent can. If neither player can force a win, the position is a draw. </p>
+ *
+ * <p>The proof and disproof numbers of the positions are stored in a transposition table whose size
+ * is bounded by a configurable number of entries. Once the bound is reached, the table is
+ * garbage-collected, discarding the unresolved entries first since these are the cheapest to recompute.
+ * The resolved (proven or disproven) entries can also be saved to and restored from a checkpoint file,
+ * either on demand or periodically during the search. </p>
+ */
+public class ProofNumberSearch {
+    /**
+     * Proof (or disproof) number treated as infinity
+     */
+    public static final int INFINITY = 100000000;
+    /**
+     * Default bound on the number of entries in the transposition table
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+
+    /* Transposition table mapping a position (including the player to move and the attacker)
+    to its proof and disproof numbers
+     */
+    private HashMap<Long, Entry> table;
+    /* Bound on the number of entries in the transposition table */
+    private int maxEntries;
+
+    /* Number of positions expanded since this solver was created */
+    private long numExpanded;
+    /* Number of times the transposition table has been garbage-collected */
+    private int numCollections;
+
+    /* File to which the resolved entries are periodically saved (null if disabled) */
+    private File checkpointFile;
+    /* Number of expansions between two consecutive checkpoints */
+    private long checkpointInterval;
+    /* Number of expansions at which the next checkpoint is due */
+    private long nextCheckpoint;
+
+    /**
+     * Creates a proof-number search solver whose transposition table holds at most
+     * <code>DEFAULT_MAX_ENTRIES</code> entries
+     */
+    public ProofNumberSearch() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a proof-number search solver whose transposition table holds at most the given
+     * number of entries
+     *
+     * @param maxEntries bound on the number of entries in the transposition table
+     */
+    public ProofNumberSearch(int maxEntries) {
+        this.table = new HashMap<Long, Entry>();
+        this.maxEntries = maxEntries;
+
+        numExpanded = 0;
+        numCollections = 0;
+        checkpointFile = null;
+    }
+
+    /**
+     * Enables periodic checkpointing, saving the resolved entries of the transposition table to the
+     * given file after every specified number of expansions
+     *
+     * @param checkpointFile file to which the resolved entries are saved
+     * @param checkpointInterval number of expansions between two consecutive checkpoints
+     */
+    public void setCheckpoint(File checkpointFile, long checkpointInterval) {
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+        this.nextCheckpoint = numExpanded + checkpointInterval;
+    }
+
+    /**
+     * Proves the game-theoretic value of the given position, assuming that it is the turn
+     * of the player with the given character code
+     *
+     * <p>The board is used as scratch space during the search but is restored to its original state
+     * before this method returns.</p>
+     *
+     * @param b position to be solved
+     * @param toMove character code of the player to move
+     * @return proven value of the position (from the point of view of the agent), alongside the
+     * statistics of the search
+     */
+    public ProofResult solve(Board b, char toMove) {
+        long startExpanded;         // number of expansions before this search
+        int value;                  // proven value from the point of view of the player to move
+        long proofTreeSize;         // number of distinct positions in the proof (or disproof) tree
+
+        startExpanded = numExpanded;
+
+        /* First, check whether the player to move can force a win. */
+        if (prove(b, toMove, toMove).pn == 0) {
+            value = Agent.WIN_UTIL;
+            proofTreeSize = countProofTree(b, toMove, toMove, true, new HashSet<Long>());
+
+        } else if (prove(b, toMove, opponent(toMove)).pn == 0) {
+            /* Otherwise, check whether the opponent can force a win. */
+            value = Agent.LOSS_UTIL;
+            proofTreeSize = countProofTree(b, toMove, opponent(toMove), true, new HashSet<Long>());
+
+        } else {
+            /* Neither player can force a win, so both disproof trees are needed to establish the draw. */
+            value = Agent.DRAW_UTIL;
+            proofTreeSize = countProofTree(b, toMove, toMove, false, new HashSet<Long>())
+                    + countProofTree(b, toMove, opponent(toMove), false, new HashSet<Long>());
+        }
+
+        /* Express the value from the point of view of the agent. */
+        if (toMove == Board.HUMAN_TOKEN) {
+            value = -value;
+        }
+
+        return new ProofResult(value, proofTreeSize, numExpanded - startExpanded, table.size(),
+                numCollections);
+    }
+
+    /**
+     * Runs the df-pn search from the given position until it is either proven or disproven
+     *
+     * @param b position to be searched
+     * @param toMove character code of the player to move
+     * @param attacker character code of the player trying to force a win
+     * @return proof and disproof numbers of the position
+     */
+    private Entry prove(Board b, char toMove, char attacker) {
+        return mid(b, toMove, attacker, INFINITY, INFINITY);
+    }
+
+    /**
+     * Performs the multiple iterative deepening (MID) step of df-pn, expanding the given position until
+     * its proof number reaches the proof threshold or its disproof number reaches the disproof threshold
+     *
+     * <p>At an OR node (the attacker is to move), the proof number is the minimum proof number of the
+     * children while the disproof number is their sum. At an AND node (the defender is to move), the roles
+     * are reversed. The child with the smallest proof (respectively, disproof) number is always expanded
+     * next, with thresholds derived from the second-best child.</p>
+     *
+     * @param b position to be expanded
+     * @param toMove character code of the player to move
+     * @param attacker character code of the player trying to force a win
+     * @param thpn proof threshold
+     * @param thdn disproof threshold
+     * @return proof and disproof numbers of the position
+     */
+    private Entry mid(Board b, char toMove, char attacker, int thpn, int thdn) {
+        long key;                   // transposition table key of the position
+        Entry entry;                // proof and disproof numbers of the position
+
+        key = getKey(b, toMove, attacker);
+        entry = lookup(b, key, attacker);
+
+        /* Return immediately if the position is already resolved or exceeds one of the thresholds. */
+        if (entry.pn >= thpn || entry.dn >= thdn || entry.pn == 0 || entry.dn == 0) {
+            return entry;
+        }
+
+        numExpanded++;
+
+        ArrayList<Coordinates> possibleMoves;       // list of valid moves
+        possibleMoves = b.getPossibleMoves();
+
+        boolean isOrNode;           // true if the attacker is to move; false, otherwise
+        isOrNode = toMove == attacker;
+
+        int[] childPn;              // proof numbers of the children
+        int[] childDn;              // disproof numbers of the children
+        childPn = new int[possibleMoves.size()];
+        childDn = new int[possibleMoves.size()];
+
+        /* Look up the children once; afterwards, only the child that has just been expanded changes.
+        Keeping the numbers in this frame guarantees progress even if the garbage collection discards
+        the entries of the children from the transposition table.
+         */
+        for (int i = 0; i < possibleMoves.size(); i++) {
+            Coordinates currMove;           // move leading to the current child
+            Entry child;                    // proof and disproof numbers of the current child
+
+            currMove = possibleMoves.get(i);
+
+            b.push(currMove.getRow(), currMove.getCol(), toMove);
+            child = lookup(b, getKey(b, opponent(toMove), attacker), attacker);
+            b.pop();
+
+            childPn[i] = child.pn;
+            childDn[i] = child.dn;
+        }
+
+        while (true) {
+            int pn;                 // proof number of the position
+            int dn;                 // disproof number of the position
+            int best;               // index of the most-proving child
+            int bestValue;          // proof (or disproof) number of the most-proving child
+            int secondValue;        // proof (or disproof) number of the second most-proving child
+
+            pn = isOrNode ? INFINITY : 0;
+            dn = isOrNode ? 0 : INFINITY;
+            best = -1;
+            bestValue = INFINITY;
+            secondValue = INFINITY;
+
+            /* Derive the proof and disproof numbers of this position from those of its children. */
+            for (int i = 0; i < childPn.length; i++) {
+                int value;                  // proof (or disproof) number used to rank the current child
+
+                if (isOrNode) {
+                    pn = Math.min(pn, childPn[i]);
+                    dn = Math.min(INFINITY, dn + childDn[i]);
+                    value = childPn[i];
+                } else {
+                    pn = Math.min(INFINITY, pn + childPn[i]);
+                    dn = Math.min(dn, childDn[i]);
+                    value = childDn[i];
+                }
+
+                if (value < bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    best = i;
+                } else if (value < secondValue) {
+                    secondValue = value;
+                }
+            }
+
+            entry = new Entry(pn, dn);
+
+            /* Stop once a threshold is reached; the position is then either resolved or no longer
+            the most-proving one in its parent.
+             */
+            if (pn >= thpn || dn >= thdn) {
+                break;
+            }
+
+            int childThpn;          // proof threshold of the most-proving child
+            int childThdn;          // disproof threshold of the most-proving child
+
+            if (isOrNode) {
+                childThpn = Math.min(thpn, secondValue + 1);
+                childThdn = thdn - dn + childDn[best];
+            } else {
+                childThpn = thpn - pn + childPn[best];
+                childThdn = Math.min(thdn, secondValue + 1);
+            }
+
+            Coordinates bestMove;           // move leading to the most-proving child
+            bestMove = possibleMoves.get(best);
+
+            Entry child;                    // updated proof and disproof numbers of the most-proving child
+
+            b.push(bestMove.getRow(), bestMove.getCol(), toMove);
+            child = mid(b, opponent(toMove), attacker, childThpn, childThdn);
+            b.pop();
+
+            childPn[best] = child.pn;
+            childDn[best] = child.dn;
+        }
+
+        store(key, entry);
+
+        /* Save the resolved entries if a checkpoint is due. */
+        if (checkpointFile != null && numExpanded >= nextCheckpoint) {
+            try {
+                saveCheckpoint(checkpointFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            nextCheckpoint = numExpanded + checkpointInterval;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Returns the number of distinct positions in the proof (if proving) or disproof tree of the
+     * given position, which must have already been resolved accordingly
+     *
+     * <p>Only one child is included at the nodes where a single move suffices (OR nodes of a proof
+     * and AND nodes of a disproof), whereas all children are included at the other nodes. If an
+     * entry needed by the tree has been discarded by the garbage collection, it is searched again.</p>
+     *
+     * @param b resolved position
+     * @param toMove character code of the player to move
+     * @param attacker character code of the player trying to force a win
+     * @param proving <code>true</code> if the proof tree is to be counted; <code>false</code> if the
+     *                disproof tree is to be counted
+     * @param visited keys of the positions already counted
+     * @return number of distinct positions in the proof (or disproof) tree
+     */
+    private long countProofTree(Board b, char toMove, char attacker, boolean proving, HashSet<Long> visited) {
+        long key;                   // transposition table key of the position
+        key = getKey(b, toMove, attacker);
+
+        /* Positions reachable through transpositions are counted only once. */
+        if (!visited.add(key)) {
+            return 0;
+        }
+
+        /* Leaf nodes of the proof tree */
+        if (b.isGameOver()) {
+            return 1;
+        }
+
+        boolean isSingleChild;      // true if a single resolved child suffices; false, otherwise
+        isSingleChild = (toMove == attacker) == proving;
+
+        long size;                  // number of distinct positions in the tree
+        size = 1;
+
+        ArrayList<Coordinates> possibleMoves;       // list of valid moves
+        possibleMoves = b.getPossibleMoves();
+
+        for (int i = 0; i < possibleMoves.size(); i++) {
+            Coordinates currMove;           // move leading to the current child
+            currMove = possibleMoves.get(i);
+
+            b.push(currMove.getRow(), currMove.getCol(), toMove);
+
+            Entry child;                    // proof and disproof numbers of the current child
+            child = lookup(b, getKey(b, opponent(toMove), attacker), attacker);
+
+            /* Search the child again if its entry has been discarded. */
+            if (child.pn != 0 && child.dn != 0) {
+                child = prove(b, opponent(toMove), attacker);
+            }
+
+            boolean isResolved;             // true if the child is resolved as required
+            isResolved = proving ? child.pn == 0 : child.dn == 0;
+
+            if (isResolved || !isSingleChild) {
+                size += countProofTree(b, opponent(toMove), attacker, proving, visited);
+            }
+
+            b.pop();
+
+            if (isResolved && isSingleChild) {
+                break;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the proof and disproof numbers of the given position, consulting the transposition
+     * table first and falling back to its terminal value or to the initial numbers (1 and 1)
+     *
+     * @param b position to be looked up
+     * @param key transposition table key of the position
+     * @param attacker character code of the player trying to force a win
+     * @return proof and disproof numbers of the position
+     */
+    private Entry lookup(Board b, long key, char attacker) {
+        Entry entry;                // proof and disproof numbers of the position
+        entry = table.get(key);
+
+        if (entry != null) {
+            return entry;
+        }
+
+        /* A win for the attacker is proven, while a win for the defender or a draw is disproven. */
+        if (b.isWin(attacker)) {
+            return new Entry(0, INFINITY);
+        } else if (b.isGameOver()) {
+            return new Entry(INFINITY, 0);
+        }
+
+        return new Entry(1, 1);
+    }
+
+    /**
+     * Stores the proof and disproof numbers of a position in the transposition table, garbage-collecting
+     * the table first if its bound has been reached
+     *
+     * @param key transposition table key of the position
+     * @param entry proof and disproof numbers of the position
+     */
+    private void store(long key, Entry entry) {
+        if (table.size() >= maxEntries && !table.containsKey(key)) {
+            collect();
+        }
+
+        table.put(key, entry);
+    }
+
+    /**
+     * Garbage-collects the transposition table by discarding the unresolved entries and, if the table
+     * remains more than three-quarters full, all the other entries as well
+     */
+    private void collect() {
+        numCollections++;
+
+        Iterator<Entry> it;         // iterator over the entries of the transposition table
+        it = table.values().iterator();
+
+        while (it.hasNext()) {
+            Entry entry;
+            entry = it.next();
+
+            if (entry.pn != 0 && entry.dn != 0) {
+                it.remove();
+            }
+        }
+
+        if (table.size() >= maxEntries / 4 * 3) {
+            table.clear();
+        }
+    }
+
+    /**
+     * Saves the resolved (proven or disproven) entries of the transposition table to the given file
+     *
+     * @param file checkpoint file
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public void saveCheckpoint(File file) throws IOException {
+        /* Write to a temporary file first so that a crash never leaves a truncated checkpoint. */
+        File tmp;
+        tmp = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            int numResolved;        // number of resolved entries
+            numResolved = 0;
+
+            for (Entry entry : table.values()) {
+                if (entry.pn == 0 || entry.dn == 0) {
+                    numResolved++;
+                }
+            }
+
+            out.writeInt(numResolved);
+            for (HashMap.Entry<Long, Entry> e : table.entrySet()) {
+                if (e.getValue().pn == 0 || e.getValue().dn == 0) {
+                    out.writeLong(e.getKey());
+                    out.writeInt(e.getValue().pn);
+                    out.writeInt(e.getValue().dn);
+                }
+            }
+        }
+
+        if (!tmp.renameTo(file)) {
+            /* Some platforms refuse to rename over an existing file. */
+            if (!file.delete() || !tmp.renameTo(file)) {
+                throw new IOException("Unable to replace checkpoint file " + file);
+            }
+        }
+    }
+
+    /**
+     * Restores the resolved entries saved in the given checkpoint file into the transposition table
+     *
+     * @param file checkpoint file
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public void loadCheckpoint(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int numResolved;        // number of resolved entries
+            numResolved = in.readInt();
+
+            for (int i = 0; i < numResolved; i++) {
+                long key;
+                int pn;
+                int dn;
+
+                key = in.readLong();
+                pn = in.readInt();
+                dn = in.readInt();
+
+                store(key, new Entry(pn, dn));
+            }
+        }
+    }
+
+    /**
+     * Returns the transposition table key of a position, which combines the key of the board with
+     * the player to move and the attacker
+     *
+     * @param b position
+     * @param toMove character code of the player to move
+     * @param attacker character code of the player trying to force a win
+     * @return transposition table key of the position
+     */
+    private static long getKey(Board b, char toMove, char attacker) {
+        return ((long) b.getKey() << 2)
+                | (toMove == Board.COMPUTER_TOKEN ? 2 : 0)
+                | (attacker == Board.COMPUTER_TOKEN ? 1 : 0);
+    }
+
+    /**
+     * Returns the character code of the opponent of the given player
+     *
+     * @param token character code of the player
+     * @return character code of the opponent
+     */
+    private static char opponent(char token) {
+        return token == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN : Board.COMPUTER_TOKEN;
+    }
+
+    /**
+     * Solves a position given on the command line and prints the proven value alongside the size
+     * of the proof tree
+     *
+     * <p>The arguments are, in order: the position (in the <code>%%%|%%%|%%%</code> format accepted by
+     * <code>Board</code>), the character code of the player to move, and optionally the bound on the
+     * number of table entries and a checkpoint file (restored if it exists and updated every
+     * 100,000 expansions).</p>
+     *
+     * @param args array of command-line arguments
+     * @throws IOException if an I/O error occurs while reading or writing the checkpoint file
+     */
+    public static void main(String[] args) throws IOException {
+        Board b;
+        char toMove;
+        ProofNumberSearch pns;
+
+        b = new Board(args.length > 0 ? args[0] : "***|***|***");
+        toMove = args.length > 1 ? args[1].charAt(0) : Board.COMPUTER_TOKEN;
+        pns = new ProofNumberSearch(args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_ENTRIES);
+
+        if (args.length > 3) {
+            File checkpoint;
+            checkpoint = new File(args[3]);
+
+            if (checkpoint.exists()) {
+                pns.loadCheckpoint(checkpoint);
+            }
+
+            pns.setCheckpoint(checkpoint, 100000);
+        }
+
+        System.out.print(pns.solve(b, toMove));
+    }
+
+    /* Proof and disproof numbers of a position */
+    private static class Entry {
+        /* Proof number (0 if proven) */
+        private final int pn;
+        /* Disproof number (0 if disproven) */
+        private final int dn;
+
+        private Entry(int pn, int dn) {
+            this.pn = pn;
+            this.dn = dn;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package solver;
+
+/**
+ * Class implementing the <b>result of a proof-number search</b>, consisting of the proven
+ * game-theoretic value of a position and the statistics of the search that established it
+ *
+ * <p>The game-theoretic value is always expressed from the point of view of the
+ * tic-tac-toe-playing agent (computer), following the utility values used by the agents:
+ * <code>Agent.WIN_UTIL</code> if the agent wins under perfect play, <code>Agent.LOSS_UTIL</code>
+ * if the human player wins, and <code>Agent.DRAW_UTIL</code> if the game is drawn.</p>
+ */
+public class ProofResult {
+    /* Proven game-theoretic value of the position (from the point of view of the agent) */
+    private int value;
+    /* Number of distinct positions in the proof (or disproof) tree establishing the value */
+    private long proofTreeSize;
+    /* Number of positions expanded during the search */
+    private long numExpanded;
+    /* Number of entries left in the transposition table at the end of the search */
+    private int numEntries;
+    /* Number of times the transposition table was garbage-collected to stay within its bound */
+    private int numCollections;
+
+    /**
+     * Creates the result of a proof-number search
+     *
+     * @param value proven game-theoretic value of the position (from the point of view of the agent)
+     * @param proofTreeSize number of distinct positions in the proof (or disproof) tree
+     * @param numExpanded number of positions expanded during the search
+     * @param numEntries number of entries left in the transposition table
+     * @param numCollections number of times the transposition table was garbage-collected
+     */
+    public ProofResult(int value, long proofTreeSize, long numExpanded, int numEntries,
+                       int numCollections) {
+        this.value = value;
+        this.proofTreeSize = proofTreeSize;
+        this.numExpanded = numExpanded;
+        this.numEntries = numEntries;
+        this.numCollections = numCollections;
+    }
+
+    /**
+     * Returns the proven game-theoretic value of the position (from the point of view of the agent)
+     *
+     * @return proven game-theoretic value of the position
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the number of distinct positions in the proof (or disproof) tree establishing the value
+     *
+     * @return number of distinct positions in the proof (or disproof) tree
+     */
+    public long getProofTreeSize() {
+        return proofTreeSize;
+    }
+
+    /**
+     * Returns the number of positions expanded during the search
+     *
+     * @return number of positions expanded during the search
+     */
+    public long getNumExpanded() {
+        return numExpanded;
+    }
+
+    /**
+     * Returns the number of entries left in the transposition table at the end of the search
+     *
+     * @return number of entries left in the transposition table
+     */
+    public int getNumEntries() {
+        return numEntries;
+    }
+
+    /**
+     * Returns the number of times the transposition table was garbage-collected to stay within its bound
+     *
+     * @return number of times the transposition table was garbage-collected
+     */
+    public int getNumCollections() {
+        return numCollections;
+    }
+
+    /**
+     * Returns a string representation of this result
+     *
+     * <p>The string representation contains the proven value, the size of the proof tree,
+     * the number of expanded positions, the number of transposition table entries, and the number
+     * of garbage collections of the table (in this order). </p>
+     *
+     * @return string representation of this result
+     */
+    @Override
+    public String toString() {
+        return "Value: " + value + "\n"
+                + "Proof Tree Size: " + proofTreeSize + "\n"
+                + "Expanded: " + numExpanded + "\n"
+                + "Table Entries: " + numEntries + "\n"
+                + "Collections: " + numCollections + "\n";
+    }
+}
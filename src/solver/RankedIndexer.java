@@ -0,0 +1,406 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Class implementing a <b>ranked position indexer</b>, which has slots only for the canonical
+ * positions whose numbers of tokens can occur in a game
+ *
+ * <p>The first player has either as many tokens as the second player or one more, so a layer (the
+ * positions with <i>p</i> tokens) consists of the arrangements of a fixed number of tokens of each
+ * player. Such an arrangement is ranked combinatorially: its rank is the number of arrangements with
+ * the same numbers of tokens that precede it in lexicographic order, computed from multinomial
+ * coefficients in time linear in the number of tiles. </p>
+ *
+ * <p>Positions related by a symmetry of the board (the 8 rotations and reflections of a square board,
+ * or the 4 of a rectangular one) have the same value, so only the <i>canonical</i> position of every
+ * symmetry class (the one with the lowest rank) has a slot. The ranks of the canonical positions of
+ * every layer are kept sorted, so that a position is indexed by canonicalizing it and searching for
+ * its rank, and a slot is unranked by looking its rank up. The slots of a layer are contiguous, and the
+ * layers are in order of number of tokens. </p>
+ */
+public class RankedIndexer extends PositionIndexer {
+    /* Source tile of every tile of the image of a position under every symmetry */
+    private final int[][] symmetries;
+    /* Multinomial coefficients: number of arrangements of e empty tiles, a tokens of the first player,
+    and b tokens of the second player, indexed by [e][a][b]
+     */
+    private final long[][][] multinomials;
+
+    /* Ranks of the canonical positions of every layer, in increasing order */
+    private final int[][] canonicalRanks;
+    /* Lowest index of the slots of every layer (with one more element holding the number of slots) */
+    private final int[] layerStarts;
+
+    /**
+     * Creates a ranked indexer of the positions of a board with the given dimensions, enumerating the
+     * canonical positions of every layer
+     *
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @throws IllegalArgumentException if a layer or the whole board has too many positions to be
+     * indexed by an integer
+     */
+    public RankedIndexer(int rows, int cols) {
+        super(rows, cols);
+
+        int numTiles;
+        numTiles = rows * cols;
+
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Unsupported board: " + rows + "x" + cols);
+        }
+
+        symmetries = findSymmetries(rows, cols);
+        multinomials = new long[numTiles + 1][numTiles + 1][numTiles + 1];
+
+        /* M(e, a, b) = M(e - 1, a, b) + M(e, a - 1, b) + M(e, a, b - 1), since the first tile is either
+        empty or holds a token of either player.
+         */
+        for (int n = 0; n <= numTiles; n++) {
+            for (int a = 0; a <= n; a++) {
+                for (int b = 0; a + b <= n; b++) {
+                    int e;
+                    e = n - a - b;
+
+                    if (n == 0) {
+                        multinomials[e][a][b] = 1;
+                        continue;
+                    }
+
+                    multinomials[e][a][b] = (e > 0 ? multinomials[e - 1][a][b] : 0)
+                            + (a > 0 ? multinomials[e][a - 1][b] : 0) + (b > 0 ? multinomials[e][a][b - 1] : 0);
+                }
+            }
+        }
+
+        canonicalRanks = new int[numTiles + 1][];
+        layerStarts = new int[numTiles + 2];
+
+        for (int layer = 0; layer <= numTiles; layer++) {
+            canonicalRanks[layer] = findCanonicalRanks(layer);
+
+            long end;
+            end = (long) layerStarts[layer] + canonicalRanks[layer].length;
+
+            if (end > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many positions: " + rows + "x" + cols);
+            }
+
+            layerStarts[layer + 1] = (int) end;
+        }
+    }
+
+    /**
+     * Returns the source tile of every tile of the image of a position under every symmetry of the
+     * given board (the identity being the first)
+     *
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @return source tile of every tile of the image under every symmetry
+     */
+    private static int[][] findSymmetries(int rows, int cols) {
+        int[][] symmetries;
+        symmetries = new int[rows == cols ? 8 : 4][rows * cols];
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int tile;
+                tile = row * cols + col;
+
+                /* Identity, reflections across both axes, and rotation by 180 degrees */
+                symmetries[0][tile] = tile;
+                symmetries[1][tile] = row * cols + (cols - 1 - col);
+                symmetries[2][tile] = (rows - 1 - row) * cols + col;
+                symmetries[3][tile] = (rows - 1 - row) * cols + (cols - 1 - col);
+
+                /* Reflections across both diagonals, and rotations by 90 and 270 degrees */
+                if (rows == cols) {
+                    symmetries[4][tile] = col * cols + row;
+                    symmetries[5][tile] = (cols - 1 - col) * cols + (rows - 1 - row);
+                    symmetries[6][tile] = col * cols + (rows - 1 - row);
+                    symmetries[7][tile] = (cols - 1 - col) * cols + row;
+                }
+            }
+        }
+
+        return symmetries;
+    }
+
+    /**
+     * Returns the number of tokens of the first player in the given layer
+     *
+     * @param layer number of tokens
+     * @return number of tokens of the first player
+     */
+    private static int getNumFirst(int layer) {
+        return (layer + 1) / 2;
+    }
+
+    /**
+     * Returns the ranks of the canonical positions of the given layer, in increasing order
+     *
+     * @param layer number of tokens
+     * @return ranks of the canonical positions of the layer
+     * @throws IllegalArgumentException if the layer has too many positions to be ranked by an integer
+     */
+    private int[] findCanonicalRanks(int layer) {
+        int numTiles;
+        int numFirst;
+        long numArrangements;           // number of positions of the layer
+
+        numTiles = getNumTiles();
+        numFirst = getNumFirst(layer);
+        numArrangements = multinomials[numTiles - layer][numFirst][layer - numFirst];
+
+        if (numArrangements > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many positions with " + layer + " tokens");
+        }
+
+        int[] ranks;
+        int numCanonical;
+        int[] digits;
+
+        ranks = new int[16];
+        numCanonical = 0;
+        digits = new int[numTiles];
+
+        for (int rank = 0; rank < numArrangements; rank++) {
+            unrank(rank, layer, digits);
+
+            if (isCanonical(digits, layer, rank)) {
+                if (numCanonical == ranks.length) {
+                    ranks = Arrays.copyOf(ranks, ranks.length * 2);
+                }
+
+                ranks[numCanonical++] = rank;
+            }
+        }
+
+        return Arrays.copyOf(ranks, numCanonical);
+    }
+
+    /**
+     * Returns the rank of the image of the given position under the given symmetry, among the
+     * positions of its layer
+     *
+     * @param digits token on every tile of the position (0, 1, or 2)
+     * @param layer number of tokens of the position
+     * @param symmetry source tile of every tile of the image
+     * @return rank of the image
+     */
+    private long rank(int[] digits, int layer, int[] symmetry) {
+        int e;                  // number of empty tiles left
+        int a;                  // number of tokens of the first player left
+        int b;                  // number of tokens of the second player left
+        long rank;
+
+        a = getNumFirst(layer);
+        b = layer - a;
+        e = digits.length - layer;
+        rank = 0;
+
+        for (int tile = 0; tile < digits.length; tile++) {
+            /* Count the arrangements holding a lower token on this tile, after the same prefix. */
+            switch (digits[symmetry[tile]]) {
+                case 0:
+                    e--;
+                    break;
+                case 1:
+                    rank += e > 0 ? multinomials[e - 1][a][b] : 0;
+                    a--;
+                    break;
+                default:
+                    rank += (e > 0 ? multinomials[e - 1][a][b] : 0) + (a > 0 ? multinomials[e][a - 1][b] : 0);
+                    b--;
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Stores the position with the given rank among the positions of the given layer into the given
+     * array
+     *
+     * @param rank rank of the position
+     * @param layer number of tokens of the position
+     * @param digits array receiving the token on every tile of the position (0, 1, or 2)
+     */
+    private void unrank(long rank, int layer, int[] digits) {
+        int e;                  // number of empty tiles left
+        int a;                  // number of tokens of the first player left
+        int b;                  // number of tokens of the second player left
+
+        a = getNumFirst(layer);
+        b = layer - a;
+        e = digits.length - layer;
+
+        for (int tile = 0; tile < digits.length; tile++) {
+            long numWithEmpty;          // number of arrangements with this tile empty
+            long numWithFirst;          // number of arrangements with a token of the first player on this tile
+
+            numWithEmpty = e > 0 ? multinomials[e - 1][a][b] : 0;
+            numWithFirst = a > 0 ? multinomials[e][a - 1][b] : 0;
+
+            if (rank < numWithEmpty) {
+                digits[tile] = 0;
+                e--;
+            } else if (rank < numWithEmpty + numWithFirst) {
+                digits[tile] = 1;
+                rank -= numWithEmpty;
+                a--;
+            } else {
+                digits[tile] = 2;
+                rank -= numWithEmpty + numWithFirst;
+                b--;
+            }
+        }
+    }
+
+    /**
+     * Returns the rank of the canonical position of the symmetry class of the given position, that
+     * is, the lowest rank of its images
+     *
+     * @param digits token on every tile of the position (0, 1, or 2)
+     * @param layer number of tokens of the position
+     * @return rank of the canonical position
+     */
+    private long getCanonicalRank(int[] digits, int layer) {
+        long minRank;
+        minRank = Long.MAX_VALUE;
+
+        for (int[] symmetry : symmetries) {
+            minRank = Math.min(minRank, rank(digits, layer, symmetry));
+        }
+
+        return minRank;
+    }
+
+    /**
+     * Returns <code>true</code> if the given position is canonical, that is, if none of its images has
+     * a lower rank; <code>false</code>, otherwise
+     *
+     * @param digits token on every tile of the position (0, 1, or 2)
+     * @param layer number of tokens of the position
+     * @param rank rank of the position
+     * @return <code>true</code> if the position is canonical; <code>false</code>, otherwise
+     */
+    private boolean isCanonical(int[] digits, int layer, long rank) {
+        /* The first symmetry is the identity. */
+        for (int i = 1; i < symmetries.length; i++) {
+            if (rank(digits, layer, symmetries[i]) < rank) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns <code>RANKED</code>, the scheme of this indexer
+     *
+     * @return <code>RANKED</code>
+     */
+    @Override
+    public int getScheme() {
+        return RANKED;
+    }
+
+    /**
+     * Returns the number of slots, that is, the number of symmetry classes of the positions whose
+     * numbers of tokens can occur in a game
+     *
+     * @return number of slots
+     */
+    @Override
+    public int size() {
+        return layerStarts[getNumTiles() + 1];
+    }
+
+    /**
+     * Returns the lowest index of the slots of the positions with the given number of tokens
+     *
+     * @param layer number of tokens
+     * @return lowest index of the slots of the layer (inclusive)
+     */
+    @Override
+    public int getLayerStart(int layer) {
+        return layerStarts[layer];
+    }
+
+    /**
+     * Returns the highest index of the slots of the positions with the given number of tokens
+     *
+     * @param layer number of tokens
+     * @return highest index of the slots of the layer (exclusive)
+     */
+    @Override
+    public int getLayerEnd(int layer) {
+        return layerStarts[layer + 1];
+    }
+
+    /**
+     * Returns the number of tokens of the position of the slot with the given index
+     *
+     * @param index index of the slot
+     * @return number of tokens of the position of the slot
+     */
+    @Override
+    public int getLayer(int index) {
+        int layer;
+        layer = Arrays.binarySearch(layerStarts, index);
+
+        /* The layers are never empty, so the starts of the layers are strictly increasing. */
+        return layer >= 0 ? layer : -layer - 2;
+    }
+
+    /**
+     * Returns the index of the slot of the symmetry class of the given position
+     *
+     * @param digits token on every tile of the position (0, 1, or 2), left unchanged
+     * @return index of the slot of the position, or -1 if the numbers of tokens cannot occur in a game
+     */
+    @Override
+    public int getIndex(int[] digits) {
+        int numFirst;
+        int numSecond;
+
+        numFirst = 0;
+        numSecond = 0;
+
+        for (int digit : digits) {
+            if (digit == 1) {
+                numFirst++;
+            } else if (digit == 2) {
+                numSecond++;
+            }
+        }
+
+        if (numFirst != numSecond && numFirst != numSecond + 1) {
+            return -1;
+        }
+
+        int layer;
+        int slot;               // slot of the position within its layer
+
+        layer = numFirst + numSecond;
+        slot = Arrays.binarySearch(canonicalRanks[layer], (int) getCanonicalRank(digits, layer));
+
+        return slot < 0 ? -1 : layerStarts[layer] + slot;
+    }
+
+    /**
+     * Stores the canonical position of the slot with the given index into the given array
+     *
+     * @param index index of the slot
+     * @param digits array receiving the token on every tile of the position (0, 1, or 2)
+     */
+    @Override
+    public void getPosition(int index, int[] digits) {
+        int layer;
+        layer = getLayer(index);
+
+        unrank(canonicalRanks[layer][index - layerStarts[layer]], layer, digits);
+    }
+}
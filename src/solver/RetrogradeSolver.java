@@ -0,0 +1,580 @@
+package solver;
+
+import tic_tac_toe.Board;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class implementing a <b>retrograde analysis</b> solver, which establishes the game-theoretic value
+ * of every legal position of an <i>m,n,k</i>-game (that is, tic-tac-toe played on an <i>m</i>&times;<i>n</i>
+ * board, where the first player to occupy <i>k</i> tiles in a lane wins) and the number of moves
+ * to the end of the game under perfect play
+ *
+ * <p>Every position is stored in a table whose slots are given by a position indexer: either the
+ * base-3 key of the position (see <code>Base3Indexer</code>), or the rank of its canonical position
+ * among the positions with the same numbers of tokens (see <code>RankedIndexer</code>), which has
+ * slots only for the canonical positions whose numbers of tokens can occur in a game instead of a
+ * slot for every assignment of tokens. The player to move is implied by the number of tokens. Since a move only ever adds a token,
+ * the positions are layered by their number of tokens and every move leads to the next layer. Hence,
+ * the values are propagated backward from the terminal positions one layer at a time, from the full
+ * boards down to the empty board, and each layer is solved in parallel by splitting its index range
+ * among several threads. </p>
+ *
+ * <p>A position is legal if the first player has either as many tokens as the second player or one
+ * more, the player to move has no <i>k</i>-in-a-lane, and the game did not end before the most recent
+ * move. The last condition is checked only by requiring the player to move not to have won, so a few
+ * legal positions may still be unreachable from the empty board (they are solved nonetheless). The
+ * illegal positions are marked as <code>UNKNOWN</code>. </p>
+ *
+ * <p>The entry of every position is a single byte holding its value (from the point of view of the
+ * player to move) and its distance, that is, the number of moves to the end of the game if the winner
+ * wins as quickly and the loser loses as slowly as possible. </p>
+ */
+public class RetrogradeSolver {
+    /**
+     * Value of an illegal (or not yet solved) position
+     */
+    public static final int UNKNOWN = 0;
+    /**
+     * Value of a position won by the player to move
+     */
+    public static final int WIN = 1;
+    /**
+     * Value of a position lost by the player to move
+     */
+    public static final int LOSS = 2;
+    /**
+     * Value of a drawn position
+     */
+    public static final int DRAW = 3;
+
+    /* Magic number identifying a file holding a table */
+    private static final int MAGIC = 0x54545242;
+    /* Number of bits of an entry holding the distance */
+    private static final int DISTANCE_BITS = 6;
+    /* Mask of the bits of an entry holding the distance */
+    private static final int DISTANCE_MASK = (1 << DISTANCE_BITS) - 1;
+    /* Number of index ranges into which a layer is split per thread */
+    private static final int RANGES_PER_THREAD = 8;
+
+    /* Indexer mapping the positions to the slots of the table */
+    private final PositionIndexer indexer;
+    /* Number of tokens in a lane needed to win */
+    private final int k;
+    /* Number of tiles of the board */
+    private final int numTiles;
+    /* Tiles of every lane of k tiles (horizontal, vertical, or diagonal) */
+    private final int[][] lanes;
+
+    /* Value and distance of every position, indexed by the slot given by the indexer */
+    private final byte[] table;
+    /* Number of positions of each value (indexed by value) once the table is built */
+    private final long[] counts;
+
+    /**
+     * Creates a solver for the given <i>m,n,k</i>-game whose table is indexed by base-3 key, and
+     * whose table is yet to be built
+     *
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @param k number of tokens in a lane needed to win
+     * @throws IllegalArgumentException if the board has more than <code>Base3Indexer.MAX_TILES</code>
+     * tiles, or if <i>k</i> is not between 1 and the longer side of the board
+     */
+    public RetrogradeSolver(int rows, int cols, int k) {
+        this(new Base3Indexer(rows, cols), k);
+    }
+
+    /**
+     * Creates a solver for the <i>m,n,k</i>-game played on the board of the given indexer, whose
+     * table is indexed by the indexer and is yet to be built
+     *
+     * @param indexer indexer mapping the positions to the slots of the table
+     * @param k number of tokens in a lane needed to win
+     * @throws IllegalArgumentException if <i>k</i> is not between 1 and the longer side of the board
+     */
+    public RetrogradeSolver(PositionIndexer indexer, int k) {
+        if (k < 1 || k > Math.max(indexer.getRows(), indexer.getCols())) {
+            throw new IllegalArgumentException("Unsupported lane length: " + k);
+        }
+
+        this.indexer = indexer;
+        this.k = k;
+        this.numTiles = indexer.getNumTiles();
+
+        lanes = findLanes(indexer.getRows(), indexer.getCols(), k);
+        table = new byte[indexer.size()];
+        counts = new long[4];
+    }
+
+    /**
+     * Returns the tiles of every lane of k tiles (horizontal, vertical, or diagonal) of the given board
+     *
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @param k number of tokens in a lane needed to win
+     * @return tiles (in row-major order) of every lane
+     */
+    private static int[][] findLanes(int rows, int cols, int k) {
+        /* Directions of the lanes: rightward, downward, down-rightward, and down-leftward */
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+        ArrayList<int[]> lanes;
+        lanes = new ArrayList<int[]>();
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                for (int[] d : directions) {
+                    int endRow;         // row-coordinate of the last tile of the lane
+                    int endCol;         // column-coordinate of the last tile of the lane
+
+                    endRow = row + d[0] * (k - 1);
+                    endCol = col + d[1] * (k - 1);
+
+                    if (endRow < 0 || endRow >= rows || endCol < 0 || endCol >= cols) {
+                        continue;
+                    }
+
+                    /* A lane of a single tile is counted once, not once per direction. */
+                    if (k == 1 && d != directions[0]) {
+                        continue;
+                    }
+
+                    int[] lane;
+                    lane = new int[k];
+
+                    for (int i = 0; i < k; i++) {
+                        lane[i] = (row + d[0] * i) * cols + col + d[1] * i;
+                    }
+
+                    lanes.add(lane);
+                }
+            }
+        }
+
+        return lanes.toArray(new int[0][]);
+    }
+
+    /**
+     * Builds the table, solving every layer in parallel on the given number of threads
+     *
+     * @param numThreads number of threads among which every layer is split
+     * @throws InterruptedException if the calling thread is interrupted while waiting for a layer
+     */
+    public void solve(int numThreads) throws InterruptedException {
+        ExecutorService pool;
+        pool = Executors.newFixedThreadPool(numThreads);
+
+        try {
+            /* Every move leads to the next layer, which is therefore solved first. */
+            for (int layer = numTiles; layer >= 0; layer--) {
+                ArrayList<Future<?>> ranges;
+                int start;              // lowest index of the range of the layer
+                int end;                // highest index of the range of the layer
+                int rangeSize;          // number of slots in an index range
+
+                ranges = new ArrayList<Future<?>>();
+                start = indexer.getLayerStart(layer);
+                end = indexer.getLayerEnd(layer);
+                rangeSize = Math.max(1, (end - start + numThreads * RANGES_PER_THREAD - 1)
+                        / (numThreads * RANGES_PER_THREAD));
+
+                for (int lo = start; lo < end; lo += rangeSize) {
+                    int currLayer = layer;
+                    int currLo = lo;
+                    int currHi = Math.min(end, lo + rangeSize);
+
+                    ranges.add(pool.submit(() -> solveRange(currLayer, currLo, currHi)));
+                }
+
+                /* Waiting for every range also makes the layer visible to the next pass. */
+                for (Future<?> range : ranges) {
+                    range.get();
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Retrograde pass failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        countValues();
+    }
+
+    /**
+     * Solves the positions of the given layer whose indices are in the given range
+     *
+     * @param layer number of tokens of the positions to be solved
+     * @param lo lowest index of the range (inclusive)
+     * @param hi highest index of the range (exclusive)
+     */
+    private void solveRange(int layer, int lo, int hi) {
+        int[] digits;           // token on every tile of the current position (0, 1, or 2)
+        digits = new int[numTiles];
+
+        for (int index = lo; index < hi; index++) {
+            /* The range of the layer may hold the slots of other layers (see PositionIndexer). */
+            if (indexer.getLayer(index) == layer) {
+                indexer.getPosition(index, digits);
+
+                /* The first player is to move if both players have as many tokens. */
+                table[index] = solvePosition(digits, layer % 2 == 0 ? 1 : 2);
+            }
+        }
+    }
+
+    /**
+     * Solves a position whose successors (if any) are already solved
+     *
+     * @param digits token on every tile of the position (0, 1, or 2), left unchanged
+     * @param toMove token of the player to move (1 or 2)
+     * @return entry of the position
+     */
+    private byte solvePosition(int[] digits, int toMove) {
+        /* The player to move cannot have completed a lane before the opponent's move. */
+        if (hasLane(digits, toMove)) {
+            return UNKNOWN;
+        }
+
+        if (hasLane(digits, 3 - toMove)) {
+            return encode(LOSS, 0);
+        }
+
+        int minWin;             // distance of the quickest win (-1 if there is none)
+        int maxDraw;            // distance of a draw (-1 if there is none)
+        int maxLoss;            // distance of the slowest loss (-1 if there is none)
+
+        minWin = -1;
+        maxDraw = -1;
+        maxLoss = -1;
+
+        for (int tile = 0; tile < numTiles; tile++) {
+            if (digits[tile] != 0) {
+                continue;
+            }
+
+            int child;          // entry of the position after the move (from the opponent's point of view)
+            int distance;       // distance of the position after the move
+
+            digits[tile] = toMove;
+            child = table[indexer.getIndex(digits)];
+            digits[tile] = 0;
+            distance = child & DISTANCE_MASK;
+
+            switch (getValueOf(child)) {
+                case LOSS:
+                    minWin = minWin == -1 ? distance : Math.min(minWin, distance);
+                    break;
+                case DRAW:
+                    maxDraw = Math.max(maxDraw, distance);
+                    break;
+                default:
+                    maxLoss = Math.max(maxLoss, distance);
+            }
+        }
+
+        if (minWin != -1) {
+            return encode(WIN, minWin + 1);
+        } else if (maxDraw != -1) {
+            return encode(DRAW, maxDraw + 1);
+        } else if (maxLoss != -1) {
+            return encode(LOSS, maxLoss + 1);
+        }
+
+        /* The board is full without any k-in-a-lane. */
+        return encode(DRAW, 0);
+    }
+
+    /**
+     * Returns <code>true</code> if the given player has a k-in-a-lane; <code>false</code>, otherwise
+     *
+     * @param digits token on every tile of the position (0, 1, or 2)
+     * @param player token of the player (1 or 2)
+     * @return <code>true</code> if the given player has a k-in-a-lane; <code>false</code>, otherwise
+     */
+    private boolean hasLane(int[] digits, int player) {
+        for (int[] lane : lanes) {
+            boolean isComplete;
+            isComplete = true;
+
+            for (int tile : lane) {
+                if (digits[tile] != player) {
+                    isComplete = false;
+                    break;
+                }
+            }
+
+            if (isComplete) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the entry holding the given value and distance
+     *
+     * @param value value of the position
+     * @param distance distance of the position
+     * @return entry holding the value and distance
+     */
+    private static byte encode(int value, int distance) {
+        return (byte) (value << DISTANCE_BITS | distance);
+    }
+
+    /**
+     * Returns the value held by the given entry
+     *
+     * @param entry entry of a position
+     * @return value held by the entry
+     */
+    private static int getValueOf(int entry) {
+        return (entry & 0xFF) >>> DISTANCE_BITS;
+    }
+
+    /**
+     * Counts the positions of each value
+     */
+    private void countValues() {
+        for (byte entry : table) {
+            counts[getValueOf(entry)]++;
+        }
+    }
+
+    /**
+     * Returns the value of the position with the given index, from the point of view of the player to
+     * move (one of <code>WIN</code>, <code>LOSS</code>, and <code>DRAW</code>, or <code>UNKNOWN</code>
+     * if the position is illegal)
+     *
+     * @param index index of the slot of the position
+     * @return value of the position
+     */
+    public int getValue(int index) {
+        return getValueOf(table[index]);
+    }
+
+    /**
+     * Returns the number of moves to the end of the game from the position with the given index,
+     * under perfect play
+     *
+     * @param index index of the slot of the position
+     * @return number of moves to the end of the game
+     */
+    public int getDistance(int index) {
+        return table[index] & DISTANCE_MASK;
+    }
+
+    /**
+     * Returns the index of the given 3&times;3 board, given the player to move
+     *
+     * <p>The player with more tokens is the first player. If both have as many tokens, the player to
+     * move is the first player. </p>
+     *
+     * @param b board (left unchanged)
+     * @param toMove token of the player to move
+     * @return index of the slot of the position
+     * @throws IllegalStateException if the table is not that of a 3&times;3 board
+     * @throws IllegalArgumentException if the numbers of tokens do not allow the given player to move
+     */
+    public int getIndex(Board b, char toMove) {
+        char other;             // token of the opponent of the player to move
+        int numToMove;          // number of tokens of the player to move
+        int numOther;           // number of tokens of the opponent
+
+        other = toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN : Board.COMPUTER_TOKEN;
+        numToMove = 0;
+        numOther = 0;
+
+        for (int i = 0; i < Board.DIMENSION; i++) {
+            for (int j = 0; j < Board.DIMENSION; j++) {
+                if (b.getToken(i, j) == toMove) {
+                    numToMove++;
+                } else if (b.getToken(i, j) == other) {
+                    numOther++;
+                }
+            }
+        }
+
+        if (numToMove != numOther && numToMove + 1 != numOther) {
+            throw new IllegalArgumentException("Not the turn of " + toMove + ": " + b.snapshot().getConfig());
+        }
+
+        return indexer.getIndex(b, numToMove == numOther ? toMove : other);
+    }
+
+    /**
+     * Returns the value of the given 3&times;3 board from the point of view of the given player to move
+     *
+     * @param b board (left unchanged)
+     * @param toMove token of the player to move
+     * @return value of the position (see <code>getValue(int)</code>)
+     */
+    public int getValue(Board b, char toMove) {
+        return getValue(getIndex(b, toMove));
+    }
+
+    /**
+     * Returns the number of moves to the end of the game from the given 3&times;3 board, under perfect
+     * play
+     *
+     * @param b board (left unchanged)
+     * @param toMove token of the player to move
+     * @return number of moves to the end of the game
+     */
+    public int getDistance(Board b, char toMove) {
+        return getDistance(getIndex(b, toMove));
+    }
+
+    /**
+     * Returns the number of legal positions of the given value once the table is built
+     *
+     * @param value value of the positions (<code>UNKNOWN</code> for the illegal positions)
+     * @return number of positions of the given value
+     */
+    public long getCount(int value) {
+        return counts[value];
+    }
+
+    /**
+     * Returns the number of legal positions once the table is built
+     *
+     * @return number of legal positions
+     */
+    public long getNumPositions() {
+        return counts[WIN] + counts[LOSS] + counts[DRAW];
+    }
+
+    /**
+     * Saves the table to the given file
+     *
+     * <p>The file holds a header (a magic number, the number of rows, the number of columns, <i>k</i>,
+     * and the indexing scheme) followed by the entry of every slot in order of index. The two most significant
+     * bits of an entry hold the value, and the others hold the distance. </p>
+     *
+     * @param file file into which the table is saved
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public void save(File file) throws IOException {
+        /* Write to a temporary file first so that a crash never leaves a truncated table. */
+        File tmp;
+        tmp = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(indexer.getRows());
+            out.writeInt(indexer.getCols());
+            out.writeInt(k);
+            out.writeInt(indexer.getScheme());
+            out.write(table);
+        }
+
+        if (!tmp.renameTo(file)) {
+            /* Some platforms refuse to rename over an existing file. */
+            if (!file.delete() || !tmp.renameTo(file)) {
+                throw new IOException("Unable to replace table file " + file);
+            }
+        }
+    }
+
+    /**
+     * Loads a table saved by <code>save</code>
+     *
+     * @param file file holding the table
+     * @return solver whose table is the one in the file
+     * @throws IOException if an I/O error occurs while reading the file, or if it does not hold a table
+     */
+    public static RetrogradeSolver load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a table file: " + file);
+            }
+
+            int rows;
+            int cols;
+            int k;
+            RetrogradeSolver solver;
+
+            rows = in.readInt();
+            cols = in.readInt();
+            k = in.readInt();
+            solver = new RetrogradeSolver(PositionIndexer.create(in.readInt(), rows, cols), k);
+
+            in.readFully(solver.table);
+            solver.countValues();
+
+            return solver;
+        }
+    }
+
+    /**
+     * Returns a string representation of this solver, containing the game, the number of legal
+     * positions of each value, and the value and distance of the empty board
+     *
+     * @return string representation of this solver
+     */
+    @Override
+    public String toString() {
+        String[] names = {"unknown", "win", "loss", "draw"};
+
+        int empty;              // index of the slot of the empty board
+        empty = indexer.getIndex(new int[numTiles]);
+
+        return indexer.getRows() + "," + indexer.getCols() + "," + k + "-game: " + table.length + " slots, "
+                + getNumPositions() + " legal positions (" + counts[WIN] + " wins, " + counts[LOSS] + " losses, "
+                + counts[DRAW] + " draws for the player to move)\nEmpty board: " + names[getValue(empty)] + " in "
+                + getDistance(empty) + " moves\n";
+    }
+
+    /**
+     * Builds the table of the <i>m,n,k</i>-game given on the command line and prints its summary
+     *
+     * <p>The arguments are, in order: the number of rows, the number of columns, <i>k</i> (3, 3, and 3
+     * by default), the indexing scheme (<code>ranked</code> by default, or <code>base3</code>), the
+     * number of threads (by default, the number of available processors), and optionally the file into
+     * which the table is saved.</p>
+     *
+     * @param args array of command-line arguments
+     * @throws InterruptedException if the main thread is interrupted while building the table
+     * @throws IOException if the table cannot be saved
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int rows;
+        int cols;
+        int scheme;
+        RetrogradeSolver solver;
+        int numThreads;
+        long startTime;
+
+        rows = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        cols = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        scheme = args.length > 3 && args[3].equalsIgnoreCase("base3") ? PositionIndexer.BASE3 : PositionIndexer.RANKED;
+        numThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        /* Indexing the positions is timed together with solving them. */
+        startTime = System.nanoTime();
+        solver = new RetrogradeSolver(PositionIndexer.create(scheme, rows, cols),
+                args.length > 2 ? Integer.parseInt(args[2]) : 3);
+        solver.solve(numThreads);
+
+        System.out.print(solver);
+        System.out.println("Solved in " + (System.nanoTime() - startTime) / 1000000 + " ms on " + numThreads
+                + " threads");
+
+        if (args.length > 5) {
+            solver.save(new File(args[5]));
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Provides <b>offline solvers</b> that establish the game-theoretic values of tic-tac-toe
+ * positions without relying on the depth-first search of the agents
+ */
+
+package solver;
\ No newline at end of file
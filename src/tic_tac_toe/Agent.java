@@ -1,6 +1,12 @@
 package tic_tac_toe;
 
+import util.Coordinates;
 import util.Evaluation;
+import util.SearchStatistics;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiFunction;
 
 /**
  * Abstract class providing a skeletal implementation of the <b>tic-tac-toe-playing agent </b>
@@ -8,6 +14,10 @@ import util.Evaluation;
 public abstract class Agent {
     /* Most recent move evaluation of this agent */
     private Evaluation latestEval;
+    /* Search statistics of the most recent decision of this agent */
+    private SearchStatistics stats;
+    /* Whether the search of this agent stops once its thread is interrupted */
+    private boolean isInterruptible;
 
     /**
      * Static utility value given to a win (set to 100)
@@ -27,6 +37,8 @@ public abstract class Agent {
      */
     public Agent() {
         latestEval = null;
+        stats = new SearchStatistics();
+        isInterruptible = false;
     }
 
     /**
@@ -42,6 +54,138 @@ public abstract class Agent {
      */
     public abstract Evaluation evalBestMove(Board b);
 
+    /**
+     * Returns the given number of best moves given the current board state, ranked from best to
+     * worst, each alongside this agent's numerical evaluation of this move (<b>multi-PV</b> analysis)
+     *
+     * <p>By default, only the best move is returned, since an agent that does not search cannot rank
+     * the other moves. Agents that search the game tree rank the moves in a single search (see
+     * <code>rankMoves</code>). </p>
+     *
+     * @param b current board state
+     * @param numMoves maximum number of moves to be returned
+     * @return best moves (at most <code>numMoves</code>, and only one if the game is over), ranked
+     *         from best to worst
+     * @throws IllegalArgumentException if the number of moves is less than 1
+     */
+    public ArrayList<Evaluation> evalBestMoves(Board b, int numMoves) {
+        if (numMoves < 1) {
+            throw new IllegalArgumentException("Invalid number of moves: " + numMoves);
+        }
+
+        ArrayList<Evaluation> ranked;
+        ranked = new ArrayList<Evaluation>(1);
+        ranked.add(evalBestMove(b));
+
+        return ranked;
+    }
+
+    /**
+     * Ranks the given number of best moves given the current board state in a single search, using
+     * the given search of the board following each move (with the human player to move)
+     *
+     * <p>The moves of the agent are searched in row-major order. Once the given number of moves have
+     * been ranked, the numerical evaluation of the worst of them is passed to the search as a lower
+     * bound (the &alpha; parameter in alpha-beta pruning), and a move whose search does not exceed this
+     * bound is not ranked. The search may thus prune the moves that are not among the best ones, but it
+     * has to return the exact numerical evaluation of every move that exceeds the bound, as the regular
+     * alpha-beta pruning of level 3 does; a search without this guarantee has to ignore the bound. If
+     * the search uses the bound, ranking a single move amounts to the search of
+     * <code>evalBestMove</code>. Moves with the same numerical evaluation are ranked in row-major
+     * order. </p>
+     *
+     * <p>The number of nodes searched is recorded into the move evaluation of the best move, which
+     * becomes the most recent move evaluation of this agent. </p>
+     *
+     * @param b current board state
+     * @param numMoves maximum number of moves to be returned
+     * @param search search of the board following a move of the agent, given the lower bound of the
+     *               numerical evaluations of interest
+     * @return best moves (at most <code>numMoves</code>, and only one if the game is over), ranked
+     *         from best to worst
+     * @throws IllegalArgumentException if the number of moves is less than 1
+     */
+    protected ArrayList<Evaluation> rankMoves(Board b, int numMoves, BiFunction<Board, Integer, Evaluation> search) {
+        if (numMoves < 1) {
+            throw new IllegalArgumentException("Invalid number of moves: " + numMoves);
+        }
+
+        ArrayList<Evaluation> ranked;       // best moves so far, ranked from best to worst
+        ranked = new ArrayList<Evaluation>(Math.min(numMoves, Board.DIMENSION * Board.DIMENSION) + 1);
+
+        /* There is no move to be ranked if the game is over. */
+        if (b.isGameOver()) {
+            ranked.add(evalBestMove(b));
+            return ranked;
+        }
+
+        getStats().reset();
+        getStats().recordNode(0);
+
+        for (Coordinates currMove : b.getPossibleMoves()) {
+            int alpha;                      // lower bound of the numerical evaluations of interest
+            alpha = ranked.size() < numMoves ? Integer.MIN_VALUE : ranked.get(numMoves - 1).getEvalScore();
+
+            /* Search the board following the current move. */
+            Evaluation next;                // move evaluation of the board following the current move
+            b.push(currMove.getRow(), currMove.getCol(), Board.COMPUTER_TOKEN);
+            next = search.apply(b, alpha);
+            b.pop();
+
+            /* The current move is not among the best moves. */
+            if (next.getEvalScore() <= alpha) {
+                continue;
+            }
+
+            /* Rank the current move after every move with at least the same numerical evaluation. */
+            int rank;
+            rank = ranked.size();
+
+            while (rank > 0 && ranked.get(rank - 1).getEvalScore() < next.getEvalScore()) {
+                rank--;
+            }
+
+            ranked.add(rank, new Evaluation(next.getEvalScore(), currMove, next));
+
+            if (ranked.size() > numMoves) {
+                ranked.remove(numMoves);
+            }
+        }
+
+        ranked.get(0).setNumNodes(getStats().getNumNodes());
+        setLatestEval(ranked.get(0));
+
+        return ranked;
+    }
+
+    /**
+     * Sets whether the search of this agent stops once the thread running it is interrupted
+     *
+     * <p>An interruptible agent checks the interrupt status of its thread at every node it searches,
+     * and abandons the search by throwing a <code>CancellationException</code> once it is set. The
+     * moves pushed by the search are then left on the board being searched, so an interruptible agent
+     * has to search either its own copy of the board (as those of the <code>Ponderer</code> do) or a
+     * board that its caller restores (as <code>GameMaster</code> does). </p>
+     *
+     * @param isInterruptible <code>true</code> if the search stops once its thread is interrupted;
+     *                        <code>false</code>, otherwise (the default)
+     */
+    public void setInterruptible(boolean isInterruptible) {
+        this.isInterruptible = isInterruptible;
+    }
+
+    /**
+     * Abandons the search if this agent is interruptible and the thread running it has been
+     * interrupted (see <code>setInterruptible</code>)
+     *
+     * @throws CancellationException if the search is abandoned
+     */
+    protected void checkInterrupted() {
+        if (isInterruptible && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Search interrupted");
+        }
+    }
+
     /**
      * Updates the most recent move evaluation of this agent
      *
@@ -51,6 +195,28 @@ public abstract class Agent {
         latestEval = move;
     }
 
+    /**
+     * Returns the most recent move evaluation of this agent, that is, that of the board of its most
+     * recent decision (not that of any other node of its search)
+     *
+     * @return most recent move evaluation of this agent, or <code>null</code> if it has not yet decided
+     */
+    public Evaluation getLatestEval() {
+        return latestEval;
+    }
+
+    /**
+     * Returns the search statistics of the most recent decision of this agent
+     *
+     * <p>The statistics are reset at the start of every call to <code>evalBestMove(Board)</code>
+     * and updated while the agent searches. </p>
+     *
+     * @return search statistics of the most recent decision of this agent
+     */
+    public SearchStatistics getStats() {
+        return stats;
+    }
+
     /**
      * Returns a string representation of this agent
      *
@@ -39,6 +39,10 @@ public class AgentLevel0 extends Agent {
         int currMoveIndex;                          // index of the current move of the agent
         Evaluation eval;                            // final move evaluation
 
+        /* No search is performed; the decision amounts to a single node. */
+        getStats().reset();
+        getStats().recordNode(0);
+
         /* If the game has been completed, the sentinel coordinates (-1,-1) are set as
         the current move.
         */
@@ -55,6 +59,7 @@ public class AgentLevel0 extends Agent {
         }
 
         eval = new Evaluation(0, currMove);
+        eval.setNumNodes(getStats().getNumNodes());
 
         /* Update and return the latest move evaluation of this agent. */
         setLatestEval(eval);
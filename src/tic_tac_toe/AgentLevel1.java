@@ -42,6 +42,10 @@ public class AgentLevel1 extends Agent {
         occupiedO = b.getOccupiedH();
         possibleMoves = b.getPossibleMoves();
 
+        /* No search is performed; the decision amounts to a single node. */
+        getStats().reset();
+        getStats().recordNode(0);
+
         /* If the game has been completed, the sentinel coordinates (-1,-1) are set as
         the agent's move.
         */
@@ -2412,6 +2416,7 @@ public class AgentLevel1 extends Agent {
 
         Evaluation eval;        // final move evaluation
         eval = new Evaluation(0, bestMove);
+        eval.setNumNodes(getStats().getNumNodes());
 
         /* Update and return the latest move evaluation of this agent. */
         setLatestEval(eval);
@@ -42,7 +42,35 @@ public class AgentLevel2 extends Agent {
      */
     @Override
     public Evaluation evalBestMove(Board b) {
-        return evalBestMove(b, true, 0);
+        getStats().reset();
+
+        Evaluation eval;                    // move evaluation of the current board state
+        eval = evalBestMove(b, true, 0);
+
+        /* Record the number of nodes searched into the move evaluation of the root, which is the
+        latest move evaluation of this agent (the move evaluations of the other nodes are not).
+         */
+        eval.setNumNodes(getStats().getNumNodes());
+        setLatestEval(eval);
+        return eval;
+    }
+
+    /**
+     * Returns the given number of best moves given the current board state, ranked from best to
+     * worst, each alongside this agent's numerical evaluation of this move, in a single search
+     *
+     * <p>The board following each move is searched completely, as in <code>evalBestMove</code> (see
+     * <code>Agent.rankMoves</code>). </p>
+     *
+     * @param b current board state
+     * @param numMoves maximum number of moves to be returned
+     * @return best moves (at most <code>numMoves</code>, and only one if the game is over), ranked
+     *         from best to worst
+     * @throws IllegalArgumentException if the number of moves is less than 1
+     */
+    @Override
+    public ArrayList<Evaluation> evalBestMoves(Board b, int numMoves) {
+        return rankMoves(b, numMoves, (image, alpha) -> evalBestMove(image, false, 1));
     }
 
     /**
@@ -62,25 +90,36 @@ public class AgentLevel2 extends Agent {
     public Evaluation evalBestMove(Board b, boolean maximizing, int depth) {
         int bestScore;                      // interim minimax value
         Coordinates bestMove;               // interim best move
+        Evaluation bestNext;                // move evaluation of the board following the interim best move
+
+        /* Record the visit to this node in the search statistics. */
+        getStats().recordNode(depth);
+
+        /* Abandon the search if it has been cancelled (interruptible agents only). */
+        checkInterrupted();
 
         /* BASE CASE: A leaf node of the game tree is reached.
         Since a leaf node is reached, the game is at its terminal state; thus, there are no valid moves left.
          */
         bestMove = new Coordinates(-1, -1);
         if (b.isGameOver()) {
+            getStats().recordLeaf();
+
+            int outcome;                    // outcome of the game, from the agent's point of view
+
             if (b.isWin(Board.HUMAN_TOKEN)) {
                 bestScore = LOSS_UTIL;
+                outcome = Evaluation.LOSS;
             } else if (b.isWin(Board.COMPUTER_TOKEN)) {
                 bestScore = WIN_UTIL;
+                outcome = Evaluation.WIN;
             } else {
                 bestScore = DRAW_UTIL;
+                outcome = Evaluation.DRAW;
             }
 
             Evaluation eval;                // final move evaluation
-            eval = new Evaluation(bestScore, bestMove);
-
-            /* Update and return the latest move evaluation of this agent. */
-            setLatestEval(eval);
+            eval = new Evaluation(bestScore, bestMove, outcome, 0);
             return eval;
         }
 
@@ -88,6 +127,7 @@ public class AgentLevel2 extends Agent {
         /* Identify the selection of all possible moves given the current board state. */
         ArrayList<Coordinates> possibleMoves;
         possibleMoves = b.getPossibleMoves();
+        bestNext = null;
 
         /* Turn of the maximizing player (agent) */
         if (maximizing) {
@@ -100,15 +140,17 @@ public class AgentLevel2 extends Agent {
                 currMove = possibleMoves.get(i);
 
                 /* Update the board state to reflect the current move being evaluated. */
-                b.makeMove(currMove.getRow(), currMove.getCol(), Board.COMPUTER_TOKEN);
+                b.push(currMove.getRow(), currMove.getCol(), Board.COMPUTER_TOKEN);
 
+                Evaluation next;            // move evaluation of the board following the current move
                 int evalScore;              // numerical evaluation of the current move
 
                 /* Switch to the turn of the minimizing player (MINImax), and increase the depth of the game tree. */
-                evalScore = evalBestMove(b, false, depth + 1).getEvalScore();
+                next = evalBestMove(b, false, depth + 1);
+                evalScore = next.getEvalScore();
 
                 /* Revert the board state to its original. */
-                b.makeMove(currMove.getRow(), currMove.getCol(), Board.EMPTY_TOKEN);
+                b.pop();
 
                 /* If the numerical evaluation is greater than the interim miniMAX value, update the value
                 of the latter, as well as the best move.
@@ -116,6 +158,7 @@ public class AgentLevel2 extends Agent {
                 if (evalScore > bestScore) {
                     bestScore = evalScore;
                     bestMove.setRowCol(currMove.getRow(), currMove.getCol());
+                    bestNext = next;
                 }
             }
 
@@ -129,15 +172,17 @@ public class AgentLevel2 extends Agent {
                 currMove = possibleMoves.get(i);
 
                 /* Update the board state to reflect the current move being evaluated. */
-                b.makeMove(currMove.getRow(), currMove.getCol(), Board.HUMAN_TOKEN);
+                b.push(currMove.getRow(), currMove.getCol(), Board.HUMAN_TOKEN);
 
+                Evaluation next;            // move evaluation of the board following the current move
                 int evalScore;              // numerical evaluation of the current move
 
                 /* Switch to the turn of the maximizing player (miniMAX), and increase the depth of the game tree. */
-                evalScore = evalBestMove(b, true, depth + 1).getEvalScore();
+                next = evalBestMove(b, true, depth + 1);
+                evalScore = next.getEvalScore();
 
                 /* Revert the board state to its original. */
-                b.makeMove(currMove.getRow(), currMove.getCol(), Board.EMPTY_TOKEN);
+                b.pop();
 
                 /* If the numerical evaluation is less than the interim MINImax value, update the value of the latter,
                 as well as the best move
@@ -145,15 +190,13 @@ public class AgentLevel2 extends Agent {
                 if (evalScore < bestScore) {
                     bestScore = evalScore;
                     bestMove.setRowCol(currMove.getRow(), currMove.getCol());
+                    bestNext = next;
                 }
             }
         }
 
         Evaluation eval;                    // final move evaluation
-        eval = new Evaluation(bestScore, bestMove);
-
-        /* Update and return the latest move evaluation of this agent. */
-        setLatestEval(eval);
+        eval = new Evaluation(bestScore, bestMove, bestNext);
         return eval;
     }
 }
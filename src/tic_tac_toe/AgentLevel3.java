@@ -42,7 +42,36 @@ public class AgentLevel3 extends Agent {
      */
     @Override
     public Evaluation evalBestMove(Board b) {
-        return evalBestMove(b, true, 0, NEG_INFTY, POS_INFTY);
+        getStats().reset();
+
+        Evaluation eval;                    // move evaluation of the current board state
+        eval = evalBestMove(b, true, 0, NEG_INFTY, POS_INFTY);
+
+        /* Record the number of nodes searched into the move evaluation of the root, which is the
+        latest move evaluation of this agent (the move evaluations of the other nodes are not).
+         */
+        eval.setNumNodes(getStats().getNumNodes());
+        setLatestEval(eval);
+        return eval;
+    }
+
+    /**
+     * Returns the given number of best moves given the current board state, ranked from best to
+     * worst, each alongside this agent's numerical evaluation of this move, in a single search
+     *
+     * <p>The board following each move is searched with alpha-beta pruning, using the numerical
+     * evaluation of the worst of the best moves so far as the &alpha; parameter, so that only the
+     * best moves are evaluated exactly (see <code>Agent.rankMoves</code>). </p>
+     *
+     * @param b current board state
+     * @param numMoves maximum number of moves to be returned
+     * @return best moves (at most <code>numMoves</code>, and only one if the game is over), ranked
+     *         from best to worst
+     * @throws IllegalArgumentException if the number of moves is less than 1
+     */
+    @Override
+    public ArrayList<Evaluation> evalBestMoves(Board b, int numMoves) {
+        return rankMoves(b, numMoves, (image, alpha) -> evalBestMove(image, false, 1, alpha, POS_INFTY));
     }
 
     /**
@@ -65,25 +94,36 @@ public class AgentLevel3 extends Agent {
     public Evaluation evalBestMove(Board b, boolean maximizing, int depth, int alpha, int beta) {
         int bestScore;                      // interim minimax value
         Coordinates bestMove;               // interim best move
+        Evaluation bestNext;                // move evaluation of the board following the interim best move
+
+        /* Record the visit to this node in the search statistics. */
+        getStats().recordNode(depth);
+
+        /* Abandon the search if it has been cancelled (interruptible agents only). */
+        checkInterrupted();
 
         /* BASE CASE: A leaf node of the game tree is reached.
         Since a leaf node is reached, the game is at its terminal state; thus, there are no valid moves left.
          */
         bestMove = new Coordinates(-1, -1);
         if (b.isGameOver()) {
+            getStats().recordLeaf();
+
+            int outcome;                    // outcome of the game, from the agent's point of view
+
             if (b.isWin(Board.HUMAN_TOKEN)) {
                 bestScore = LOSS_UTIL;
+                outcome = Evaluation.LOSS;
             } else if (b.isWin(Board.COMPUTER_TOKEN)) {
                 bestScore = WIN_UTIL;
+                outcome = Evaluation.WIN;
             } else {
                 bestScore = DRAW_UTIL;
+                outcome = Evaluation.DRAW;
             }
 
             Evaluation eval;                // final move evaluation
-            eval = new Evaluation(bestScore, bestMove);
-
-            /* Update and return the latest move evaluation of this agent. */
-            setLatestEval(eval);
+            eval = new Evaluation(bestScore, bestMove, outcome, 0);
             return eval;
         }
 
@@ -91,6 +131,7 @@ public class AgentLevel3 extends Agent {
         /* Identify the selection of all possible moves given the current board state. */
         ArrayList<Coordinates> possibleMoves;
         possibleMoves = b.getPossibleMoves();
+        bestNext = null;
 
         /* Turn of the maximizing player (agent) */
         if (maximizing) {
@@ -103,15 +144,17 @@ public class AgentLevel3 extends Agent {
                 currMove = possibleMoves.get(i);
 
                 /* Update the board state to reflect the current move being evaluated. */
-                b.makeMove(currMove.getRow(), currMove.getCol(), Board.COMPUTER_TOKEN);
+                b.push(currMove.getRow(), currMove.getCol(), Board.COMPUTER_TOKEN);
 
+                Evaluation next;            // move evaluation of the board following the current move
                 int evalScore;              // numerical evaluation of the current move
 
                 /* Switch to the turn of the minimizing player (MINImax), and increase the depth of the game tree. */
-                evalScore = evalBestMove(b, false, depth + 1, alpha, beta).getEvalScore();
+                next = evalBestMove(b, false, depth + 1, alpha, beta);
+                evalScore = next.getEvalScore();
 
                 /* Revert the board state to its original. */
-                b.makeMove(currMove.getRow(), currMove.getCol(), Board.EMPTY_TOKEN);
+                b.pop();
 
                 /* If the numerical evaluation is greater than the interim miniMAX value, update the value
                 of the latter, as well as the best move.
@@ -119,12 +162,14 @@ public class AgentLevel3 extends Agent {
                 if (evalScore > bestScore) {
                     bestScore = evalScore;
                     bestMove.setRowCol(currMove.getRow(), currMove.getCol());
+                    bestNext = next;
 
                     /* The alpha parameter is related to the maximum value. */
                     alpha = Math.max(alpha, bestScore);
 
                     /* Prune if the alpha parameter is greater than or equal to the beta parameter. */
                     if (alpha >= beta) {
+                        getStats().recordCutoff();
                         break;
                     }
                 }
@@ -140,15 +185,17 @@ public class AgentLevel3 extends Agent {
                 currMove = possibleMoves.get(i);
 
                 /* Update the board state to reflect the current move being evaluated. */
-                b.makeMove(currMove.getRow(), currMove.getCol(), Board.HUMAN_TOKEN);
+                b.push(currMove.getRow(), currMove.getCol(), Board.HUMAN_TOKEN);
 
+                Evaluation next;            // move evaluation of the board following the current move
                 int evalScore;              // numerical evaluation of the current move
 
                 /* Switch to the turn of the maximizing player (miniMAX), and increase the depth of the game tree. */
-                evalScore = evalBestMove(b, true, depth + 1, alpha, beta).getEvalScore();
+                next = evalBestMove(b, true, depth + 1, alpha, beta);
+                evalScore = next.getEvalScore();
 
                 /* Revert the board state to its original. */
-                b.makeMove(currMove.getRow(), currMove.getCol(), Board.EMPTY_TOKEN);
+                b.pop();
 
                 /* If the numerical evaluation is less than the interim MINImax value, update the value of the latter,
                 as well as the best move
@@ -156,12 +203,14 @@ public class AgentLevel3 extends Agent {
                 if (evalScore < bestScore) {
                     bestScore = evalScore;
                     bestMove.setRowCol(currMove.getRow(), currMove.getCol());
+                    bestNext = next;
 
                     /* The beta parameter is related to the minimum value. */
                     beta = Math.min(beta, bestScore);
 
                     /* Prune if the alpha parameter is greater than or equal to the beta parameter. */
                     if (alpha >= beta) {
+                        getStats().recordCutoff();
                         break;
                     }
                 }
@@ -169,10 +218,7 @@ public class AgentLevel3 extends Agent {
         }
 
         Evaluation eval;                    // final move evaluation
-        eval = new Evaluation(bestScore, bestMove);
-
-        /* Update and return the latest move evaluation of this agent. */
-        setLatestEval(eval);
+        eval = new Evaluation(bestScore, bestMove, bestNext);
         return eval;
     }
 }
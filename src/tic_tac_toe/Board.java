@@ -3,6 +3,7 @@ package tic_tac_toe;
 import util.Coordinates;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Class implementing the <b>3&times;3 tic-tac-toe board</b> consisting of the tiles
@@ -21,6 +22,32 @@ public class Board {
     /* Board on which the player place their tokens */
     private char[][] board;
 
+    /* Base-3 key of the current board state (see getKey), maintained incrementally */
+    private int key;
+    /* Number of unoccupied tiles */
+    private int numEmpty;
+    /* Number of tokens of each player on each lane, indexed by lane * 2 + player (see getPlayer) */
+    private int[] laneCounts;
+    /* Number of lanes fully occupied by each player (indexed by getPlayer) */
+    private int[] numWinLanes;
+    /* Tiles (in row-major order) of the moves in the history, from the oldest to the most recent */
+    private int[] history;
+    /* Number of moves in the history */
+    private int numHistory;
+
+    /* Number of tiles of the board */
+    private static final int NUM_TILES = 9;
+    /* Number of lanes (rows, columns, and diagonals) of the board */
+    private static final int NUM_LANES = 8;
+    /* Lanes through each tile (in row-major order): rows 0 to 2, columns 3 to 5, and diagonals 6 and 7 */
+    private static final int[][] TILE_LANES = {
+            {0, 3, 6}, {0, 4}, {0, 5, 7},
+            {1, 3}, {1, 4, 6, 7}, {1, 5},
+            {2, 3, 7}, {2, 4}, {2, 5, 6}
+    };
+    /* Place values of the tiles (in row-major order) in the base-3 key */
+    private static final int[] PLACE_VALUES = {6561, 2187, 729, 243, 81, 27, 9, 3, 1};
+
     /**
      * Length of this board (which is also equal to its width)
      */
@@ -45,11 +72,16 @@ public class Board {
      */
     public Board() {
         board = new char[DIMENSION][DIMENSION];
+        laneCounts = new int[NUM_LANES * 2];
+        numWinLanes = new int[2];
+        history = new int[NUM_TILES];
+
         initBoard();
     }
 
     /**
-     * Creates a board object based on a string that represents its initial state (or configuration)
+     * Creates a board object based on a string that represents its initial state (or configuration),
+     * with an empty history
      *
      * <p>The string is of the form <code>%%%|%%%|%%%</code>, which is a flattened representation
      * of the board state following row-major order. Each <code>%</code> stands for a tile while
@@ -67,16 +99,18 @@ public class Board {
      * @param initConfig string representation of the initial state (or configuration)
      */
     public Board(String initConfig) {
-        board = new char[DIMENSION][DIMENSION];
+        this();
 
         int k;          // index pertinent to the string representation of the initial state
         k = 0;
 
-        /* Construct this board tile-by-tile, following row-major order. */
+        /* Construct this board tile-by-tile, following row-major order. The tokens of the initial
+        state are not part of the history, so they cannot be popped.
+         */
         for (int i = 0; i < DIMENSION; i++) {
             for (int j = 0; j < DIMENSION; j++) {
                 /* Increment k to advance to the next character in the string representation. */
-                board[i][j] = initConfig.charAt(k++);
+                setTile(i * DIMENSION + j, initConfig.charAt(k++));
             }
 
             /* Skip the '|' character used to delimit rows. */
@@ -84,6 +118,32 @@ public class Board {
         }
     }
 
+    /**
+     * Creates a board object whose state (or configuration) and history are copies of those of the
+     * given board
+     *
+     * <p>Subsequent moves on either board do not affect the other, which allows the copy to be
+     * searched on a different thread.</p>
+     *
+     * @param other board whose state is to be copied
+     */
+    public Board(Board other) {
+        board = new char[DIMENSION][DIMENSION];
+
+        /* Copy this board row-by-row. */
+        for (int i = 0; i < DIMENSION; i++) {
+            System.arraycopy(other.board[i], 0, board[i], 0, DIMENSION);
+        }
+
+        /* Copy the derived state and the history. */
+        key = other.key;
+        numEmpty = other.numEmpty;
+        laneCounts = other.laneCounts.clone();
+        numWinLanes = other.numWinLanes.clone();
+        history = other.history.clone();
+        numHistory = other.numHistory;
+    }
+
     /**
      * Configures this board to its initial state, that is, 9 unoccupied tiles arranged into 3 rows
      * and 3 columns
@@ -95,20 +155,210 @@ public class Board {
                 board[i][j] = EMPTY_TOKEN;
             }
         }
+
+        /* Reset the derived state and clear the history. */
+        key = 0;
+        numEmpty = NUM_TILES;
+        Arrays.fill(laneCounts, 0);
+        Arrays.fill(numWinLanes, 0);
+        numHistory = 0;
     }
 
     /**
      * Updates the board state to reflect the most recent move given the row- and column-coordinates
      * of the move, and the character code of the pertinent player
      *
+     * <p>Placing a token on an unoccupied tile pushes the move onto the history (as in
+     * <code>push</code>), and clearing a tile (with <code>EMPTY_TOKEN</code>) removes its move from the
+     * history. Replacing a token leaves the history unchanged. </p>
+     *
      * @param row row-coordinate of the player's move
      * @param col column-coordinate of the player's move
      * @param token character code of the player making the move
      */
     public void makeMove(int row, int col, char token) {
+        int tile;
+        tile = row * DIMENSION + col;
+
+        if (board[row][col] == EMPTY_TOKEN && token != EMPTY_TOKEN) {
+            push(row, col, token);
+        } else if (board[row][col] != EMPTY_TOKEN && token == EMPTY_TOKEN) {
+            removeFromHistory(tile);
+            setTile(tile, EMPTY_TOKEN);
+        } else {
+            setTile(tile, token);
+        }
+    }
+
+    /**
+     * Places the given token on the given unoccupied tile and pushes the move onto the history, in
+     * constant time
+     *
+     * <p>The key, the number of unoccupied tiles, the number of tokens on each lane, and the winner
+     * are all updated incrementally, so a search can make and unmake its moves with <code>push</code>
+     * and <code>pop</code> without recomputing anything from scratch. </p>
+     *
+     * @param row row-coordinate of the tile (which must be unoccupied)
+     * @param col column-coordinate of the tile (which must be unoccupied)
+     * @param token character code of the player making the move
+     */
+    public void push(int row, int col, char token) {
+        int tile;
+        tile = row * DIMENSION + col;
+
+        setTile(tile, token);
+        history[numHistory++] = tile;
+    }
+
+    /**
+     * Takes back the most recent move of the history, in constant time
+     *
+     * @throws IllegalStateException if the history is empty
+     */
+    public void pop() {
+        if (numHistory == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+
+        setTile(history[--numHistory], EMPTY_TOKEN);
+    }
+
+    /**
+     * Removes the move on the given tile from the history, if it is there
+     *
+     * @param tile tile of the move (in row-major order)
+     */
+    private void removeFromHistory(int tile) {
+        /* The move is usually the most recent one, so the history is searched from its end. */
+        for (int i = numHistory - 1; i >= 0; i--) {
+            if (history[i] == tile) {
+                System.arraycopy(history, i + 1, history, i, numHistory - i - 1);
+                numHistory--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the given player in the lane counts (0 for the agent and 1 for the human
+     * player)
+     *
+     * @param token character code of the player
+     * @return index of the player in the lane counts
+     */
+    private static int getPlayer(char token) {
+        return token == COMPUTER_TOKEN ? 0 : 1;
+    }
+
+    /**
+     * Places the given token on the given tile (or clears it), updating the derived state
+     *
+     * @param tile tile (in row-major order)
+     * @param token character code of the token (or <code>EMPTY_TOKEN</code>)
+     */
+    private void setTile(int tile, char token) {
+        int row;
+        int col;
+        char old;
+
+        row = tile / DIMENSION;
+        col = tile % DIMENSION;
+        old = board[row][col];
+
+        if (old == token) {
+            return;
+        }
+
+        if (old != EMPTY_TOKEN) {
+            int player;
+            player = getPlayer(old);
+
+            key -= (player == 0 ? 2 : 1) * PLACE_VALUES[tile];
+            numEmpty++;
+
+            for (int lane : TILE_LANES[tile]) {
+                /* The lane is no longer fully occupied by the player. */
+                if (laneCounts[lane * 2 + player]-- == DIMENSION) {
+                    numWinLanes[player]--;
+                }
+            }
+        }
+
+        if (token != EMPTY_TOKEN) {
+            int player;
+            player = getPlayer(token);
+
+            key += (player == 0 ? 2 : 1) * PLACE_VALUES[tile];
+            numEmpty--;
+
+            for (int lane : TILE_LANES[tile]) {
+                /* The lane becomes fully occupied by the player. */
+                if (++laneCounts[lane * 2 + player] == DIMENSION) {
+                    numWinLanes[player]++;
+                }
+            }
+        }
+
         board[row][col] = token;
     }
 
+    /**
+     * Returns the number of moves in the history, that is, the moves made since this board was
+     * initialized (excluding the tokens of the initial state given to <code>Board(String)</code>)
+     *
+     * @return number of moves in the history
+     */
+    public int getNumMoves() {
+        return numHistory;
+    }
+
+    /**
+     * Returns the move at the given position of the history (0 for the oldest)
+     *
+     * @param index position of the move in the history
+     * @return coordinates of the move
+     * @throws IndexOutOfBoundsException if the index is outside the history
+     */
+    public Coordinates getMove(int index) {
+        if (index < 0 || index >= numHistory) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + numHistory);
+        }
+
+        return new Coordinates(history[index] / DIMENSION, history[index] % DIMENSION);
+    }
+
+    /**
+     * Returns the most recent move of the history, or <code>null</code> if the history is empty
+     *
+     * @return coordinates of the most recent move, or <code>null</code> if the history is empty
+     */
+    public Coordinates getLastMove() {
+        return numHistory == 0 ? null : getMove(numHistory - 1);
+    }
+
+    /**
+     * Returns the number of unoccupied tiles
+     *
+     * @return number of unoccupied tiles
+     */
+    public int getNumEmpty() {
+        return numEmpty;
+    }
+
+    /**
+     * Returns the character code of the player with a three-in-a-lane, or <code>EMPTY_TOKEN</code> if
+     * there is none (if both players have one, which cannot happen in a game, the agent is returned)
+     *
+     * @return character code of the winner, or <code>EMPTY_TOKEN</code> if there is none
+     */
+    public char getWinner() {
+        if (numWinLanes[0] > 0) {
+            return COMPUTER_TOKEN;
+        }
+
+        return numWinLanes[1] > 0 ? HUMAN_TOKEN : EMPTY_TOKEN;
+    }
+
     /**
      * Returns <code>true</code> if a winning configuration is detected given the character
      * code of the pertinent player; <code>false</code>, otherwise
@@ -116,32 +366,14 @@ public class Board {
      * <p>A winning configuration is defined as in classical tic-tac-toe: a three-in-a-lane
      * (horizontally, vertically, or diagonally).</p>
      *
-     * @param token character code of the pertinent player
+     * @param token character code of the pertinent player (<code>HUMAN_TOKEN</code> or
+     *              <code>COMPUTER_TOKEN</code>)
      * @return <code>true</code> if a winning configuration is detected; <code>false</code>,
      * otherwise
      */
     public boolean isWin(char token) {
-        /* Check for a non-diagonal winning configuration. */
-        for (int i = 0; i < DIMENSION; i++) {
-            /* Check each row for a winning configuration. */
-            if (board[i][0] == board[i][1] && board[i][1] == board[i][2] && board[i][2] == token) {
-                return true;
-            }
-
-            /* Check each column for a winning configuration. */
-            if (board[0][i] == board[1][i] && board[1][i] == board[2][i] && board[2][i] == token) {
-                return true;
-            }
-        }
-
-        /* Check each diagonal for a winning configuration. */
-        if (board[0][0] == board[1][1] && board[1][1] == board[2][2] && board[2][2] == token
-                || board[0][2] == board[1][1] && board[1][1] == board[2][0] && board[2][0] == token) {
-            return true;
-        }
-
-        /* No winning configuration is detected. */
-        return false;
+        /* The number of lanes fully occupied by each player is maintained by every move. */
+        return numWinLanes[getPlayer(token)] > 0;
     }
 
     /**
@@ -152,7 +384,7 @@ public class Board {
      * otherwise
      */
     public boolean isWin() {
-        return isWin(HUMAN_TOKEN) || isWin(COMPUTER_TOKEN);
+        return numWinLanes[0] > 0 || numWinLanes[1] > 0;
     }
 
     /**
@@ -167,29 +399,10 @@ public class Board {
      * otherwise
      */
     public boolean isDraw() {
-        /* If this board already has a winning configuration, then the state is automatically
-        not a draw.
+        /* Since the number of unoccupied tiles and of completed lanes are maintained by every move,
+        no tile has to be scanned.
          */
-        if (isWin()) {
-            return false;
-        }
-
-        /* Iterate through all the tiles of this board.
-
-        Since it has already been determined that no winning configuration is present, it suffices
-        to check whether all tiles are occupied. If all tiles are occupied, then a draw is declared;
-        otherwise, the result is inconclusive (as explained in the method documentation).
-         */
-        for (int i = 0; i < DIMENSION; i++) {
-            for (int j = 0; j < DIMENSION; j++) {
-                if (board[i][j] == EMPTY_TOKEN) {
-                    return false;
-                }
-            }
-        }
-
-        /* A drawn configuration is detected. */
-        return true;
+        return numEmpty == 0 && !isWin();
     }
 
     /**
@@ -205,7 +418,7 @@ public class Board {
      * <code>false</code>, otherwise
      */
     public boolean isGameOver() {
-        return isDraw() || isWin();
+        return numEmpty == 0 || isWin();
     }
 
     /**
@@ -215,17 +428,7 @@ public class Board {
      * @return <code>true</code> if all the 9 tiles are unoccupied; <code>false</code>, otherwise
      */
     public boolean isEmpty() {
-        /* Iterate through all the tiles of this board. */
-        for (int i = 0; i < DIMENSION; i++) {
-            for (int j = 0; j < DIMENSION; j++) {
-                /* An occupied tile is detected. */
-                if (board[i][j] != EMPTY_TOKEN) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        return numEmpty == NUM_TILES;
     }
 
     /**
@@ -240,6 +443,69 @@ public class Board {
         return board[row][col] == HUMAN_TOKEN || board[row][col] == COMPUTER_TOKEN;
     }
 
+    /**
+     * Returns the character code of the token placed on the specified tile (given the row- and
+     * column-coordinates), or <code>EMPTY_TOKEN</code> if the tile is unoccupied
+     *
+     * @param row row-coordinate of the tile
+     * @param col column-coordinate of the tile
+     * @return character code of the token placed on the specified tile
+     */
+    public char getToken(int row, int col) {
+        return board[row][col];
+    }
+
+    /**
+     * Returns an integer key that uniquely identifies the current board state (or configuration)
+     *
+     * <p>The key is computed by reading the tiles in row-major order as the digits of a base-3
+     * number, where an unoccupied tile is 0, a tile occupied by the human player is 1, and a tile
+     * occupied by the tic-tac-toe-playing agent is 2. Hence, the key of the initial state is 0,
+     * and every key is less than 3<sup>9</sup> = 19683. </p>
+     *
+     * @return integer key that uniquely identifies the current board state
+     */
+    public int getKey() {
+        /* The key is maintained incrementally by every move. */
+        return key;
+    }
+
+    /**
+     * Returns an immutable snapshot of the current board state (or configuration), which can be read
+     * from any thread regardless of subsequent moves on this board
+     *
+     * @return immutable snapshot of the current board state
+     */
+    public BoardSnapshot snapshot() {
+        return BoardSnapshot.of(this);
+    }
+
+    /**
+     * Returns the string representation of the current board state (or configuration) in the
+     * format accepted by <code>Board(String)</code>
+     *
+     * <p>The string is of the form <code>%%%|%%%|%%%</code>, which is a flattened representation
+     * of the board state following row-major order. For example, a board with only a human token
+     * on the center is represented as <code>***|*H*|***</code>.</p>
+     *
+     * @return string representation of the current board state
+     */
+    public String getConfig() {
+        StringBuilder config;       // string representation of the current board state
+        config = new StringBuilder(DIMENSION * (DIMENSION + 1));
+
+        /* Flatten this board row-by-row, delimiting the rows with '|'. */
+        for (int i = 0; i < DIMENSION; i++) {
+            if (i > 0) {
+                config.append('|');
+            }
+
+            config.append(board[i]);
+        }
+
+        return config.toString();
+    }
+
     /**
      * Returns a list of all the possible moves that a player can make given the current board
      * state (or configuration)
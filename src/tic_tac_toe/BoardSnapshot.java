@@ -0,0 +1,385 @@
+package tic_tac_toe;
+
+import util.Coordinates;
+
+import java.util.ArrayList;
+
+/**
+ * Class representing an immutable <b>snapshot of a tic-tac-toe board</b>, that is, a board state (or
+ * configuration) packed into two integers
+ *
+ * <p>The tiles are numbered in row-major order, from 0 (the upper left tile) to 8. The state is
+ * packed into a single <code>int</code> holding two 9-bit masks: bit <i>i</i> is set if tile <i>i</i>
+ * is occupied by the tic-tac-toe-playing agent, and bit 9 + <i>i</i> if it is occupied by the human
+ * player. The base-3 key of the state (as in <code>Board.getKey</code>) is kept alongside, so that
+ * both are updated in constant time by <code>with</code>, which returns a new snapshot instead of
+ * modifying this one. </p>
+ *
+ * <p>Since a snapshot cannot change once created (and all its fields are final), it can be shared
+ * with and read by any number of threads without locking or copying, even while an agent searches the
+ * board from which it was taken. </p>
+ */
+public final class BoardSnapshot {
+    /**
+     * Snapshot of the initial state, that is, 9 unoccupied tiles
+     */
+    public static final BoardSnapshot EMPTY = new BoardSnapshot(0, 0);
+
+    /* Number of tiles of the board */
+    private static final int NUM_TILES = Board.DIMENSION * Board.DIMENSION;
+    /* Mask of all the tiles of the board */
+    private static final int ALL_TILES = (1 << NUM_TILES) - 1;
+    /* Masks of the three-in-a-lanes (rows, columns, and diagonals) */
+    private static final int[] LINES = {
+            0b000000111, 0b000111000, 0b111000000,
+            0b001001001, 0b010010010, 0b100100100,
+            0b100010001, 0b001010100
+    };
+    /* Place values of the tiles in the base-3 key (3^8 for tile 0 down to 1 for tile 8) */
+    private static final int[] PLACE_VALUES = {6561, 2187, 729, 243, 81, 27, 9, 3, 1};
+
+    /* Tiles occupied by the agent (bits 0 to 8) and by the human player (bits 9 to 17) */
+    private final int bits;
+    /* Base-3 key of the board state (as in Board.getKey) */
+    private final int key;
+
+    /**
+     * Creates a snapshot with the given packed tiles and key
+     *
+     * @param bits tiles occupied by the agent (bits 0 to 8) and by the human player (bits 9 to 17)
+     * @param key base-3 key of the board state
+     */
+    private BoardSnapshot(int bits, int key) {
+        this.bits = bits;
+        this.key = key;
+    }
+
+    /**
+     * Returns the snapshot of the given board state
+     *
+     * @param b board whose state is captured
+     * @return snapshot of the board state
+     */
+    public static BoardSnapshot of(Board b) {
+        BoardSnapshot snapshot;
+        snapshot = EMPTY;
+
+        for (int i = 0; i < Board.DIMENSION; i++) {
+            for (int j = 0; j < Board.DIMENSION; j++) {
+                if (b.isOccupied(i, j)) {
+                    snapshot = snapshot.with(i, j, b.getToken(i, j));
+                }
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Returns the snapshot with the given packed tiles (as returned by <code>getBits</code>)
+     *
+     * @param bits tiles occupied by the agent (bits 0 to 8) and by the human player (bits 9 to 17)
+     * @return snapshot with the given packed tiles
+     * @throws IllegalArgumentException if a tile is occupied by both players or a bit beyond 17 is set
+     */
+    public static BoardSnapshot fromBits(int bits) {
+        int computer;
+        int human;
+
+        computer = bits & ALL_TILES;
+        human = (bits >>> NUM_TILES) & ALL_TILES;
+
+        if ((computer & human) != 0 || bits >>> (2 * NUM_TILES) != 0) {
+            throw new IllegalArgumentException("Invalid packed board state: " + bits);
+        }
+
+        int key;
+        key = 0;
+
+        for (int tile = 0; tile < NUM_TILES; tile++) {
+            if ((computer & (1 << tile)) != 0) {
+                key += 2 * PLACE_VALUES[tile];
+            } else if ((human & (1 << tile)) != 0) {
+                key += PLACE_VALUES[tile];
+            }
+        }
+
+        return new BoardSnapshot(bits, key);
+    }
+
+    /**
+     * Returns the snapshot of the state reached by placing the given token on the given tile (or, for
+     * <code>Board.EMPTY_TOKEN</code>, by clearing the tile) in constant time, leaving this snapshot
+     * unchanged
+     *
+     * @param row row-coordinate of the tile
+     * @param col column-coordinate of the tile
+     * @param token character code of the player making the move (or <code>Board.EMPTY_TOKEN</code>)
+     * @return snapshot of the state reached by the move
+     */
+    public BoardSnapshot with(int row, int col, char token) {
+        int tile;
+        int cleared;            // packed tiles with the tile cleared
+        int clearedKey;         // key with the tile cleared
+
+        tile = row * Board.DIMENSION + col;
+        cleared = bits & ~(1 << tile) & ~(1 << (NUM_TILES + tile));
+        clearedKey = key - getDigit(tile) * PLACE_VALUES[tile];
+
+        switch (token) {
+            case Board.COMPUTER_TOKEN:
+                return new BoardSnapshot(cleared | (1 << tile), clearedKey + 2 * PLACE_VALUES[tile]);
+            case Board.HUMAN_TOKEN:
+                return new BoardSnapshot(cleared | (1 << (NUM_TILES + tile)), clearedKey + PLACE_VALUES[tile]);
+            default:
+                return new BoardSnapshot(cleared, clearedKey);
+        }
+    }
+
+    /**
+     * Returns the snapshot of the state reached by placing the given token on the given tile, leaving
+     * this snapshot unchanged
+     *
+     * @param move coordinates of the tile
+     * @param token character code of the player making the move (or <code>Board.EMPTY_TOKEN</code>)
+     * @return snapshot of the state reached by the move
+     */
+    public BoardSnapshot with(Coordinates move, char token) {
+        return with(move.getRow(), move.getCol(), token);
+    }
+
+    /**
+     * Returns the base-3 digit of the given tile (0 if unoccupied, 1 if occupied by the human player,
+     * and 2 if occupied by the agent)
+     *
+     * @param tile index of the tile in row-major order
+     * @return base-3 digit of the tile
+     */
+    private int getDigit(int tile) {
+        if ((bits & (1 << tile)) != 0) {
+            return 2;
+        }
+
+        return (bits & (1 << (NUM_TILES + tile))) != 0 ? 1 : 0;
+    }
+
+    /**
+     * Returns the mask of the tiles occupied by the given player
+     *
+     * @param token character code of the player
+     * @return mask of the tiles occupied by the player (bits 0 to 8)
+     */
+    private int getMask(char token) {
+        switch (token) {
+            case Board.COMPUTER_TOKEN:
+                return bits & ALL_TILES;
+            case Board.HUMAN_TOKEN:
+                return (bits >>> NUM_TILES) & ALL_TILES;
+            default:
+                return ~((bits | (bits >>> NUM_TILES)) & ALL_TILES) & ALL_TILES;
+        }
+    }
+
+    /**
+     * Returns the character code of the token placed on the specified tile, or
+     * <code>Board.EMPTY_TOKEN</code> if the tile is unoccupied
+     *
+     * @param row row-coordinate of the tile
+     * @param col column-coordinate of the tile
+     * @return character code of the token placed on the specified tile
+     */
+    public char getToken(int row, int col) {
+        switch (getDigit(row * Board.DIMENSION + col)) {
+            case 2:
+                return Board.COMPUTER_TOKEN;
+            case 1:
+                return Board.HUMAN_TOKEN;
+            default:
+                return Board.EMPTY_TOKEN;
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the specified tile is occupied; <code>false</code>, otherwise
+     *
+     * @param row row-coordinate of the tile
+     * @param col column-coordinate of the tile
+     * @return <code>true</code> if the specified tile is occupied; <code>false</code>, otherwise
+     */
+    public boolean isOccupied(int row, int col) {
+        return getDigit(row * Board.DIMENSION + col) != 0;
+    }
+
+    /**
+     * Returns <code>true</code> if a winning configuration is detected given the character code of the
+     * pertinent player; <code>false</code>, otherwise
+     *
+     * @param token character code of the pertinent player
+     * @return <code>true</code> if a winning configuration is detected; <code>false</code>, otherwise
+     */
+    public boolean isWin(char token) {
+        int mask;
+        mask = getMask(token);
+
+        for (int line : LINES) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns <code>true</code> if a winning configuration is detected (regardless of which player
+     * made the winning move); <code>false</code>, otherwise
+     *
+     * @return <code>true</code> if a winning configuration is detected; <code>false</code>, otherwise
+     */
+    public boolean isWin() {
+        return isWin(Board.HUMAN_TOKEN) || isWin(Board.COMPUTER_TOKEN);
+    }
+
+    /**
+     * Returns <code>true</code> if a drawn configuration is detected, that is, all 9 tiles are occupied
+     * without a three-in-a-lane (as in <code>Board.isDraw</code>); <code>false</code>, otherwise
+     *
+     * @return <code>true</code> if a drawn configuration is detected; <code>false</code>, otherwise
+     */
+    public boolean isDraw() {
+        return getNumTokens() == NUM_TILES && !isWin();
+    }
+
+    /**
+     * Returns <code>true</code> if either a winning or drawn configuration is detected;
+     * <code>false</code>, otherwise
+     *
+     * @return <code>true</code> if either a winning or drawn configuration is detected;
+     * <code>false</code>, otherwise
+     */
+    public boolean isGameOver() {
+        return getNumTokens() == NUM_TILES || isWin();
+    }
+
+    /**
+     * Returns <code>true</code> if all the 9 tiles are unoccupied; <code>false</code>, otherwise
+     *
+     * @return <code>true</code> if all the 9 tiles are unoccupied; <code>false</code>, otherwise
+     */
+    public boolean isEmpty() {
+        return bits == 0;
+    }
+
+    /**
+     * Returns the number of tokens on the board
+     *
+     * @return number of tokens on the board
+     */
+    public int getNumTokens() {
+        return Integer.bitCount(bits);
+    }
+
+    /**
+     * Returns the base-3 key of the board state, which is equal to that returned by
+     * <code>Board.getKey</code> for the same state
+     *
+     * @return base-3 key of the board state
+     */
+    public int getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the packed tiles of the board state: the tiles occupied by the agent (bits 0 to 8) and
+     * by the human player (bits 9 to 17)
+     *
+     * @return packed tiles of the board state
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    /**
+     * Returns a list of all the possible moves given the board state, in row-major order (as in
+     * <code>Board.getPossibleMoves</code>)
+     *
+     * @return list of all the possible moves given the board state
+     */
+    public ArrayList<Coordinates> getPossibleMoves() {
+        ArrayList<Coordinates> possibleMoves;
+        possibleMoves = new ArrayList<Coordinates>(NUM_TILES);
+
+        for (int tile = 0; tile < NUM_TILES; tile++) {
+            if (getDigit(tile) == 0) {
+                possibleMoves.add(new Coordinates(tile / Board.DIMENSION, tile % Board.DIMENSION));
+            }
+        }
+
+        return possibleMoves;
+    }
+
+    /**
+     * Returns a new (mutable) board with the state of this snapshot
+     *
+     * @return new board with the state of this snapshot
+     */
+    public Board toBoard() {
+        return new Board(getConfig());
+    }
+
+    /**
+     * Returns the string representation of the board state in the format <code>%%%|%%%|%%%</code>
+     * accepted by <code>Board(String)</code>
+     *
+     * @return string representation of the board state
+     */
+    public String getConfig() {
+        StringBuilder config;
+        config = new StringBuilder(Board.DIMENSION * (Board.DIMENSION + 1));
+
+        for (int i = 0; i < Board.DIMENSION; i++) {
+            if (i > 0) {
+                config.append('|');
+            }
+
+            for (int j = 0; j < Board.DIMENSION; j++) {
+                config.append(getToken(i, j));
+            }
+        }
+
+        return config.toString();
+    }
+
+    /**
+     * Returns <code>true</code> if the given object is a snapshot of the same board state;
+     * <code>false</code>, otherwise
+     *
+     * @param o object compared with this snapshot
+     * @return <code>true</code> if the object is a snapshot of the same board state; <code>false</code>,
+     * otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BoardSnapshot && ((BoardSnapshot) o).bits == bits;
+    }
+
+    /**
+     * Returns the hash code of this snapshot, which is its base-3 key
+     *
+     * @return hash code of this snapshot
+     */
+    @Override
+    public int hashCode() {
+        return key;
+    }
+
+    /**
+     * Returns the string representation of this snapshot (see <code>getConfig</code>)
+     *
+     * @return string representation of this snapshot
+     */
+    @Override
+    public String toString() {
+        return getConfig();
+    }
+}
@@ -0,0 +1,367 @@
+package tic_tac_toe;
+
+import util.Coordinates;
+import util.Evaluation;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class implementing the <b>evaluation cache</b> of the tic-tac-toe-playing agents, a bounded cache of
+ * the agents' decisions keyed by level of intelligence and board state, so that a position decided
+ * once is not searched again in later games
+ *
+ * <p>As in the opening book, positions are keyed exactly for every level, so that a cached decision is
+ * the move that a search of the same position picks (the agents break ties between moves of the same
+ * evaluation in row-major order, which is not invariant under symmetry). Once the cache holds its capacity, every insertion evicts an entry, either the least recently used
+ * (<code>LRU</code>) or the least frequently used (<code>LFU</code>, ties broken by recency). </p>
+ *
+ * <p>A cache is safe to share between threads (for example, among all the sessions of the game-session
+ * server, so that a popular position is searched once per process). Its operations hold a lock, which
+ * is never held while searching. The numbers of hits, misses, and evictions are counted. </p>
+ */
+public class EvaluationCache {
+    /**
+     * Eviction policy discarding the least recently used entry
+     */
+    public static final int LRU = 0;
+    /**
+     * Eviction policy discarding the least frequently used entry
+     */
+    public static final int LFU = 1;
+
+    /**
+     * Default capacity of a cache (in entries)
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /* Number of distinct board keys (3^9) */
+    private static final int NUM_KEYS = 19683;
+
+    /* Maximum number of entries */
+    private final int capacity;
+    /* Eviction policy (LRU or LFU) */
+    private final int policy;
+
+    /* Entries, keyed by level of intelligence and board key (in access order, for LRU) */
+    private final LinkedHashMap<Integer, Entry> entries;
+    /* Keys of the entries with each frequency of use, in order of last use (LFU only) */
+    private final HashMap<Integer, LinkedHashSet<Integer>> frequencies;
+    /* Least frequency of use among the entries (LFU only) */
+    private int minFrequency;
+
+    /* Lock guarding the entries */
+    private final ReentrantLock lock;
+
+    /* Number of lookups answered by the cache */
+    private final LongAdder numHits;
+    /* Number of lookups not answered by the cache */
+    private final LongAdder numMisses;
+    /* Number of entries evicted */
+    private final LongAdder numEvictions;
+
+    /**
+     * Creates an empty evaluation cache
+     *
+     * @param capacity maximum number of entries
+     * @param policy eviction policy (<code>LRU</code> or <code>LFU</code>)
+     * @throws IllegalArgumentException if the capacity is less than 1, or if the eviction policy is
+     *                                  neither <code>LRU</code> nor <code>LFU</code>
+     */
+    public EvaluationCache(int capacity, int policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        if (policy != LRU && policy != LFU) {
+            throw new IllegalArgumentException("Invalid eviction policy: " + policy);
+        }
+
+        this.capacity = capacity;
+        this.policy = policy;
+
+        this.entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, policy == LRU);
+        this.frequencies = new HashMap<Integer, LinkedHashSet<Integer>>();
+        this.lock = new ReentrantLock();
+
+        this.numHits = new LongAdder();
+        this.numMisses = new LongAdder();
+        this.numEvictions = new LongAdder();
+    }
+
+    /**
+     * Returns <code>true</code> if the decisions of the agent of the given level of intelligence are
+     * cached; <code>false</code>, otherwise
+     *
+     * <p>The decisions of level 0 are random, and those of level 1 are cheaper to make than to look up,
+     * so neither is cached. </p>
+     *
+     * @param intelligence level of intelligence of the agent
+     * @return <code>true</code> if the decisions of the agent are cached; <code>false</code>, otherwise
+     */
+    public static boolean isCached(int intelligence) {
+        return intelligence >= 2;
+    }
+
+    /**
+     * Returns the cached decision of the agent of the given level of intelligence for the given board,
+     * or <code>null</code> if it is not cached
+     *
+     * @param intelligence level of intelligence of the agent
+     * @param b board on which the agent is to move (left unchanged)
+     * @return cached decision for the given board, or <code>null</code> if it is not cached
+     */
+    public Evaluation get(int intelligence, Board b) {
+        int key;
+        Entry entry;
+
+        key = intelligence * NUM_KEYS + b.getKey();
+
+        lock.lock();
+
+        try {
+            entry = entries.get(key);
+
+            if (entry != null && policy == LFU) {
+                touch(key, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (entry == null) {
+            numMisses.increment();
+            return null;
+        }
+
+        numHits.increment();
+
+        /* A fresh evaluation is returned, so the caller cannot modify the cached one. */
+        return new Evaluation(entry.score, new Coordinates(entry.row, entry.col), entry.outcome, entry.distance);
+    }
+
+    /**
+     * Caches the decision of the agent of the given level of intelligence for the given board,
+     * evicting an entry if the cache is full
+     *
+     * @param intelligence level of intelligence of the agent
+     * @param b board on which the agent decided (left unchanged)
+     * @param eval decision of the agent
+     */
+    public void put(int intelligence, Board b, Evaluation eval) {
+        int key;
+        Entry entry;
+
+        key = intelligence * NUM_KEYS + b.getKey();
+        entry = new Entry(eval.getEvalScore(), eval.getCoor().getRow(), eval.getCoor().getCol(), eval.getOutcome(),
+                eval.getDistance());
+
+        lock.lock();
+
+        try {
+            if (entries.containsKey(key)) {
+                return;
+            }
+
+            if (entries.size() >= capacity) {
+                evict();
+            }
+
+            entries.put(key, entry);
+
+            if (policy == LFU) {
+                frequencies.computeIfAbsent(1, f -> new LinkedHashSet<Integer>()).add(key);
+                minFrequency = 1;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a use of the given entry, moving it to the next frequency (LFU only; the caller holds the
+     * lock)
+     *
+     * @param key key of the entry
+     * @param entry entry used
+     */
+    private void touch(int key, Entry entry) {
+        LinkedHashSet<Integer> bucket;
+        bucket = frequencies.get(entry.frequency);
+        bucket.remove(key);
+
+        if (bucket.isEmpty()) {
+            frequencies.remove(entry.frequency);
+
+            if (minFrequency == entry.frequency) {
+                minFrequency++;
+            }
+        }
+
+        entry.frequency++;
+        frequencies.computeIfAbsent(entry.frequency, f -> new LinkedHashSet<Integer>()).add(key);
+    }
+
+    /**
+     * Evicts one entry according to the eviction policy (the caller holds the lock)
+     */
+    private void evict() {
+        int victim;
+
+        if (policy == LFU) {
+            LinkedHashSet<Integer> bucket;
+            Iterator<Integer> it;
+
+            /* Evict the least recently used entry among the least frequently used ones. */
+            bucket = frequencies.get(minFrequency);
+            it = bucket.iterator();
+            victim = it.next();
+            it.remove();
+
+            if (bucket.isEmpty()) {
+                frequencies.remove(minFrequency);
+            }
+        } else {
+            /* The access order makes the first entry the least recently used one. */
+            victim = entries.keySet().iterator().next();
+        }
+
+        entries.remove(victim);
+        numEvictions.increment();
+    }
+
+    /**
+     * Removes all the entries of this cache (the metrics are retained)
+     */
+    public void clear() {
+        lock.lock();
+
+        try {
+            entries.clear();
+            frequencies.clear();
+            minFrequency = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries of this cache
+     *
+     * @return number of entries of this cache
+     */
+    public int size() {
+        lock.lock();
+
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of entries of this cache
+     *
+     * @return maximum number of entries of this cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the name of the eviction policy of this cache ("LRU" or "LFU")
+     *
+     * @return name of the eviction policy of this cache
+     */
+    public String getPolicyName() {
+        return policy == LFU ? "LFU" : "LRU";
+    }
+
+    /**
+     * Returns the number of lookups answered by this cache
+     *
+     * @return number of lookups answered by this cache
+     */
+    public long getNumHits() {
+        return numHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups not answered by this cache
+     *
+     * @return number of lookups not answered by this cache
+     */
+    public long getNumMisses() {
+        return numMisses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted from this cache
+     *
+     * @return number of entries evicted from this cache
+     */
+    public long getNumEvictions() {
+        return numEvictions.sum();
+    }
+
+    /**
+     * Returns the fraction of lookups answered by this cache (0 if there has been no lookup)
+     *
+     * @return fraction of lookups answered by this cache
+     */
+    public double getHitRate() {
+        long hits;
+        long lookups;
+
+        hits = getNumHits();
+        lookups = hits + getNumMisses();
+
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Returns a string representation of this cache
+     *
+     * <p>The string representation contains the eviction policy, the number of entries and the
+     * capacity, and the numbers of hits, misses, and evictions. </p>
+     *
+     * @return string representation of this cache
+     */
+    @Override
+    public String toString() {
+        return getPolicyName() + " cache: " + size() + "/" + capacity + " entries, " + getNumHits() + " hits, "
+                + getNumMisses() + " misses, " + getNumEvictions() + " evictions";
+    }
+
+    /**
+     * Class implementing an <b>entry of the evaluation cache</b>
+     */
+    private static class Entry {
+        /* Numerical evaluation of the move */
+        private final int score;
+        /* Row-coordinate of the move */
+        private final int row;
+        /* Column-coordinate of the move */
+        private final int col;
+        /* Expected outcome of the game */
+        private final int outcome;
+        /* Number of moves to reach the expected outcome (-1 if not known) */
+        private final int distance;
+        /* Number of uses of this entry (LFU only) */
+        private int frequency;
+
+        private Entry(int score, int row, int col, int outcome, int distance) {
+            this.score = score;
+            this.row = row;
+            this.col = col;
+            this.outcome = outcome;
+            this.distance = distance;
+            this.frequency = 1;
+        }
+    }
+}
@@ -1,6 +1,16 @@
 package tic_tac_toe;
 
+import journal.GameJournal;
+import journal.JournalRecord;
+import metrics.AgentDecisionEvent;
+import metrics.GameEvent;
+import metrics.GameMetrics;
+import metrics.LatencyRecorder;
+import util.Coordinates;
 import util.Evaluation;
+import util.SearchStatistics;
+
+import java.util.ArrayDeque;
 
 /**
  * Class implementing the <b>game master of this tic-tac-toe program</b>, the central class
@@ -18,6 +28,8 @@ import util.Evaluation;
 public class GameMaster {
     /* Board on which the player place their tokens */
     private Board b;
+    /* Immutable snapshot of the board, replaced after every move (safe to read from any thread) */
+    private volatile BoardSnapshot snapshot;
     /* Tic-tac-toe-playing agent */
     private Agent a;
 
@@ -26,12 +38,43 @@ public class GameMaster {
     /* Level of intelligence of the agent */
     private int intelligence;
 
-    /* Number of times the tic-tac-toe-playing agent has won */
-    private int numAgentWins;
-    /* Number of times the human-playing agent has won */
-    private int numHumanWins;
-    /* Number of times the game has ended in a draw */
-    private int numDraws;
+    /* Number of games of this game master, indexed as in MatchStatistics.getIndex (written under the
+    caller's lock only, so plain counts suffice; the games are also recorded into MatchStatistics.getDefault) */
+    private long[] matchCounts;
+    /* Number of games of this game master, indexed by outcome (AGENT_WIN, HUMAN_WIN, or DRAW) */
+    private long[] outcomeCounts;
+
+    /* true if the agent's search stops once its thread is interrupted; false, otherwise */
+    private boolean isInterruptible;
+    /* true if the agent searches on the human player's time; false, otherwise */
+    private boolean isPondering;
+    /* Background searcher of the agent's answers to the human player's replies (null if inactive) */
+    private Ponderer ponderer;
+
+    /* Opening book consulted before searching (null if disabled) */
+    private OpeningBook book;
+    /* Cache of the agent's decisions across games (null until the first search) */
+    private EvaluationCache cache;
+
+    /* Journal into which the moves are recorded (null if journaling is disabled) */
+    private GameJournal journal;
+    /* Session ID of this game master in the journal */
+    private long journalSession;
+    /* Game ID of the current game in the journal (-1 if no game is being recorded) */
+    private long journalGame;
+
+    /* Recorder of the agent's decision times (null if recording is disabled) */
+    private LatencyRecorder latencies;
+    /* Flight-recorder event of the current game (null if the event is disabled or no move has been made) */
+    private GameEvent gameEvent;
+    /* Metrics of the games and the agent's decisions */
+    private GameMetrics metrics;
+    /* true if a move of the current game has been made and the game has not ended; false, otherwise */
+    private boolean isGameInProgress;
+    /* Moves taken back by undo that can be made again by redo, the most recently taken back first */
+    private ArrayDeque<Coordinates> redoMoves;
+    /* Tokens of the moves in redoMoves, in the same order */
+    private ArrayDeque<Character> redoTokens;
 
     /**
      * Creates a game master object
@@ -43,11 +86,16 @@ public class GameMaster {
      */
     public GameMaster() {
         b = new Board();
+        snapshot = BoardSnapshot.EMPTY;
+        book = OpeningBook.getDefault();
+        latencies = LatencyRecorder.getDefault();
+        metrics = GameMetrics.getDefault();
+        redoMoves = new ArrayDeque<Coordinates>();
+        redoTokens = new ArrayDeque<Character>();
 
         /* Initialize all the match statistics to 0. */
-        numAgentWins = 0;
-        numHumanWins = 0;
-        numDraws = 0;
+        matchCounts = new long[MatchStatistics.NUM_LEVELS * 2 * MatchStatistics.NUM_OUTCOMES];
+        outcomeCounts = new long[MatchStatistics.NUM_OUTCOMES];
     }
 
     /**
@@ -71,6 +119,14 @@ public class GameMaster {
      */
     public GameMaster(String initConfig) {
         b = new Board(initConfig);
+        snapshot = b.snapshot();
+        book = OpeningBook.getDefault();
+        latencies = LatencyRecorder.getDefault();
+        metrics = GameMetrics.getDefault();
+        redoMoves = new ArrayDeque<Coordinates>();
+        redoTokens = new ArrayDeque<Character>();
+        matchCounts = new long[MatchStatistics.NUM_LEVELS * 2 * MatchStatistics.NUM_OUTCOMES];
+        outcomeCounts = new long[MatchStatistics.NUM_OUTCOMES];
     }
 
     /**
@@ -90,7 +146,7 @@ public class GameMaster {
      * @return number of times the tic-tac-toe-playing agent has won
      */
     public int getNumAgentWins() {
-        return numAgentWins;
+        return (int) outcomeCounts[MatchStatistics.AGENT_WIN];
     }
 
     /**
@@ -99,7 +155,7 @@ public class GameMaster {
      * @return number of times the human player has won
      */
     public int getNumHumanWins() {
-        return numHumanWins;
+        return (int) outcomeCounts[MatchStatistics.HUMAN_WIN];
     }
 
     /**
@@ -108,7 +164,7 @@ public class GameMaster {
      * @return number of times the game has ended in a draw
      */
     public int getNumDraws() {
-        return numDraws;
+        return (int) outcomeCounts[MatchStatistics.DRAW];
     }
 
     /**
@@ -134,26 +190,73 @@ public class GameMaster {
         this.intelligence = intelligence;
 
         /* Initializes the tic-tac-toe-playing agent depending on the specified level of intelligence. */
+        a = createAgent(intelligence);
+        a.setInterruptible(isInterruptible);
+
+        /* Pondered answers of the previous agent are no longer valid. */
+        if (ponderer != null) {
+            ponderer.shutdown();
+            ponderer = null;
+        }
+    }
+
+    /**
+     * Returns a new tic-tac-toe-playing agent with the specified level of intelligence
+     *
+     * @param intelligence level of intelligence of the tic-tac-toe-playing agent
+     * @return new tic-tac-toe-playing agent with the specified level of intelligence
+     */
+    public static Agent createAgent(int intelligence) {
         switch(intelligence) {
             case 0:
-                a = new AgentLevel0();
-                break;
+                return new AgentLevel0();
             case 1:
-                a = new AgentLevel1();
-                break;
+                return new AgentLevel1();
             case 2:
-                a = new AgentLevel2();
-                break;
+                return new AgentLevel2();
             case 3:
-                a = new AgentLevel3();
-                break;
+                return new AgentLevel3();
             case 4:
-                a = new AgentLevel4();
-                break;
+                return new AgentLevel4();
             case 5:
-                a = new AgentLevel5();
-                break;
+                return new AgentLevel5();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Updates the attribute related to whether the agent searches on the human player's time
+     * (pondering)
+     *
+     * @param isPondering <code>true</code> if the agent ponders while the human player is deciding;
+     *                    <code>false</code>, otherwise
+     */
+    public void setIsPondering(boolean isPondering) {
+        this.isPondering = isPondering;
+
+        if (!isPondering && ponderer != null) {
+            ponderer.shutdown();
+            ponderer = null;
+        }
+    }
+
+    /**
+     * Starts searching the agent's answers to all the possible replies of the human player in the
+     * background, provided that pondering is enabled and the game is not yet over
+     *
+     * <p>This method is meant to be called as soon as it becomes the human player's turn.</p>
+     */
+    public void ponder() {
+        if (!isPondering || b.isGameOver()) {
+            return;
+        }
+
+        if (ponderer == null) {
+            ponderer = new Ponderer(intelligence);
         }
+
+        ponderer.ponder(b);
     }
 
     /**
@@ -175,22 +278,477 @@ public class GameMaster {
      * (that is, only for levels 2 to 5). Otherwise, the evaluation is always set to 0 regardless
      * of the actual optimality of the selected move. </p>
      *
+     * <p>If the current board state has been pondered, the pondered answer is returned instead
+     * of searching again. Otherwise, if the current board state is in the opening book (which covers
+     * the first moves of levels 2 to 5), the stored decision is returned without searching. Otherwise,
+     * if the agent has already decided on the current board state (in this or an earlier game, or in
+     * another game sharing the evaluation cache), the cached decision is returned; every searched
+     * decision is cached. </p>
+     *
+     * <p>The decision is recorded into the game metrics and, if the <code>tictactoe.AgentDecision</code>
+     * flight-recorder event is enabled, as such an event. </p>
+     *
      * @return best move, alongside this agent's numerical evaluation of this move
      */
     public Evaluation evalBestMove() {
-        return a.evalBestMove(b);
+        AgentDecisionEvent event;       // flight-recorder event of the decision
+        Evaluation bestMove;            // move evaluation by the tic-tac-toe-playing agent
+        long startTime;                 // start time of the agent's decision-making
+
+        event = new AgentDecisionEvent();
+        event.begin();
+
+        startTime = System.nanoTime();
+        bestMove = decideBestMove();
+
+        /* A decision answered from the ponder cache, the opening book, or the evaluation cache is
+        recorded as a cache hit in the search statistics.
+         */
+        metrics.recordDecision(intelligence, a.getStats().getNumCacheHits() == 0, System.nanoTime() - startTime);
+
+        if (event.shouldCommit()) {
+            event.level = intelligence;
+            event.boardKey = b.getKey();
+            event.nodes = a.getStats().getNumNodes();
+            event.cacheHits = a.getStats().getNumCacheHits();
+            event.score = bestMove.getEvalScore();
+            event.row = bestMove.getCoor().getRow();
+            event.col = bestMove.getCoor().getCol();
+            event.commit();
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * Returns the best move given the current board state, consulting the ponder cache, the opening
+     * book, and the evaluation cache before searching (see <code>evalBestMove</code>)
+     *
+     * @return best move, alongside this agent's numerical evaluation of this move
+     */
+    private Evaluation decideBestMove() {
+        if (ponderer != null) {
+            Evaluation pondered;        // pondered answer of the agent (null if not pondered)
+            pondered = ponderer.take(b);
+
+            if (pondered != null) {
+                /* The decision was answered from the ponder cache without searching. */
+                a.getStats().reset();
+                a.getStats().recordCacheHit();
+
+                a.setLatestEval(pondered);
+                return pondered;
+            }
+        }
+
+        if (book != null && intelligence >= 2) {
+            Evaluation booked;          // stored decision of the agent (null if not in the book)
+            booked = book.lookup(intelligence, b);
+
+            if (booked != null) {
+                /* The decision was answered from the opening book without searching. */
+                a.getStats().reset();
+                a.getStats().recordCacheHit();
+
+                a.setLatestEval(booked);
+                return booked;
+            }
+        }
+
+        if (!EvaluationCache.isCached(intelligence)) {
+            return search();
+        }
+
+        if (cache == null) {
+            cache = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, EvaluationCache.LRU);
+        }
+
+        Evaluation cached;              // cached decision of the agent (null if not cached)
+        cached = cache.get(intelligence, b);
+
+        if (cached != null) {
+            /* The decision was answered from the evaluation cache without searching. */
+            a.getStats().reset();
+            a.getStats().recordCacheHit();
+
+            a.setLatestEval(cached);
+            return cached;
+        }
+
+        Evaluation searched;            // decision of the agent
+        searched = search();
+        cache.put(intelligence, b, searched);
+
+        return searched;
+    }
+
+    /**
+     * Searches the current board state with the agent, restoring the board if the search is abandoned
+     *
+     * <p>The agent searches the board of the game itself, pushing and popping its moves. A search
+     * abandoned by an exception (for instance, a <code>CancellationException</code> thrown by an
+     * interruptible agent) leaves the moves it pushed on the board, so these are popped before the
+     * exception is propagated. </p>
+     *
+     * @return best move, alongside the agent's numerical evaluation of this move
+     */
+    private Evaluation search() {
+        int numMoves;               // number of moves in the history before the search
+        numMoves = b.getNumMoves();
+
+        try {
+            return a.evalBestMove(b);
+        } finally {
+            /* A completed search has already popped every move it pushed. */
+            while (b.getNumMoves() > numMoves) {
+                b.pop();
+            }
+        }
+    }
+
+    /**
+     * Sets whether the agent's search stops once the thread running it is interrupted (see
+     * <code>Agent.setInterruptible</code>), for the current agent and for those set later
+     *
+     * <p>An interrupted search throws a <code>CancellationException</code> from
+     * <code>evalBestMove</code>, after the board has been restored to its state before the search. </p>
+     *
+     * @param isInterruptible <code>true</code> if the search stops once its thread is interrupted;
+     *                        <code>false</code>, otherwise (the default)
+     */
+    public void setInterruptible(boolean isInterruptible) {
+        this.isInterruptible = isInterruptible;
+
+        if (a != null) {
+            a.setInterruptible(isInterruptible);
+        }
+    }
+
+    /**
+     * Sets the cache of the agent's decisions, which may be shared with other game masters
+     *
+     * <p>By default, every game master creates its own cache (with the default capacity and the LRU
+     * eviction policy) on its first search. </p>
+     *
+     * @param cache cache of the agent's decisions
+     */
+    public void setCache(EvaluationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the cache of the agent's decisions (null if no search has been made and no cache has
+     * been set)
+     *
+     * @return cache of the agent's decisions
+     */
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Sets whether the opening book is consulted before searching
+     *
+     * @param isUsingBook <code>true</code> if the opening book is consulted; <code>false</code>,
+     *                    otherwise
+     */
+    public void setIsUsingBook(boolean isUsingBook) {
+        this.book = isUsingBook ? OpeningBook.getDefault() : null;
+    }
+
+    /**
+     * Returns the search statistics (such as the number of nodes visited and alpha-beta cutoffs) of the
+     * most recent decision of the tic-tac-toe-playing agent
+     *
+     * <p>A copy is returned, since the agent keeps updating its own statistics with every decision
+     * (possibly on another thread, such as a search pool of the game-session server). </p>
+     *
+     * @return copy of the search statistics of the most recent decision of the agent
+     */
+    public SearchStatistics getLatestStats() {
+        return new SearchStatistics(a.getStats());
     }
 
     /**
      * Updates the board state to reflect the most recent move given the row- and column-coordinates
      * of the move, and the character code of the pertinent player
      *
+     * <p>If journaling is enabled, the move is recorded without a decision time. The decision time
+     * is not recorded into the latency recorder either. </p>
+     *
      * @param row row-coordinate of the player's move
      * @param col column-coordinate of the player's move
      * @param token character code of the player making the move
      */
     public void makeMove(int row, int col, char token) {
+        makeMove(row, col, token, 0);
+    }
+
+    /**
+     * Updates the board state to reflect the most recent move given the row- and column-coordinates
+     * of the move, the character code of the pertinent player, and the time the player took to
+     * decide the move
+     *
+     * <p>If journaling is enabled, the move is recorded into the journal, preceded by the start of
+     * the game if it is the first move and followed by the end of the game if it concludes it. The
+     * decision time of the agent is also recorded into the latency recorder, under the level of
+     * intelligence of the agent and the number of the move within the game. If the
+     * <code>tictactoe.Game</code> flight-recorder event is enabled, the game is recorded as such an
+     * event from its first move to its end. </p>
+     *
+     * <p>Making a move discards the moves that could be made again by <code>redo</code>. </p>
+     *
+     * @param row row-coordinate of the player's move
+     * @param col column-coordinate of the player's move
+     * @param token character code of the player making the move
+     * @param decisionTime decision time of the player (in nanoseconds)
+     */
+    public void makeMove(int row, int col, char token, long decisionTime) {
+        redoMoves.clear();
+        redoTokens.clear();
+
+        applyMove(row, col, token, decisionTime);
+    }
+
+    /**
+     * Updates the board state to reflect the given move, recording it as described in
+     * <code>makeMove</code>, without discarding the moves that could be made again by <code>redo</code>
+     *
+     * @param row row-coordinate of the player's move
+     * @param col column-coordinate of the player's move
+     * @param token character code of the player making the move
+     * @param decisionTime decision time of the player (in nanoseconds)
+     */
+    private void applyMove(int row, int col, char token, long decisionTime) {
+        if (journal != null && journalGame == -1) {
+            journalGame = journal.startGame(journalSession, token, JournalRecord.HUMAN_LEVEL, intelligence);
+        }
+
+        if (!isGameInProgress) {
+            startGame(token);
+        }
+
+        if (latencies != null && token == Board.COMPUTER_TOKEN && decisionTime > 0) {
+            /* The move number is one more than the number of tokens already on the board. */
+            latencies.record(intelligence, Board.DIMENSION * Board.DIMENSION - b.getNumEmpty() + 1, decisionTime);
+        }
+
         b.makeMove(row, col, token);
+        snapshot = snapshot.with(row, col, token);
+        metrics.recordMove();
+
+        if (gameEvent != null) {
+            gameEvent.numMoves++;
+        }
+
+        if (b.isGameOver()) {
+            endGame(b.isWin(Board.COMPUTER_TOKEN) ? Board.COMPUTER_TOKEN
+                    : b.isWin(Board.HUMAN_TOKEN) ? Board.HUMAN_TOKEN : JournalRecord.OUTCOME_DRAW);
+        }
+
+        if (journal != null) {
+            journal.recordMove(journalGame, journalSession, token, row, col,
+                    token == Board.COMPUTER_TOKEN ? intelligence : JournalRecord.HUMAN_LEVEL, decisionTime);
+
+            if (b.isGameOver()) {
+                endJournalGame(b.isWin(Board.COMPUTER_TOKEN) ? Board.COMPUTER_TOKEN
+                        : b.isWin(Board.HUMAN_TOKEN) ? Board.HUMAN_TOKEN : JournalRecord.OUTCOME_DRAW);
+            }
+        }
+    }
+
+    /**
+     * Takes back the most recent move of the current game, in constant time, so that it can be made
+     * again by <code>redo</code>
+     *
+     * <p>Nothing is taken back once the game has reached its terminal state, since its outcome has
+     * already been recorded into the match statistics. If journaling is enabled, the take-back is
+     * appended to the game being recorded as a single <code>JournalRecord.UNDO</code> record, which
+     * the readers of the journal apply by taking the move back, so the game and the decision times of
+     * its remaining moves are kept as they are. </p>
+     *
+     * <p>Only the moves made through this game master can be taken back: the tokens of the initial
+     * configuration given to <code>GameMaster(String)</code> are not moves, so <code>null</code> is
+     * returned once all the moves made since have been taken back. </p>
+     *
+     * @return coordinates of the move taken back, or <code>null</code> if there is no move to take
+     * back
+     */
+    public Coordinates undo() {
+        if (b.isGameOver() || b.getNumMoves() == 0) {
+            return null;
+        }
+
+        Coordinates move;           // most recent move of the current game
+        char token;                 // token of the player who made the move
+
+        move = b.getLastMove();
+        token = b.getToken(move.getRow(), move.getCol());
+
+        b.pop();
+        snapshot = snapshot.with(move.getRow(), move.getCol(), Board.EMPTY_TOKEN);
+
+        redoMoves.push(move);
+        redoTokens.push(token);
+
+        if (gameEvent != null) {
+            gameEvent.numMoves--;
+        }
+
+        if (journal != null && journalGame != -1) {
+            journal.recordUndo(journalGame, journalSession);
+        }
+
+        /* The pondered position is no longer reachable from the board state. */
+        if (ponderer != null) {
+            ponderer.cancel();
+        }
+
+        return move;
+    }
+
+    /**
+     * Makes again the move most recently taken back by <code>undo</code>
+     *
+     * @return coordinates of the move made again, or <code>null</code> if there is no move to make
+     * again
+     */
+    public Coordinates redo() {
+        if (redoMoves.isEmpty()) {
+            return null;
+        }
+
+        Coordinates move;           // move most recently taken back
+        move = redoMoves.pop();
+
+        applyMove(move.getRow(), move.getCol(), redoTokens.pop(), 0);
+        return move;
+    }
+
+    /**
+     * Returns the most recent move of the current game, or <code>null</code> if no move has been made
+     *
+     * <p>The tokens of the initial configuration given to <code>GameMaster(String)</code> are not
+     * moves, so <code>null</code> is returned on such a board until a move is made. </p>
+     *
+     * @return coordinates of the most recent move, or <code>null</code> if no move has been made
+     */
+    public Coordinates getLastMove() {
+        return b.getLastMove();
+    }
+
+    /**
+     * Sets the journal into which the moves are recorded, under a new session ID
+     *
+     * @param journal journal into which the moves are recorded (<code>null</code> to disable
+     *                journaling)
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+        this.journalGame = -1;
+
+        if (journal != null) {
+            journalSession = journal.newSession();
+        }
+    }
+
+    /**
+     * Sets the recorder of the agent's decision times
+     *
+     * <p>By default, the decision times are recorded into the latency recorder of this process
+     * (see <code>LatencyRecorder.getDefault</code>). </p>
+     *
+     * @param latencies recorder of the agent's decision times (<code>null</code> to disable
+     *                  recording)
+     */
+    public void setLatencyRecorder(LatencyRecorder latencies) {
+        this.latencies = latencies;
+    }
+
+    /**
+     * Records the start of the current game into the game metrics and, if the flight-recorder event
+     * of the game is enabled, begins the event
+     *
+     * @param first token of the first player to move
+     */
+    private void startGame(char first) {
+        isGameInProgress = true;
+        metrics.recordGameStart(intelligence);
+
+        GameEvent event;
+        event = new GameEvent();
+
+        /* The event of the game is kept only if it is enabled. */
+        if (event.isEnabled()) {
+            event.begin();
+            event.level = intelligence;
+            event.firstPlayer = first;
+            gameEvent = event;
+        }
+    }
+
+    /**
+     * Records the end of the current game into the game metrics and commits the flight-recorder event
+     * of the game, if it is being recorded
+     *
+     * @param outcome outcome of the game
+     */
+    private void endGame(char outcome) {
+        isGameInProgress = false;
+        metrics.recordGameEnd(intelligence, outcome);
+
+        if (gameEvent != null) {
+            gameEvent.outcome = outcome;
+            gameEvent.commit();
+            gameEvent = null;
+        }
+    }
+
+    /**
+     * Records the end of the current game into the journal, if a game has been recorded
+     *
+     * @param outcome outcome of the game
+     */
+    private void endJournalGame(char outcome) {
+        if (journalGame != -1) {
+            journal.endGame(journalGame, journalSession, outcome);
+            journalGame = -1;
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the specified tile (given the row- and column-coordinates)
+     * is occupied; <code>false</code>, otherwise
+     *
+     * @param row row-coordinate of the tile
+     * @param col column-coordinate of the tile
+     * @return <code>true</code> of the specified tile is occupied; <code>false</code>, otherwise
+     */
+    public boolean isOccupied(int row, int col) {
+        return b.isOccupied(row, col);
+    }
+
+    /**
+     * Returns the string representation of the current board state (or configuration) in the
+     * format <code>%%%|%%%|%%%</code> accepted by <code>GameMaster(String)</code>
+     *
+     * @return string representation of the current board state
+     */
+    public String getBoardConfig() {
+        return snapshot.getConfig();
+    }
+
+    /**
+     * Returns an immutable snapshot of the current board state
+     *
+     * <p>Unlike the board itself, which the agent modifies (and restores) while searching, the snapshot
+     * is replaced only after every move, so it can be read from any thread, without locking, even while
+     * the agent is deciding its move. </p>
+     *
+     * @return immutable snapshot of the current board state
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
     }
 
     /**
@@ -256,15 +814,18 @@ public class GameMaster {
      * Update the match statistics related to the number of wins given the character code
      * of the pertinent player
      *
+     * <p>The game is recorded under the current level of intelligence and first player to move, both
+     * into the match statistics of this game master and into those of the process. </p>
+     *
      * @param token character code of the pertinent player
      */
     public void recordWin(char token) {
         switch(token) {
             case Board.COMPUTER_TOKEN:
-                numAgentWins++;
+                recordGame(MatchStatistics.AGENT_WIN);
                 break;
             case Board.HUMAN_TOKEN:
-                numHumanWins++;
+                recordGame(MatchStatistics.HUMAN_WIN);
                 break;
         }
     }
@@ -273,7 +834,31 @@ public class GameMaster {
      * Update the match statistics related to a draw
      */
     public void recordDraw() {
-        numDraws++;
+        recordGame(MatchStatistics.DRAW);
+    }
+
+    /**
+     * Records a game of the given outcome under the current level of intelligence and first player to
+     * move, both into the counts of this game master and into the match statistics of the process
+     *
+     * @param outcome outcome of the game (<code>AGENT_WIN</code>, <code>HUMAN_WIN</code>, or
+     *                <code>DRAW</code>)
+     */
+    private void recordGame(int outcome) {
+        matchCounts[MatchStatistics.getIndex(intelligence, isAgentFirst, outcome)]++;
+        outcomeCounts[outcome]++;
+        MatchStatistics.getDefault().record(intelligence, isAgentFirst, outcome);
+    }
+
+    /**
+     * Returns a snapshot of the match statistics of this game master, broken down by level of
+     * intelligence and first player to move (which are also aggregated into
+     * <code>MatchStatistics.getDefault</code>)
+     *
+     * @return snapshot of the match statistics of this game master
+     */
+    public MatchSnapshot getMatchStats() {
+        return new MatchSnapshot(matchCounts.clone());
     }
 
     /**
@@ -281,7 +866,23 @@ public class GameMaster {
      * into 3 rows and 3 columns
      */
     public void clearBoard() {
+        /* A game cleared before reaching its terminal state is recorded as abandoned. */
+        if (journal != null) {
+            endJournalGame(JournalRecord.OUTCOME_ABANDONED);
+        }
+
+        if (isGameInProgress) {
+            endGame(JournalRecord.OUTCOME_ABANDONED);
+        }
+
         b.initBoard();
+        snapshot = BoardSnapshot.EMPTY;
+        redoMoves.clear();
+        redoTokens.clear();
+
+        if (ponderer != null) {
+            ponderer.cancel();
+        }
     }
 
     /**
@@ -300,6 +901,6 @@ public class GameMaster {
     @Override
     public String toString() {
         return b.toString() + "\n" + a.toString() + "\n"
-                + numAgentWins + "-" + numHumanWins + "-" + numDraws + "\n";
+                + getNumAgentWins() + "-" + getNumHumanWins() + "-" + getNumDraws() + "\n";
     }
 }
@@ -0,0 +1,139 @@
+package tic_tac_toe;
+
+/**
+ * Class representing an immutable <b>snapshot of match statistics</b>, that is, the number of games
+ * won by the agent, won by the human player, and drawn, broken down by the level of intelligence of
+ * the agent and by the first player to move, at the time the snapshot was taken
+ *
+ * <p>Snapshots of different match statistics can be added (see <code>plus</code>), for example to
+ * aggregate the match statistics of several game masters. </p>
+ */
+public class MatchSnapshot {
+    /* Number of games, indexed as in MatchStatistics.getIndex */
+    private final long[] counts;
+
+    /**
+     * Creates a snapshot of the given counts (which are not copied)
+     *
+     * @param counts number of games, indexed as in <code>MatchStatistics.getIndex</code>
+     */
+    MatchSnapshot(long[] counts) {
+        this.counts = counts;
+    }
+
+    /**
+     * Returns the number of games of the given level of intelligence, first player to move, and
+     * outcome, any of which may be <code>MatchStatistics.ANY</code>
+     *
+     * @param level level of intelligence of the agent (or <code>ANY</code>)
+     * @param isAgentFirst 1 if the agent moved first, 0 if the human player did (or <code>ANY</code>)
+     * @param outcome outcome of the game: <code>AGENT_WIN</code>, <code>HUMAN_WIN</code>,
+     *                <code>DRAW</code> (or <code>ANY</code>)
+     * @return number of matching games
+     */
+    public long getCount(int level, int isAgentFirst, int outcome) {
+        long count;
+        count = 0;
+
+        for (int l = 0; l < MatchStatistics.NUM_LEVELS; l++) {
+            for (int first = 0; first < 2; first++) {
+                for (int o = 0; o < MatchStatistics.NUM_OUTCOMES; o++) {
+                    if ((level == MatchStatistics.ANY || level == l)
+                            && (isAgentFirst == MatchStatistics.ANY || isAgentFirst == first)
+                            && (outcome == MatchStatistics.ANY || outcome == o)) {
+                        count += counts[MatchStatistics.getIndex(l, first == 1, o)];
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of games won by the agent
+     *
+     * @return number of games won by the agent
+     */
+    public long getNumAgentWins() {
+        return getCount(MatchStatistics.ANY, MatchStatistics.ANY, MatchStatistics.AGENT_WIN);
+    }
+
+    /**
+     * Returns the number of games won by the human player
+     *
+     * @return number of games won by the human player
+     */
+    public long getNumHumanWins() {
+        return getCount(MatchStatistics.ANY, MatchStatistics.ANY, MatchStatistics.HUMAN_WIN);
+    }
+
+    /**
+     * Returns the number of drawn games
+     *
+     * @return number of drawn games
+     */
+    public long getNumDraws() {
+        return getCount(MatchStatistics.ANY, MatchStatistics.ANY, MatchStatistics.DRAW);
+    }
+
+    /**
+     * Returns the number of games
+     *
+     * @return number of games
+     */
+    public long getNumGames() {
+        return getCount(MatchStatistics.ANY, MatchStatistics.ANY, MatchStatistics.ANY);
+    }
+
+    /**
+     * Returns the sum of this snapshot and the given one
+     *
+     * @param other snapshot added to this one
+     * @return sum of this snapshot and the given one
+     */
+    public MatchSnapshot plus(MatchSnapshot other) {
+        long[] sum;
+        sum = new long[counts.length];
+
+        for (int i = 0; i < counts.length; i++) {
+            sum[i] = counts[i] + other.counts[i];
+        }
+
+        return new MatchSnapshot(sum);
+    }
+
+    /**
+     * Returns a string representation of this snapshot
+     *
+     * <p>The string representation contains the wins of the agent, the wins of the human player, and
+     * the draws (separated by hyphens), followed by the same for every level of intelligence with at
+     * least one game, split by the first player to move. </p>
+     *
+     * @return string representation of this snapshot
+     */
+    @Override
+    public String toString() {
+        StringBuilder s;
+        s = new StringBuilder();
+
+        s.append(getNumAgentWins()).append('-').append(getNumHumanWins()).append('-').append(getNumDraws());
+
+        for (int l = 0; l < MatchStatistics.NUM_LEVELS; l++) {
+            if (getCount(l, MatchStatistics.ANY, MatchStatistics.ANY) == 0) {
+                continue;
+            }
+
+            s.append("\nLevel ").append(l).append(':');
+
+            for (int first = 1; first >= 0; first--) {
+                s.append(first == 1 ? " agent first " : ", human first ")
+                        .append(getCount(l, first, MatchStatistics.AGENT_WIN)).append('-')
+                        .append(getCount(l, first, MatchStatistics.HUMAN_WIN)).append('-')
+                        .append(getCount(l, first, MatchStatistics.DRAW));
+            }
+        }
+
+        return s.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package tic_tac_toe;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class implementing the <b>match statistics</b> of the tic-tac-toe program, that is, the number of
+ * games won by the agent, won by the human player, and drawn, broken down by the level of intelligence
+ * of the agent and by the first player to move
+ *
+ * <p>Every count is a striped counter (see <code>LongAdder</code>), so games can be recorded from any
+ * number of threads without locking and without contention. The striping only pays off where many
+ * threads record games, that is, in the match statistics of the process (see <code>getDefault</code>),
+ * into which every game master records its games; a game master, which records its games under its
+ * caller's lock, keeps plain counts of its own instead. </p>
+ *
+ * <p>The counts are read through snapshots (see <code>snapshot</code>), which never block the threads
+ * recording games. Since the counts are read one at a time, a snapshot taken while games are being
+ * recorded may include a game in one count but not yet in an aggregate of other counts. </p>
+ */
+public class MatchStatistics {
+    /**
+     * Number of levels of intelligence of the agent
+     */
+    public static final int NUM_LEVELS = 6;
+    /**
+     * Outcome of a game won by the tic-tac-toe-playing agent
+     */
+    public static final int AGENT_WIN = 0;
+    /**
+     * Outcome of a game won by the human player
+     */
+    public static final int HUMAN_WIN = 1;
+    /**
+     * Outcome of a drawn game
+     */
+    public static final int DRAW = 2;
+    /**
+     * Number of outcomes of a game
+     */
+    public static final int NUM_OUTCOMES = 3;
+    /**
+     * Wildcard matching any level of intelligence, first player to move, or outcome
+     */
+    public static final int ANY = -1;
+
+    /* Match statistics of this process (created on first use) */
+    private static MatchStatistics defaultStats;
+
+    /* Number of games, indexed by level, first player to move, and outcome (see getIndex) */
+    private final LongAdder[] counts;
+
+    /**
+     * Creates empty match statistics
+     */
+    public MatchStatistics() {
+        this.counts = new LongAdder[NUM_LEVELS * 2 * NUM_OUTCOMES];
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the match statistics of this process, into which every game master records its games
+     *
+     * @return match statistics of this process
+     */
+    public static synchronized MatchStatistics getDefault() {
+        if (defaultStats == null) {
+            defaultStats = new MatchStatistics();
+        }
+
+        return defaultStats;
+    }
+
+    /**
+     * Returns the index of the count of the given level of intelligence, first player to move, and
+     * outcome
+     *
+     * @param level level of intelligence of the agent
+     * @param isAgentFirst <code>true</code> if the agent moved first; <code>false</code>, otherwise
+     * @param outcome outcome of the game (<code>AGENT_WIN</code>, <code>HUMAN_WIN</code>, or
+     *                <code>DRAW</code>)
+     * @return index of the count
+     */
+    static int getIndex(int level, boolean isAgentFirst, int outcome) {
+        return (level * 2 + (isAgentFirst ? 1 : 0)) * NUM_OUTCOMES + outcome;
+    }
+
+    /**
+     * Records a game
+     *
+     * @param level level of intelligence of the agent
+     * @param isAgentFirst <code>true</code> if the agent moved first; <code>false</code>, otherwise
+     * @param outcome outcome of the game (<code>AGENT_WIN</code>, <code>HUMAN_WIN</code>, or
+     *                <code>DRAW</code>)
+     */
+    public void record(int level, boolean isAgentFirst, int outcome) {
+        counts[getIndex(level, isAgentFirst, outcome)].increment();
+    }
+
+    /**
+     * Returns a snapshot of the counts of these match statistics, without blocking the threads
+     * recording games
+     *
+     * @return snapshot of the counts of these match statistics
+     */
+    public MatchSnapshot snapshot() {
+        long[] values;
+        values = new long[counts.length];
+
+        for (int i = 0; i < counts.length; i++) {
+            values[i] = counts[i].sum();
+        }
+
+        return new MatchSnapshot(values);
+    }
+
+    /**
+     * Returns a string representation of these match statistics (see <code>MatchSnapshot</code>)
+     *
+     * @return string representation of these match statistics
+     */
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,269 @@
+package tic_tac_toe;
+
+import util.Coordinates;
+import util.Evaluation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class implementing the <b>opening book</b> of the tic-tac-toe-playing agents, which stores the
+ * agents' decisions for the positions of the first few moves so that these decisions (the most
+ * expensive of a game, as they search the largest trees) are looked up instead of searched
+ *
+ * <p>The book is generated offline by <code>main</code>, which searches every position in which the
+ * agent is to move within the first few moves, for every level of intelligence from 2 to 5, and is
+ * shipped as the <code>opening-book.txt</code> resource of this package. Positions are keyed exactly,
+ * for every level: although the numerical evaluations of levels 2 and 3 are invariant under symmetry,
+ * their choice among moves of the same evaluation is not (ties are broken in row-major order), so a
+ * move mapped back from a symmetric position may differ from the one a search would pick. The stored
+ * decision is thus always that of a search of the position looked up. </p>
+ *
+ * <p>Every line of the book file is either a comment (starting with <code>#</code>) or an entry of the
+ * form <code>level key row col score outcome distance</code>, where the outcome is that of
+ * <code>Evaluation.getOutcome</code> and the distance is that of <code>Evaluation.getDistance</code>
+ * (both of which are invariant under symmetry). Entries of the older form <code>level key row col
+ * score</code> are also accepted, with an unknown outcome. </p>
+ */
+public class OpeningBook {
+    /**
+     * Default number of moves (of both players) covered by the book
+     */
+    public static final int DEFAULT_MAX_PLY = 2;
+
+    /* Name of the resource holding the default book */
+    private static final String RESOURCE = "opening-book.txt";
+    /* Number of distinct board keys (3^9) */
+    private static final int NUM_KEYS = 19683;
+
+    /* Default book of this process (null if not yet loaded) */
+    private static OpeningBook defaultBook;
+
+    /* Stored decisions, keyed by level of intelligence and board key */
+    private final HashMap<Integer, Evaluation> entries;
+
+    /**
+     * Creates an empty opening book
+     */
+    public OpeningBook() {
+        entries = new HashMap<Integer, Evaluation>();
+    }
+
+    /**
+     * Returns the opening book shipped with this program, loaded on first use (an empty book if the
+     * resource is missing)
+     *
+     * @return opening book shipped with this program
+     * @throws UncheckedIOException if the resource cannot be read
+     */
+    public static synchronized OpeningBook getDefault() {
+        if (defaultBook == null) {
+            try (InputStream in = OpeningBook.class.getResourceAsStream(RESOURCE)) {
+                defaultBook = in == null ? new OpeningBook() : load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return defaultBook;
+    }
+
+    /**
+     * Returns the stored decision of the agent of the given level of intelligence for the given board,
+     * or <code>null</code> if the board is not in the book
+     *
+     * @param intelligence level of intelligence of the agent
+     * @param b board on which the agent is to move (left unchanged)
+     * @return stored decision for the given board, or <code>null</code> if the board is not in the book
+     */
+    public Evaluation lookup(int intelligence, Board b) {
+        Evaluation stored;
+        stored = entries.get(intelligence * NUM_KEYS + b.getKey());
+
+        if (stored == null) {
+            return null;
+        }
+
+        /* A fresh evaluation with fresh coordinates is returned, so the caller cannot modify the stored one. */
+        return new Evaluation(stored.getEvalScore(),
+                new Coordinates(stored.getCoor().getRow(), stored.getCoor().getCol()),
+                stored.getOutcome(), stored.getDistance());
+    }
+
+    /**
+     * Searches the given board with the given agent and stores the decision
+     *
+     * @param intelligence level of intelligence of the agent
+     * @param agent agent of the given level of intelligence
+     * @param b board on which the agent is to move (left unchanged)
+     */
+    public void add(int intelligence, Agent agent, Board b) {
+        Evaluation eval;
+        eval = agent.evalBestMove(b);
+
+        entries.put(intelligence * NUM_KEYS + b.getKey(), new Evaluation(eval.getEvalScore(),
+                new Coordinates(eval.getCoor().getRow(), eval.getCoor().getCol()),
+                eval.getOutcome(), eval.getDistance()));
+    }
+
+    /**
+     * Returns the number of entries of this book
+     *
+     * @return number of entries of this book
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Generates a book covering, for each given level of intelligence, every position in which the
+     * agent is to move (whether it moved first or second) within the given number of moves
+     *
+     * @param levels levels of intelligence to be covered
+     * @param maxPly number of moves (of both players) covered by the book
+     * @return generated opening book
+     */
+    public static OpeningBook generate(int[] levels, int maxPly) {
+        OpeningBook book;
+        book = new OpeningBook();
+
+        for (int level : levels) {
+            Agent agent;
+            agent = GameMaster.createAgent(level);
+
+            /* The agent is to move at the even plies if it moved first, and at the odd ones otherwise. */
+            book.addPositions(level, agent, new Board(), Board.COMPUTER_TOKEN, 0, maxPly);
+            book.addPositions(level, agent, new Board(), Board.HUMAN_TOKEN, 0, maxPly);
+        }
+
+        return book;
+    }
+
+    /**
+     * Adds the positions reachable from the given board within the given number of moves in which the
+     * agent is to move
+     *
+     * @param level level of intelligence of the agent
+     * @param agent agent of the given level of intelligence
+     * @param b current board (restored before returning)
+     * @param toMove token of the player to move
+     * @param ply number of moves made so far
+     * @param maxPly number of moves covered by the book
+     */
+    private void addPositions(int level, Agent agent, Board b, char toMove, int ply, int maxPly) {
+        if (ply > maxPly || b.isGameOver()) {
+            return;
+        }
+
+        if (toMove == Board.COMPUTER_TOKEN && lookup(level, b) == null) {
+            add(level, agent, b);
+        }
+
+        for (Coordinates move : b.getPossibleMoves()) {
+            b.push(move.getRow(), move.getCol(), toMove);
+            addPositions(level, agent, b, toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN
+                    : Board.COMPUTER_TOKEN, ply + 1, maxPly);
+            b.pop();
+        }
+    }
+
+    /**
+     * Reads an opening book from the given stream
+     *
+     * @param in stream in the book file format
+     * @return opening book read from the stream
+     * @throws IOException if the stream cannot be read
+     * @throws NumberFormatException if an entry is malformed
+     */
+    public static OpeningBook load(InputStream in) throws IOException {
+        OpeningBook book;
+        book = new OpeningBook();
+
+        BufferedReader reader;
+        reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields;
+            fields = line.split("\\s+");
+
+            int outcome;        // expected outcome of the entry (unknown for entries of the older form)
+            int distance;       // number of moves to reach the expected outcome (-1 if not known)
+
+            outcome = fields.length > 5 ? Integer.parseInt(fields[5]) : Evaluation.UNKNOWN;
+            distance = fields.length > 6 ? Integer.parseInt(fields[6]) : -1;
+
+            book.entries.put(Integer.parseInt(fields[0]) * NUM_KEYS + Integer.parseInt(fields[1]),
+                    new Evaluation(Integer.parseInt(fields[4]),
+                            new Coordinates(Integer.parseInt(fields[2]), Integer.parseInt(fields[3])),
+                            outcome, distance));
+        }
+
+        return book;
+    }
+
+    /**
+     * Writes this opening book to the given file, sorted by level of intelligence and board key
+     *
+     * @param file book file
+     * @param maxPly number of moves covered by the book (recorded in the header)
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file, int maxPly) throws IOException {
+        TreeMap<Integer, Evaluation> sorted;
+        sorted = new TreeMap<Integer, Evaluation>(entries);
+
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# Opening book of the tic-tac-toe-playing agents (generated by tic_tac_toe.OpeningBook)\n");
+            out.write("# Positions within " + maxPly + " moves, keyed exactly\n");
+            out.write("# level key row col score outcome distance\n");
+
+            for (Map.Entry<Integer, Evaluation> e : sorted.entrySet()) {
+                out.write(e.getKey() / NUM_KEYS + " " + e.getKey() % NUM_KEYS + " "
+                        + e.getValue().getCoor().getRow() + " " + e.getValue().getCoor().getCol() + " "
+                        + e.getValue().getEvalScore() + " " + e.getValue().getOutcome() + " "
+                        + e.getValue().getDistance() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Generates the opening book for levels 2 to 5 and writes it to the given file
+     *
+     * <p>The arguments are, in order: the book file (by default, <code>opening-book.txt</code> in the
+     * working directory) and the number of moves covered (<code>DEFAULT_MAX_PLY</code> by default).</p>
+     *
+     * @param args array of command-line arguments
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path file;
+        int maxPly;
+
+        file = Paths.get(args.length > 0 ? args[0] : RESOURCE);
+        maxPly = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_PLY;
+
+        OpeningBook book;
+        book = generate(new int[] {2, 3, 4, 5}, maxPly);
+        book.save(file, maxPly);
+
+        System.out.println("Wrote " + book.size() + " entries to " + file);
+    }
+}
@@ -0,0 +1,150 @@
+package tic_tac_toe;
+
+import util.Coordinates;
+import util.Evaluation;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class implementing <b>pondering</b>, that is, searching on the human player's time
+ *
+ * <p>As soon as the agent has moved, the agent's answer to every possible reply of the human player
+ * is searched in the background and cached. Since the board is only 3&times;3, there are at most
+ * 9 replies (on an empty board, if the human player moves first), so all of them are pondered instead
+ * of guessing the most likely ones. Once the human
+ * player moves, the agent answers from the cache, waiting only for the remainder of the search if the
+ * human player moved before it completed. </p>
+ *
+ * <p>Each background search runs on its own copy of the board and its own instance of the agent;
+ * hence, the board of the game is never read or modified by the background threads. These agents are
+ * interruptible (see <code>Agent.setInterruptible</code>), so a cancelled search stops at its next node
+ * instead of taking a processor away from the search of the game.</p>
+ */
+public class Ponderer {
+    /* Background threads on which the replies are pondered */
+    private ThreadPoolExecutor executor;
+    /* Pending or completed searches, keyed by the board key of the position after the reply */
+    private ConcurrentHashMap<Integer, Future<Evaluation>> cache;
+    /* Level of intelligence of the agent whose answers are pondered */
+    private int intelligence;
+
+    /**
+     * Creates a ponderer for the tic-tac-toe-playing agent with the given level of intelligence
+     *
+     * <p>The background threads are created on demand and terminate after a second of idleness,
+     * so an unused ponderer holds no threads.</p>
+     *
+     * @param intelligence level of intelligence of the tic-tac-toe-playing agent
+     */
+    public Ponderer(int intelligence) {
+        int numThreads;         // number of background threads
+        numThreads = Math.max(1, Math.min(Board.DIMENSION * Board.DIMENSION - 1,
+                Runtime.getRuntime().availableProcessors() - 1));
+
+        this.intelligence = intelligence;
+        this.cache = new ConcurrentHashMap<Integer, Future<Evaluation>>();
+        this.executor = new ThreadPoolExecutor(numThreads, numThreads, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), r -> {
+                    Thread t;
+                    t = new Thread(r, "ponder");
+
+                    /* Pondering must never keep the program alive. */
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts pondering the agent's answers to all the possible replies of the human player given
+     * the current board state, discarding the results of any previous pondering
+     *
+     * @param b current board state (copied before this method returns)
+     */
+    public void ponder(Board b) {
+        cancel();
+
+        ArrayList<Coordinates> possibleMoves;       // possible replies of the human player
+        possibleMoves = b.getPossibleMoves();
+
+        for (int i = 0; i < possibleMoves.size(); i++) {
+            Coordinates reply;          // reply of the human player being pondered
+            Board afterReply;           // board state after the reply
+
+            reply = possibleMoves.get(i);
+            afterReply = new Board(b);
+            afterReply.makeMove(reply.getRow(), reply.getCol(), Board.HUMAN_TOKEN);
+
+            /* The agent does not move after a reply that ends the game. */
+            if (!afterReply.isGameOver()) {
+                cache.put(afterReply.getKey(), executor.submit(() -> {
+                    Agent agent;        // agent searching its own copy of the board
+                    agent = GameMaster.createAgent(intelligence);
+                    agent.setInterruptible(true);
+
+                    return agent.evalBestMove(afterReply);
+                }));
+            }
+        }
+    }
+
+    /**
+     * Returns the pondered answer of the agent given the current board state, or <code>null</code> if
+     * the position was not pondered
+     *
+     * <p>If the search of the position is still running, this method waits for it to complete. All the
+     * other pondered positions are discarded, since the human player did not reply with them.</p>
+     *
+     * @param b current board state
+     * @return pondered answer of the agent, or <code>null</code> if the position was not pondered
+     */
+    public Evaluation take(Board b) {
+        Future<Evaluation> result;      // search of the current board state
+        result = cache.remove(b.getKey());
+
+        cancel();
+
+        if (result == null) {
+            return null;
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (CancellationException | ExecutionException e) {
+            /* Fall back to searching on the caller's thread. */
+            return null;
+        }
+    }
+
+    /**
+     * Discards the results of the current pondering, interrupting the searches that are still pending
+     *
+     * <p>A pending search that has not started is never run, and one that is running stops at the next
+     * node it searches. </p>
+     */
+    public void cancel() {
+        for (Future<Evaluation> result : cache.values()) {
+            result.cancel(true);
+        }
+
+        cache.clear();
+    }
+
+    /**
+     * Discards the results of the current pondering and releases the background threads
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
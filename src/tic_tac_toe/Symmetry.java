@@ -0,0 +1,292 @@
+package tic_tac_toe;
+
+import util.Coordinates;
+import util.Evaluation;
+
+/**
+ * Class implementing the <b>symmetries of the tic-tac-toe board</b>, that is, the 4 rotations and
+ * the 4 reflections of the 3&times;3 grid, under which the value of a position is invariant
+ *
+ * <p>The symmetries are numbered from 0 to 7: symmetry <i>t</i> rotates the board clockwise by
+ * <i>t</i> mod 4 quarter turns and, if <i>t</i> &ge; 4, then mirrors it left to right. Symmetry 0 is
+ * the identity. </p>
+ *
+ * <p>The <b>canonical key</b> of a board is the least key (as given by <code>Board.getKey</code>)
+ * among its 8 symmetric images. Two boards have the same canonical key if and only if one is a
+ * rotation or reflection of the other, so the canonical key identifies a position up to symmetry. </p>
+ */
+public class Symmetry {
+    /**
+     * Number of symmetries of the tic-tac-toe board
+     */
+    public static final int NUM_SYMMETRIES = 8;
+
+    /* Number of tiles of the board */
+    private static final int NUM_TILES = Board.DIMENSION * Board.DIMENSION;
+
+    /* Image of each tile (in row-major order) under each symmetry */
+    private static final int[][] IMAGES = new int[NUM_SYMMETRIES][NUM_TILES];
+    /* Inverse of each symmetry */
+    private static final int[] INVERSES = new int[NUM_SYMMETRIES];
+    /* Place value of each tile in the base-3 key of the board */
+    private static final int[] PLACE_VALUES = new int[NUM_TILES];
+
+    static {
+        for (int t = 0; t < NUM_SYMMETRIES; t++) {
+            for (int i = 0; i < Board.DIMENSION; i++) {
+                for (int j = 0; j < Board.DIMENSION; j++) {
+                    int row = i;
+                    int col = j;
+
+                    /* Rotate clockwise by a quarter turn: (row, col) goes to (col, 2 - row). */
+                    for (int k = 0; k < t % 4; k++) {
+                        int temp = row;
+                        row = col;
+                        col = Board.DIMENSION - 1 - temp;
+                    }
+
+                    /* Mirror left to right. */
+                    if (t >= 4) {
+                        col = Board.DIMENSION - 1 - col;
+                    }
+
+                    IMAGES[t][i * Board.DIMENSION + j] = row * Board.DIMENSION + col;
+                }
+            }
+        }
+
+        /* The inverse of a symmetry is the symmetry that maps every image back to its tile. */
+        for (int t = 0; t < NUM_SYMMETRIES; t++) {
+            for (int u = 0; u < NUM_SYMMETRIES; u++) {
+                boolean isInverse = true;
+
+                for (int tile = 0; tile < NUM_TILES; tile++) {
+                    if (IMAGES[u][IMAGES[t][tile]] != tile) {
+                        isInverse = false;
+                        break;
+                    }
+                }
+
+                if (isInverse) {
+                    INVERSES[t] = u;
+                }
+            }
+        }
+
+        /* The first tile in row-major order is the most significant base-3 digit. */
+        int placeValue = 1;
+        for (int tile = NUM_TILES - 1; tile >= 0; tile--) {
+            PLACE_VALUES[tile] = placeValue;
+            placeValue *= 3;
+        }
+    }
+
+    /**
+     * Empty constructor
+     */
+    public Symmetry() {
+
+    }
+
+    /**
+     * Returns <code>true</code> if the decisions of the agent of the given level of intelligence can be
+     * shared among symmetric positions, that is, if its numerical evaluation is the exact minimax
+     * value; <code>false</code>, otherwise
+     *
+     * <p>This holds for levels 2 and 3. The depth adjustment of levels 4 and 5 depends on the order in
+     * which the moves are considered, and levels 0 and 1 do not evaluate positions at all. </p>
+     *
+     * @param intelligence level of intelligence of the agent
+     * @return <code>true</code> if the agent's decisions can be shared among symmetric positions;
+     * <code>false</code>, otherwise
+     */
+    public static boolean isInvariant(int intelligence) {
+        return intelligence == 2 || intelligence == 3;
+    }
+
+    /**
+     * Returns the canonical key of the given board, that is, the least key among its 8 symmetric
+     * images
+     *
+     * @param b board whose canonical key is to be computed
+     * @return canonical key of the given board
+     */
+    public static int getCanonicalKey(Board b) {
+        return getKey(b, getCanonicalSymmetry(b));
+    }
+
+    /**
+     * Returns the symmetry that maps the given board to its canonical image (the least-numbered one
+     * if several symmetries do)
+     *
+     * @param b board whose canonical symmetry is to be determined
+     * @return symmetry that maps the given board to its canonical image
+     */
+    public static int getCanonicalSymmetry(Board b) {
+        int[] digits;           // base-3 digit of each tile of the board
+        int bestSymmetry;       // symmetry yielding the least key so far
+        int bestKey;            // least key so far
+
+        digits = getDigits(b);
+        bestSymmetry = 0;
+        bestKey = Integer.MAX_VALUE;
+
+        for (int t = 0; t < NUM_SYMMETRIES; t++) {
+            int key;
+            key = getKey(digits, t);
+
+            if (key < bestKey) {
+                bestKey = key;
+                bestSymmetry = t;
+            }
+        }
+
+        return bestSymmetry;
+    }
+
+    /**
+     * Returns the key of the image of the given board under the given symmetry
+     *
+     * @param b board
+     * @param t symmetry
+     * @return key of the image of the given board under the given symmetry
+     */
+    public static int getKey(Board b, int t) {
+        return getKey(getDigits(b), t);
+    }
+
+    /**
+     * Returns a new board that is the image of the given board under the given symmetry
+     *
+     * @param b board to be transformed (left unchanged)
+     * @param t symmetry
+     * @return image of the given board under the given symmetry
+     */
+    public static Board transform(Board b, int t) {
+        Board image;
+        image = new Board();
+
+        for (int tile = 0; tile < NUM_TILES; tile++) {
+            int target;
+            target = IMAGES[t][tile];
+
+            image.makeMove(target / Board.DIMENSION, target % Board.DIMENSION,
+                    b.getToken(tile / Board.DIMENSION, tile % Board.DIMENSION));
+        }
+
+        return image;
+    }
+
+    /**
+     * Returns the image of the given move under the given symmetry
+     *
+     * <p>The special coordinate (-1,-1), which indicates that the game has reached its terminal
+     * state, is its own image. </p>
+     *
+     * @param coor move to be transformed
+     * @param t symmetry
+     * @return image of the given move under the given symmetry
+     */
+    public static Coordinates transform(Coordinates coor, int t) {
+        if (coor.getRow() < 0 || coor.getCol() < 0) {
+            return new Coordinates(coor.getRow(), coor.getCol());
+        }
+
+        int target;
+        target = IMAGES[t][coor.getRow() * Board.DIMENSION + coor.getCol()];
+
+        return new Coordinates(target / Board.DIMENSION, target % Board.DIMENSION);
+    }
+
+    /**
+     * Returns the move that the given symmetry maps to the given move, that is, the image of the
+     * given move under the inverse of the symmetry
+     *
+     * <p>This maps a move chosen on the canonical image of a board back to the board itself. </p>
+     *
+     * @param coor move on the image of a board
+     * @param t symmetry that produced the image
+     * @return corresponding move on the original board
+     */
+    public static Coordinates untransform(Coordinates coor, int t) {
+        return transform(coor, INVERSES[t]);
+    }
+
+    /**
+     * Returns the move evaluation that the given symmetry maps to the given move evaluation, with every
+     * move of its principal variation mapped back onto the original board
+     *
+     * <p>The numerical evaluation, the expected outcome, the number of moves to reach it, and the
+     * number of nodes searched are invariant under symmetry, so they are copied. </p>
+     *
+     * @param eval move evaluation on the image of a board (left unchanged)
+     * @param t symmetry that produced the image
+     * @return corresponding move evaluation on the original board
+     */
+    public static Evaluation untransform(Evaluation eval, int t) {
+        Evaluation image;
+        Coordinates move;
+
+        move = untransform(eval.getCoor(), t);
+        image = eval.getNext() == null
+                ? new Evaluation(eval.getEvalScore(), move, eval.getOutcome(), eval.getDistance())
+                : new Evaluation(eval.getEvalScore(), move, untransform(eval.getNext(), t));
+        image.setNumNodes(eval.getNumNodes());
+
+        return image;
+    }
+
+    /**
+     * Returns the inverse of the given symmetry
+     *
+     * @param t symmetry
+     * @return inverse of the given symmetry
+     */
+    public static int inverse(int t) {
+        return INVERSES[t];
+    }
+
+    /**
+     * Returns the base-3 digit of each tile of the given board, following row-major order (an
+     * unoccupied tile is 0, a tile occupied by the human player is 1, and a tile occupied by the
+     * tic-tac-toe-playing agent is 2)
+     *
+     * @param b board
+     * @return base-3 digit of each tile of the given board
+     */
+    private static int[] getDigits(Board b) {
+        int[] digits;
+        digits = new int[NUM_TILES];
+
+        for (int tile = 0; tile < NUM_TILES; tile++) {
+            char token;
+            token = b.getToken(tile / Board.DIMENSION, tile % Board.DIMENSION);
+
+            if (token == Board.HUMAN_TOKEN) {
+                digits[tile] = 1;
+            } else if (token == Board.COMPUTER_TOKEN) {
+                digits[tile] = 2;
+            }
+        }
+
+        return digits;
+    }
+
+    /**
+     * Returns the key of the image, under the given symmetry, of the board with the given digits
+     *
+     * @param digits base-3 digit of each tile of the board
+     * @param t symmetry
+     * @return key of the image of the board under the given symmetry
+     */
+    private static int getKey(int[] digits, int t) {
+        int key;
+        key = 0;
+
+        for (int tile = 0; tile < NUM_TILES; tile++) {
+            key += digits[tile] * PLACE_VALUES[IMAGES[t][tile]];
+        }
+
+        return key;
+    }
+}
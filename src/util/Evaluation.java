@@ -1,5 +1,7 @@
 package util;
 
+import java.util.ArrayList;
+
 /**
  * Class implementing a <b>move evaluation</b> of the agent, consisting of both the move
  * and the numerical evaluation of this move
@@ -7,12 +9,50 @@ package util;
  * <p>The numerical evaluation is material only if the minimax algorithm is employed
  * (that is, only for levels 2 to 5). Otherwise, the evaluation is always set to 0
  * regardless of the actual optimality of the selected move. </p>
+ *
+ * <p>Besides the numerical evaluation, a move evaluation carries the outcome of the game that the
+ * agent expects (from its own point of view), the number of moves to reach it, the number of nodes
+ * searched, and the move evaluation of the board following the move, from which the <b>principal
+ * variation</b> (the sequence of moves expected from both players) is read. These are known only if
+ * the agent searches the game tree to its terminal states (that is, only for levels 2 to 5). </p>
  */
 public class Evaluation {
+    /**
+     * Outcome of a move evaluation whose expected outcome is not known
+     */
+    public static final int UNKNOWN = 0;
+    /**
+     * Outcome of a move evaluation expecting the agent to win
+     */
+    public static final int WIN = 1;
+    /**
+     * Outcome of a move evaluation expecting the agent to lose
+     */
+    public static final int LOSS = 2;
+    /**
+     * Outcome of a move evaluation expecting a draw
+     */
+    public static final int DRAW = 3;
+
+    /* Names of the outcomes, indexed by outcome */
+    private static final String[] OUTCOME_NAMES = {"unknown", "win", "loss", "draw"};
+
     /* Numerical evaluation of the move */
     private int evalScore;
     /* Move evaluated by the agent */
     private Coordinates coor;
+    /* Move evaluation of the board following the move (null if not known, or if there is no move) */
+    private Evaluation next;
+    /* Number of nodes searched to evaluate the move (saturated to the range of an int) */
+    private int numNodes;
+    /* Expected outcome of the game, from the agent's point of view */
+    private byte outcome;
+    /* Number of moves to reach the expected outcome (-1 if not known)
+
+    The fields are sized so that a move evaluation, which the agents create at every node they search,
+    takes no more memory than 32 bytes.
+     */
+    private short distance;
 
     /**
      * Creates a move evaluation given the move and the agent's numerical evaluation of this move
@@ -21,12 +61,52 @@ public class Evaluation {
      * (that is, only for levels 2 to 5). Otherwise, the evaluation is always set to 0
      * regardless of the actual optimality of the selected move. </p>
      *
+     * <p>The expected outcome of the move evaluation is <code>UNKNOWN</code>. </p>
+     *
      * @param evalScore numerical evaluation of the move
      * @param coor move evaluated by the agent
      */
     public Evaluation(int evalScore, Coordinates coor) {
+        this(evalScore, coor, UNKNOWN, -1);
+    }
+
+    /**
+     * Creates a move evaluation given the move, the agent's numerical evaluation of this move, the
+     * expected outcome, and the number of moves to reach it
+     *
+     * <p>This is used for terminal states (whose outcome is reached in 0 moves), and for move
+     * evaluations that are looked up instead of searched, whose principal variation consists of the
+     * move only. </p>
+     *
+     * @param evalScore numerical evaluation of the move
+     * @param coor move evaluated by the agent
+     * @param outcome expected outcome of the game (<code>UNKNOWN</code>, <code>WIN</code>,
+     *                <code>LOSS</code>, or <code>DRAW</code>), from the agent's point of view
+     * @param distance number of moves to reach the expected outcome (-1 if not known)
+     */
+    public Evaluation(int evalScore, Coordinates coor, int outcome, int distance) {
         this.evalScore = evalScore;
         this.coor = coor;
+        this.next = null;
+        this.numNodes = 0;
+        this.outcome = (byte) outcome;
+        this.distance = (short) distance;
+    }
+
+    /**
+     * Creates a move evaluation given the move, the agent's numerical evaluation of this move, and the
+     * move evaluation of the board following the move
+     *
+     * <p>The expected outcome is that of the following move evaluation, which is reached in one more
+     * move. </p>
+     *
+     * @param evalScore numerical evaluation of the move
+     * @param coor move evaluated by the agent
+     * @param next move evaluation of the board following the move
+     */
+    public Evaluation(int evalScore, Coordinates coor, Evaluation next) {
+        this(evalScore, coor, next.outcome, next.distance < 0 ? -1 : next.distance + 1);
+        this.next = next;
     }
 
     /**
@@ -47,6 +127,84 @@ public class Evaluation {
         return coor;
     }
 
+    /**
+     * Returns the expected outcome of the game, from the agent's point of view
+     *
+     * @return <code>UNKNOWN</code>, <code>WIN</code>, <code>LOSS</code>, or <code>DRAW</code>
+     */
+    public int getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns the name of the expected outcome of the game (<code>"unknown"</code>, <code>"win"</code>,
+     * <code>"loss"</code>, or <code>"draw"</code>)
+     *
+     * @return name of the expected outcome of the game
+     */
+    public String getOutcomeName() {
+        return OUTCOME_NAMES[outcome];
+    }
+
+    /**
+     * Returns the number of moves (of both players, starting with this move) to reach the expected
+     * outcome, assuming that both players follow the principal variation
+     *
+     * @return number of moves to reach the expected outcome, or -1 if it is not known
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Returns the number of nodes searched to evaluate the move (0 if the move evaluation was looked up
+     * instead of searched)
+     *
+     * @return number of nodes searched to evaluate the move
+     */
+    public long getNumNodes() {
+        return numNodes;
+    }
+
+    /**
+     * Sets the number of nodes searched to evaluate the move
+     *
+     * @param numNodes number of nodes searched to evaluate the move
+     */
+    public void setNumNodes(long numNodes) {
+        this.numNodes = (int) Math.min(numNodes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the move evaluation of the board following the move
+     *
+     * @return move evaluation of the board following the move, or <code>null</code> if it is not known
+     *         (or if the board is at its terminal state)
+     */
+    public Evaluation getNext() {
+        return next;
+    }
+
+    /**
+     * Returns the principal variation, that is, the sequence of moves of both players, starting with
+     * this move, that the agent expects to be played
+     *
+     * <p>If the following move evaluations are not known (for instance, if this move evaluation was
+     * looked up instead of searched), the principal variation consists of this move only. </p>
+     *
+     * @return principal variation (empty if the board is at its terminal state)
+     */
+    public ArrayList<Coordinates> getPrincipalVariation() {
+        ArrayList<Coordinates> pv;
+        pv = new ArrayList<Coordinates>();
+
+        for (Evaluation eval = this; eval != null && eval.coor.getRow() >= 0; eval = eval.next) {
+            pv.add(eval.coor);
+        }
+
+        return pv;
+    }
+
     /**
      * Returns a string representation of this move evaluation
      *
@@ -54,12 +212,18 @@ public class Evaluation {
      * <ul>
      *     <li>Numerical evaluation of the move ("Score")</li>
      *     <li>Evaluated move ("Move")</li>
+     *     <li>Expected outcome and the number of moves to reach it ("Outcome"), if known</li>
      * </ul>
      *
      * @return string representation of this move evaluation
      */
     @Override
     public String toString() {
-        return "Score: " + evalScore + " " + "Move: " + coor.toString() + "\n";
+        if (outcome == UNKNOWN) {
+            return "Score: " + evalScore + " " + "Move: " + coor.toString() + "\n";
+        }
+
+        return "Score: " + evalScore + " " + "Move: " + coor.toString() + " "
+                + "Outcome: " + getOutcomeName() + " in " + distance + "\n";
     }
 }
@@ -0,0 +1,167 @@
+package util;
+
+/**
+ * Class implementing the <b>search statistics</b> of a single decision of the agent, complementing
+ * the move evaluation with a description of the work performed to arrive at it
+ *
+ * <p>The statistics consist of the number of nodes of the game tree visited, the number of those
+ * nodes that are leaves (terminal states), the number of alpha-beta cutoffs, the maximum depth
+ * reached, and the number of decisions answered from a cache instead of a search. Comparing these
+ * across versions of an agent distinguishes a speedup caused by visiting fewer nodes from one caused
+ * by visiting nodes faster. </p>
+ */
+public class SearchStatistics {
+    /* Number of nodes of the game tree visited */
+    private long numNodes;
+    /* Number of leaf nodes (terminal states) visited */
+    private long numLeaves;
+    /* Number of alpha-beta cutoffs */
+    private long numCutoffs;
+    /* Maximum depth of the game tree reached */
+    private int maxDepth;
+    /* Number of results taken from a cache instead of being searched */
+    private long numCacheHits;
+
+    /**
+     * Creates an empty set of search statistics
+     */
+    public SearchStatistics() {
+        reset();
+    }
+
+    /**
+     * Creates a copy of the given search statistics
+     *
+     * @param other search statistics to be copied
+     */
+    public SearchStatistics(SearchStatistics other) {
+        this.numNodes = other.numNodes;
+        this.numLeaves = other.numLeaves;
+        this.numCutoffs = other.numCutoffs;
+        this.maxDepth = other.maxDepth;
+        this.numCacheHits = other.numCacheHits;
+    }
+
+    /**
+     * Resets all the statistics to 0 in preparation for a new decision
+     */
+    public void reset() {
+        numNodes = 0;
+        numLeaves = 0;
+        numCutoffs = 0;
+        maxDepth = 0;
+        numCacheHits = 0;
+    }
+
+    /**
+     * Records a visit to a node of the game tree at the given depth
+     *
+     * @param depth depth of the visited node
+     */
+    public void recordNode(int depth) {
+        numNodes++;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    /**
+     * Records a visit to a leaf node (terminal state) of the game tree
+     */
+    public void recordLeaf() {
+        numLeaves++;
+    }
+
+    /**
+     * Records an alpha-beta cutoff
+     */
+    public void recordCutoff() {
+        numCutoffs++;
+    }
+
+    /**
+     * Records a result taken from a cache instead of being searched
+     */
+    public void recordCacheHit() {
+        numCacheHits++;
+    }
+
+    /**
+     * Returns the number of nodes of the game tree visited
+     *
+     * @return number of nodes of the game tree visited
+     */
+    public long getNumNodes() {
+        return numNodes;
+    }
+
+    /**
+     * Returns the number of leaf nodes (terminal states) visited
+     *
+     * @return number of leaf nodes visited
+     */
+    public long getNumLeaves() {
+        return numLeaves;
+    }
+
+    /**
+     * Returns the number of alpha-beta cutoffs
+     *
+     * @return number of alpha-beta cutoffs
+     */
+    public long getNumCutoffs() {
+        return numCutoffs;
+    }
+
+    /**
+     * Returns the maximum depth of the game tree reached
+     *
+     * @return maximum depth of the game tree reached
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns the number of results taken from a cache instead of being searched
+     *
+     * @return number of results taken from a cache
+     */
+    public long getNumCacheHits() {
+        return numCacheHits;
+    }
+
+    /**
+     * Returns the effective branching factor, that is, the branching factor <i>b</i> of a uniform tree
+     * whose depth is the maximum depth reached and whose number of nodes is the number of nodes visited
+     *
+     * <p>For simplicity, <i>b</i> is approximated as the <i>d</i>-th root of the number of nodes, where
+     * <i>d</i> is the maximum depth. If no node beyond the root was visited, the effective branching
+     * factor is 0. </p>
+     *
+     * @return effective branching factor
+     */
+    public double getEffectiveBranchingFactor() {
+        if (maxDepth == 0) {
+            return 0;
+        }
+
+        return Math.pow(numNodes, 1.0 / maxDepth);
+    }
+
+    /**
+     * Returns a string representation of these search statistics
+     *
+     * <p>The string representation contains the number of nodes, leaves, cutoffs, and cache hits,
+     * the maximum depth, and the effective branching factor, each on its own line. </p>
+     *
+     * @return string representation of these search statistics
+     */
+    @Override
+    public String toString() {
+        return "Nodes: " + numNodes + "\n"
+                + "Leaves: " + numLeaves + "\n"
+                + "Cutoffs: " + numCutoffs + "\n"
+                + "Max Depth: " + maxDepth + "\n"
+                + "Branching Factor: " + String.format("%.2f", getEffectiveBranchingFactor()) + "\n"
+                + "Cache Hits: " + numCacheHits + "\n";
+    }
+}
@@ -0,0 +1,239 @@
+package journal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tic_tac_toe.Board;
+import tic_tac_toe.GameMaster;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the <b>game journal</b>: games are written (interleaved, over several segments), indexed,
+ * and replayed
+ */
+public class GameJournalTest {
+    /* Maximum size of a segment, small enough for the games to span several segments */
+    private static final long SEGMENT_SIZE = 64;
+
+    /* Directory of the journal */
+    @TempDir
+    Path dir;
+
+    /* IDs of the games written, in the order in which they started */
+    private long[] games;
+
+    /**
+     * Writes three games to the journal: a win of the agent, interleaved with an abandoned game of
+     * another session, and a game whose end is not recorded
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @BeforeEach
+    public void writeGames() throws IOException {
+        long s0;
+        long s1;
+
+        games = new long[3];
+
+        try (GameJournal journal = new GameJournal(dir, SEGMENT_SIZE)) {
+            s0 = journal.newSession();
+            s1 = journal.newSession();
+
+            games[0] = journal.startGame(s0, Board.COMPUTER_TOKEN, JournalRecord.HUMAN_LEVEL, 3);
+            journal.recordMove(games[0], s0, Board.COMPUTER_TOKEN, 0, 0, 3, 1000);
+            journal.recordMove(games[0], s0, Board.HUMAN_TOKEN, 1, 1, JournalRecord.HUMAN_LEVEL, 2000);
+
+            games[1] = journal.startGame(s1, Board.HUMAN_TOKEN, JournalRecord.HUMAN_LEVEL, 5);
+            journal.recordMove(games[1], s1, Board.HUMAN_TOKEN, 1, 1, JournalRecord.HUMAN_LEVEL, 3000);
+            journal.flush();
+
+            journal.recordMove(games[0], s0, Board.COMPUTER_TOKEN, 0, 1, 3, 1000);
+            journal.recordMove(games[1], s1, Board.COMPUTER_TOKEN, 0, 0, 5, 4000);
+            journal.recordMove(games[0], s0, Board.HUMAN_TOKEN, 2, 2, JournalRecord.HUMAN_LEVEL, 2000);
+            journal.endGame(games[1], s1, JournalRecord.OUTCOME_ABANDONED);
+            journal.flush();
+
+            journal.recordMove(games[0], s0, Board.COMPUTER_TOKEN, 0, 2, 3, 1000);
+            journal.endGame(games[0], s0, Board.COMPUTER_TOKEN);
+
+            games[2] = journal.startGame(s0, Board.COMPUTER_TOKEN, JournalRecord.HUMAN_LEVEL, 3);
+            journal.recordMove(games[2], s0, Board.COMPUTER_TOKEN, 1, 1, 3, 1000);
+            journal.recordMove(games[2], s0, Board.HUMAN_TOKEN, 0, 0, JournalRecord.HUMAN_LEVEL, 2000);
+        }
+    }
+
+    /**
+     * Checks that the games span several segments and are replayed from the records read back
+     *
+     * @throws IOException if the journal cannot be read
+     */
+    @Test
+    public void replaysGames() throws IOException {
+        assertTrue(GameJournal.listSegments(dir).size() > 1);
+
+        ArrayList<JournalRecord> records;
+        records = JournalReplay.readGame(dir, games[0]);
+
+        assertEquals(7, records.size());
+        assertEquals(JournalRecord.GAME_START, records.get(0).getType());
+        assertEquals(Board.COMPUTER_TOKEN, records.get(0).getFirst());
+        assertEquals(3, records.get(0).getLevelC());
+        assertEquals(JournalRecord.GAME_END, records.get(6).getType());
+        assertEquals(Board.COMPUTER_TOKEN, records.get(6).getOutcome());
+
+        Board b;
+        b = JournalReplay.replay(records);
+
+        assertEquals("CCC|*H*|**H", b.getConfig());
+        assertTrue(b.isWin(Board.COMPUTER_TOKEN));
+
+        assertEquals("C**|*H*|***", JournalReplay.replay(JournalReplay.readGame(dir, games[1])).getConfig());
+    }
+
+    /**
+     * Checks that the index answers queries on every attribute, and reads the same records as a scan
+     * of the journal
+     *
+     * @throws IOException if the journal cannot be indexed
+     */
+    @Test
+    public void indexesGames() throws IOException {
+        JournalIndex index;
+        index = new JournalIndex(dir);
+
+        assertEquals(3, index.getNumGames());
+        assertArrayEquals(games, new long[] {index.getGameId(0), index.getGameId(1), index.getGameId(2)});
+
+        assertArrayEquals(new int[] {0, 1, 2}, index.find());
+        assertArrayEquals(new int[] {0, 2}, index.find(JournalIndex.levelC(3)));
+        assertArrayEquals(new int[] {0, 1, 2}, index.find(JournalIndex.levelH(JournalRecord.HUMAN_LEVEL)));
+        assertArrayEquals(new int[] {0}, index.find(JournalIndex.levelC(3), JournalIndex.outcome(Board.COMPUTER_TOKEN)));
+        assertArrayEquals(new int[] {1}, index.find(JournalIndex.outcome(JournalRecord.OUTCOME_ABANDONED)));
+        assertArrayEquals(new int[] {2}, index.find(JournalIndex.outcome(JournalIndex.OUTCOME_INCOMPLETE)));
+        assertArrayEquals(new int[] {1}, index.find(JournalIndex.firstPlayer(Board.HUMAN_TOKEN)));
+        assertArrayEquals(new int[] {1, 2}, index.find(JournalIndex.firstMove(1, 1)));
+        assertArrayEquals(new int[0], index.find(JournalIndex.levelC(4)));
+
+        /* Openings are matched up to symmetry (the first two games open with the same moves, by
+        different players).
+         */
+        assertArrayEquals(new int[] {0, 1}, index.find(JournalIndex.opening(new Board("**C|*H*|***"))));
+        assertArrayEquals(new int[] {2}, index.find(JournalIndex.opening(new Board("***|*C*|**H"))));
+
+        assertArrayEquals(new int[] {0, 1, 2}, JournalIndex.union(new int[] {0, 2}, new int[] {1, 2}));
+
+        for (int ordinal = 0; ordinal < games.length; ordinal++) {
+            assertRecordsEqual(JournalReplay.readGame(dir, games[ordinal]), index.readGame(ordinal));
+        }
+    }
+
+    /**
+     * Checks that a saved index is loaded instead of rebuilt, and rebuilt once the journal has grown
+     *
+     * @throws IOException if the journal cannot be indexed or written
+     */
+    @Test
+    public void reloadsIndex() throws IOException {
+        new JournalIndex(dir);
+        assertTrue(Files.exists(dir.resolve("journal.idx")));
+
+        JournalIndex loaded;
+        loaded = new JournalIndex(dir);
+
+        assertEquals(3, loaded.getNumGames());
+        assertArrayEquals(new int[] {0, 2}, loaded.find(JournalIndex.levelC(3)));
+
+        /* The IDs resume after those of the existing games. */
+        long game;
+
+        try (GameJournal journal = new GameJournal(dir, SEGMENT_SIZE)) {
+            game = journal.startGame(journal.newSession(), Board.HUMAN_TOKEN, JournalRecord.HUMAN_LEVEL, 4);
+            journal.endGame(game, 0, JournalRecord.OUTCOME_ABANDONED);
+        }
+
+        assertTrue(game > games[2]);
+
+        JournalIndex rebuilt;
+        rebuilt = new JournalIndex(dir);
+
+        assertEquals(4, rebuilt.getNumGames());
+        assertArrayEquals(new int[] {3}, rebuilt.find(JournalIndex.levelC(4)));
+    }
+
+    /**
+     * Checks that a game with a take-back is recorded, indexed, and replayed as a single game, with
+     * the decision times of the moves that were not taken back
+     *
+     * @throws IOException if the journal cannot be written, read, or indexed
+     */
+    @Test
+    public void recordsTakeBackAsUndo() throws IOException {
+        Path takeBackDir;           // journal holding only the game with the take-back
+        GameMaster game;
+
+        takeBackDir = Files.createDirectory(dir.resolve("take-back"));
+        game = new GameMaster();
+        game.setLatencyRecorder(null);
+
+        try (GameJournal journal = new GameJournal(takeBackDir)) {
+            game.setJournal(journal);
+
+            game.makeMove(0, 0, Board.COMPUTER_TOKEN, 1000);
+            game.makeMove(1, 1, Board.HUMAN_TOKEN, 2000);
+            game.undo();
+            game.makeMove(2, 2, Board.HUMAN_TOKEN, 3000);
+            game.makeMove(0, 1, Board.COMPUTER_TOKEN, 1000);
+            game.makeMove(1, 1, Board.HUMAN_TOKEN, 2000);
+            game.makeMove(0, 2, Board.COMPUTER_TOKEN, 1000);
+        }
+
+        JournalIndex index;
+        ArrayList<JournalRecord> records;
+
+        index = new JournalIndex(takeBackDir);
+        records = index.readGame(0);
+
+        assertEquals(1, index.getNumGames());
+        assertEquals(9, records.size());
+        assertEquals(JournalRecord.UNDO, records.get(3).getType());
+        assertEquals(1000, records.get(1).getDecisionTime());
+        assertEquals(3000, records.get(4).getDecisionTime());
+        assertEquals("CCC|*H*|**H", JournalReplay.replay(records).getConfig());
+
+        /* The opening is made of the moves that were not taken back. */
+        assertArrayEquals(new int[] {0}, index.find(JournalIndex.outcome(Board.COMPUTER_TOKEN),
+                JournalIndex.opening(new Board("C**|***|**H"))));
+        assertArrayEquals(new int[0], index.find(JournalIndex.opening(new Board("C**|*H*|***"))));
+    }
+
+    /**
+     * Asserts that the given lists hold the same records
+     *
+     * @param expected expected records
+     * @param actual actual records
+     */
+    private static void assertRecordsEqual(ArrayList<JournalRecord> expected, ArrayList<JournalRecord> actual) {
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getGame(), actual.get(i).getGame());
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+
+            if (expected.get(i).getType() == JournalRecord.MOVE) {
+                assertEquals(expected.get(i).getPlayer(), actual.get(i).getPlayer());
+                assertEquals(expected.get(i).getRow(), actual.get(i).getRow());
+                assertEquals(expected.get(i).getCol(), actual.get(i).getCol());
+                assertEquals(expected.get(i).getDecisionTime(), actual.get(i).getDecisionTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the <b>game session</b>, in particular that a move the agent cannot answer leaves the session
+ * unchanged
+ */
+public class GameSessionTest {
+    /* Executor on which the agent's searches are run */
+    private ExecutorService searchPool;
+
+    /**
+     * Creates the search pool
+     */
+    @BeforeEach
+    public void createPool() {
+        searchPool = Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * Shuts the search pool down
+     */
+    @AfterEach
+    public void shutdownPool() {
+        searchPool.shutdownNow();
+    }
+
+    /**
+     * Checks that the agent answers the human player's move
+     *
+     * @throws InterruptedException if the test is interrupted
+     * @throws ExecutionException if the agent's search fails
+     */
+    @Test
+    public void answersMove() throws InterruptedException, ExecutionException {
+        GameSession session;
+        session = new GameSession("s", 3, false);
+        session.start(searchPool);
+
+        session.playHumanMove(1, 1, searchPool);
+
+        assertTrue(session.toJson().contains("\"board\":\"C**|*H*|***\""), session.toJson());
+        assertEquals(GameSession.IN_PROGRESS, session.getStatus());
+    }
+
+    /**
+     * Checks that a move whose answer is rejected by the search pool is taken back, so that it can be
+     * sent again
+     *
+     * @throws InterruptedException if the test is interrupted
+     * @throws ExecutionException if the agent's search fails
+     */
+    @Test
+    public void takesBackUnansweredMove() throws InterruptedException, ExecutionException {
+        GameSession session;
+        ExecutorService rejecting;      // search pool rejecting every search
+
+        session = new GameSession("s", 3, false);
+        session.start(searchPool);
+
+        rejecting = Executors.newSingleThreadExecutor();
+        rejecting.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> session.playHumanMove(1, 1, rejecting));
+        assertTrue(session.toJson().contains("\"board\":\"***|***|***\""), session.toJson());
+
+        session.playHumanMove(1, 1, searchPool);
+        assertTrue(session.toJson().contains("\"board\":\"C**|*H*|***\""), session.toJson());
+    }
+
+    /**
+     * Checks that a move is taken back if the calling thread is interrupted while its answer is queued,
+     * and that the abandoned search is never run
+     *
+     * @throws InterruptedException if the test is interrupted
+     * @throws ExecutionException if the agent's search fails
+     */
+    @Test
+    public void takesBackInterruptedQueuedMove() throws InterruptedException, ExecutionException {
+        GameSession session;
+        CountDownLatch isReleased;          // released once the search pool may run the agent's search
+
+        session = new GameSession("s", 3, false);
+        session.start(searchPool);
+
+        /* Keep the only thread of the search pool busy, so that the agent's search stays queued. */
+        isReleased = new CountDownLatch(1);
+        searchPool.submit(() -> {
+            isReleased.await();
+            return null;
+        });
+
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> session.playHumanMove(1, 1, searchPool));
+        assertTrue(session.toJson().contains("\"board\":\"***|***|***\""), session.toJson());
+
+        /* The abandoned search does not move once the pool is free. */
+        isReleased.countDown();
+        searchPool.submit(() -> null).get();
+        assertTrue(session.toJson().contains("\"board\":\"***|***|***\""), session.toJson());
+
+        session.playHumanMove(1, 1, searchPool);
+        assertTrue(session.toJson().contains("\"board\":\"C**|*H*|***\""), session.toJson());
+    }
+
+    /**
+     * Checks that, if the calling thread is interrupted while the answer may be searched, the session is
+     * either left unchanged (the search having stopped and restored the board before the request fails)
+     * or answered (if the search completed first)
+     *
+     * @throws InterruptedException if the test is interrupted
+     * @throws ExecutionException if the agent's search fails
+     */
+    @Test
+    public void takesBackOrAnswersInterruptedMove() throws InterruptedException, ExecutionException {
+        GameSession session;
+        session = new GameSession("s", 2, false);
+        session.start(searchPool);
+
+        /* The second move of the human player is out of the opening book, so the agent searches. */
+        session.playHumanMove(1, 1, searchPool);
+        session.playHumanMove(2, 2, searchPool);
+        assertTrue(session.toJson().contains("\"board\":\"C*C|*H*|**H\""), session.toJson());
+
+        boolean isInterrupted;      // true if the request failed on the interrupt
+        Thread.currentThread().interrupt();
+
+        try {
+            session.playHumanMove(2, 0, searchPool);
+            isInterrupted = false;
+        } catch (InterruptedException e) {
+            isInterrupted = true;
+        }
+
+        /* The interrupt is left pending if the search completed before the request waited for it. */
+        Thread.interrupted();
+
+        /* The search no longer runs, whether it stopped or completed. */
+        searchPool.submit(() -> null).get();
+
+        if (isInterrupted) {
+            assertTrue(session.toJson().contains("\"board\":\"C*C|*H*|**H\""), session.toJson());
+        } else {
+            assertTrue(session.toJson().contains("\"board\":\"CCC|*H*|H*H\""), session.toJson());
+        }
+    }
+
+    /**
+     * Checks that a move on an occupied tile (that of the agent's first move) or off the board is rejected
+     *
+     * @throws InterruptedException if the test is interrupted
+     * @throws ExecutionException if the agent's search fails
+     */
+    @Test
+    public void rejectsInvalidMoves() throws InterruptedException, ExecutionException {
+        GameSession session;
+        session = new GameSession("s", 3, true);
+        session.start(searchPool);
+
+        assertThrows(IllegalArgumentException.class, () -> session.playHumanMove(0, 0, searchPool));
+        assertThrows(IllegalArgumentException.class, () -> session.playHumanMove(3, 0, searchPool));
+    }
+}
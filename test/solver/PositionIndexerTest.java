@@ -0,0 +1,147 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import tic_tac_toe.Board;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the <b>position indexers</b>, which have to map every slot to a position and back, on square
+ * and rectangular boards
+ */
+public class PositionIndexerTest {
+    /**
+     * Checks that the position of every slot is indexed back to the slot, and lies within the range of
+     * its layer
+     *
+     * @param scheme scheme of the indexer
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     */
+    @ParameterizedTest
+    @CsvSource({"0, 3, 3", "0, 3, 4", "0, 2, 5", "1, 3, 3", "1, 3, 4", "1, 2, 5", "1, 4, 4"})
+    public void roundTripsSlots(int scheme, int rows, int cols) {
+        PositionIndexer indexer;
+        int[] digits;
+
+        indexer = PositionIndexer.create(scheme, rows, cols);
+        digits = new int[rows * cols];
+
+        for (int index = 0; index < indexer.size(); index++) {
+            int layer;
+            int[] counts;           // numbers of tokens of the first and of the second player
+
+            indexer.getPosition(index, digits);
+            layer = indexer.getLayer(index);
+            counts = countTokens(digits);
+
+            /* Only the base-3 indexer has slots for numbers of tokens that cannot occur in a game. */
+            if (layer == -1) {
+                assertEquals(PositionIndexer.BASE3, scheme);
+                assertTrue(counts[0] != counts[1] && counts[0] != counts[1] + 1, "slot " + index);
+                continue;
+            }
+
+            assertEquals(counts[0] + counts[1], layer, "slot " + index);
+            assertTrue(indexer.getLayerStart(layer) <= index && index < indexer.getLayerEnd(layer), "slot " + index);
+            assertEquals(index, indexer.getIndex(digits));
+        }
+    }
+
+    /**
+     * Checks that every position whose numbers of tokens can occur in a game has a slot, whose
+     * position has the same numbers of tokens (and is the position itself for the base-3 indexer)
+     *
+     * @param scheme scheme of the indexer
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     */
+    @ParameterizedTest
+    @CsvSource({"0, 3, 3", "0, 3, 4", "0, 2, 5", "1, 3, 3", "1, 3, 4", "1, 2, 5"})
+    public void indexesEveryPosition(int scheme, int rows, int cols) {
+        PositionIndexer indexer;
+        int[] digits;
+        int[] slotDigits;           // position of the slot of the current position
+        int numPositions;
+
+        indexer = PositionIndexer.create(scheme, rows, cols);
+        digits = new int[rows * cols];
+        slotDigits = new int[rows * cols];
+        numPositions = (int) Math.pow(3, rows * cols);
+
+        for (int key = 0; key < numPositions; key++) {
+            int[] counts;
+            int index;
+
+            /* The first tile is the most significant digit of the key. */
+            for (int tile = digits.length - 1, rest = key; tile >= 0; tile--, rest /= 3) {
+                digits[tile] = rest % 3;
+            }
+
+            counts = countTokens(digits);
+
+            if (counts[0] != counts[1] && counts[0] != counts[1] + 1) {
+                continue;
+            }
+
+            index = indexer.getIndex(digits);
+            assertTrue(index >= 0 && index < indexer.size(), "key " + key);
+
+            indexer.getPosition(index, slotDigits);
+            assertArrayEquals(counts, countTokens(slotDigits), "key " + key);
+
+            if (scheme == PositionIndexer.BASE3) {
+                assertArrayEquals(digits, slotDigits, "key " + key);
+            }
+        }
+    }
+
+    /**
+     * Checks that the ranked indexer has fewer slots than the base-3 indexer, since it keeps only the
+     * canonical positions of the layers that can occur in a game
+     */
+    @Test
+    public void ranksFewerSlots() {
+        assertTrue(new RankedIndexer(3, 3).size() < new Base3Indexer(3, 3).size() / 8);
+    }
+
+    /**
+     * Checks that a 3&times;3 board is indexed and rebuilt from its slot, given the first player
+     */
+    @Test
+    public void roundTripsBoards() {
+        PositionIndexer indexer;
+        Board b;
+        int index;
+
+        indexer = new Base3Indexer(3, 3);
+        b = new Board("HC*|*H*|**C");
+        index = indexer.getIndex(b, Board.HUMAN_TOKEN);
+
+        assertEquals(b.getKey(), index);
+        assertEquals(b.getConfig(), indexer.getBoard(index, Board.HUMAN_TOKEN).getConfig());
+    }
+
+    /**
+     * Returns the numbers of tokens of the first and of the second player of the given position
+     *
+     * @param digits token on every tile of the position
+     * @return numbers of tokens of the first and of the second player
+     */
+    private static int[] countTokens(int[] digits) {
+        int[] counts;
+        counts = new int[2];
+
+        for (int digit : digits) {
+            if (digit != 0) {
+                counts[digit - 1]++;
+            }
+        }
+
+        return counts;
+    }
+}
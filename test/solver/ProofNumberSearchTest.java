@@ -0,0 +1,70 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+import tic_tac_toe.AgentLevel2;
+import tic_tac_toe.Board;
+import util.Coordinates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the <b>proof-number search</b> solver against the full minimax agent
+ */
+public class ProofNumberSearchTest {
+    /* Number of moves (of both players) within which the positions are solved */
+    private static final int MAX_PLY = 3;
+
+    /**
+     * Checks that the empty board is proven a draw, whichever player moves first
+     */
+    @Test
+    public void provesEmptyBoardDrawn() {
+        ProofNumberSearch pns;
+        pns = new ProofNumberSearch();
+
+        assertEquals(AgentLevel2.DRAW_UTIL, pns.solve(new Board(), Board.COMPUTER_TOKEN).getValue());
+        assertEquals(AgentLevel2.DRAW_UTIL, pns.solve(new Board(), Board.HUMAN_TOKEN).getValue());
+    }
+
+    /**
+     * Checks that every position within the first few moves is proven to have the value that the full
+     * minimax agent gives it, and that the board is restored after every search
+     */
+    @Test
+    public void agreesWithMinimax() {
+        checkPositions(new ProofNumberSearch(), new AgentLevel2(), new Board(), Board.COMPUTER_TOKEN, 0);
+        checkPositions(new ProofNumberSearch(), new AgentLevel2(), new Board(), Board.HUMAN_TOKEN, 0);
+    }
+
+    /**
+     * Checks the given position and those reachable from it within <code>MAX_PLY</code> moves
+     *
+     * @param pns solver under test
+     * @param minimax full minimax agent
+     * @param b current board (restored before returning)
+     * @param toMove token of the player to move
+     * @param ply number of moves made so far
+     */
+    private static void checkPositions(ProofNumberSearch pns, AgentLevel2 minimax, Board b, char toMove, int ply) {
+        if (ply > MAX_PLY || b.isGameOver()) {
+            return;
+        }
+
+        String config;              // board before the search
+        int expected;               // minimax value, from the agent's point of view
+
+        config = b.getConfig();
+        expected = Integer.signum(minimax.evalBestMove(new Board(config), toMove == Board.COMPUTER_TOKEN, 0)
+                .getEvalScore());
+
+        assertEquals(expected, Integer.signum(pns.solve(b, toMove).getValue()), config + ", " + toMove + " to move");
+        assertEquals(config, b.getConfig());
+
+        for (Coordinates move : b.getPossibleMoves()) {
+            b.push(move.getRow(), move.getCol(), toMove);
+            checkPositions(pns, minimax, b, toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN : Board.COMPUTER_TOKEN,
+                    ply + 1);
+            b.pop();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package solver;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tic_tac_toe.AgentLevel2;
+import tic_tac_toe.Board;
+import util.Coordinates;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the <b>retrograde analysis</b> solver on the 3&times;3 board, against the full minimax agent
+ * and across the position indexers
+ */
+public class RetrogradeSolverTest {
+    /* Solver whose table is indexed by base-3 keys */
+    private static RetrogradeSolver base3;
+    /* Solver whose table is indexed by ranks of canonical positions */
+    private static RetrogradeSolver ranked;
+
+    /**
+     * Solves tic-tac-toe with both indexers
+     *
+     * @throws InterruptedException if a solving thread is interrupted
+     */
+    @BeforeAll
+    public static void solve() throws InterruptedException {
+        base3 = new RetrogradeSolver(new Base3Indexer(3, 3), 3);
+        base3.solve(2);
+
+        ranked = new RetrogradeSolver(new RankedIndexer(3, 3), 3);
+        ranked.solve(2);
+    }
+
+    /**
+     * Checks that the value of every position reachable from the empty board, with either player to
+     * move, is that which the full minimax agent gives it
+     */
+    @Test
+    public void agreesWithMinimax() {
+        HashSet<Integer> seen;      // positions already checked, keyed by board key and player to move
+        seen = new HashSet<Integer>();
+
+        checkPositions(new AgentLevel2(), new Board(), Board.COMPUTER_TOKEN, seen);
+        checkPositions(new AgentLevel2(), new Board(), Board.HUMAN_TOKEN, seen);
+
+        /* 4,520 non-terminal positions are reachable if the agent moves first, and as many (with the
+        tokens swapped) if the human player does.
+         */
+        assertEquals(2 * 4520, seen.size());
+    }
+
+    /**
+     * Checks that both indexers give every reachable position the same value and distance
+     */
+    @Test
+    public void indexersAgree() {
+        checkIndexers(new Board(), Board.COMPUTER_TOKEN);
+    }
+
+    /**
+     * Checks that a saved table is loaded with the same values and distances
+     *
+     * @param dir temporary directory
+     * @throws IOException if the table cannot be saved or loaded
+     */
+    @Test
+    public void savesAndLoads(@TempDir File dir) throws IOException {
+        File file;
+        RetrogradeSolver loaded;
+
+        file = new File(dir, "ranked.bin");
+        ranked.save(file);
+        loaded = RetrogradeSolver.load(file);
+
+        assertEquals(ranked.getNumPositions(), loaded.getNumPositions());
+
+        for (int value = RetrogradeSolver.UNKNOWN; value <= RetrogradeSolver.DRAW; value++) {
+            assertEquals(ranked.getCount(value), loaded.getCount(value));
+        }
+
+        assertEquals(RetrogradeSolver.DRAW, loaded.getValue(new Board(), Board.COMPUTER_TOKEN));
+        assertEquals(9, loaded.getDistance(new Board(), Board.COMPUTER_TOKEN));
+    }
+
+    /**
+     * Checks the given position and those reachable from it against the full minimax agent
+     *
+     * @param minimax full minimax agent
+     * @param b current board (restored before returning)
+     * @param toMove token of the player to move
+     * @param seen positions already checked
+     */
+    private static void checkPositions(AgentLevel2 minimax, Board b, char toMove, HashSet<Integer> seen) {
+        if (b.isGameOver() || !seen.add(b.getKey() * 2 + (toMove == Board.COMPUTER_TOKEN ? 1 : 0))) {
+            return;
+        }
+
+        int score;                  // minimax value, from the point of view of the player to move
+        int expected;
+
+        score = minimax.evalBestMove(new Board(b), toMove == Board.COMPUTER_TOKEN, 0).getEvalScore();
+        score = toMove == Board.COMPUTER_TOKEN ? score : -score;
+        expected = score > 0 ? RetrogradeSolver.WIN : score < 0 ? RetrogradeSolver.LOSS : RetrogradeSolver.DRAW;
+
+        assertEquals(expected, base3.getValue(b, toMove), b.getConfig() + ", " + toMove + " to move");
+        assertEquals(expected, ranked.getValue(b, toMove), b.getConfig() + ", " + toMove + " to move");
+
+        for (Coordinates move : b.getPossibleMoves()) {
+            b.push(move.getRow(), move.getCol(), toMove);
+            checkPositions(minimax, b, toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN : Board.COMPUTER_TOKEN, seen);
+            b.pop();
+        }
+    }
+
+    /**
+     * Checks the given position and those reachable from it across the indexers
+     *
+     * @param b current board (restored before returning)
+     * @param toMove token of the player to move
+     */
+    private static void checkIndexers(Board b, char toMove) {
+        if (b.isGameOver()) {
+            return;
+        }
+
+        assertEquals(base3.getValue(b, toMove), ranked.getValue(b, toMove), b.getConfig());
+        assertEquals(base3.getDistance(b, toMove), ranked.getDistance(b, toMove), b.getConfig());
+        assertTrue(base3.getDistance(b, toMove) <= b.getNumEmpty(), b.getConfig());
+
+        for (Coordinates move : b.getPossibleMoves()) {
+            b.push(move.getRow(), move.getCol(), toMove);
+            checkIndexers(b, toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN : Board.COMPUTER_TOKEN);
+            b.pop();
+        }
+    }
+}
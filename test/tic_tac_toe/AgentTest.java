@@ -0,0 +1,158 @@
+package tic_tac_toe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import util.Coordinates;
+import util.Evaluation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the <b>multi-PV analysis</b> of the agents, against an exhaustive ranking that searches
+ * every move on its own with the full window
+ *
+ * <p>The reference evaluation of a move is that of a search without pruning for levels 2 to 4 (level 2
+ * standing in for level 3, whose values it shares), and that of a full-window search for level 5: since
+ * level 5 adjusts its interim minimax values by the depth, its pruning may evaluate a move differently
+ * from level 4 even with the full window, so level 4 is not a reference for it. </p>
+ */
+public class AgentTest {
+    /* Numbers of best moves requested of every position */
+    private static final int[] NUM_MOVES = {1, 2, 9};
+
+    /**
+     * Checks that, for every position reachable with the agent to move, the best moves are those of an
+     * exhaustive ranking, with the same numerical evaluations, and with ties in row-major order
+     *
+     * @param intelligence level of intelligence of the agent
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4, 5})
+    public void ranksMovesExactly(int intelligence) {
+        Agent agent;
+        HashSet<Integer> seen;
+
+        agent = GameMaster.createAgent(intelligence);
+        seen = new HashSet<Integer>();
+
+        checkPositions(intelligence, agent, new Board(), Board.COMPUTER_TOKEN, seen);
+        checkPositions(intelligence, agent, new Board(), Board.HUMAN_TOKEN, seen);
+
+        assertEquals(4520, seen.size());
+    }
+
+    /**
+     * Checks the ranking of level 5 on a position in which pruning with depth-adjusted bounds would miss
+     * the second-best move (the bound of the worst of the best moves cutting off (2, 2))
+     */
+    @Test
+    public void ranksLevel5SecondBest() {
+        ArrayList<Evaluation> ranked;
+        ranked = new AgentLevel5().evalBestMoves(new Board("H**|***|***"), 2);
+
+        assertEquals(2, ranked.size());
+        assertEquals("1 1", ranked.get(0).getCoor().toString());
+        assertEquals(4, ranked.get(0).getEvalScore());
+        assertEquals("2 2", ranked.get(1).getCoor().toString());
+        assertEquals(-96, ranked.get(1).getEvalScore());
+    }
+
+    /**
+     * Checks that a number of moves less than 1 is rejected
+     */
+    @Test
+    public void rejectsInvalidNumMoves() {
+        assertThrows(IllegalArgumentException.class, () -> new AgentLevel3().evalBestMoves(new Board(), 0));
+        assertThrows(IllegalArgumentException.class, () -> new AgentLevel0().evalBestMoves(new Board(), 0));
+    }
+
+    /**
+     * Checks the ranking of the given position and those reachable from it
+     *
+     * @param intelligence level of intelligence of the agent
+     * @param agent agent under test
+     * @param b current board (restored before returning)
+     * @param toMove token of the player to move
+     * @param seen boards already checked
+     */
+    private static void checkPositions(int intelligence, Agent agent, Board b, char toMove, HashSet<Integer> seen) {
+        if (b.isGameOver()) {
+            return;
+        }
+
+        if (toMove == Board.COMPUTER_TOKEN && seen.add(b.getKey())) {
+            ArrayList<Evaluation> expected;
+            expected = rankExhaustively(intelligence, b);
+
+            /* Ranking a single move amounts to the search of evalBestMove, except for level 5, whose
+            ranking searches every move with the full window.
+             */
+            if (intelligence != 5) {
+                assertEquals(agent.evalBestMove(new Board(b)).getCoor().toString(),
+                        agent.evalBestMoves(new Board(b), 1).get(0).getCoor().toString(), b.getConfig());
+            }
+
+            for (int numMoves : NUM_MOVES) {
+                ArrayList<Evaluation> ranked;
+                ranked = agent.evalBestMoves(new Board(b), numMoves);
+
+                assertEquals(Math.min(numMoves, expected.size()), ranked.size(), b.getConfig());
+
+                for (int i = 0; i < ranked.size(); i++) {
+                    assertEquals(expected.get(i).getCoor().toString(), ranked.get(i).getCoor().toString(),
+                            b.getConfig() + ", move " + i + " of " + numMoves);
+                    assertEquals(expected.get(i).getEvalScore(), ranked.get(i).getEvalScore(),
+                            b.getConfig() + ", move " + i + " of " + numMoves);
+                }
+            }
+        }
+
+        for (Coordinates move : b.getPossibleMoves()) {
+            b.push(move.getRow(), move.getCol(), toMove);
+            checkPositions(intelligence, agent, b, toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN
+                    : Board.COMPUTER_TOKEN, seen);
+            b.pop();
+        }
+    }
+
+    /**
+     * Ranks every move of the agent on the given board by searching the board following it on its own
+     *
+     * @param intelligence level of intelligence of the agent
+     * @param b current board (left unchanged)
+     * @return every move, ranked from best to worst (ties in row-major order)
+     */
+    private static ArrayList<Evaluation> rankExhaustively(int intelligence, Board b) {
+        ArrayList<Evaluation> ranked;
+        ranked = new ArrayList<Evaluation>();
+
+        for (Coordinates move : b.getPossibleMoves()) {
+            Board next;
+            int score;
+
+            next = new Board(b);
+            next.push(move.getRow(), move.getCol(), Board.COMPUTER_TOKEN);
+
+            if (intelligence <= 3) {
+                score = new AgentLevel2().evalBestMove(next, false, 1).getEvalScore();
+            } else if (intelligence == 4) {
+                score = new AgentLevel4().evalBestMove(next, false, 1).getEvalScore();
+            } else {
+                score = new AgentLevel5().evalBestMove(next, false, 1, AgentLevel5.NEG_INFTY, AgentLevel5.POS_INFTY)
+                        .getEvalScore();
+            }
+
+            ranked.add(new Evaluation(score, move));
+        }
+
+        /* The sort is stable, so moves with the same numerical evaluation stay in row-major order. */
+        ranked.sort(Comparator.comparingInt(Evaluation::getEvalScore).reversed());
+        return ranked;
+    }
+}
@@ -0,0 +1,229 @@
+package tic_tac_toe;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the <b>board</b>: the state it maintains incrementally (key, number of unoccupied tiles,
+ * and completed lanes) is checked against the state of a board rebuilt from scratch
+ */
+public class BoardTest {
+    /* Number of positions reachable from the empty board, with a given player moving first */
+    private static final int NUM_REACHABLE = 5478;
+
+    /* Tiles of every lane (in row-major order): the rows, the columns, and the two diagonals */
+    private static final int[][] LANES = {
+            {0, 1, 2}, {3, 4, 5}, {6, 7, 8},
+            {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+            {0, 4, 8}, {2, 4, 6}
+    };
+
+    /**
+     * Checks every position reachable with <code>push</code> and <code>pop</code>, with either player
+     * moving first, and every position obtained from it by erasing or overwriting a token with
+     * <code>makeMove</code>
+     */
+    @Test
+    public void matchesRebuiltBoard() {
+        assertEquals(NUM_REACHABLE, walk(new Board(), Board.COMPUTER_TOKEN, new boolean[19683]));
+        assertEquals(NUM_REACHABLE, walk(new Board(), Board.HUMAN_TOKEN, new boolean[19683]));
+    }
+
+    /**
+     * Checks that the moves are popped in the reverse order in which they were pushed, and that the
+     * tokens of the initial configuration are not part of the history
+     */
+    @Test
+    public void popsMovesInReverseOrder() {
+        Board b;
+        b = new Board("***|*H*|***");
+
+        assertEquals(0, b.getNumMoves());
+        assertNull(b.getLastMove());
+        assertThrows(IllegalStateException.class, b::pop);
+
+        b.push(0, 0, Board.COMPUTER_TOKEN);
+        b.push(2, 2, Board.HUMAN_TOKEN);
+
+        assertEquals(2, b.getNumMoves());
+        assertEquals("2 2", b.getLastMove().toString());
+
+        b.pop();
+        assertEquals("0 0", b.getLastMove().toString());
+
+        b.pop();
+        assertEquals("***|*H*|***", b.getConfig());
+        assertThrows(IllegalStateException.class, b::pop);
+    }
+
+    /**
+     * Checks that erasing a token with <code>makeMove</code> removes its move from the middle of the
+     * history, and that overwriting a token leaves the history unchanged
+     */
+    @Test
+    public void erasesMoveFromHistory() {
+        Board b;
+        b = new Board();
+
+        b.makeMove(0, 0, Board.COMPUTER_TOKEN);
+        b.makeMove(1, 1, Board.HUMAN_TOKEN);
+        b.makeMove(2, 2, Board.COMPUTER_TOKEN);
+        b.makeMove(1, 1, Board.EMPTY_TOKEN);
+
+        assertEquals(2, b.getNumMoves());
+        assertEquals("0 0", b.getMove(0).toString());
+        assertEquals("2 2", b.getMove(1).toString());
+
+        b.makeMove(0, 0, Board.HUMAN_TOKEN);
+        assertEquals(2, b.getNumMoves());
+
+        b.pop();
+        assertEquals("H**|***|***", b.getConfig());
+
+        b.pop();
+        assertEquals(0, b.getNumMoves());
+        assertTrue(b.isEmpty());
+    }
+
+    /**
+     * Checks the given position and every position reachable from it, with the given player to move,
+     * that has not yet been checked
+     *
+     * @param b current board (restored before returning)
+     * @param toMove token of the player to move
+     * @param isVisited <code>true</code> for the key of every position already checked
+     * @return number of positions checked
+     */
+    private static int walk(Board b, char toMove, boolean[] isVisited) {
+        if (isVisited[b.getKey()]) {
+            return 0;
+        }
+
+        int numPositions;
+        numPositions = 1;
+        isVisited[b.getKey()] = true;
+
+        assertMatches(b);
+
+        /* The edits reorder the history, so they are made on a copy. */
+        checkEdits(new Board(b));
+
+        if (b.isGameOver()) {
+            return numPositions;
+        }
+
+        for (int i = 0; i < Board.DIMENSION; i++) {
+            for (int j = 0; j < Board.DIMENSION; j++) {
+                if (!b.isOccupied(i, j)) {
+                    b.push(i, j, toMove);
+                    numPositions += walk(b, toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN
+                            : Board.COMPUTER_TOKEN, isVisited);
+                    b.pop();
+
+                    assertEquals(Board.EMPTY_TOKEN, b.getToken(i, j));
+                }
+            }
+        }
+
+        return numPositions;
+    }
+
+    /**
+     * Erases and overwrites every token of the given position with <code>makeMove</code>, checking the
+     * board after every edit, and puts the token back
+     *
+     * @param b board to be edited (restored before returning, except for the order of its history)
+     */
+    private static void checkEdits(Board b) {
+        for (int i = 0; i < Board.DIMENSION; i++) {
+            for (int j = 0; j < Board.DIMENSION; j++) {
+                char token;
+                token = b.getToken(i, j);
+
+                if (token == Board.EMPTY_TOKEN) {
+                    continue;
+                }
+
+                /* Erase the token, which also removes its move from the history. */
+                b.makeMove(i, j, Board.EMPTY_TOKEN);
+                assertMatches(b);
+
+                b.makeMove(i, j, token);
+                assertMatches(b);
+
+                /* Overwrite the token with that of the other player, then put it back. */
+                b.makeMove(i, j, token == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN : Board.COMPUTER_TOKEN);
+                assertMatches(b);
+
+                b.makeMove(i, j, token);
+                assertMatches(b);
+            }
+        }
+    }
+
+    /**
+     * Asserts that the incremental state of the given board matches that of a board rebuilt from its
+     * configuration, and that of a scan of the configuration itself
+     *
+     * @param b board under test
+     */
+    private static void assertMatches(Board b) {
+        String config;
+        Board rebuilt;
+        int key;                    // key of the configuration, read as a base-3 number
+        int numEmpty;               // number of unoccupied tiles of the configuration
+        String tiles;               // tiles of the configuration, in row-major order
+
+        config = b.getConfig();
+        rebuilt = new Board(config);
+
+        assertEquals(rebuilt.getKey(), b.getKey(), config);
+        assertEquals(rebuilt.getNumEmpty(), b.getNumEmpty(), config);
+        assertEquals(rebuilt.isWin(Board.COMPUTER_TOKEN), b.isWin(Board.COMPUTER_TOKEN), config);
+        assertEquals(rebuilt.isWin(Board.HUMAN_TOKEN), b.isWin(Board.HUMAN_TOKEN), config);
+        assertEquals(rebuilt.isDraw(), b.isDraw(), config);
+        assertEquals(rebuilt.isGameOver(), b.isGameOver(), config);
+
+        /* The rebuilt board is itself built incrementally, so the configuration is also scanned. */
+        tiles = config.replace("|", "");
+        key = 0;
+        numEmpty = 0;
+
+        for (int k = 0; k < tiles.length(); k++) {
+            key = key * 3 + (tiles.charAt(k) == Board.HUMAN_TOKEN ? 1 : tiles.charAt(k) == Board.COMPUTER_TOKEN ? 2 : 0);
+
+            if (tiles.charAt(k) == Board.EMPTY_TOKEN) {
+                numEmpty++;
+            }
+        }
+
+        assertEquals(key, b.getKey(), config);
+        assertEquals(numEmpty, b.getNumEmpty(), config);
+        assertEquals(hasLane(tiles, Board.COMPUTER_TOKEN), b.isWin(Board.COMPUTER_TOKEN), config);
+        assertEquals(hasLane(tiles, Board.HUMAN_TOKEN), b.isWin(Board.HUMAN_TOKEN), config);
+        assertEquals(numEmpty == 0 && !hasLane(tiles, Board.COMPUTER_TOKEN) && !hasLane(tiles, Board.HUMAN_TOKEN),
+                b.isDraw(), config);
+    }
+
+    /**
+     * Returns <code>true</code> if the given player occupies a whole lane of the given tiles;
+     * <code>false</code>, otherwise
+     *
+     * @param tiles tiles of a configuration, in row-major order
+     * @param token character code of the player
+     * @return <code>true</code> if the given player occupies a whole lane; <code>false</code>, otherwise
+     */
+    private static boolean hasLane(String tiles, char token) {
+        for (int[] lane : LANES) {
+            if (tiles.charAt(lane[0]) == token && tiles.charAt(lane[1]) == token && tiles.charAt(lane[2]) == token) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
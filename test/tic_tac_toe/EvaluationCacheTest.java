@@ -0,0 +1,198 @@
+package tic_tac_toe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import util.Coordinates;
+import util.Evaluation;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the <b>evaluation cache</b>: eviction order under both policies, and equivalence of the
+ * cached decisions with the agents' own searches
+ */
+public class EvaluationCacheTest {
+    /* Level of intelligence under which the eviction tests cache their entries */
+    private static final int LEVEL = 3;
+
+    /* Boards used as the keys of the eviction tests (none symmetric to another) */
+    private static final Board A = new Board("C**|***|***");
+    private static final Board B = new Board("*C*|***|***");
+    private static final Board C = new Board("***|*C*|***");
+    private static final Board D = new Board("C**|*H*|***");
+
+    /**
+     * Checks that the least recently used entry is evicted, a lookup counting as a use
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        EvaluationCache cache;
+        cache = new EvaluationCache(2, EvaluationCache.LRU);
+
+        put(cache, A);
+        put(cache, B);
+        assertNotNull(cache.get(LEVEL, A));
+
+        /* B is now the least recently used entry. */
+        put(cache, C);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getNumEvictions());
+        assertNull(cache.get(LEVEL, B));
+        assertNotNull(cache.get(LEVEL, A));
+        assertNotNull(cache.get(LEVEL, C));
+        assertEquals(3, cache.getNumHits());
+        assertEquals(1, cache.getNumMisses());
+    }
+
+    /**
+     * Checks that the least frequently used entry is evicted, ties being broken by recency
+     */
+    @Test
+    public void evictsLeastFrequentlyUsed() {
+        EvaluationCache cache;
+        cache = new EvaluationCache(2, EvaluationCache.LFU);
+
+        put(cache, A);
+        put(cache, B);
+        cache.get(LEVEL, A);
+        cache.get(LEVEL, A);
+        cache.get(LEVEL, B);
+
+        /* A has been used 3 times and B twice. */
+        put(cache, C);
+        assertNull(cache.get(LEVEL, B));
+
+        /* A and C have both been used 3 times, A least recently. */
+        cache.get(LEVEL, C);
+        cache.get(LEVEL, C);
+        put(cache, D);
+
+        assertEquals(2, cache.getNumEvictions());
+        assertNull(cache.get(LEVEL, A));
+        assertNotNull(cache.get(LEVEL, C));
+        assertNotNull(cache.get(LEVEL, D));
+    }
+
+    /**
+     * Checks that the entries are distinguished by level of intelligence and by exact position, even
+     * between symmetric positions
+     */
+    @Test
+    public void keysExactly() {
+        EvaluationCache cache;
+        cache = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, EvaluationCache.LRU);
+
+        put(cache, A);
+
+        assertNull(cache.get(LEVEL + 1, A));
+        assertNull(cache.get(LEVEL, new Board("**C|***|***")));
+        assertNotNull(cache.get(LEVEL, A));
+    }
+
+    /**
+     * Checks that an invalid capacity or eviction policy is rejected
+     */
+    @Test
+    public void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationCache(0, EvaluationCache.LRU));
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationCache(-1, EvaluationCache.LFU));
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationCache(1, 2));
+    }
+
+    /**
+     * Checks that, for every position reachable with the agent to move, the cached decision is the
+     * move and numerical evaluation of the agent's own search
+     *
+     * @param intelligence level of intelligence of the agent
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4, 5})
+    public void matchesSearch(int intelligence) {
+        EvaluationCache cache;
+        Agent agent;
+        HashSet<Integer> seen;
+
+        /* There is room for every board key (3^9), so nothing is evicted. */
+        cache = new EvaluationCache(19683, EvaluationCache.LRU);
+        agent = GameMaster.createAgent(intelligence);
+        seen = new HashSet<Integer>();
+
+        /* Cache every decision, and then look each of them up against a fresh search. */
+        for (boolean isFilling : new boolean[] {true, false}) {
+            seen.clear();
+            checkPositions(cache, intelligence, agent, new Board(), Board.COMPUTER_TOKEN, seen, isFilling);
+            checkPositions(cache, intelligence, agent, new Board(), Board.HUMAN_TOKEN, seen, isFilling);
+        }
+
+        assertEquals(0, cache.getNumEvictions());
+        assertEquals(seen.size(), cache.getNumHits());
+    }
+
+    /**
+     * Caches or checks the decisions of the agent for the given position and those reachable from it
+     *
+     * @param cache cache under test
+     * @param intelligence level of intelligence of the agent
+     * @param agent agent of the given level of intelligence
+     * @param b current board (restored before returning)
+     * @param toMove token of the player to move
+     * @param seen boards already visited
+     * @param isFilling <code>true</code> to cache the decisions; <code>false</code> to check them
+     */
+    private static void checkPositions(EvaluationCache cache, int intelligence, Agent agent, Board b, char toMove,
+                                       HashSet<Integer> seen, boolean isFilling) {
+        if (b.isGameOver()) {
+            return;
+        }
+
+        if (toMove == Board.COMPUTER_TOKEN && seen.add(b.getKey())) {
+            Evaluation searched;
+            searched = agent.evalBestMove(new Board(b));
+
+            if (isFilling) {
+                cache.put(intelligence, b, searched);
+            } else {
+                assertSameDecision(searched, cache.get(intelligence, b), b);
+            }
+        }
+
+        for (Coordinates move : b.getPossibleMoves()) {
+            b.push(move.getRow(), move.getCol(), toMove);
+            checkPositions(cache, intelligence, agent, b, toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN
+                    : Board.COMPUTER_TOKEN, seen, isFilling);
+            b.pop();
+        }
+    }
+
+    /**
+     * Asserts that a looked-up decision is that of a search
+     *
+     * @param searched decision of the search
+     * @param lookedUp decision looked up
+     * @param b board of the decisions
+     */
+    private static void assertSameDecision(Evaluation searched, Evaluation lookedUp, Board b) {
+        assertNotNull(lookedUp, b.getConfig());
+        assertEquals(searched.getCoor().toString(), lookedUp.getCoor().toString(), b.getConfig());
+        assertEquals(searched.getEvalScore(), lookedUp.getEvalScore(), b.getConfig());
+        assertEquals(searched.getOutcome(), lookedUp.getOutcome(), b.getConfig());
+        assertEquals(searched.getDistance(), lookedUp.getDistance(), b.getConfig());
+    }
+
+    /**
+     * Caches a placeholder decision for the given board
+     *
+     * @param cache cache under test
+     * @param b board of the decision
+     */
+    private static void put(EvaluationCache cache, Board b) {
+        cache.put(LEVEL, b, new Evaluation(0, new Coordinates(2, 2), Evaluation.DRAW, 8));
+    }
+}
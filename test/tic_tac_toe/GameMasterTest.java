@@ -0,0 +1,128 @@
+package tic_tac_toe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the <b>game master</b>
+ */
+public class GameMasterTest {
+    /**
+     * Checks that a search of an interruptible agent interrupted in its midst stops and restores the
+     * board of the game, which it searches in place
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void restoresBoardAfterInterruptedSearch() throws InterruptedException {
+        GameMaster game;
+        Thread searcher;            // thread searching the empty board (about 550,000 nodes)
+        Thread interrupter;         // thread interrupting the search once it is well under way
+
+        game = new GameMaster();
+        game.setAgent(2);
+        game.setIsUsingBook(false);
+        game.setInterruptible(true);
+
+        searcher = Thread.currentThread();
+        interrupter = new Thread(() -> {
+            while (game.getLatestStats().getNumNodes() < 10000) {
+                Thread.onSpinWait();
+            }
+
+            searcher.interrupt();
+        });
+        interrupter.start();
+
+        try {
+            assertThrows(CancellationException.class, game::evalBestMove);
+        } finally {
+            interrupter.join();
+            Thread.interrupted();
+        }
+
+        /* The search stopped midway, and the board it searched in place has no move left on it. */
+        assertTrue(game.getLatestStats().getNumNodes() < 549946);
+        assertNull(game.getLastMove());
+        for (int i = 0; i < Board.DIMENSION; i++) {
+            for (int j = 0; j < Board.DIMENSION; j++) {
+                assertFalse(game.isOccupied(i, j));
+            }
+        }
+
+        /* The board is fit for the next search. */
+        assertEquals(0, game.evalBestMove().getEvalScore());
+        assertEquals("***|***|***", game.getBoardConfig());
+    }
+
+    /**
+     * Checks that the moves are taken back in reverse order down to an empty history, after which
+     * <code>undo</code> returns <code>null</code>, and that the tokens of the initial configuration are
+     * never taken back
+     */
+    @Test
+    public void undoesToEmptyHistory() {
+        GameMaster game;
+        game = new GameMaster("***|***|**C");
+
+        game.makeMove(1, 1, Board.HUMAN_TOKEN);
+        game.makeMove(0, 0, Board.COMPUTER_TOKEN);
+
+        assertEquals("0 0", game.undo().toString());
+        assertEquals("1 1", game.undo().toString());
+        assertNull(game.undo());
+        assertNull(game.getLastMove());
+        assertEquals("***|***|**C", game.getBoardConfig());
+    }
+
+    /**
+     * Checks that no move is taken back once the game has reached its terminal state
+     */
+    @Test
+    public void refusesUndoAfterGameOver() {
+        GameMaster game;
+        game = new GameMaster();
+
+        game.makeMove(0, 0, Board.COMPUTER_TOKEN);
+        game.makeMove(1, 1, Board.HUMAN_TOKEN);
+        game.makeMove(0, 1, Board.COMPUTER_TOKEN);
+        game.makeMove(2, 2, Board.HUMAN_TOKEN);
+        game.makeMove(0, 2, Board.COMPUTER_TOKEN);
+
+        assertTrue(game.isAgentWin());
+        assertNull(game.undo());
+        assertEquals("CCC|*H*|**H", game.getBoardConfig());
+        assertEquals("0 2", game.getLastMove().toString());
+    }
+
+    /**
+     * Checks that the moves taken back are made again in the order in which they were made, and that
+     * they can no longer be made again once a new move has been made
+     */
+    @Test
+    public void stopsRedoAfterNewMove() {
+        GameMaster game;
+        game = new GameMaster();
+
+        game.makeMove(0, 0, Board.COMPUTER_TOKEN);
+        game.makeMove(1, 1, Board.HUMAN_TOKEN);
+        game.makeMove(0, 1, Board.COMPUTER_TOKEN);
+        game.undo();
+        game.undo();
+
+        assertEquals("1 1", game.redo().toString());
+        assertEquals("C**|*H*|***", game.getBoardConfig());
+
+        game.makeMove(2, 2, Board.COMPUTER_TOKEN);
+
+        assertNull(game.redo());
+        assertEquals("C**|*H*|**C", game.getBoardConfig());
+    }
+}
@@ -0,0 +1,101 @@
+package tic_tac_toe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import util.Coordinates;
+import util.Evaluation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tests of the shipped <b>opening book</b> against the agents' own searches
+ */
+public class OpeningBookTest {
+    /* Number of positions with the agent to move within the first two moves: the empty board, and
+    the 9 replies to each of the 9 first moves of the human player
+     */
+    private static final int NUM_POSITIONS = 1 + 9 * 8 + 9;
+
+    /**
+     * Checks that the book covers every position with the agent to move within its moves, and that
+     * every stored decision is the move and numerical evaluation of the agent's own search
+     *
+     * @param intelligence level of intelligence of the agent
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4, 5})
+    public void matchesSearch(int intelligence) {
+        int numHits;
+        numHits = checkPositions(OpeningBook.getDefault(), intelligence, GameMaster.createAgent(intelligence),
+                new Board(), Board.COMPUTER_TOKEN, 0) + checkPositions(OpeningBook.getDefault(), intelligence,
+                GameMaster.createAgent(intelligence), new Board(), Board.HUMAN_TOKEN, 0);
+
+        assertEquals(NUM_POSITIONS, numHits);
+    }
+
+    /**
+     * Checks that modifying the coordinates of a looked-up decision leaves the stored decision, which
+     * is shared by every game master of the process, unchanged
+     */
+    @Test
+    public void returnsCopyOfStoredMove() {
+        Board b;
+        Evaluation stored;
+        String move;                // coordinates of the stored move before modifying the returned ones
+
+        b = new Board();
+        stored = OpeningBook.getDefault().lookup(5, b);
+        move = stored.getCoor().toString();
+
+        stored.getCoor().setRowCol(-1, -1);
+
+        assertEquals(move, OpeningBook.getDefault().lookup(5, b).getCoor().toString());
+    }
+
+    /**
+     * Checks the stored decisions for the given position and those reachable from it within the moves
+     * of the book
+     *
+     * @param book book under test
+     * @param intelligence level of intelligence of the agent
+     * @param agent agent of the given level of intelligence
+     * @param b current board (restored before returning)
+     * @param toMove token of the player to move
+     * @param ply number of moves made so far
+     * @return number of positions checked
+     */
+    private static int checkPositions(OpeningBook book, int intelligence, Agent agent, Board b, char toMove, int ply) {
+        if (ply > OpeningBook.DEFAULT_MAX_PLY || b.isGameOver()) {
+            return 0;
+        }
+
+        int numHits;
+        numHits = 0;
+
+        if (toMove == Board.COMPUTER_TOKEN) {
+            Evaluation searched;
+            Evaluation stored;
+
+            searched = agent.evalBestMove(new Board(b));
+            stored = book.lookup(intelligence, b);
+
+            assertNotNull(stored, b.getConfig());
+            assertEquals(searched.getCoor().toString(), stored.getCoor().toString(), b.getConfig());
+            assertEquals(searched.getEvalScore(), stored.getEvalScore(), b.getConfig());
+            assertEquals(searched.getOutcome(), stored.getOutcome(), b.getConfig());
+            assertEquals(searched.getDistance(), stored.getDistance(), b.getConfig());
+            numHits++;
+        }
+
+        for (Coordinates move : b.getPossibleMoves()) {
+            b.push(move.getRow(), move.getCol(), toMove);
+            numHits += checkPositions(book, intelligence, agent, b, toMove == Board.COMPUTER_TOKEN ? Board.HUMAN_TOKEN
+                    : Board.COMPUTER_TOKEN, ply + 1);
+            b.pop();
+        }
+
+        return numHits;
+    }
+}